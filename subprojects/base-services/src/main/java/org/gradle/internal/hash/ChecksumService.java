@@ -27,4 +27,10 @@ public interface ChecksumService {
     HashCode sha512(File file);
 
     HashCode hash(File src, String algorithm);
+
+    /**
+     * Records the checksum of a file which has been computed while writing it, so that the file does not need to be read again to hash it.
+     */
+    default void recordChecksum(File file, String algorithm, HashCode checksum) {
+    }
 }
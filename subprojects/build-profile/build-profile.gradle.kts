@@ -28,6 +28,7 @@ dependencies {
     implementation(project(":buildOption"))
 
     implementation(libs.guava)
+    implementation(libs.gson)
 
     testImplementation(project(":internalTesting"))
 
@@ -22,6 +22,7 @@
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,7 @@ public class BuildProfile {
     private final Map<String, ProjectProfile> projects = new LinkedHashMap<String, ProjectProfile>();
     private final Map<String, ContinuousOperation> dependencySets = new LinkedHashMap<String, ContinuousOperation>();
     private final Map<String, FragmentedOperation> transformations = Maps.newLinkedHashMap();
+    private final Map<List<String>, ConfigurationContribution> configurationContributions = Maps.newLinkedHashMap();
     private long profilingStarted;
     private long buildStarted;
     private long settingsEvaluated;
@@ -152,6 +154,42 @@ public CompositeOperation<FragmentedOperation> getTransformations() {
         return new CompositeOperation<FragmentedOperation>(profiles);
     }
 
+    public ConfigurationContribution getConfigurationContribution(String kind, String name, String target) {
+        List<String> key = Arrays.asList(kind, name, target);
+        ConfigurationContribution contribution = configurationContributions.get(key);
+        if (contribution == null) {
+            contribution = new ConfigurationContribution(kind, name, target);
+            configurationContributions.put(key, contribution);
+        }
+        return contribution;
+    }
+
+    /**
+     * Get the configuration contributions per configured project or object, costliest first.
+     */
+    public CompositeOperation<ConfigurationContribution> getConfigurationContributions() {
+        List<ConfigurationContribution> contributions = CollectionUtils.sort(configurationContributions.values(), ConfigurationContribution.costliestFirst());
+        return new CompositeOperation<ConfigurationContribution>(contributions);
+    }
+
+    /**
+     * Get the configuration contributions summed over all configured projects and objects, costliest first.
+     */
+    public CompositeOperation<ConfigurationContribution> getConfigurationContributors() {
+        Map<List<String>, ConfigurationContribution> contributors = Maps.newLinkedHashMap();
+        for (ConfigurationContribution contribution : configurationContributions.values()) {
+            List<String> key = Arrays.asList(contribution.getKind(), contribution.getName());
+            ConfigurationContribution contributor = contributors.get(key);
+            if (contributor == null) {
+                contributor = new ConfigurationContribution(contribution.getKind(), contribution.getName(), "all");
+                contributors.put(key, contributor);
+            }
+            contributor.add(contribution);
+        }
+        List<ConfigurationContribution> sorted = CollectionUtils.sort(contributors.values(), ConfigurationContribution.costliestFirst());
+        return new CompositeOperation<ConfigurationContribution>(sorted);
+    }
+
     /**
      * Should be set with a time as soon as possible after startup.
      */
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The configuration time and allocations attributed to one plugin, script, callback or task realization,
+ * excluding what was attributed to the plugins, scripts, callbacks and task realizations nested in it.
+ */
+public class ConfigurationContribution extends Operation {
+    private final String kind;
+    private final String name;
+    private final String target;
+    private long elapsedNanos;
+    private long allocatedBytes;
+    private int count;
+
+    public ConfigurationContribution(String kind, String name, String target) {
+        this.kind = kind;
+        this.name = name;
+        this.target = target;
+    }
+
+    /**
+     * Adds the cost of one more invocation of this contribution.
+     *
+     * @param allocatedBytes the bytes allocated, or -1 when they could not be measured
+     */
+    public void add(long elapsedNanos, long allocatedBytes) {
+        this.elapsedNanos += elapsedNanos;
+        if (allocatedBytes > 0) {
+            this.allocatedBytes += allocatedBytes;
+        }
+        count++;
+    }
+
+    /**
+     * Adds the costs of another contribution to this one.
+     */
+    public void add(ConfigurationContribution other) {
+        elapsedNanos += other.elapsedNanos;
+        allocatedBytes += other.allocatedBytes;
+        count += other.count;
+    }
+
+    /**
+     * The kind of contribution, one of "Plugin", "Script", "Callback" or "Task realization".
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * The plugin id or class, the script, the owner of the callback or the name of the realized task.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The path of the configured project, or the type of the configured object when it is not a project.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * The number of times this contribution was invoked.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getElapsedTime() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String getDescription() {
+        return kind + " " + name + " on " + target;
+    }
+
+    /**
+     * @return comparator that compares contributions, costliest first, then alphabetically
+     */
+    public static Comparator<ConfigurationContribution> costliestFirst() {
+        return new Comparator<ConfigurationContribution>() {
+            @Override
+            public int compare(ConfigurationContribution c1, ConfigurationContribution c2) {
+                int byElapsedTime = Long.compare(c2.elapsedNanos, c1.elapsedNanos);
+                if (byElapsedTime != 0) {
+                    return byElapsedTime;
+                }
+                return c1.getDescription().compareTo(c2.getDescription());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
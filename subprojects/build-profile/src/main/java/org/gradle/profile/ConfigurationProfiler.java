@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType;
+import org.gradle.api.internal.tasks.RealizeTaskBuildOperationType;
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType;
+import org.gradle.configuration.internal.ExecuteListenerBuildOperationType;
+import org.gradle.execution.taskgraph.NotifyTaskGraphWhenReadyBuildOperationType;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attributes configuration time and allocations of a build to the plugins and scripts applied,
+ * the callbacks they registered and the tasks realized.
+ *
+ * <p>Each build operation applying a plugin or script, executing a callback or realizing a task is charged
+ * its own cost, excluding the cost of such build operations nested in it. Callbacks are charged
+ * to the plugin or script that registered them, through the user code application id of the build operations.</p>
+ *
+ * <p>Only the configuration phase is profiled: build operations started after the task graph ready callbacks of the build
+ * have run, such as callbacks and task realizations during task execution, are ignored.</p>
+ */
+public class ConfigurationProfiler implements BuildOperationListener {
+    private static final String PLUGIN = "Plugin";
+    private static final String SCRIPT = "Script";
+    private static final String CALLBACK = "Callback";
+    private static final String TASK_REALIZATION = "Task realization";
+
+    private final String buildPath;
+    private final BuildProfile buildProfile;
+    @Nullable
+    private final com.sun.management.ThreadMXBean threads;
+    private final Map<OperationIdentifier, Frame> frames = new ConcurrentHashMap<OperationIdentifier, Frame>();
+    private final Map<Long, Owner> owners = new ConcurrentHashMap<Long, Owner>();
+    private volatile boolean configured;
+
+    public ConfigurationProfiler(String buildPath, BuildProfile buildProfile) {
+        this.buildPath = buildPath;
+        this.buildProfile = buildProfile;
+        this.threads = allocationMeasuringThreadMXBean();
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        if (configured) {
+            return;
+        }
+        OperationIdentifier parentId = buildOperation.getParentId();
+        Frame enclosing = parentId == null ? null : frames.get(parentId);
+        Owner owner = ownerOf(buildOperation.getDetails());
+        if (owner != null) {
+            long threadId = Thread.currentThread().getId();
+            frames.put(buildOperation.getId(), new Frame(buildOperation.getId(), owner, enclosing, threadId, System.nanoTime(), allocatedBytes(threadId)));
+        } else if (enclosing != null) {
+            // Keep track of the enclosing frame, so nested contributions are excluded from it
+            frames.put(buildOperation.getId(), enclosing);
+        }
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        Object details = buildOperation.getDetails();
+        if (details instanceof NotifyTaskGraphWhenReadyBuildOperationType.Details && buildPath.equals(((NotifyTaskGraphWhenReadyBuildOperationType.Details) details).getBuildPath())) {
+            configured = true;
+        }
+        Frame frame = frames.remove(buildOperation.getId());
+        if (frame == null || !frame.operationId.equals(buildOperation.getId())) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - frame.startNanos;
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadId == frame.threadId && frame.startAllocatedBytes >= 0
+            ? allocatedBytes(threadId) - frame.startAllocatedBytes
+            : -1;
+        synchronized (this) {
+            long selfAllocatedBytes = allocatedBytes < 0 ? -1 : Math.max(0, allocatedBytes - frame.nestedAllocatedBytes);
+            buildProfile.getConfigurationContribution(frame.owner.kind, frame.owner.name, frame.owner.target)
+                .add(Math.max(0, elapsedNanos - frame.nestedNanos), selfAllocatedBytes);
+            Frame enclosing = frame.enclosing;
+            if (enclosing != null) {
+                enclosing.nestedNanos += elapsedNanos;
+                if (allocatedBytes >= 0 && enclosing.threadId == threadId) {
+                    enclosing.nestedAllocatedBytes += allocatedBytes;
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private Owner ownerOf(@Nullable Object details) {
+        if (details instanceof ApplyPluginBuildOperationType.Details) {
+            ApplyPluginBuildOperationType.Details plugin = (ApplyPluginBuildOperationType.Details) details;
+            if (!buildPath.equals(plugin.getBuildPath())) {
+                return null;
+            }
+            String name = plugin.getPluginId() != null ? plugin.getPluginId() : plugin.getPluginClass().getName();
+            return registered(plugin.getApplicationId(), new Owner(PLUGIN, name, targetOf(plugin.getTargetPath(), plugin.getTargetType())));
+        }
+        if (details instanceof ApplyScriptPluginBuildOperationType.Details) {
+            ApplyScriptPluginBuildOperationType.Details script = (ApplyScriptPluginBuildOperationType.Details) details;
+            if (!buildPath.equals(script.getBuildPath())) {
+                return null;
+            }
+            String name = script.getFile() != null ? script.getFile() : String.valueOf(script.getUri());
+            return registered(script.getApplicationId(), new Owner(SCRIPT, name, targetOf(script.getTargetPath(), script.getTargetType())));
+        }
+        if (details instanceof ExecuteListenerBuildOperationType.Details) {
+            ExecuteListenerBuildOperationType.Details callback = (ExecuteListenerBuildOperationType.Details) details;
+            // Callbacks registered by plugins or scripts of other builds are unknown
+            Owner registeredBy = owners.get(callback.getApplicationId());
+            if (registeredBy == null) {
+                return null;
+            }
+            return new Owner(CALLBACK, registeredBy.name + " (" + callback.getRegistrationPoint() + ")", registeredBy.target);
+        }
+        if (details instanceof RealizeTaskBuildOperationType.Details) {
+            RealizeTaskBuildOperationType.Details task = (RealizeTaskBuildOperationType.Details) details;
+            if (!buildPath.equals(task.getBuildPath())) {
+                return null;
+            }
+            String taskPath = task.getTaskPath();
+            int separator = taskPath.lastIndexOf(':');
+            String projectPath = separator > 0 ? taskPath.substring(0, separator) : ":";
+            return new Owner(TASK_REALIZATION, taskPath.substring(separator + 1), projectPath);
+        }
+        return null;
+    }
+
+    private Owner registered(long applicationId, Owner owner) {
+        owners.put(applicationId, owner);
+        return owner;
+    }
+
+    private static String targetOf(@Nullable String targetPath, @Nullable String targetType) {
+        if (targetPath != null) {
+            return targetPath;
+        }
+        return targetType != null ? targetType : "unknown";
+    }
+
+    private long allocatedBytes(long threadId) {
+        return threads == null ? -1 : threads.getThreadAllocatedBytes(threadId);
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean allocationMeasuringThreadMXBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+            if (hotSpotThreads.isThreadAllocatedMemorySupported() && hotSpotThreads.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotThreads;
+            }
+        }
+        return null;
+    }
+
+    private static class Owner {
+        final String kind;
+        final String name;
+        final String target;
+
+        Owner(String kind, String name, String target) {
+            this.kind = kind;
+            this.name = name;
+            this.target = target;
+        }
+    }
+
+    private static class Frame {
+        final OperationIdentifier operationId;
+        final Owner owner;
+        @Nullable
+        final Frame enclosing;
+        final long threadId;
+        final long startNanos;
+        final long startAllocatedBytes;
+        // Guarded by the profiler
+        long nestedNanos;
+        long nestedAllocatedBytes;
+
+        Frame(OperationIdentifier operationId, Owner owner, @Nullable Frame enclosing, long threadId, long startNanos, long startAllocatedBytes) {
+            this.operationId = operationId;
+            this.owner = owner;
+            this.enclosing = enclosing;
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+    }
+}
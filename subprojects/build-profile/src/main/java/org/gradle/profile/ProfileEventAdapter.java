@@ -23,6 +23,7 @@
 import org.gradle.api.artifacts.DependencyResolutionListener;
 import org.gradle.api.artifacts.ResolvableDependencies;
 import org.gradle.api.initialization.Settings;
+import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.transform.ArtifactTransformListener;
 import org.gradle.api.internal.project.taskfactory.TaskIdentity;
 import org.gradle.api.invocation.Gradle;
@@ -31,6 +32,7 @@
 import org.gradle.initialization.BuildCompletionListener;
 import org.gradle.internal.InternalBuildListener;
 import org.gradle.internal.buildevents.BuildStartedTime;
+import org.gradle.internal.operations.BuildOperationListenerManager;
 import org.gradle.internal.time.Clock;
 
 /**
@@ -40,13 +42,16 @@ public class ProfileEventAdapter implements InternalBuildListener, ProjectEvalua
     private final BuildStartedTime buildStartedTime;
     private final Clock clock;
     private final ProfileListener listener;
+    private final BuildOperationListenerManager buildOperationListenerManager;
     private final ThreadLocal<ContinuousOperation> currentTransformation = new ThreadLocal<ContinuousOperation>();
     private BuildProfile buildProfile;
+    private ConfigurationProfiler configurationProfiler;
 
-    public ProfileEventAdapter(BuildStartedTime buildStartedTime, Clock clock, ProfileListener listener) {
+    public ProfileEventAdapter(BuildStartedTime buildStartedTime, Clock clock, ProfileListener listener, BuildOperationListenerManager buildOperationListenerManager) {
         this.buildStartedTime = buildStartedTime;
         this.clock = clock;
         this.listener = listener;
+        this.buildOperationListenerManager = buildOperationListenerManager;
     }
 
     // BuildListener
@@ -57,6 +62,8 @@ public void buildStarted(Gradle gradle) {
         buildProfile = new BuildProfile(gradle.getStartParameter());
         buildProfile.setBuildStarted(now);
         buildProfile.setProfilingStarted(buildStartedTime.getStartTime());
+        configurationProfiler = new ConfigurationProfiler(((GradleInternal) gradle).getIdentityPath().getPath(), buildProfile);
+        buildOperationListenerManager.addListener(configurationProfiler);
     }
 
     @Override
@@ -81,6 +88,10 @@ public void buildFinished(BuildResult result) {
 
     @Override
     public void completed() {
+        if (configurationProfiler != null) {
+            buildOperationListenerManager.removeListener(configurationProfiler);
+            configurationProfiler = null;
+        }
         if (buildProfile != null) {
             buildProfile.setBuildFinished(clock.getCurrentTime());
             try {
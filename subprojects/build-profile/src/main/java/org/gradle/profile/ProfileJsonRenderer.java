@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import com.google.gson.stream.JsonWriter;
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes the configuration breakdown of a profiled build as JSON, for further sorting and aggregation by other tools.
+ */
+public class ProfileJsonRenderer {
+
+    public void writeTo(BuildProfile buildProfile, File file) {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+                JsonWriter jsonWriter = new JsonWriter(writer);
+                jsonWriter.setIndent("  ");
+                write(buildProfile, jsonWriter);
+                jsonWriter.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write profile report to " + file, e);
+        }
+    }
+
+    private static void write(BuildProfile buildProfile, JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name("build").value(buildProfile.getBuildDescription());
+        jsonWriter.name("buildStarted").value(buildProfile.getBuildStarted());
+        jsonWriter.name("configurationContributions");
+        jsonWriter.beginArray();
+        for (ConfigurationContribution contribution : buildProfile.getConfigurationContributions()) {
+            jsonWriter.beginObject();
+            jsonWriter.name("target").value(contribution.getTarget());
+            jsonWriter.name("kind").value(contribution.getKind());
+            jsonWriter.name("name").value(contribution.getName());
+            jsonWriter.name("count").value(contribution.getCount());
+            jsonWriter.name("elapsedNanos").value(contribution.getElapsedNanos());
+            jsonWriter.name("allocatedBytes").value(contribution.getAllocatedBytes());
+            jsonWriter.endObject();
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+    }
+}
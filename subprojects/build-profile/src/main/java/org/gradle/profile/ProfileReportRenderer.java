@@ -17,6 +17,7 @@
 
 import org.gradle.internal.html.SimpleHtmlWriter;
 import org.gradle.internal.time.TimeFormatting;
+import org.gradle.internal.util.NumberUtil;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
 import org.gradle.reporting.TabbedPageRenderer;
@@ -72,6 +73,7 @@ public void render(BuildProfile model, SimpleHtmlWriter htmlWriter) throws IOExc
                             .startElement("li").startElement("a").attribute("href", "#tab2").characters("Dependency Resolution").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab3").characters("Artifact Transforms").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab4").characters("Task Execution").endElement().endElement()
+                            .startElement("li").startElement("a").attribute("href", "#tab5").characters("Configuration Breakdown").endElement().endElement()
                         .endElement();
                         htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab0");
                             htmlWriter.startElement("h2").characters("Summary").endElement();
@@ -202,10 +204,46 @@ public void render(BuildProfile model, SimpleHtmlWriter htmlWriter) throws IOExc
                                     }
                                 }
                             htmlWriter.endElement()
-                        .endElement()
+                        .endElement();
+                        htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab5");
+                            htmlWriter.startElement("h2").characters("Configuration Breakdown").endElement();
+                            htmlWriter.startElement("h3").characters("By plugin, script and task").endElement();
+                            renderContributions(model.getConfigurationContributors(), false, htmlWriter);
+                            htmlWriter.startElement("h3").characters("By project").endElement();
+                            renderContributions(model.getConfigurationContributions(), true, htmlWriter);
+                        htmlWriter.endElement()
                     .endElement();
                 }
             };
         }
+
+        private static void renderContributions(CompositeOperation<ConfigurationContribution> contributions, boolean withTarget, SimpleHtmlWriter htmlWriter) throws IOException {
+            htmlWriter.startElement("table");
+                htmlWriter.startElement("thead");
+                    htmlWriter.startElement("tr");
+                        if (withTarget) {
+                            htmlWriter.startElement("th").characters("Project").endElement();
+                        }
+                        htmlWriter.startElement("th").characters("Type").endElement();
+                        htmlWriter.startElement("th").characters("Name").endElement();
+                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Count").endElement();
+                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Duration").endElement();
+                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Allocated").endElement();
+                    htmlWriter.endElement();
+                htmlWriter.endElement();
+                for (ConfigurationContribution contribution : contributions) {
+                    htmlWriter.startElement("tr");
+                        if (withTarget) {
+                            htmlWriter.startElement("td").characters(contribution.getTarget()).endElement();
+                        }
+                        htmlWriter.startElement("td").characters(contribution.getKind()).endElement();
+                        htmlWriter.startElement("td").characters(contribution.getName()).endElement();
+                        htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(contribution.getCount())).endElement();
+                        htmlWriter.startElement("td").attribute("class", "numeric").characters(TimeFormatting.formatDurationVeryTerse(contribution.getElapsedTime())).endElement();
+                        htmlWriter.startElement("td").attribute("class", "numeric").characters(NumberUtil.formatBytes(contribution.getAllocatedBytes())).endElement();
+                    htmlWriter.endElement();
+                }
+            htmlWriter.endElement();
+        }
     }
 }
@@ -46,8 +46,10 @@ public void projectsEvaluated(Gradle gradle) {
     @Override
     public void buildFinished(BuildProfile buildProfile) {
         ProfileReportRenderer renderer = new ProfileReportRenderer();
-        File file = new File(buildDir, "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted())) + ".html");
+        String baseName = "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted()));
+        File file = new File(buildDir, baseName + ".html");
         renderer.writeTo(buildProfile, file);
+        new ProfileJsonRenderer().writeTo(buildProfile, new File(buildDir, baseName + ".json"));
         renderReportUrl(file);
     }
 
@@ -62,6 +62,21 @@ class BuildProfileTest extends Specification {
         profile.projects == [profile.getProjectProfile("a"), profile.getProjectProfile("d"), profile.getProjectProfile("b"), profile.getProjectProfile("c")]
     }
 
+    def "sums configuration contributions over projects"() {
+        given:
+        profile.getConfigurationContribution("Plugin", "java", ":a").add(100, 10)
+        profile.getConfigurationContribution("Plugin", "java", ":b").add(200, 20)
+        profile.getConfigurationContribution("Script", "build.gradle", ":a").add(250, -1)
+
+        expect:
+        def contributors = profile.configurationContributors.operations
+        contributors*.description == ["Plugin java on all", "Script build.gradle on all"]
+        contributors[0].elapsedNanos == 300
+        contributors[0].allocatedBytes == 30
+        contributors[0].count == 2
+        contributors[1].allocatedBytes == 0
+    }
+
     def "contains build description"() {
         given:
         def param = new StartParameter()
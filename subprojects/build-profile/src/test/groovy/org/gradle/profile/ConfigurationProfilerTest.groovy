@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType
+import org.gradle.api.internal.tasks.RealizeTaskBuildOperationType
+import org.gradle.configuration.internal.ExecuteListenerBuildOperationType
+import org.gradle.execution.taskgraph.NotifyTaskGraphWhenReadyBuildOperationType
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import spock.lang.Specification
+
+class ConfigurationProfilerTest extends Specification {
+    private profile = new BuildProfile(new StartParameter())
+    private profiler = new ConfigurationProfiler(":", profile)
+    private long nextId = 1
+
+    def "excludes nested plugin applications from the cost of a plugin"() {
+        when:
+        def outer = start(plugin(":", "outer", ":a", 1))
+        def unrelated = start(new Object(), outer)
+        def inner = start(plugin(":", "inner", ":a", 2), unrelated)
+        Thread.sleep(100)
+        finish(inner)
+        finish(unrelated)
+        finish(outer)
+
+        then:
+        def innerContribution = profile.getConfigurationContribution("Plugin", "inner", ":a")
+        def outerContribution = profile.getConfigurationContribution("Plugin", "outer", ":a")
+        innerContribution.count == 1
+        outerContribution.count == 1
+        innerContribution.elapsedNanos >= 100_000_000
+        outerContribution.elapsedNanos < innerContribution.elapsedNanos
+        profile.configurationContributions.operations == [innerContribution, outerContribution]
+    }
+
+    def "charges callbacks to the plugin that registered them"() {
+        when:
+        finish(start(plugin(":", "java", ":a", 1)))
+        finish(start(callback(1, "Project.afterEvaluate")))
+        finish(start(callback(1, "Project.afterEvaluate")))
+
+        then:
+        profile.getConfigurationContribution("Callback", "java (Project.afterEvaluate)", ":a").count == 2
+    }
+
+    def "charges task realization to the project of the task"() {
+        when:
+        finish(start(realizeTask(":", ":a:b:compileJava")))
+        finish(start(realizeTask(":", ":compileJava")))
+
+        then:
+        profile.getConfigurationContribution("Task realization", "compileJava", ":a:b").count == 1
+        profile.getConfigurationContribution("Task realization", "compileJava", ":").count == 1
+    }
+
+    def "ignores operations of other builds"() {
+        when:
+        finish(start(plugin(":buildSrc", "java", ":", 1)))
+        finish(start(callback(1, "Project.afterEvaluate")))
+        finish(start(realizeTask(":buildSrc", ":compileJava")))
+
+        then:
+        profile.configurationContributions.operations.empty
+    }
+
+    def "ignores operations started once the task graph of the build is ready"() {
+        when:
+        finish(start(plugin(":", "java", ":a", 1)))
+        finish(start(taskGraphReady(":buildSrc")))
+        finish(start(realizeTask(":", ":a:compileJava")))
+        def whenReady = start(taskGraphReady(":"))
+        finish(start(callback(1, "TaskExecutionGraph.whenReady"), whenReady))
+        finish(whenReady)
+        finish(start(callback(1, "TaskExecutionGraph.beforeTask")))
+        finish(start(realizeTask(":", ":a:test")))
+
+        then:
+        profile.configurationContributions.operations*.name as Set == ["java", "java (TaskExecutionGraph.whenReady)", "compileJava"] as Set
+    }
+
+    private BuildOperationDescriptor start(Object details, BuildOperationDescriptor parent = null) {
+        def descriptor = BuildOperationDescriptor.displayName("operation").details(details).build(new OperationIdentifier(nextId++), parent?.id)
+        profiler.started(descriptor, new OperationStartEvent(0))
+        descriptor
+    }
+
+    private void finish(BuildOperationDescriptor descriptor) {
+        profiler.finished(descriptor, new OperationFinishEvent(0, 0, null, null))
+    }
+
+    private ApplyPluginBuildOperationType.Details plugin(String buildPath, String pluginId, String targetPath, long applicationId) {
+        Stub(ApplyPluginBuildOperationType.Details) {
+            getBuildPath() >> buildPath
+            getPluginId() >> pluginId
+            getTargetPath() >> targetPath
+            getTargetType() >> "project"
+            getApplicationId() >> applicationId
+        }
+    }
+
+    private ExecuteListenerBuildOperationType.Details callback(long applicationId, String registrationPoint) {
+        Stub(ExecuteListenerBuildOperationType.Details) {
+            getApplicationId() >> applicationId
+            getRegistrationPoint() >> registrationPoint
+        }
+    }
+
+    private NotifyTaskGraphWhenReadyBuildOperationType.Details taskGraphReady(String buildPath) {
+        Stub(NotifyTaskGraphWhenReadyBuildOperationType.Details) {
+            getBuildPath() >> buildPath
+        }
+    }
+
+    private RealizeTaskBuildOperationType.Details realizeTask(String buildPath, String taskPath) {
+        Stub(RealizeTaskBuildOperationType.Details) {
+            getBuildPath() >> buildPath
+            getTaskPath() >> taskPath
+        }
+    }
+}
@@ -59,6 +59,9 @@ class ProfileReportRendererTest extends Specification {
         model.getProjectProfile("b").getTaskProfile("b:foo").completed(Stub(TaskState)).setStart(time(12, 27, 0)).setFinish(time(12, 29, 30))
         model.getProjectProfile("b").getTaskProfile("b:bar").completed(Stub(TaskState)).setStart(time(12, 27, 0)).setFinish(time(12, 29, 0))
 
+        model.getConfigurationContribution("Plugin", "java", "a").add(1_000_000_000, 256)
+        model.getConfigurationContribution("Plugin", "java", "b").add(1_500_000_000, 512)
+
         when:
         new ProfileReportRenderer().writeTo(model, file)
 
@@ -97,6 +100,9 @@ class ProfileReportRendererTest extends Specification {
 <li>
 <a href="#tab4">Task Execution</a>
 </li>
+<li>
+<a href="#tab5">Configuration Breakdown</a>
+</li>
 </ul>
 <div class="tab" id="tab0">
 <h2>Summary</h2>
@@ -248,6 +254,57 @@ class ProfileReportRendererTest extends Specification {
 </tr>
 </table>
 </div>
+<div class="tab" id="tab5">
+<h2>Configuration Breakdown</h2>
+<h3>By plugin, script and task</h3>
+<table>
+<thead>
+<tr>
+<th>Type</th>
+<th>Name</th>
+<th class="numeric">Count</th>
+<th class="numeric">Duration</th>
+<th class="numeric">Allocated</th>
+</tr>
+</thead>
+<tr>
+<td>Plugin</td>
+<td>java</td>
+<td class="numeric">2</td>
+<td class="numeric">2.500s</td>
+<td class="numeric">768 B</td>
+</tr>
+</table>
+<h3>By project</h3>
+<table>
+<thead>
+<tr>
+<th>Project</th>
+<th>Type</th>
+<th>Name</th>
+<th class="numeric">Count</th>
+<th class="numeric">Duration</th>
+<th class="numeric">Allocated</th>
+</tr>
+</thead>
+<tr>
+<td>b</td>
+<td>Plugin</td>
+<td>java</td>
+<td class="numeric">1</td>
+<td class="numeric">1.500s</td>
+<td class="numeric">512 B</td>
+</tr>
+<tr>
+<td>a</td>
+<td>Plugin</td>
+<td>java</td>
+<td class="numeric">1</td>
+<td class="numeric">1.000s</td>
+<td class="numeric">256 B</td>
+</tr>
+</table>
+</div>
 </div>"""))
     }
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+
+class ParallelProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+
+    @Rule
+    public final BlockingHttpServer blockingServer = new BlockingHttpServer()
+
+    def setup() {
+        blockingServer.start()
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'a:child', 'b'
+        """
+        buildFile << """
+            ext.greeting = 'hello'
+        """
+        executer.beforeExecute {
+            withArguments("--parallel", "--max-workers=2", "-D${TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY}=true")
+        }
+    }
+
+    def "configures sibling projects in parallel"() {
+        given:
+        file("a/build.gradle") << """
+            ${blockingServer.callFromBuild("configure-a")}
+            ext.message = rootProject.greeting + ' from a'
+            project(':a:child').ext.message = message
+        """
+        file("b/build.gradle") << """
+            ${blockingServer.callFromBuild("configure-b")}
+            ext.message = rootProject.greeting + ' from b'
+        """
+        file("a/child/build.gradle") << """
+            tasks.register('printMessage') {
+                doLast { println "message: \$message" }
+            }
+        """
+
+        expect:
+        blockingServer.expectConcurrent("configure-a", "configure-b")
+        succeeds ":a:child:printMessage"
+        outputContains("message: hello from a")
+    }
+
+    def "fails when a project changes the extra properties of the root project"() {
+        given:
+        file("a/build.gradle") << """
+            rootProject.ext.greeting = 'changed by a'
+        """
+        file("b/build.gradle") << """
+            ext.message = rootProject.greeting + ' from b'
+        """
+
+        expect:
+        fails "help"
+        failure.assertHasDescription("A problem occurred evaluating project ':a'.")
+        failure.assertHasCause("Project ':a' cannot call ext.set('greeting') on root project 'root' while projects are configured in parallel, as other projects may access it at the same time. "
+            + "Projects configured in parallel can only change their own model and the model of their subprojects.")
+    }
+
+    def "fails when a project creates a configuration in its parent project"() {
+        given:
+        file("a/child/build.gradle") << """
+            parent.configurations.create('fromChild')
+        """
+
+        expect:
+        fails "help"
+        failure.assertHasDescription("A problem occurred evaluating project ':a:child'.")
+        failure.assertHasCause("Project ':a:child' cannot call create(String) on project ':a' while projects are configured in parallel, as other projects may access it at the same time. "
+            + "Projects configured in parallel can only change their own model and the model of their subprojects.")
+    }
+
+    def "fails when a project registers a task in the root project"() {
+        given:
+        file("b/build.gradle") << """
+            rootProject.tasks.register('fromB')
+        """
+
+        expect:
+        fails "help"
+        failure.assertHasDescription("A problem occurred evaluating project ':b'.")
+        failure.assertHasCause("Project ':b' cannot call register(String) on root project 'root' while projects are configured in parallel, as other projects may access it at the same time. "
+            + "Projects configured in parallel can only change their own model and the model of their subprojects.")
+    }
+}
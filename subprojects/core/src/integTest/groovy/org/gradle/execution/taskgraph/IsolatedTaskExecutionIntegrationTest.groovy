@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.execution.plan.TaskNodeFactory
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+
+class IsolatedTaskExecutionIntegrationTest extends AbstractIntegrationSpec {
+
+    @Rule
+    public final BlockingHttpServer blockingServer = new BlockingHttpServer()
+
+    def setup() {
+        blockingServer.start()
+        file("src/file.txt").text = "content"
+        executer.beforeExecute {
+            withArgument("--max-workers=2")
+        }
+    }
+
+    def "copy tasks of the same project run in parallel when isolated execution is enabled"() {
+        given:
+        buildFile << """
+            ["copyA", "copyB"].each { taskName ->
+                tasks.register(taskName, Copy) {
+                    from "src"
+                    into "build/\$taskName"
+                    eachFile {
+                        ${blockingServer.callFromBuildUsingExpression('taskName')}
+                    }
+                }
+            }
+        """
+
+        expect:
+        blockingServer.expectConcurrent("copyA", "copyB")
+        succeeds "copyA", "copyB", "-D${TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY}=true"
+
+        and:
+        file("build/copyA/file.txt").text == "content"
+        file("build/copyB/file.txt").text == "content"
+    }
+
+    def "tasks of a type that accesses project state keep the project lock when isolated execution is enabled"() {
+        given:
+        buildFile << """
+            class WriteVersion extends DefaultTask {
+                @OutputFile
+                File outputFile
+
+                @TaskAction
+                void write() {
+                    ${blockingServer.callFromBuildUsingExpression('name')}
+                    outputFile.text = project.version
+                }
+            }
+
+            ["writeA", "writeB"].each { taskName ->
+                tasks.register(taskName, WriteVersion) {
+                    outputFile = file("build/\${taskName}.txt")
+                }
+            }
+        """
+
+        expect:
+        blockingServer.expect("writeA")
+        blockingServer.expect("writeB")
+        succeeds "writeA", "writeB", "-D${TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY}=true"
+    }
+}
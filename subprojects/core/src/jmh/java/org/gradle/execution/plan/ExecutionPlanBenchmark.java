@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.plan;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.resources.ResourceLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures {@link DefaultExecutionPlan#determineExecutionPlan()} on generated graphs of configurable size and shape.
+ *
+ * <ul>
+ *     <li>{@code chain}: every node depends on the previous one.</li>
+ *     <li>{@code layered}: nodes are arranged in layers of 100, every node depends on a few random nodes of the previous layer.</li>
+ *     <li>{@code random}: every node depends on a few random nodes created before it.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExecutionPlanBenchmark {
+    private static final int LAYER_SIZE = 100;
+    private static final int DEPENDENCIES_PER_NODE = 4;
+
+    @Param({"1000", "10000", "80000"})
+    int size;
+
+    @Param({"chain", "layered", "random"})
+    String shape;
+
+    private List<Node> nodes;
+    private DefaultExecutionPlan executionPlan;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        Random random = new Random(42);
+        nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BenchmarkNode node = new BenchmarkNode(i);
+            if (i > 0) {
+                switch (shape) {
+                    case "chain":
+                        node.addDependencySuccessor(nodes.get(i - 1));
+                        break;
+                    case "layered":
+                        int layerStart = (i / LAYER_SIZE) * LAYER_SIZE;
+                        if (layerStart > 0) {
+                            for (int j = 0; j < DEPENDENCIES_PER_NODE; j++) {
+                                node.addDependencySuccessor(nodes.get(layerStart - 1 - random.nextInt(LAYER_SIZE)));
+                            }
+                        }
+                        break;
+                    case "random":
+                        for (int j = 0; j < DEPENDENCIES_PER_NODE; j++) {
+                            node.addDependencySuccessor(nodes.get(random.nextInt(i)));
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown graph shape: " + shape);
+                }
+            }
+            node.require();
+            node.dependenciesProcessed();
+            nodes.add(node);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createExecutionPlan() {
+        // Only the dependency resolver is used while determining the plan
+        executionPlan = new DefaultExecutionPlan(null, null, new TaskDependencyResolver(Collections.emptyList()));
+        executionPlan.addNodes(nodes);
+    }
+
+    @Benchmark
+    public List<Node> determineExecutionPlan() {
+        executionPlan.determineExecutionPlan();
+        return executionPlan.getScheduledNodes();
+    }
+
+    private static class BenchmarkNode extends Node {
+        private final int id;
+
+        BenchmarkNode(int id) {
+            this.id = id;
+        }
+
+        @Nullable
+        @Override
+        public Throwable getNodeFailure() {
+            return null;
+        }
+
+        @Override
+        public void rethrowNodeFailure() {
+        }
+
+        @Override
+        public void prepareForExecution() {
+        }
+
+        @Override
+        public void resolveDependencies(TaskDependencyResolver dependencyResolver, Action<Node> processHardSuccessor) {
+        }
+
+        @Override
+        public Set<Node> getFinalizers() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void resolveMutations() {
+        }
+
+        @Override
+        public boolean isPublicNode() {
+            return true;
+        }
+
+        @Override
+        public boolean requiresMonitoring() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public ResourceLock getProjectToLock() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public ProjectInternal getOwningProject() {
+            return null;
+        }
+
+        @Override
+        public List<? extends ResourceLock> getResourcesToLock() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return "node " + id;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            return Integer.compare(id, ((BenchmarkNode) other).id);
+        }
+    }
+}
@@ -628,6 +628,14 @@ public void removePending(String name) {
 
         @Override
         public void removePending(ProviderInternal<? extends T> provider) {
+            if (provider instanceof Named) {
+                // Avoid visiting all pending elements when one is realized
+                String name = ((Named) provider).getName();
+                if (pendingMap.get(name) == provider) {
+                    pendingMap.remove(name);
+                    return;
+                }
+            }
             pendingMap.values().remove(provider);
         }
 
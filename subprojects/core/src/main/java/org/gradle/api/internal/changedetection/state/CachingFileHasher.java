@@ -90,6 +90,14 @@ private FileInfo snapshot(File file, long length, long timestamp) {
         return info;
     }
 
+    /**
+     * Records the hash of the given file, computed by the caller while it was written.
+     */
+    public void record(File file, HashCode hash) {
+        FileMetadata fileMetadata = fileSystem.stat(file);
+        cache.put(stringInterner.intern(file.getAbsolutePath()), new FileInfo(hash, fileMetadata.getLength(), fileMetadata.getLastModified()));
+    }
+
     public void discard(String path) {
         cache.remove(path);
     }
@@ -18,6 +18,8 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.api.Action;
 import org.gradle.api.internal.provider.CollectionProviderInternal;
 import org.gradle.api.internal.provider.Collectors.ElementFromProvider;
@@ -25,17 +27,24 @@
 import org.gradle.api.internal.provider.Collectors.TypedCollector;
 import org.gradle.api.internal.provider.ProviderInternal;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultPendingSource<T> implements PendingSource<T> {
-    private final List<TypedCollector<T>> pending = Lists.newArrayList();
+    // Pending elements by their provider, in registration order, so an element can be removed without visiting the others when it is realized
+    private final Map<ProviderInternal<?>, PendingElement<T>> pending = Maps.newLinkedHashMap();
+    // Pending elements by element type, so the elements of a type can be realized without visiting the elements of other types
+    private final Map<Class<?>, Set<PendingElement<T>>> pendingByType = Maps.newHashMap();
+    private long registrations;
     private Action<T> flushAction;
 
     @Override
     public void realizePending() {
         if (!pending.isEmpty()) {
-            List<TypedCollector<T>> copied = Lists.newArrayList(pending);
+            List<PendingElement<T>> copied = Lists.newArrayList(pending.values());
             realize(copied);
         }
     }
@@ -43,25 +52,28 @@ public void realizePending() {
     @Override
     public void realizePending(Class<?> type) {
         if (!pending.isEmpty()) {
-            List<TypedCollector<T>> copied = Lists.newArrayList();
-            for (TypedCollector<T> collector : pending) {
-                if (collector.getType() == null || type.isAssignableFrom(collector.getType())) {
-                    copied.add(collector);
+            List<PendingElement<T>> copied = Lists.newArrayList();
+            for (Map.Entry<Class<?>, Set<PendingElement<T>>> entry : pendingByType.entrySet()) {
+                if (entry.getKey() == null || type.isAssignableFrom(entry.getKey())) {
+                    copied.addAll(entry.getValue());
                 }
             }
+            if (copied.size() > 1) {
+                Collections.sort(copied, PendingElement.IN_REGISTRATION_ORDER);
+            }
             realize(copied);
         }
     }
 
-    private void realize(Iterable<TypedCollector<T>> collectors) {
-        for (TypedCollector<T> collector : collectors) {
+    private void realize(Iterable<PendingElement<T>> elements) {
+        for (PendingElement<T> element : elements) {
             if (flushAction != null) {
-                pending.remove(collector);
+                remove(element.provider);
                 ImmutableList.Builder<T> builder = ImmutableList.builder();
-                collector.collectInto(builder);
+                element.collector.collectInto(builder);
                 List<T> realized = builder.build();
-                for (T element : realized) {
-                    flushAction.execute(element);
+                for (T value : realized) {
+                    flushAction.execute(value);
                 }
             } else {
                 throw new IllegalStateException("Cannot realize pending elements when realize action is not set");
@@ -71,34 +83,48 @@ private void realize(Iterable<TypedCollector<T>> collectors) {
 
     @Override
     public boolean addPending(ProviderInternal<? extends T> provider) {
-        return pending.add(new TypedCollector<T>(provider.getType(), new ElementFromProvider<T>(provider)));
+        return add(provider, new TypedCollector<T>(provider.getType(), new ElementFromProvider<T>(provider)));
     }
 
     @Override
     public boolean removePending(ProviderInternal<? extends T> provider) {
-        return removeByProvider(provider);
-    }
-
-    private boolean removeByProvider(ProviderInternal<?> provider) {
-        Iterator<TypedCollector<T>> iterator = pending.iterator();
-        while (iterator.hasNext()) {
-            TypedCollector<T> collector = iterator.next();
-            if (collector.isProvidedBy(provider)) {
-                iterator.remove();
-                return true;
-            }
-        }
-        return false;
+        return remove(provider);
     }
 
     @Override
     public boolean addPendingCollection(CollectionProviderInternal<T, ? extends Iterable<T>> provider) {
-        return pending.add(new TypedCollector<T>(provider.getElementType(), new ElementsFromCollectionProvider<T>(provider)));
+        return add(provider, new TypedCollector<T>(provider.getElementType(), new ElementsFromCollectionProvider<T>(provider)));
     }
 
     @Override
     public boolean removePendingCollection(CollectionProviderInternal<T, ? extends Iterable<T>> provider) {
-        return removeByProvider(provider);
+        return remove(provider);
+    }
+
+    private boolean add(ProviderInternal<?> provider, TypedCollector<T> collector) {
+        remove(provider);
+        PendingElement<T> element = new PendingElement<T>(provider, collector, registrations++);
+        pending.put(provider, element);
+        Set<PendingElement<T>> elementsOfType = pendingByType.get(collector.getType());
+        if (elementsOfType == null) {
+            elementsOfType = Sets.newHashSet();
+            pendingByType.put(collector.getType(), elementsOfType);
+        }
+        elementsOfType.add(element);
+        return true;
+    }
+
+    private boolean remove(ProviderInternal<?> provider) {
+        PendingElement<T> element = pending.remove(provider);
+        if (element == null) {
+            return false;
+        }
+        Set<PendingElement<T>> elementsOfType = pendingByType.get(element.collector.getType());
+        elementsOfType.remove(element);
+        if (elementsOfType.isEmpty()) {
+            pendingByType.remove(element.collector.getType());
+        }
+        return true;
     }
 
     @Override
@@ -119,8 +145,8 @@ public boolean isEmpty() {
     @Override
     public int size() {
         int count = 0;
-        for (TypedCollector<T> collector : pending) {
-            count += collector.size();
+        for (PendingElement<T> element : pending.values()) {
+            count += element.collector.size();
         }
         return count;
     }
@@ -128,5 +154,25 @@ public int size() {
     @Override
     public void clear() {
         pending.clear();
+        pendingByType.clear();
+    }
+
+    private static class PendingElement<T> {
+        static final Comparator<PendingElement<?>> IN_REGISTRATION_ORDER = new Comparator<PendingElement<?>>() {
+            @Override
+            public int compare(PendingElement<?> e1, PendingElement<?> e2) {
+                return Long.compare(e1.registration, e2.registration);
+            }
+        };
+
+        final ProviderInternal<?> provider;
+        final TypedCollector<T> collector;
+        final long registration;
+
+        PendingElement(ProviderInternal<?> provider, TypedCollector<T> collector, long registration) {
+            this.provider = provider;
+            this.collector = collector;
+            this.registration = registration;
+        }
     }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Action;
+import org.gradle.api.InvalidUserCodeException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.DomainObjectContext;
+import org.gradle.api.internal.MutationGuard;
+import org.gradle.internal.Factory;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Fails when a project that is configured in parallel with other projects accesses the model of a project that may be configured at the same time.
+ *
+ * <p>Projects are configured in parallel only after their parent project was configured, so a project can safely access
+ * its own model, the model of its ancestors, which are already configured, and the model of its descendants, which are not configured yet.</p>
+ *
+ * <p>The model of the ancestors is read-only though, as sibling projects read and may change it at the same time. Changes to the
+ * extra properties, the tasks, the configurations and the evaluation listeners of an ancestor fail, as well as changes to its
+ * description, group, version, status, default tasks and build directory.</p>
+ */
+public class CrossProjectAccessGuard {
+    private final ThreadLocal<ProjectInternal> projectConfiguredInParallel = new ThreadLocal<ProjectInternal>();
+
+    /**
+     * Runs the given action, which configures the given project in parallel with other projects.
+     */
+    public void whileConfiguringInParallel(ProjectInternal project, Runnable action) {
+        ProjectInternal previous = projectConfiguredInParallel.get();
+        projectConfiguredInParallel.set(project);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                projectConfiguredInParallel.remove();
+            } else {
+                projectConfiguredInParallel.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Creates a value without checking access to other projects, for lookups that only reference other projects,
+     * like project dependencies, and do not access their model.
+     */
+    public <T> T withoutAccessChecks(Factory<T> factory) {
+        ProjectInternal current = projectConfiguredInParallel.get();
+        if (current == null) {
+            return factory.create();
+        }
+        projectConfiguredInParallel.remove();
+        try {
+            return factory.create();
+        } finally {
+            projectConfiguredInParallel.set(current);
+        }
+    }
+
+    /**
+     * Returns the given project, when the project configured by the current thread is allowed to access it.
+     */
+    @Nullable
+    public <T extends Project> T checkAccess(@Nullable T target) {
+        ProjectInternal current = projectConfiguredInParallel.get();
+        if (current != null && target != null && !isAncestorOrSelf(target, current) && !isAncestorOrSelf(current, target)) {
+            throw new InvalidUserCodeException(String.format(
+                "%s cannot access %s while projects are configured in parallel, as it may be configured at the same time. "
+                    + "Projects configured in parallel can only access their own model, the model of their parent projects and the model of their subprojects.",
+                StringUtils.capitalize(current.getDisplayName()), target.getDisplayName()));
+        }
+        return target;
+    }
+
+    /**
+     * Returns the given projects, when the project configured by the current thread is allowed to access all of them.
+     */
+    public <T extends Collection<? extends Project>> T checkAccess(T targets) {
+        if (projectConfiguredInParallel.get() != null) {
+            for (Project target : targets) {
+                checkAccess(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Fails when the project configured by the current thread is not allowed to change the model of the given project.
+     */
+    public void checkMutation(Project target, String methodName) {
+        ProjectInternal current = projectConfiguredInParallel.get();
+        if (current != null && !isAncestorOrSelf(current, target)) {
+            throw new InvalidUserCodeException(String.format(
+                "%s cannot call %s on %s while projects are configured in parallel, as other projects may access it at the same time. "
+                    + "Projects configured in parallel can only change their own model and the model of their subprojects.",
+                StringUtils.capitalize(current.getDisplayName()), methodName, target.getDisplayName()));
+        }
+    }
+
+    /**
+     * Decorates the mutation guard of a container that belongs to the given context, so that the container can only be changed
+     * by the project configured by the current thread when {@link #checkMutation(Project, String)} allows it.
+     */
+    public MutationGuard guardMutationsOf(DomainObjectContext owner, MutationGuard mutationGuard) {
+        return new CrossProjectMutationGuard(owner, mutationGuard);
+    }
+
+    private static boolean isAncestorOrSelf(Project ancestor, Project project) {
+        for (Project candidate = project; candidate != null; candidate = candidate.getParent()) {
+            if (candidate == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class CrossProjectMutationGuard implements MutationGuard {
+        private final DomainObjectContext owner;
+        private final MutationGuard delegate;
+
+        CrossProjectMutationGuard(DomainObjectContext owner, MutationGuard delegate) {
+            this.owner = owner;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> Action<? super T> withMutationDisabled(Action<? super T> action) {
+            return delegate.withMutationDisabled(action);
+        }
+
+        @Override
+        public <T> Action<? super T> withMutationEnabled(Action<? super T> action) {
+            return delegate.withMutationEnabled(action);
+        }
+
+        @Override
+        public boolean isMutationAllowed() {
+            return delegate.isMutationAllowed();
+        }
+
+        @Override
+        public void assertMutationAllowed(String methodName, Object target) {
+            delegate.assertMutationAllowed(methodName, target);
+            checkMutationOfOwner(methodName);
+        }
+
+        @Override
+        public <T> void assertMutationAllowed(String methodName, T target, Class<T> targetType) {
+            delegate.assertMutationAllowed(methodName, target, targetType);
+            checkMutationOfOwner(methodName);
+        }
+
+        private void checkMutationOfOwner(String methodName) {
+            if (projectConfiguredInParallel.get() != null) {
+                ProjectInternal project = owner.getProject();
+                if (project != null) {
+                    checkMutation(project, methodName);
+                }
+            }
+        }
+    }
+}
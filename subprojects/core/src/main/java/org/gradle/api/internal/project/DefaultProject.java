@@ -85,6 +85,7 @@
 import org.gradle.internal.Factory;
 import org.gradle.internal.deprecation.DeprecationLogger;
 import org.gradle.internal.event.ListenerBroadcast;
+import org.gradle.internal.extensibility.DefaultConvention;
 import org.gradle.internal.extensibility.ExtensibleDynamicObject;
 import org.gradle.internal.extensibility.NoConventionMapping;
 import org.gradle.internal.instantiation.InstantiatorFactory;
@@ -164,6 +165,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private ProjectEvaluator projectEvaluator;
 
+    private CrossProjectAccessGuard crossProjectAccessGuard;
+
     private ScriptSource buildScriptSource;
 
     private final File projectDir;
@@ -244,7 +247,8 @@ public DefaultProject(String name,
         services = serviceRegistryFactory.createFor(this);
         taskContainer = services.get(TaskContainerInternal.class);
 
-        extensibleDynamicObject = new ExtensibleDynamicObject(this, Project.class, services.get(InstantiatorFactory.class).decorateLenient(services));
+        ProjectExtraPropertiesExtension extraProperties = new ProjectExtraPropertiesExtension(this, this::getCrossProjectAccessGuard);
+        extensibleDynamicObject = new ExtensibleDynamicObject(this, Project.class, new DefaultConvention(services.get(InstantiatorFactory.class).decorateLenient(services), extraProperties));
         if (parent != null) {
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
@@ -387,6 +391,13 @@ public ProjectEvaluator getProjectEvaluator() {
         return projectEvaluator;
     }
 
+    private CrossProjectAccessGuard getCrossProjectAccessGuard() {
+        if (crossProjectAccessGuard == null) {
+            crossProjectAccessGuard = services.get(CrossProjectAccessGuard.class);
+        }
+        return crossProjectAccessGuard;
+    }
+
     public void setProjectEvaluator(ProjectEvaluator projectEvaluator) {
         this.projectEvaluator = projectEvaluator;
     }
@@ -451,6 +462,7 @@ public String getDescription() {
 
     @Override
     public void setDescription(String description) {
+        getCrossProjectAccessGuard().checkMutation(this, "setDescription(String)");
         this.description = description;
     }
 
@@ -467,6 +479,7 @@ public Object getGroup() {
 
     @Override
     public void setGroup(Object group) {
+        getCrossProjectAccessGuard().checkMutation(this, "setGroup(Object)");
         this.group = group;
     }
 
@@ -477,6 +490,7 @@ public Object getVersion() {
 
     @Override
     public void setVersion(Object version) {
+        getCrossProjectAccessGuard().checkMutation(this, "setVersion(Object)");
         this.version = version;
     }
 
@@ -487,11 +501,13 @@ public Object getStatus() {
 
     @Override
     public void setStatus(Object status) {
+        getCrossProjectAccessGuard().checkMutation(this, "setStatus(Object)");
         this.status = status;
     }
 
     @Override
     public Map<String, Project> getChildProjects() {
+        getCrossProjectAccessGuard().checkAccess(childProjects.values());
         return childProjects;
     }
 
@@ -502,6 +518,7 @@ public List<String> getDefaultTasks() {
 
     @Override
     public void setDefaultTasks(List<String> defaultTasks) {
+        getCrossProjectAccessGuard().checkMutation(this, "setDefaultTasks(List<String>)");
         this.defaultTasks = defaultTasks;
     }
 
@@ -653,17 +670,17 @@ public ProjectInternal findProject(String path) {
         if (isNullOrEmpty(path)) {
             throw new InvalidUserDataException("A path must be specified!");
         }
-        return getProjectRegistry().getProject(absoluteProjectPath(path));
+        return getCrossProjectAccessGuard().checkAccess(getProjectRegistry().getProject(absoluteProjectPath(path)));
     }
 
     @Override
     public Set<Project> getAllprojects() {
-        return new TreeSet<Project>(getProjectRegistry().getAllProjects(getPath()));
+        return getCrossProjectAccessGuard().checkAccess(new TreeSet<Project>(getProjectRegistry().getAllProjects(getPath())));
     }
 
     @Override
     public Set<Project> getSubprojects() {
-        return new TreeSet<Project>(getProjectRegistry().getSubProjects(getPath()));
+        return getCrossProjectAccessGuard().checkAccess(new TreeSet<Project>(getProjectRegistry().getSubProjects(getPath())));
     }
 
     @Override
@@ -762,6 +779,7 @@ public void setBuildDir(File path) {
 
     @Override
     public void setBuildDir(Object path) {
+        getCrossProjectAccessGuard().checkMutation(this, "setBuildDir(Object)");
         getLayout().setBuildDirectory(path);
     }
 
@@ -1462,6 +1480,7 @@ public ProjectEvaluationListener stepEvaluationListener(ProjectEvaluationListene
 
     private void assertMutatingMethodAllowed(String methodName) {
         MutationGuards.of(getProjectConfigurator()).assertMutationAllowed(methodName, this, Project.class);
+        getCrossProjectAccessGuard().checkMutation(this, methodName);
     }
 
     // These are here just so that ProjectInternal can implement FileOperations to work around https://github.com/gradle/gradle/issues/6027
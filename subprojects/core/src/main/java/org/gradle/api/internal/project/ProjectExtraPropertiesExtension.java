@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.Project;
+import org.gradle.internal.Factory;
+import org.gradle.internal.extensibility.DefaultExtraPropertiesExtension;
+
+import javax.annotation.Nullable;
+
+/**
+ * The extra properties of a project, which other projects configured in parallel cannot change.
+ */
+class ProjectExtraPropertiesExtension extends DefaultExtraPropertiesExtension {
+    private final Project project;
+    private final Factory<CrossProjectAccessGuard> crossProjectAccessGuard;
+
+    ProjectExtraPropertiesExtension(Project project, Factory<CrossProjectAccessGuard> crossProjectAccessGuard) {
+        this.project = project;
+        this.crossProjectAccessGuard = crossProjectAccessGuard;
+    }
+
+    @Override
+    public void set(String name, @Nullable Object value) {
+        crossProjectAccessGuard.create().checkMutation(project, "ext.set('" + name + "')");
+        super.set(name, value);
+    }
+}
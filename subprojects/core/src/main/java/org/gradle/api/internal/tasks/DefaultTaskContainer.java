@@ -30,6 +30,7 @@
 import org.gradle.api.Task;
 import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.CollectionCallbackActionDecorator;
+import org.gradle.api.internal.MutationGuard;
 import org.gradle.api.internal.MutationGuards;
 import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
 import org.gradle.api.internal.TaskInternal;
@@ -94,6 +95,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final boolean eagerlyCreateLazyTasks;
 
     private MutableModelNode modelNode;
+    private final MutationGuard mutationGuard;
 
     public DefaultTaskContainer(final ProjectInternal project,
                                 Instantiator instantiator,
@@ -102,8 +104,10 @@ public DefaultTaskContainer(final ProjectInternal project,
                                 TaskStatistics statistics,
                                 BuildOperationExecutor buildOperationExecutor,
                                 CrossProjectConfigurator crossProjectConfigurator,
+                                CrossProjectAccessGuard crossProjectAccessGuard,
                                 CollectionCallbackActionDecorator callbackDecorator) {
         super(Task.class, instantiator, project, MutationGuards.of(crossProjectConfigurator), callbackDecorator);
+        this.mutationGuard = crossProjectAccessGuard.guardMutationsOf(project, super.getMutationGuard());
         this.taskFactory = taskFactory;
         taskInstantiator = new TaskInstantiator(taskFactory, project);
         this.projectAccessListener = projectAccessListener;
@@ -112,6 +116,11 @@ public DefaultTaskContainer(final ProjectInternal project,
         this.buildOperationExecutor = buildOperationExecutor;
     }
 
+    @Override
+    public MutationGuard getMutationGuard() {
+        return mutationGuard;
+    }
+
     @Override
     public Task create(Map<String, ?> options) {
         assertMutable("create(Map<String, ?>)");
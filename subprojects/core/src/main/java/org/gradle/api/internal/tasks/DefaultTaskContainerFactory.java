@@ -19,6 +19,7 @@
 import org.gradle.api.Task;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.CollectionCallbackActionDecorator;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.CrossProjectConfigurator;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
@@ -54,6 +55,7 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
     private final TaskStatistics statistics;
     private final BuildOperationExecutor buildOperationExecutor;
     private final CrossProjectConfigurator crossProjectConfigurator;
+    private final CrossProjectAccessGuard crossProjectAccessGuard;
 
     public DefaultTaskContainerFactory(ModelRegistry modelRegistry,
                                        Instantiator instantiator,
@@ -63,6 +65,7 @@ public DefaultTaskContainerFactory(ModelRegistry modelRegistry,
                                        TaskStatistics statistics,
                                        BuildOperationExecutor buildOperationExecutor,
                                        CrossProjectConfigurator crossProjectConfigurator,
+                                       CrossProjectAccessGuard crossProjectAccessGuard,
                                        CollectionCallbackActionDecorator callbackDecorator) {
         this.modelRegistry = modelRegistry;
         this.instantiator = instantiator;
@@ -72,12 +75,13 @@ public DefaultTaskContainerFactory(ModelRegistry modelRegistry,
         this.statistics = statistics;
         this.buildOperationExecutor = buildOperationExecutor;
         this.crossProjectConfigurator = crossProjectConfigurator;
+        this.crossProjectAccessGuard = crossProjectAccessGuard;
         this.callbackDecorator = callbackDecorator;
     }
 
     @Override
     public TaskContainerInternal create() {
-        DefaultTaskContainer tasks = instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener, statistics, buildOperationExecutor, crossProjectConfigurator, callbackDecorator);
+        DefaultTaskContainer tasks = instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener, statistics, buildOperationExecutor, crossProjectConfigurator, crossProjectAccessGuard, callbackDecorator);
         bridgeIntoSoftwareModelWhenNeeded(tasks);
         return tasks;
     }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a task type whose actions do not access mutable project state, such as the project, its configurations or its other tasks,
+ * and only work with the inputs and outputs the task declares.
+ *
+ * <p>When isolated execution is enabled, tasks of such a type, which declare their outputs and have no ad-hoc actions,
+ * can run without holding the lock of their owning project.</p>
+ *
+ * <p>The built-in copy, sync, archive and properties writing tasks carry the marker. It is inherited, so a subtype that adds
+ * actions accessing project state must not extend a marked type.</p>
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface NoProjectStateAccess {
+}
@@ -34,12 +34,17 @@
 public class TaskStatistics implements Closeable {
     private final static Logger LOGGER = Logging.getLogger(TaskStatistics.class);
     private final static String TASK_STATISTICS_PROPERTY = "org.gradle.internal.tasks.stats";
+    private final static String[] INFRASTRUCTURE_PACKAGES = {
+        "org.gradle.api.internal.", "org.gradle.internal.", "org.gradle.util.", "org.gradle.configuration.", "org.gradle.execution.", "org.gradle.initialization.",
+        "org.codehaus.groovy.", "groovy.", "java.", "javax.", "jdk.", "sun.", "com.sun.", "kotlin."
+    };
 
     private final AtomicInteger eagerTasks = new AtomicInteger();
     private final AtomicInteger lazyTasks = new AtomicInteger();
     private final AtomicInteger lazyRealizedTasks = new AtomicInteger();
     private final Map<Class, Integer> typeCounts = Maps.newHashMap();
     private final Map<Class, Integer> realizedTypeCounts = Maps.newHashMap();
+    private final Map<String, Integer> realizingCallerCounts = Maps.newHashMap();
     private final boolean collectStatistics;
 
     private PrintWriter lazyTaskLog;
@@ -97,8 +102,14 @@ public void lazyTaskRealized(Class<?> type) {
                 }
                 realizedTypeCounts.put(type, count);
             }
+            Throwable realization = new Throwable();
+            String caller = realizingCaller(realization.getStackTrace());
+            synchronized (realizingCallerCounts) {
+                Integer count = realizingCallerCounts.get(caller);
+                realizingCallerCounts.put(caller, count == null ? 1 : count + 1);
+            }
             if (lazyTaskLog != null) {
-                new Throwable().printStackTrace(lazyTaskLog);
+                realization.printStackTrace(lazyTaskLog);
             }
         }
     }
@@ -117,20 +128,42 @@ public void close() throws IOException {
 
             printTypeCounts("\nTask types that were created with the old API", typeCounts);
             printTypeCounts("\nTask types that were registered with the new API but were created anyways", realizedTypeCounts);
+            printTypeCounts("\nCallers that created tasks registered with the new API", realizingCallerCounts);
             IoActions.closeQuietly(lazyTaskLog);
         }
     }
 
-    private void printTypeCounts(String header, Map<Class, Integer> typeCounts) {
+    /**
+     * Returns the first frame of plugin or build script code, or a placeholder when tasks are created by Gradle itself, for example to execute them.
+     */
+    private static String realizingCaller(StackTraceElement[] stackTrace) {
+        for (StackTraceElement frame : stackTrace) {
+            if (!isInfrastructure(frame.getClassName())) {
+                return frame.toString();
+            }
+        }
+        return "(Gradle)";
+    }
+
+    private static boolean isInfrastructure(String className) {
+        for (String infrastructurePackage : INFRASTRUCTURE_PACKAGES) {
+            if (className.startsWith(infrastructurePackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <K> void printTypeCounts(String header, Map<K, Integer> typeCounts) {
         if (!typeCounts.isEmpty()) {
             LOGGER.lifecycle(header);
-            List<Map.Entry<Class, Integer>> sorted = CollectionUtils.sort(typeCounts.entrySet(), new Comparator<Map.Entry<Class, Integer>>() {
+            List<Map.Entry<K, Integer>> sorted = CollectionUtils.sort(typeCounts.entrySet(), new Comparator<Map.Entry<K, Integer>>() {
                 @Override
-                public int compare(Map.Entry<Class, Integer> a, Map.Entry<Class, Integer> b) {
+                public int compare(Map.Entry<K, Integer> a, Map.Entry<K, Integer> b) {
                     return b.getValue().compareTo(a.getValue());
                 }
             });
-            for (Map.Entry<Class, Integer> typeCount : sorted) {
+            for (Map.Entry<K, Integer> typeCount : sorted) {
                 LOGGER.lifecycle(typeCount.getKey() + " " + typeCount.getValue());
             }
         }
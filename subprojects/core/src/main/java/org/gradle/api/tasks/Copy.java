@@ -21,6 +21,7 @@
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.tasks.NoProjectStateAccess;
 
 import java.io.File;
 
@@ -65,6 +66,7 @@
  * }
  * </pre>
  */
+@NoProjectStateAccess
 public class Copy extends AbstractCopyTask {
 
     @Override
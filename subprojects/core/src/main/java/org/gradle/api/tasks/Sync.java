@@ -23,6 +23,7 @@
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
 import org.gradle.api.internal.file.copy.SyncCopyActionDecorator;
+import org.gradle.api.internal.tasks.NoProjectStateAccess;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.internal.file.Deleter;
@@ -63,6 +64,7 @@
  * }
  * </pre>
  */
+@NoProjectStateAccess
 public class Sync extends AbstractCopyTask {
 
     private final PatternFilterable preserveInDestination = new PatternSet();
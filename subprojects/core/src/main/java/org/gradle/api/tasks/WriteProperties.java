@@ -21,6 +21,7 @@
 import com.google.common.collect.Maps;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.NoProjectStateAccess;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.util.PropertiesUtils;
@@ -55,6 +56,7 @@
  * @since 3.3
  */
 @CacheableTask
+@NoProjectStateAccess
 public class WriteProperties extends DefaultTask {
     private final Map<String, Callable<String>> deferredProperties = Maps.newHashMap();
     private final Map<String, String> properties = Maps.newHashMap();
@@ -22,11 +22,13 @@
 import org.gradle.api.internal.file.archive.compression.GzipArchiver;
 import org.gradle.api.internal.file.archive.compression.SimpleCompressor;
 import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.tasks.NoProjectStateAccess;
 import org.gradle.api.tasks.Input;
 
 /**
  * Assembles a TAR archive.
  */
+@NoProjectStateAccess
 public class Tar extends AbstractArchiveTask {
     private Compression compression = Compression.NONE;
 
@@ -16,16 +16,41 @@
 
 package org.gradle.execution;
 
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * Configures the projects of a hierarchy in parallel when running with {@code --parallel}.
+     * Projects are configured after their parent project and may only access the model of their ancestors and descendants.
+     * The model of their ancestors is read-only, as sibling projects may access it at the same time.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.project.parallel-configuration";
+
     private final BuildCancellationToken cancellationToken;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final CrossProjectAccessGuard crossProjectAccessGuard;
+    private final boolean parallelConfiguration;
 
-    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, CrossProjectAccessGuard crossProjectAccessGuard) {
         this.cancellationToken = cancellationToken;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.crossProjectAccessGuard = crossProjectAccessGuard;
+        this.parallelConfiguration = Boolean.getBoolean(PARALLEL_CONFIGURATION_PROPERTY);
     }
 
     @Override
@@ -59,6 +84,10 @@ private void bindAllModelRules(ProjectInternal project) {
 
     @Override
     public void configureHierarchy(ProjectInternal project) {
+        if (isConfiguredInParallel(project)) {
+            configureHierarchyInParallel(project);
+            return;
+        }
         configure(project);
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
@@ -67,9 +96,73 @@ public void configureHierarchy(ProjectInternal project) {
 
     @Override
     public void configureHierarchyFully(ProjectInternal project) {
+        if (isConfiguredInParallel(project)) {
+            configureHierarchyInParallel(project);
+            discoverTasks(project);
+            bindAllModelRules(project);
+            for (Project sub : project.getSubprojects()) {
+                discoverTasks((ProjectInternal) sub);
+                bindAllModelRules((ProjectInternal) sub);
+            }
+            return;
+        }
         configureFully(project);
         for (Project sub : project.getSubprojects()) {
             configureFully((ProjectInternal) sub);
         }
     }
+
+    private boolean isConfiguredInParallel(ProjectInternal project) {
+        return parallelConfiguration && project.getGradle().getStartParameter().isParallelProjectExecutionEnabled();
+    }
+
+    /**
+     * Configures the given project, then its subprojects one depth at a time, so the parent of a project is always configured before it
+     * and the projects of the same depth are configured in parallel.
+     */
+    private void configureHierarchyInParallel(ProjectInternal project) {
+        configure(project);
+        Map<Integer, List<ProjectInternal>> subprojectsByDepth = new TreeMap<Integer, List<ProjectInternal>>();
+        for (Project sub : project.getSubprojects()) {
+            List<ProjectInternal> subprojects = subprojectsByDepth.get(sub.getDepth());
+            if (subprojects == null) {
+                subprojects = new ArrayList<ProjectInternal>();
+                subprojectsByDepth.put(sub.getDepth(), subprojects);
+            }
+            subprojects.add((ProjectInternal) sub);
+        }
+        for (final List<ProjectInternal> subprojects : subprojectsByDepth.values()) {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<ConfigureProjectInParallel>>() {
+                @Override
+                public void execute(BuildOperationQueue<ConfigureProjectInParallel> queue) {
+                    for (ProjectInternal subproject : subprojects) {
+                        queue.add(new ConfigureProjectInParallel(subproject));
+                    }
+                }
+            });
+        }
+    }
+
+    private class ConfigureProjectInParallel implements RunnableBuildOperation {
+        private final ProjectInternal project;
+
+        ConfigureProjectInParallel(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            crossProjectAccessGuard.whileConfiguringInParallel(project, new Runnable() {
+                @Override
+                public void run() {
+                    configure(project);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.execution.plan;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
@@ -32,7 +33,6 @@
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
-import org.gradle.internal.Pair;
 import org.gradle.internal.graph.CachingDirectedGraphWalker;
 import org.gradle.internal.graph.DirectedGraphRenderer;
 import org.gradle.internal.logging.text.StyledTextOutput;
@@ -79,7 +79,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
     private final Set<Node> runningNodes = Sets.newIdentityHashSet();
     private final Set<Node> filteredNodes = Sets.newIdentityHashSet();
     private final Set<Node> producedButNotYetConsumed = Sets.newIdentityHashSet();
-    private final Map<Pair<Node, Node>, Boolean> reachableCache = Maps.newHashMap();
+    private NodeReachability reachability = new NodeReachability(Collections.emptyList());
     private final List<Node> dependenciesWhichRequireMonitoring = Lists.newArrayList();
     private boolean maybeNodesReady;
     private final GradleInternal gradle;
@@ -233,6 +233,81 @@ private void requireWithDependencies(Node node) {
     }
 
     public void determineExecutionPlan() {
+        determineExecutionPlan(true);
+    }
+
+    /**
+     * @param walkWithoutOrderingConstraintsFirst whether to try {@link #walkGraphWithoutOrderingConstraints(Set)} before the general walk. Both produce the same plan.
+     */
+    @VisibleForTesting
+    void determineExecutionPlan(boolean walkWithoutOrderingConstraintsFirst) {
+        int planSizeBeforeVisiting = nodeMapping.size();
+        Set<Node> dependenciesWhichRequireMonitoring = Sets.newHashSet();
+        if (!walkWithoutOrderingConstraintsFirst || !walkGraphWithoutOrderingConstraints(dependenciesWhichRequireMonitoring)) {
+            // Found should run after edges or finalizers - start over using the general algorithm
+            nodeMapping.retainFirst(planSizeBeforeVisiting);
+            dependenciesWhichRequireMonitoring.clear();
+            walkGraphWithOrderingConstraints(dependenciesWhichRequireMonitoring);
+        }
+        executionQueue.clear();
+        dependencyResolver.clear();
+        Iterables.addAll(executionQueue, nodeMapping);
+        reachability = new NodeReachability(nodeMapping);
+        for (Node node : executionQueue) {
+            maybeNodesReady |= node.updateAllDependenciesComplete() && node.isReady();
+        }
+        this.dependenciesWhichRequireMonitoring.addAll(dependenciesWhichRequireMonitoring);
+    }
+
+    /**
+     * Adds the nodes reachable from the entry nodes to the plan using a plain depth-first walk. This produces the same order as
+     * {@link #walkGraphWithOrderingConstraints(Set)}, but does not need to track visiting segments, paths or plan snapshots.
+     *
+     * @return false when a node with should run after successors or finalizers is found, in which case the walk is abandoned.
+     */
+    private boolean walkGraphWithoutOrderingConstraints(Set<Node> dependenciesWhichRequireMonitoring) {
+        Deque<Node> nodeQueue = new ArrayDeque<>(entryNodes);
+        Set<Node> visitingNodes = Sets.newIdentityHashSet();
+
+        while (!nodeQueue.isEmpty()) {
+            Node node = nodeQueue.peekFirst();
+
+            if (!node.isIncludeInGraph() || nodeMapping.contains(node)) {
+                nodeQueue.removeFirst();
+                if (node.requiresMonitoring()) {
+                    dependenciesWhichRequireMonitoring.add(node);
+                }
+                continue;
+            }
+
+            if (visitingNodes.add(node)) {
+                // Have not seen this node before - add its dependencies to the head of the queue and leave this
+                // node in the queue
+                if (hasOrderingConstraints(node)) {
+                    return false;
+                }
+                for (Node successor : node.getAllSuccessorsInReverseOrder()) {
+                    if (visitingNodes.contains(successor)) {
+                        onOrderingCycle(successor, node);
+                    }
+                    nodeQueue.addFirst(successor);
+                }
+            } else {
+                // Have visited this node's dependencies - add it to the end of the plan
+                nodeQueue.removeFirst();
+                visitingNodes.remove(node);
+                addToPlan(node, dependenciesWhichRequireMonitoring);
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasOrderingConstraints(Node node) {
+        return !node.getFinalizers().isEmpty()
+            || (node instanceof TaskNode && !((TaskNode) node).getShouldSuccessors().isEmpty());
+    }
+
+    private void walkGraphWithOrderingConstraints(Set<Node> dependenciesWhichRequireMonitoring) {
         LinkedList<NodeInVisitingSegment> nodeQueue = Lists.newLinkedList(Iterables.transform(entryNodes, new Function<Node, NodeInVisitingSegment>() {
             private int index;
 
@@ -243,7 +318,6 @@ public NodeInVisitingSegment apply(Node node) {
             }
         }));
         int visitingSegmentCounter = nodeQueue.size();
-        Set<Node> dependenciesWhichRequireMonitoring = Sets.newHashSet();
 
         HashMultimap<Node, Integer> visitingNodes = HashMultimap.create();
         Deque<GraphEdge> walkedShouldRunAfterEdges = new ArrayDeque<>();
@@ -301,19 +375,7 @@ public NodeInVisitingSegment apply(Node node) {
                 maybeRemoveProcessedShouldRunAfterEdge(walkedShouldRunAfterEdges, node);
                 visitingNodes.remove(node, currentSegment);
                 path.pop();
-                nodeMapping.add(node);
-                if (node.requiresMonitoring()) {
-                    dependenciesWhichRequireMonitoring.add(node);
-                }
-
-                for (Node dependency : node.getDependencySuccessors()) {
-                    dependency.getMutationInfo().consumingNodes.add(node);
-                }
-
-                ResourceLock projectLock = node.getProjectToLock();
-                if (projectLock != null) {
-                    projectLocks.add(projectLock);
-                }
+                addToPlan(node, dependenciesWhichRequireMonitoring);
 
                 // Add any finalizers to the queue
                 for (Node finalizer : node.getFinalizers()) {
@@ -324,13 +386,22 @@ public NodeInVisitingSegment apply(Node node) {
                 }
             }
         }
-        executionQueue.clear();
-        dependencyResolver.clear();
-        Iterables.addAll(executionQueue, nodeMapping);
-        for (Node node : executionQueue) {
-            maybeNodesReady |= node.updateAllDependenciesComplete() && node.isReady();
+    }
+
+    private void addToPlan(Node node, Set<Node> dependenciesWhichRequireMonitoring) {
+        nodeMapping.add(node);
+        if (node.requiresMonitoring()) {
+            dependenciesWhichRequireMonitoring.add(node);
+        }
+
+        for (Node dependency : node.getDependencySuccessors()) {
+            dependency.getMutationInfo().consumingNodes.add(node);
+        }
+
+        ResourceLock projectLock = node.getProjectToLock();
+        if (projectLock != null) {
+            projectLocks.add(projectLock);
         }
-        this.dependenciesWhichRequireMonitoring.addAll(dependenciesWhichRequireMonitoring);
     }
 
     private void maybeRemoveProcessedShouldRunAfterEdge(Deque<GraphEdge> walkedShouldRunAfterEdges, Node node) {
@@ -471,7 +542,7 @@ public void clear() {
         projectLocks.clear();
         failureCollector.clearFailures();
         producedButNotYetConsumed.clear();
-        reachableCache.clear();
+        reachability = new NodeReachability(Collections.emptyList());
         dependenciesWhichRequireMonitoring.clear();
         runningNodes.clear();
     }
@@ -507,7 +578,7 @@ public void setContinueOnFailure(boolean continueOnFailure) {
     @Override
     @Nullable
     public Node selectNext(WorkerLeaseRegistry.WorkerLease workerLease, ResourceLockState resourceLockState) {
-        if (allProjectsLocked()) {
+        if (!taskNodeFactory.isIsolatedExecution() && allProjectsLocked()) {
             // TODO - this is incorrect. We can still run nodes that don't need a project lock
             return null;
         }
@@ -652,7 +723,7 @@ private boolean doesDestroyNotYetConsumedOutputOfAnotherNode(Node destroyer, Set
                     continue;
                 }
                 for (Node consumer : producingNodeMutations.consumingNodes) {
-                    if (doesConsumerDependOnDestroyer(consumer, destroyer)) {
+                    if (reachability.canReach(consumer, destroyer)) {
                         // If there's an explicit dependency from consuming node to destroyer,
                         // then we accept that as the will of the user
                         continue;
@@ -665,28 +736,6 @@ private boolean doesDestroyNotYetConsumedOutputOfAnotherNode(Node destroyer, Set
         return false;
     }
 
-    private boolean doesConsumerDependOnDestroyer(Node consumer, Node destroyer) {
-        if (consumer == destroyer) {
-            return true;
-        }
-        Pair<Node, Node> nodePair = Pair.of(consumer, destroyer);
-        if (reachableCache.get(nodePair) != null) {
-            return reachableCache.get(nodePair);
-        }
-
-        boolean reachable = false;
-        for (Node dependency : consumer.getAllSuccessors()) {
-            if (!dependency.isComplete()) {
-                if (doesConsumerDependOnDestroyer(dependency, destroyer)) {
-                    reachable = true;
-                }
-            }
-        }
-
-        reachableCache.put(nodePair, reachable);
-        return reachable;
-    }
-
     private static boolean hasOverlap(Iterable<String> paths1, Iterable<String> paths2) {
         for (String path1 : paths1) {
             for (String path2 : paths2) {
@@ -23,6 +23,7 @@
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.NoProjectStateAccess;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
 import org.gradle.api.internal.tasks.TaskPropertyUtils;
 import org.gradle.api.internal.tasks.properties.FileParameterUtils;
@@ -51,13 +52,22 @@
 public class LocalTaskNode extends TaskNode {
     private final TaskInternal task;
     private final Map<File, String> canonicalizedFileCache;
+    private final boolean isolatedWhenPossible;
     private ImmutableActionSet<Task> postAction = ImmutableActionSet.empty();
     private boolean isolated;
     private List<? extends ResourceLock> resourceLocks;
 
     public LocalTaskNode(TaskInternal task, Map<File, String> canonicalizedFileCache) {
+        this(task, canonicalizedFileCache, false);
+    }
+
+    /**
+     * @param isolatedWhenPossible when true, the task is isolated once its mutations are resolved if it does not require access to mutable project state.
+     */
+    public LocalTaskNode(TaskInternal task, Map<File, String> canonicalizedFileCache, boolean isolatedWhenPossible) {
         this.task = task;
         this.canonicalizedFileCache = canonicalizedFileCache;
+        this.isolatedWhenPossible = isolatedWhenPossible;
     }
 
     /**
@@ -261,6 +271,18 @@ public void visitInputFileProperty(String propertyName, boolean optional, boolea
                 throw new IllegalStateException("Task " + taskNode + " has both local state and destroyables defined.  A task can define either local state or destroyables, but not both.");
             }
         }
+
+        if (isolatedWhenPossible && !requiresProjectState(mutations)) {
+            isolated();
+        }
+    }
+
+    /**
+     * A task can run without its project lock when its type declares that its actions do not access project state, it declares its outputs,
+     * so that the overlap checks of the execution plan protect it from concurrently running tasks, and it has no ad-hoc actions.
+     */
+    private boolean requiresProjectState(MutationInfo mutations) {
+        return !task.getClass().isAnnotationPresent(NoProjectStateAccess.class) || !mutations.hasOutputs || task.isHasCustomActions() || !postAction.isEmpty();
     }
 
     private static ImmutableSet<String> canonicalizedPaths(final Map<File, String> cache, Iterable<File> files) {
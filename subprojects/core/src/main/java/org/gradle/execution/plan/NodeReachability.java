@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import com.google.common.collect.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers whether a node of a finalized execution plan can reach another node by following its successors.
+ *
+ * <p>Nodes are identified by their position in the plan. Since every node is scheduled after all of its successors, the nodes which can reach
+ * a given target all come after it, and can be collected in a single pass over the plan. The result is kept as a bit set per target, so memory
+ * grows with the number of targets queried rather than with the number of node pairs.</p>
+ */
+class NodeReachability {
+    private final List<Node> nodes;
+    private final Map<Node, Integer> positions;
+    private final Map<Node, BitSet> nodesReaching = Maps.newIdentityHashMap();
+
+    NodeReachability(Iterable<Node> plan) {
+        this.nodes = new ArrayList<>();
+        this.positions = Maps.newIdentityHashMap();
+        for (Node node : plan) {
+            positions.put(node, nodes.size());
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Returns true when {@code target} is the same node as {@code source} or is one of its direct or transitive successors.
+     */
+    public boolean canReach(Node source, Node target) {
+        if (source == target) {
+            return true;
+        }
+        Integer sourcePosition = positions.get(source);
+        Integer targetPosition = positions.get(target);
+        if (sourcePosition == null || targetPosition == null || sourcePosition < targetPosition) {
+            return false;
+        }
+        return nodesReaching(target, targetPosition).get(sourcePosition);
+    }
+
+    private BitSet nodesReaching(Node target, int targetPosition) {
+        BitSet reaching = nodesReaching.get(target);
+        if (reaching == null) {
+            reaching = new BitSet(nodes.size());
+            for (int i = targetPosition + 1; i < nodes.size(); i++) {
+                for (Node successor : nodes.get(i).getAllSuccessors()) {
+                    if (successor == target) {
+                        reaching.set(i);
+                        break;
+                    }
+                    Integer successorPosition = positions.get(successor);
+                    if (successorPosition != null && reaching.get(successorPosition)) {
+                        reaching.set(i);
+                        break;
+                    }
+                }
+            }
+            nodesReaching.put(target, reaching);
+        }
+        return reaching;
+    }
+}
@@ -39,16 +39,31 @@
 import java.util.Set;
 
 public class TaskNodeFactory {
+    /**
+     * When set, tasks of a type marked with {@link org.gradle.api.internal.tasks.NoProjectStateAccess}, that declare their outputs and have no ad-hoc actions,
+     * are allowed to run without holding the lock of their owning project.
+     */
+    public static final String ISOLATED_EXECUTION_PROPERTY = "org.gradle.internal.tasks.isolated-execution";
+
     private final Map<Task, TaskNode> nodes = new HashMap<Task, TaskNode>();
     private final IncludedBuildTaskGraph taskGraph;
     private final GradleInternal thisBuild;
     private final BuildIdentifier currentBuildId;
     private final Map<File, String> canonicalizedFileCache = Maps.newIdentityHashMap();
+    private final boolean isolatedExecution;
 
     public TaskNodeFactory(GradleInternal thisBuild, IncludedBuildTaskGraph taskGraph) {
         this.thisBuild = thisBuild;
         currentBuildId = thisBuild.getServices().get(BuildState.class).getBuildIdentifier();
         this.taskGraph = taskGraph;
+        this.isolatedExecution = Boolean.getBoolean(ISOLATED_EXECUTION_PROPERTY);
+    }
+
+    /**
+     * Returns true when tasks created by this factory may run without holding the lock of their owning project.
+     */
+    public boolean isIsolatedExecution() {
+        return isolatedExecution;
     }
 
     public Set<Task> getTasks() {
@@ -59,7 +74,7 @@ public TaskNode getOrCreateNode(Task task) {
         TaskNode node = nodes.get(task);
         if (node == null) {
             if (task.getProject().getGradle() == thisBuild) {
-                node = new LocalTaskNode((TaskInternal) task, canonicalizedFileCache);
+                node = new LocalTaskNode((TaskInternal) task, canonicalizedFileCache, isolatedExecution);
             } else {
                 node = new TaskInAnotherBuild((TaskInternal) task, currentBuildId, taskGraph);
             }
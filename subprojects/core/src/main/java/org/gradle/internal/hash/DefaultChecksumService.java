@@ -65,18 +65,27 @@ public HashCode sha512(File file) {
 
     @Override
     public HashCode hash(File src, String algorithm) {
+        return doHash(src, hasherFor(algorithm));
+    }
+
+    @Override
+    public void recordChecksum(File file, String algorithm, HashCode checksum) {
+        hasherFor(algorithm).record(file, checksum);
+    }
+
+    private CachingFileHasher hasherFor(String algorithm) {
         switch (algorithm.toLowerCase()) {
             case "md5":
-                return md5(src);
+                return md5;
             case "sha1":
             case "sha-1":
-                return sha1(src);
+                return sha1;
             case "sha256":
             case "sha-256":
-                return sha256(src);
+                return sha256;
             case "sha512":
             case "sha-512":
-                return sha512(src);
+                return sha512;
         }
         throw new UnsupportedOperationException("Cannot hash with algorith " + algorithm);
     }
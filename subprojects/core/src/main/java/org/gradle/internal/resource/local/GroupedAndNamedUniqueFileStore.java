@@ -20,26 +20,35 @@
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.hash.ChecksumService;
+import org.gradle.internal.hash.HashCode;
 
 import java.io.File;
 import java.util.Set;
 
 /**
- * A file store that stores items grouped by some provided function over the key and an SHA1 hash of the value. This means that files are only ever added and never modified once added, so a resource from this store can be used without locking. Locking is required to add entries.
+ * A file store that stores items grouped by some provided function over the key and an SHA1 hash of the value. This means that files are only ever added and never modified once added, so a resource from this store can be used without locking. Locking is required to add entries, unless the store is created for concurrent writers.
  */
 public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStoreSearcher<K> {
 
     protected static final int NUMBER_OF_CHECKSUM_DIRS = 1;
 
-    private final PathKeyFileStore delegate;
+    private final UniquePathKeyFileStore delegate;
     private final TemporaryFileProvider temporaryFileProvider;
     private final Grouper<K> grouper;
     private final Namer<K> namer;
     private final FileAccessTracker checksumDirAccessTracker;
     private final File baseDir;
     private final ChecksumService checksumService;
+    private final boolean concurrentWriters;
 
     public GroupedAndNamedUniqueFileStore(File baseDir, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal, Grouper<K> grouper, Namer<K> namer, ChecksumService checksumService) {
+        this(baseDir, temporaryFileProvider, fileAccessTimeJournal, grouper, namer, checksumService, false);
+    }
+
+    /**
+     * @param concurrentWriters whether entries are added without holding the cache lock, in which case they are moved into place atomically.
+     */
+    public GroupedAndNamedUniqueFileStore(File baseDir, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal, Grouper<K> grouper, Namer<K> namer, ChecksumService checksumService, boolean concurrentWriters) {
         this.delegate = new UniquePathKeyFileStore(checksumService, baseDir);
         this.temporaryFileProvider = temporaryFileProvider;
         this.grouper = grouper;
@@ -47,11 +56,17 @@ public GroupedAndNamedUniqueFileStore(File baseDir, TemporaryFileProvider tempor
         this.checksumDirAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, baseDir, grouper.getNumberOfGroupingDirs() + NUMBER_OF_CHECKSUM_DIRS);
         this.baseDir = baseDir;
         this.checksumService = checksumService;
+        this.concurrentWriters = concurrentWriters;
     }
 
     @Override
     public LocallyAvailableResource move(K key, File source) {
-        return markAccessed(delegate.move(toPath(key, getChecksum(source)), source));
+        return moveIntoPlace(toPath(key, getChecksum(source)), source);
+    }
+
+    @Override
+    public LocallyAvailableResource move(K key, File source, HashCode sha1) {
+        return moveIntoPlace(toPath(key, sha1.toString()), source);
     }
 
     @Override
@@ -103,7 +118,14 @@ public LocallyAvailableResource add(K key, Action<File> addAction) {
         final File tempFile = getTempFile();
         addAction.execute(tempFile);
         final String groupedAndNamedKey = toPath(key, getChecksum(tempFile));
-        return markAccessed(delegate.move(groupedAndNamedKey, tempFile));
+        return moveIntoPlace(groupedAndNamedKey, tempFile);
+    }
+
+    private LocallyAvailableResource moveIntoPlace(String path, File source) {
+        if (concurrentWriters) {
+            return delegate.moveConcurrently(path, source, checksumDirAccessTracker::markAccessed);
+        }
+        return markAccessed(delegate.move(path, source));
     }
 
     private LocallyAvailableResource markAccessed(LocallyAvailableResource resource) {
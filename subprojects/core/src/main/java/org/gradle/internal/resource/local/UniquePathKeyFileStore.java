@@ -20,8 +20,14 @@
 import org.gradle.api.Action;
 import org.gradle.api.NonNullApi;
 import org.gradle.internal.hash.ChecksumService;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
 
 /**
  * Assumes that files do not need to be replaced in the filestore.
@@ -31,6 +37,9 @@
 @NonNullApi
 public class UniquePathKeyFileStore extends DefaultPathKeyFileStore {
 
+    private static final String STAGED_FILE_SUFFIX = ".part";
+    private static final int MAX_MOVE_ATTEMPTS = 3;
+
     public UniquePathKeyFileStore(ChecksumService checksumService, File baseDir) {
         super(checksumService, baseDir);
     }
@@ -44,6 +53,60 @@ public LocallyAvailableResource move(String path, File source) {
         return entry;
     }
 
+    /**
+     * Moves a file into the store without holding the cache lock, for caches shared by concurrent writers. The file is renamed atomically
+     * into place, so an entry never exists partially, and as its content is the same for all writers it does not matter which rename wins.
+     *
+     * <p>The given action is run with the destination of the entry once its parent directory exists and before the entry is published,
+     * so that the entry can be marked as accessed before the cleanup of another process can see it. The move is retried when that cleanup
+     * removes the parent directory in the meantime.</p>
+     */
+    public LocallyAvailableResource moveConcurrently(String path, File source, Action<File> beforePublish) {
+        if (source.isDirectory()) {
+            LocallyAvailableResource entry = move(path, source);
+            beforePublish.execute(entry.getFile());
+            return entry;
+        }
+        if (!source.exists()) {
+            throw new FileStoreException(String.format("Cannot move '%s' into filestore @ '%s' as it does not exist", source, path));
+        }
+        File destination = new File(getBaseDir(), path);
+        beforePublish.execute(destination);
+        if (destination.exists()) {
+            FileUtils.deleteQuietly(source);
+            return entryAt(path);
+        }
+
+        // The source may be on another file system, so it is first moved to the base directory, where cache cleanup does not look
+        File staged = new File(getBaseDir(), destination.getName() + "." + UUID.randomUUID() + STAGED_FILE_SUFFIX);
+        try {
+            GFileUtils.moveExistingFile(source, staged);
+            for (int attempt = 1;; attempt++) {
+                GFileUtils.parentMkdirs(destination);
+                beforePublish.execute(destination);
+                try {
+                    Files.move(staged.toPath(), destination.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    break;
+                } catch (NoSuchFileException e) {
+                    if (attempt == MAX_MOVE_ATTEMPTS || !staged.exists()) {
+                        throw e;
+                    }
+                } catch (IOException e) {
+                    // Some file systems do not replace an existing file, when another writer has moved the same entry first
+                    if (!destination.exists()) {
+                        throw e;
+                    }
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            throw new FileStoreException(String.format("Failed to move file '%s' into filestore at '%s' ", source, path), e);
+        } finally {
+            FileUtils.deleteQuietly(staged);
+        }
+        return entryAt(path);
+    }
+
     @Override
     protected void doAdd(File destination, Action<File> action) {
         if (!destination.exists()) {
@@ -51,6 +51,7 @@
 import org.gradle.api.internal.plugins.PluginInspector;
 import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.internal.project.ConfigurationOnDemandProjectAccessListener;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.DefaultProjectRegistry;
 import org.gradle.api.internal.project.DefaultProjectTaskLister;
 import org.gradle.api.internal.project.IProjectFactory;
@@ -511,8 +512,12 @@ protected ScriptHandlerFactory createScriptHandlerFactory(DependencyManagementSe
             instantiator);
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected CrossProjectAccessGuard createCrossProjectAccessGuard() {
+        return new CrossProjectAccessGuard();
+    }
+
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, CrossProjectAccessGuard crossProjectAccessGuard) {
+        return new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, crossProjectAccessGuard);
     }
 
     protected ProjectsPreparer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildStateRegistry buildStateRegistry, BuildLoader buildLoader, ListenerManager listenerManager, BuildOperationExecutor buildOperationExecutor) {
@@ -19,7 +19,9 @@
 import org.gradle.api.artifacts.component.BuildIdentifier;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.Factory;
 import org.gradle.internal.build.BuildStateRegistry;
 
 import javax.annotation.Nullable;
@@ -28,20 +30,32 @@
 public class DefaultProjectFinder implements ProjectFinder {
     private final BuildStateRegistry buildStateRegistry;
     private final Supplier<ProjectInternal> baseProjectSupplier;
+    private final CrossProjectAccessGuard crossProjectAccessGuard;
 
-    public DefaultProjectFinder(BuildStateRegistry buildStateRegistry, Supplier<ProjectInternal> baseProjectSupplier) {
+    public DefaultProjectFinder(BuildStateRegistry buildStateRegistry, Supplier<ProjectInternal> baseProjectSupplier, CrossProjectAccessGuard crossProjectAccessGuard) {
         this.buildStateRegistry = buildStateRegistry;
         this.baseProjectSupplier = baseProjectSupplier;
+        this.crossProjectAccessGuard = crossProjectAccessGuard;
     }
 
     @Override
-    public ProjectInternal getProject(String path) {
-        return baseProjectSupplier.get().project(path);
+    public ProjectInternal getProject(final String path) {
+        return crossProjectAccessGuard.withoutAccessChecks(new Factory<ProjectInternal>() {
+            @Override
+            public ProjectInternal create() {
+                return baseProjectSupplier.get().project(path);
+            }
+        });
     }
 
     @Override
-    public ProjectInternal findProject(String path) {
-        return baseProjectSupplier.get().findProject(path);
+    public ProjectInternal findProject(final String path) {
+        return crossProjectAccessGuard.withoutAccessChecks(new Factory<ProjectInternal>() {
+            @Override
+            public ProjectInternal create() {
+                return baseProjectSupplier.get().findProject(path);
+            }
+        });
     }
 
     @Nullable
@@ -28,6 +28,7 @@
 import org.gradle.api.internal.plugins.PluginManagerInternal;
 import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.internal.plugins.PluginTarget;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateRegistry;
 import org.gradle.api.internal.tasks.options.OptionReader;
@@ -166,13 +167,13 @@ TaskExecutionPreparer createTaskExecutionPreparer(BuildConfigurationActionExecut
             buildOperationExecutor);
     }
 
-    ProjectFinder createProjectFinder(final BuildStateRegistry buildStateRegistry, final GradleInternal gradle) {
+    ProjectFinder createProjectFinder(final BuildStateRegistry buildStateRegistry, final GradleInternal gradle, CrossProjectAccessGuard crossProjectAccessGuard) {
         return new DefaultProjectFinder(buildStateRegistry, new Supplier<ProjectInternal>() {
             @Override
             public ProjectInternal get() {
                 return gradle.getRootProject();
             }
-        });
+        }, crossProjectAccessGuard);
     }
 
     TaskNodeFactory createTaskNodeFactory(GradleInternal gradle, IncludedBuildTaskGraph includedBuildTaskGraph) {
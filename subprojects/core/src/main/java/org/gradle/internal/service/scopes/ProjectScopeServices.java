@@ -48,6 +48,7 @@
 import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.internal.plugins.PluginTarget;
 import org.gradle.api.internal.plugins.RuleBasedPluginTarget;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.CrossProjectConfigurator;
 import org.gradle.api.internal.project.DefaultAntBuilderFactory;
 import org.gradle.api.internal.project.DeferredProjectConfiguration;
@@ -193,7 +194,7 @@ protected TaskInstantiator createTaskInstantiator(ITaskFactory taskFactory) {
         return new TaskInstantiator(taskFactory, project);
     }
 
-    protected TaskContainerInternal createTaskContainerInternal(TaskStatistics taskStatistics, BuildOperationExecutor buildOperationExecutor, CrossProjectConfigurator crossProjectConfigurator, CollectionCallbackActionDecorator decorator) {
+    protected TaskContainerInternal createTaskContainerInternal(TaskStatistics taskStatistics, BuildOperationExecutor buildOperationExecutor, CrossProjectConfigurator crossProjectConfigurator, CrossProjectAccessGuard crossProjectAccessGuard, CollectionCallbackActionDecorator decorator) {
         return new DefaultTaskContainerFactory(
             get(ModelRegistry.class),
             get(Instantiator.class),
@@ -203,6 +204,7 @@ protected TaskContainerInternal createTaskContainerInternal(TaskStatistics taskS
             taskStatistics,
             buildOperationExecutor,
             crossProjectConfigurator,
+            crossProjectAccessGuard,
             decorator
         ).create();
     }
@@ -212,8 +214,8 @@ protected SoftwareComponentContainer createSoftwareComponentContainer(Collection
         return instantiator.newInstance(DefaultSoftwareComponentContainer.class, instantiator, decorator);
     }
 
-    protected ProjectFinder createProjectFinder(final BuildStateRegistry buildStateRegistry) {
-        return new DefaultProjectFinder(buildStateRegistry, () -> project);
+    protected ProjectFinder createProjectFinder(final BuildStateRegistry buildStateRegistry, CrossProjectAccessGuard crossProjectAccessGuard) {
+        return new DefaultProjectFinder(buildStateRegistry, () -> project, crossProjectAccessGuard);
     }
 
     protected ModelRegistry createModelRegistry(ModelRuleExtractor ruleExtractor) {
@@ -93,6 +93,11 @@ public void execute(WorkerProcessContext workerProcessContext) {
             completed.await();
         } catch (InterruptedException e) {
             throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            // Release any state the implementation keeps between requests
+            if (implementation instanceof Stoppable) {
+                ((Stoppable) implementation).stop();
+            }
         }
     }
 
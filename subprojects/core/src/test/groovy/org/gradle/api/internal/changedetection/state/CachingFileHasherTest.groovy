@@ -167,4 +167,19 @@ class CachingFileHasherTest extends Specification {
         }
         0 * _._
     }
+
+    def recordsHashComputedByCaller() {
+        def stat = fileSystem.stat(file)
+
+        when:
+        hasher.record(file, hash)
+
+        then:
+        1 * cache.put(file.absolutePath, _) >> { String key, FileInfo fileInfo ->
+            assert fileInfo.hash == hash
+            assert fileInfo.length == stat.length
+            assert fileInfo.timestamp == stat.lastModified
+        }
+        0 * _._
+    }
 }
@@ -71,6 +71,48 @@ class DefaultPendingSourceTest extends Specification {
         pending.size() == 1
     }
 
+    def "realizes pending elements with a given type in registration order"() {
+        _ * provider1.getType() >> SomeType.class
+        _ * provider2.getType() >> SomeOtherType.class
+        _ * provider3.getType() >> SomeType.class
+
+        when:
+        pending.addPending(provider1)
+        pending.addPending(provider2)
+        pending.addPending(provider3)
+        pending.realizePending(BaseType.class)
+
+        then:
+        1 * realize.execute("provider1")
+
+        then:
+        1 * realize.execute("provider2")
+
+        then:
+        1 * realize.execute("provider3")
+
+        and:
+        pending.isEmpty()
+    }
+
+    def "realizing a pending element externally removes only that element"() {
+        _ * provider1.getType() >> SomeType.class
+        _ * provider2.getType() >> SomeType.class
+
+        when:
+        pending.addPending(provider1)
+        pending.addPending(provider2)
+        pending.realizeExternal(provider2)
+        pending.realizePending(SomeType.class)
+
+        then:
+        1 * realize.execute("provider1")
+        0 * realize.execute("provider2")
+
+        and:
+        pending.isEmpty()
+    }
+
     def "cannot realize pending elements when realize action is not set"() {
         given:
         pending.onRealize(null)
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project
+
+import org.gradle.api.InvalidUserCodeException
+import org.gradle.api.internal.DomainObjectContext
+import org.gradle.api.internal.MutationGuard
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class CrossProjectAccessGuardTest extends Specification {
+    def guard = new CrossProjectAccessGuard()
+    def root = project("root project 'root'", null)
+    def a = project("project ':a'", root)
+    def aChild = project("project ':a:child'", a)
+    def b = project("project ':b'", root)
+
+    def "allows access to any project when not configuring in parallel"() {
+        expect:
+        guard.checkAccess(b) == b
+        guard.checkAccess([a, b]) == [a, b]
+    }
+
+    def "allows access to the project itself, its ancestors and its descendants"() {
+        expect:
+        configuringInParallel(a) {
+            assert guard.checkAccess(a) == a
+            assert guard.checkAccess(root) == root
+            assert guard.checkAccess([aChild]) == [aChild]
+        }
+    }
+
+    def "fails on access to another project"() {
+        when:
+        configuringInParallel(a) {
+            guard.checkAccess([root, a, b])
+        }
+
+        then:
+        def e = thrown(InvalidUserCodeException)
+        e.message.startsWith("Project ':a' cannot access project ':b' while projects are configured in parallel")
+    }
+
+    def "allows references to other projects"() {
+        expect:
+        configuringInParallel(a) {
+            assert guard.withoutAccessChecks({ guard.checkAccess(b) } as Factory) == b
+        }
+    }
+
+    def "allows changes to any project when not configuring in parallel"() {
+        when:
+        guard.checkMutation(root, "setVersion(Object)")
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows changes to the project itself and its descendants"() {
+        when:
+        configuringInParallel(a) {
+            guard.checkMutation(a, "setVersion(Object)")
+            guard.checkMutation(aChild, "setVersion(Object)")
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails on changes to an ancestor"() {
+        when:
+        configuringInParallel(a) {
+            guard.checkMutation(root, "ext.set('shared')")
+        }
+
+        then:
+        def e = thrown(InvalidUserCodeException)
+        e.message.startsWith("Project ':a' cannot call ext.set('shared') on root project 'root' while projects are configured in parallel")
+    }
+
+    def "fails on changes to a container of an ancestor"() {
+        def delegate = Mock(MutationGuard)
+        def owner = Stub(DomainObjectContext) {
+            getProject() >> root
+        }
+        def mutationGuard = guard.guardMutationsOf(owner, delegate)
+
+        when:
+        mutationGuard.assertMutationAllowed("create(String)", "container")
+
+        then:
+        1 * delegate.assertMutationAllowed("create(String)", "container")
+
+        when:
+        configuringInParallel(b) {
+            mutationGuard.assertMutationAllowed("create(String)", "container")
+        }
+
+        then:
+        1 * delegate.assertMutationAllowed("create(String)", "container")
+        def e = thrown(InvalidUserCodeException)
+        e.message.startsWith("Project ':b' cannot call create(String) on root project 'root' while projects are configured in parallel")
+    }
+
+    def "allows changes to containers of a script"() {
+        def script = Stub(DomainObjectContext) {
+            getProject() >> null
+        }
+        def mutationGuard = guard.guardMutationsOf(script, Stub(MutationGuard))
+
+        when:
+        configuringInParallel(a) {
+            mutationGuard.assertMutationAllowed("create(String)", "container")
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    private void configuringInParallel(ProjectInternal project, Closure action) {
+        guard.whileConfiguringInParallel(project, action as Runnable)
+    }
+
+    private ProjectInternal project(String displayName, ProjectInternal parent) {
+        Stub(ProjectInternal) {
+            getDisplayName() >> displayName
+            getParent() >> parent
+        }
+    }
+}
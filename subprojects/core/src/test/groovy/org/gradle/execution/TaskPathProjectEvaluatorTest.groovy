@@ -16,15 +16,25 @@
 
 package org.gradle.execution
 
+import org.gradle.StartParameter
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.CrossProjectAccessGuard
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
     private cancellationToken = Mock(BuildCancellationToken)
     private project = Mock(ProjectInternal)
-    private evaluator = new TaskPathProjectEvaluator(cancellationToken)
+    private buildOperationExecutor = new TestBuildOperationExecutor()
+    private evaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, new CrossProjectAccessGuard())
 
     def "project configuration fails when cancelled"() {
         given:
@@ -60,4 +70,37 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures projects after their parent when configured in parallel"() {
+        def child1 = Mock(ProjectInternal)
+        def child2 = Mock(ProjectInternal)
+        def grandChild = Mock(ProjectInternal)
+        def startParameter = new StartParameter()
+        startParameter.parallelProjectExecutionEnabled = true
+
+        given:
+        System.setProperty(TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY, "true")
+        evaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, new CrossProjectAccessGuard())
+        project.gradle >> Stub(GradleInternal) {
+            getStartParameter() >> startParameter
+        }
+        project.subprojects >> [child1, grandChild, child2]
+        child1.depth >> 1
+        child2.depth >> 1
+        grandChild.depth >> 2
+
+        when:
+        evaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * child1.evaluate()
+        1 * child2.evaluate()
+
+        then:
+        1 * grandChild.evaluate()
+        buildOperationExecutor.log.descriptors.size() == 3
+    }
 }
@@ -21,6 +21,7 @@ import org.gradle.api.Task
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.NoProjectStateAccess
 import org.gradle.api.tasks.Destroys
 import org.gradle.api.tasks.InputDirectory
 import org.gradle.api.tasks.InputFile
@@ -28,13 +29,16 @@ import org.gradle.api.tasks.LocalState
 import org.gradle.api.tasks.OutputDirectory
 import org.gradle.api.tasks.OutputFile
 import org.gradle.api.tasks.OutputFiles
+import org.gradle.api.tasks.TaskAction
 import org.gradle.composite.internal.IncludedBuildTaskGraph
 import org.gradle.internal.nativeintegration.filesystem.FileSystem
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.testfixtures.internal.NativeServicesTestFixture
 import org.gradle.util.Requires
+import org.gradle.util.SetSystemProperties
 import org.gradle.util.TestPrecondition
+import org.junit.Rule
 import spock.lang.Issue
 import spock.lang.Unroll
 
@@ -42,11 +46,18 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
 
     FileSystem fs = NativeServicesTestFixture.instance.get(FileSystem)
 
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
     DefaultExecutionPlan executionPlan
     def lease = Stub(WorkerLeaseRegistry.WorkerLease)
 
     def setup() {
         _ * lease.tryLock() >> true
+        createExecutionPlan()
+    }
+
+    private void createExecutionPlan() {
         def taskNodeFactory = new TaskNodeFactory(project.gradle, Stub(IncludedBuildTaskGraph))
         def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
         executionPlan = new DefaultExecutionPlan(thisBuild, taskNodeFactory, dependencyResolver)
@@ -148,6 +159,92 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         lockedProjects.empty
     }
 
+    def "tasks without project state access from the same project can run in parallel when isolated execution is enabled"() {
+        given:
+        System.setProperty(TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY, "true")
+        createExecutionPlan()
+        Task a = task("a", type: WithoutProjectStateAccess)
+        _ * a.outputFile >> file("outputA")
+        Task b = task("b", type: WithoutProjectStateAccess)
+        _ * b.outputFile >> file("outputB")
+        def c = task("c")
+        def d = task("d")
+
+        when:
+        addToGraphAndPopulate(a, b, c, d)
+        def executedTasks = [selectNextTask(), selectNextTask(), selectNextTask()] as Set
+
+        then:
+        executedTasks == [a, b, c] as Set
+        lockedProjects == [project] as Set
+        selectNextTask() == null
+    }
+
+    def "tasks with custom actions require the project lock when isolated execution is enabled"() {
+        given:
+        System.setProperty(TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY, "true")
+        createExecutionPlan()
+        Task a = task("a", type: WithoutProjectStateAccess)
+        _ * a.outputFile >> file("outputA")
+        _ * a.hasCustomActions >> true
+        Task b = task("b", type: WithoutProjectStateAccess)
+        _ * b.outputFile >> file("outputB")
+        _ * b.hasCustomActions >> true
+
+        when:
+        addToGraphAndPopulate(a, b)
+        def firstTaskNode = selectNextTaskNode()
+
+        then:
+        firstTaskNode.task == a
+        lockedProjects == [project] as Set
+        selectNextTask() == null
+
+        when:
+        executionPlan.finishedExecuting(firstTaskNode)
+
+        then:
+        selectNextTask() == b
+    }
+
+    def "tasks with overlapping outputs are not executed in parallel when isolated execution is enabled"() {
+        given:
+        System.setProperty(TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY, "true")
+        createExecutionPlan()
+        Task a = task("a", type: WithoutProjectStateAccess)
+        _ * a.outputFile >> file("output")
+        Task b = task("b", type: WithoutProjectStateAccess)
+        _ * b.outputFile >> file("output")
+
+        expect:
+        tasksAreNotExecutedInParallel(a, b)
+    }
+
+    def "tasks whose type does not declare that it has no project state access require the project lock when isolated execution is enabled"() {
+        given:
+        System.setProperty(TaskNodeFactory.ISOLATED_EXECUTION_PROPERTY, "true")
+        createExecutionPlan()
+        Task a = task("a", type: WithOutputFile)
+        _ * a.outputFile >> file("outputA")
+        Task b = task("b", type: WithOutputFile)
+        _ * b.outputFile >> file("outputB")
+
+        when:
+        addToGraphAndPopulate(a, b)
+        def firstTaskNode = selectNextTaskNode()
+
+        then:
+        firstTaskNode.task == a
+        lockedProjects == [project] as Set
+        selectNextTask() == null
+
+        when:
+        executionPlan.finishedExecuting(firstTaskNode)
+
+        then:
+        selectNextTask() == b
+    }
+
     @Unroll
     def "two tasks with #relation relationship are not executed in parallel"() {
         given:
@@ -571,6 +668,35 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         destroyerRunsFirst(a, c, b)
     }
 
+    def "a task that destroys an intermediate input can be started if the consumer transitively depends on it"() {
+        given:
+        def projectA = project(project, "a")
+        Task a = task("a", project: projectA, type: AsyncWithOutputDirectory)
+        _ * a.outputDirectory >> file("inputDir")
+        def projectB = project(project, "b")
+        Task b = task("b", project: projectB, type: AsyncWithDestroysFile)
+        _ * b.destroysFile >> file("inputDir")
+        Task d = task("d", project: projectB, type: Async, dependsOn: [b])
+        def projectC = project(project, "c")
+        Task c = task("c", project: projectC, type: AsyncWithInputDirectory, dependsOn: [a, d])
+        _ * c.inputDirectory >> file("inputDir")
+
+        when:
+        addToGraphAndPopulate(c)
+        def producerInfo = selectNextTaskNode()
+
+        then:
+        producerInfo.task == a
+        selectNextTask() == null
+
+        when:
+        executionPlan.finishedExecuting(producerInfo)
+        def destroyerInfo = selectNextTaskNode()
+
+        then:
+        destroyerInfo.task == b
+    }
+
     def "finalizer runs after the last task to be finalized"() {
         given:
         def projectA = project(project, "a")
@@ -766,6 +892,22 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
 
     static class Async extends DefaultTask {}
 
+    static class WithOutputFile extends DefaultTask {
+        @OutputFile
+        File outputFile
+
+        @TaskAction
+        void generate() {
+            outputFile.text = project.version
+        }
+    }
+
+    @NoProjectStateAccess
+    static class WithoutProjectStateAccess extends DefaultTask {
+        @OutputFile
+        File outputFile
+    }
+
     static class AsyncWithOutputFile extends Async {
         @OutputFile
         File outputFile
@@ -843,6 +843,68 @@ class DefaultExecutionPlanTest extends AbstractExecutionPlanSpec {
         executesNodes(node1, node2, node3)
     }
 
+    def "walk without ordering constraints produces the same plan as the general walk"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        Task c = task("c", dependsOn: [a])
+        Task d = task("d", dependsOn: [c, b], mustRunAfter: [a])
+        Task e = task("e", dependsOn: [d])
+        Task f = task("f", mustRunAfter: [e])
+        Task g = task("g", dependsOn: [b])
+
+        when:
+        def batches = [[g, f], [e], [c, a]]
+
+        then:
+        planOf(batches, true) == planOf(batches, false)
+        planOf(batches, true) as Set == [a, b, c, d, e, f, g] as Set
+    }
+
+    def "walk without ordering constraints produces the same plan as the general walk when it bails out partway"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        Task finalizerDependency = task("finalizerDependency", dependsOn: [a])
+        Task finalizer = task("finalizer", dependsOn: [finalizerDependency])
+        Task c = task("c", dependsOn: [b], finalizedBy: [finalizer])
+        Task d = task("d", shouldRunAfter: [c], dependsOn: [b])
+
+        when:
+        // The walk adds a and b to the plan before it finds the finalizer of c
+        def batches = [[d, b, c]]
+
+        then:
+        planOf(batches, true) == planOf(batches, false)
+        planOf(batches, true) as Set == [a, b, c, d, finalizerDependency, finalizer] as Set
+    }
+
+    def "walk without ordering constraints produces the same plan as the general walk when it bails out in a later batch"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        Task finalizer = task("finalizer", dependsOn: [a])
+        Task c = task("c", dependsOn: [b], finalizedBy: [finalizer])
+        Task d = task("d", dependsOn: [a])
+        Task e = task("e", shouldRunAfter: [d])
+
+        when:
+        def batches = [[b], [d, c], [e]]
+
+        then:
+        planOf(batches, true) == planOf(batches, false)
+        planOf(batches, true) as Set == [a, b, c, d, e, finalizer] as Set
+    }
+
+    private List<Task> planOf(List<List<Task>> batches, boolean walkWithoutOrderingConstraintsFirst) {
+        def taskNodeFactory = new TaskNodeFactory(thisBuild, Stub(IncludedBuildTaskGraph))
+        def plan = new DefaultExecutionPlan(thisBuild, taskNodeFactory, new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)]))
+        batches.each { batch ->
+            plan.addEntryTasks(batch)
+            plan.determineExecutionPlan(walkWithoutOrderingConstraintsFirst)
+        }
+        return plan.tasks as List
+    }
 
     private Node requiredNode(Node... dependencies) {
         node(dependencies).tap {
@@ -65,6 +65,23 @@ class GroupedAndNamedUniqueFileStoreTest extends Specification {
         1 * fileAccessTimeJournal.setLastAccessTime(baseDir.file('group'), _)
     }
 
+    def "marks files accessed before they are moved into the store by concurrent writers"() {
+        given:
+        def concurrentFileStore = new GroupedAndNamedUniqueFileStore<String>(baseDir, temporaryFileProvider, fileAccessTimeJournal, grouper, { key -> key }, TestUtil.checksumService, true)
+        def file = tmpDir.createFile("1.txt")
+
+        when:
+        def entry = concurrentFileStore.move('1', file)
+
+        then:
+        1 * fileAccessTimeJournal.setLastAccessTime(baseDir.file('group'), _) >> {
+            // The checksum directory exists, but the entry is not published yet
+            assert baseDir.file('group').listFiles().every { it.directory && it.list().length == 0 }
+        }
+        entry.file.parentFile == baseDir.file('group')
+        !file.exists()
+    }
+
     def "allows to mark files accessed externally"() {
         when:
         fileStore.getFileAccessTracker().markAccessed(baseDir.file('group/1.txt'))
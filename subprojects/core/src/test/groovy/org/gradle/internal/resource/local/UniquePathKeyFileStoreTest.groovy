@@ -17,14 +17,16 @@
 package org.gradle.internal.resource.local
 
 import org.gradle.api.Action
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.TestUtil
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
-import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
 
 @UsesNativeServices
-class UniquePathKeyFileStoreTest extends Specification {
+class UniquePathKeyFileStoreTest extends ConcurrentSpec {
     @Rule
     TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass());
     Action<File> action = Mock()
@@ -85,4 +87,87 @@ class UniquePathKeyFileStoreTest extends Specification {
         fileInStore.file == file
         !source.exists()
     }
+
+    def "concurrent move adds file and marks it before publishing it"() {
+        setup:
+        def source = temporaryFolder.createFile("some-file")
+        source.text = 'content'
+        def file = temporaryFolder.file("fsbase/a/a")
+
+        when:
+        def fileInStore = uniquePathKeyFileStore.moveConcurrently("a/a", source, action)
+
+        then:
+        1 * action.execute(file) >> {
+            assert file.parentFile.directory
+            assert !file.exists()
+        }
+        fileInStore.file == file
+        file.text == 'content'
+        !source.exists()
+        temporaryFolder.file("fsbase").list() as Set == ["a"] as Set
+    }
+
+    def "concurrent move returns existing file if it already exists"() {
+        setup:
+        def source = temporaryFolder.createFile("some-file")
+        def file = temporaryFolder.createFile("fsbase/a/a")
+        file.text = 'existing content'
+
+        when:
+        def fileInStore = uniquePathKeyFileStore.moveConcurrently("a/a", source, action)
+
+        then:
+        1 * action.execute(file)
+        fileInStore.file == file
+        file.text == 'existing content'
+        !source.exists()
+    }
+
+    def "concurrent move retries when the parent directory is removed before the file is published"() {
+        setup:
+        def source = temporaryFolder.createFile("some-file")
+        source.text = 'content'
+        def file = temporaryFolder.file("fsbase/a/b/c")
+
+        when:
+        def fileInStore = uniquePathKeyFileStore.moveConcurrently("a/b/c", source, action)
+
+        then:
+        // Simulates the cleanup of another process removing the unused directory
+        1 * action.execute(file) >> { temporaryFolder.file("fsbase/a").deleteDir() }
+        1 * action.execute(file)
+        fileInStore.file == file
+        file.text == 'content'
+        !source.exists()
+    }
+
+    def "several writers can move the same entry concurrently"() {
+        setup:
+        def writers = 10
+        def sources = (1..writers).collect {
+            def source = temporaryFolder.createFile("source-$it")
+            source.text = 'same content'
+            source
+        }
+        def file = temporaryFolder.file("fsbase/a/a")
+        def results = new CopyOnWriteArrayList()
+
+        when:
+        async {
+            sources.each { source ->
+                start {
+                    results << uniquePathKeyFileStore.moveConcurrently("a/a", source, {} as Action).file
+                }
+            }
+        }
+
+        then:
+        results.size() == writers
+        results.every { it == file }
+        file.text == 'same content'
+        sources.every { !it.exists() }
+        temporaryFolder.file("fsbase").list() as Set == ["a"] as Set
+        temporaryFolder.file("fsbase/a").list() as Set == ["a"] as Set
+    }
 }
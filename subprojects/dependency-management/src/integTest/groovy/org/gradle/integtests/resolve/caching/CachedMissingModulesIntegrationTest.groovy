@@ -16,6 +16,7 @@
 
 package org.gradle.integtests.resolve.caching
 
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultCachePolicy
 import org.gradle.integtests.fixtures.AbstractHttpDependencyResolutionTest
 import org.gradle.integtests.fixtures.ToBeFixedForInstantExecution
 import org.gradle.integtests.fixtures.executer.GradleContextualExecuter
@@ -366,6 +367,117 @@ Required by:
 
     }
 
+    def "checks again for missing changing module when timeout for missing modules has expired"() {
+        given:
+        def repo1 = ivyHttpRepo("repo1")
+        def repo2 = ivyHttpRepo("repo2")
+        def moduleInRepo1 = repo1.module("group", "projectA", "1.2")
+        def moduleInRepo2 = repo2.module('group', 'projectA', '1.2').publish()
+
+        buildFile << """
+            repositories {
+                ivy { url "${repo1.uri}"}
+                ivy { url "${repo2.uri}"}
+            }
+            configurations {
+                compile
+                all {
+                    resolutionStrategy.cacheChangingModulesFor(0, "seconds")
+                }
+            }
+            dependencies {
+                compile group: 'group', name: 'projectA', version: '1.2', changing: true
+            }
+
+            task retrieve(type: Sync) {
+                into 'libs'
+                from configurations.compile
+            }
+            """
+
+        when:
+        moduleInRepo1.ivy.expectGetMissing()
+        moduleInRepo2.ivy.expectGet()
+        moduleInRepo2.jar.expectGet()
+
+        then:
+        succeeds 'retrieve', "-D${DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY}=3600"
+
+        when:
+        server.resetExpectations() // Missing status in repo1 is cached for an hour
+        moduleInRepo1.publish()
+        moduleInRepo2.ivy.expectHead()
+        moduleInRepo2.jar.expectHead()
+
+        then:
+        succeeds 'retrieve', "-D${DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY}=3600"
+
+        when:
+        server.resetExpectations()
+        moduleInRepo1.ivy.expectHead()
+        moduleInRepo1.ivy.sha1.expectGet()
+        moduleInRepo1.jar.expectHead()
+        moduleInRepo1.jar.sha1.expectGet()
+
+        then:
+        succeeds 'retrieve', "-D${DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY}=0"
+    }
+
+    def "lists versions again in previously empty repository when timeout for missing modules has expired"() {
+        given:
+        def repo1 = mavenHttpRepo("repo1")
+        def repo2 = mavenHttpRepo("repo2")
+
+        buildFile << """
+            repositories {
+                maven {
+                    name 'repo1'
+                    url '${repo1.uri}'
+                }
+                maven {
+                    name 'repo2'
+                    url '${repo2.uri}'
+                }
+            }
+            configurations { compile }
+            dependencies {
+                compile "group:projectA:1.+"
+            }
+
+            task retrieve(type: Sync) {
+                into 'libs'
+                from configurations.compile
+            }
+            """
+
+        when:
+        def repo1MetaData = repo1.getModuleMetaData("group", "projectA")
+        def repo1Module = repo1.module("group", "projectA", "1.1")
+        def repo2MetaData = repo2.getModuleMetaData("group", "projectA")
+        def repo2Module = repo2.module("group", "projectA", "1.0").publish()
+
+        repo1MetaData.expectGetMissing()
+        repo2MetaData.expectGet()
+        repo2Module.pom.expectGet()
+        repo2Module.artifact.expectGet()
+
+        then:
+        succeeds 'retrieve'
+        file('libs').assertHasDescendants('projectA-1.0.jar')
+
+        when:
+        server.resetExpectations()
+        repo1Module.publish()
+        repo1MetaData.expectGet()
+        repo1Module.pom.expectGet()
+        repo1Module.artifact.expectGet()
+
+        then:
+        // The version list of repo2 is not empty, so it is kept for the dynamic version timeout
+        succeeds 'retrieve', "-D${DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY}=0"
+        file('libs').assertHasDescendants('projectA-1.1.jar')
+    }
+
     @ToBeFixedForInstantExecution
     def "cached missing module is ignored if module is not available in any repo"() {
         given:
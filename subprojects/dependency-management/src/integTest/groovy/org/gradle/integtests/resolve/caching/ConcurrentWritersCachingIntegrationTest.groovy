@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.resolve.caching
+
+import org.gradle.api.internal.artifacts.ivyservice.WritableArtifactCacheLockingManager
+import org.gradle.integtests.fixtures.AbstractHttpDependencyResolutionTest
+import org.gradle.integtests.fixtures.executer.GradleContextualExecuter
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+import spock.lang.IgnoreIf
+
+@IgnoreIf({ GradleContextualExecuter.embedded }) // needs several build processes
+class ConcurrentWritersCachingIntegrationTest extends AbstractHttpDependencyResolutionTest {
+    @Rule BlockingHttpServer blockingServer = new BlockingHttpServer()
+
+    def setup() {
+        blockingServer.start()
+        server.start()
+        executer.requireIsolatedDaemons()
+        executer.beforeExecute {
+            withArgument("-D${WritableArtifactCacheLockingManager.CONCURRENT_WRITERS_PROPERTY}=true")
+        }
+
+        buildFile << """
+repositories {
+    maven { url "${mavenHttpRepo.uri}" }
+}
+configurations {
+    a
+    b
+}
+dependencies {
+    a "group1:module1:1.0"
+    b "group1:module2:1.0"
+}
+task a {
+    doLast {
+        println "a: " + configurations.a.files*.name
+    }
+}
+task b {
+    doLast {
+        println "b: " + configurations.b.files*.name
+    }
+}
+task blockA {
+    doLast {
+        ${blockingServer.callFromBuild("block-a")}
+    }
+}
+task blockB {
+    doLast {
+        ${blockingServer.callFromBuild("block-b")}
+    }
+}
+blockA.mustRunAfter a
+blockB.mustRunAfter b
+"""
+    }
+
+    def "keeps the entries written by build processes adding to the cache at the same time"() {
+        def mod1 = mavenHttpRepo.module("group1", "module1", "1.0").publish()
+        def mod2 = mavenHttpRepo.module("group1", "module2", "1.0").publish()
+
+        given:
+        // Ensure scripts are compiled
+        run("help")
+
+        when:
+        def block = blockingServer.expectConcurrentAndBlock("block-a", "block-b")
+        mod1.pom.expectGet()
+        mod1.artifact.expectGet()
+        mod2.pom.expectGet()
+        mod2.artifact.expectGet()
+
+        executer.withTasks("a", "blockA")
+        def build1 = executer.start()
+        executer.withTasks("b", "blockB")
+        def build2 = executer.start()
+        block.waitForAllPendingCalls()
+        block.releaseAll()
+        build1.waitForFinish()
+        build2.waitForFinish()
+
+        and:
+        server.resetExpectations()
+        executer.withArgument("--offline")
+        run("a", "b")
+
+        then:
+        outputContains("a: [module1-1.0.jar]")
+        outputContains("b: [module2-1.0.jar]")
+    }
+
+    def "entries written by a build process become visible to other build processes while it is still running"() {
+        def mod1 = mavenHttpRepo.module("group1", "module1", "1.0").publish()
+
+        given:
+        // Ensure scripts are compiled
+        run("help")
+
+        when:
+        def block = blockingServer.expectAndBlock("block-a")
+        mod1.pom.expectGet()
+        mod1.artifact.expectGet()
+
+        executer.withTasks("a", "blockA")
+        def build1 = executer.start()
+        block.waitForAllPendingCalls()
+
+        and:
+        server.resetExpectations()
+        executer.withArgument("--offline")
+        run("a")
+
+        then:
+        outputContains("a: [module1-1.0.jar]")
+
+        cleanup:
+        block?.releaseAll()
+        build1?.waitForFinish()
+    }
+}
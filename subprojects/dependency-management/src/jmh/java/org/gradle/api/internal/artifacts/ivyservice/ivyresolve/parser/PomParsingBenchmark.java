@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares reading a corpus of POMs into a full DOM, like {@link PomReader} used to, with {@link PomStreamingParser}.
+ *
+ * The corpus is shaped after Maven Central: a few parent POMs with large dependency management and build sections,
+ * and many module POMs with a handful of dependencies, a build section and some project information.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Benchmark)
+public class PomParsingBenchmark {
+    private static final int PARENT_POMS = 5;
+    private static final int MODULE_POMS = 50;
+
+    @Param({"dom", "streaming"})
+    String parser;
+
+    private final List<byte[]> corpus = new ArrayList<>();
+    private DocumentBuilder documentBuilder;
+    private byte[] m2Entities;
+
+    @Setup(Level.Trial)
+    public void createCorpus() throws Exception {
+        for (int i = 0; i < PARENT_POMS; i++) {
+            corpus.add(parentPom(i).getBytes(StandardCharsets.UTF_8));
+        }
+        for (int i = 0; i < MODULE_POMS; i++) {
+            corpus.add(modulePom(i).getBytes(StandardCharsets.UTF_8));
+        }
+        m2Entities = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setValidating(false);
+        documentBuilder = factory.newDocumentBuilder();
+        documentBuilder.setEntityResolver((publicId, systemId) -> systemId != null && systemId.endsWith("m2-entities.ent") ? new InputSource(new ByteArrayInputStream(m2Entities)) : null);
+    }
+
+    @Benchmark
+    public void parseCorpus(Blackhole blackhole) throws Exception {
+        boolean streaming = parser.equals("streaming");
+        for (byte[] pom : corpus) {
+            if (streaming) {
+                blackhole.consume(PomStreamingParser.parse(new ByteArrayInputStream(pom), "file:/pom.xml"));
+            } else {
+                blackhole.consume(documentBuilder.parse(new PomDomParser.AddDTDFilterInputStream(new ByteArrayInputStream(pom)), "file:/pom.xml"));
+            }
+        }
+    }
+
+    private static String parentPom(int index) {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n  <groupId>org.parent").append(index).append("</groupId>\n  <artifactId>parent</artifactId>\n  <version>1.0</version>\n  <packaging>pom</packaging>\n");
+        projectInformation(pom);
+        pom.append("  <properties>\n");
+        for (int i = 0; i < 100; i++) {
+            pom.append("    <lib").append(i).append(".version>").append(i).append(".2.3</lib").append(i).append(".version>\n");
+        }
+        pom.append("  </properties>\n  <dependencyManagement>\n    <dependencies>\n");
+        for (int i = 0; i < 200; i++) {
+            dependency(pom, "org.lib" + (i % 100), "lib-" + i, "${lib" + (i % 100) + ".version}");
+        }
+        pom.append("    </dependencies>\n  </dependencyManagement>\n");
+        build(pom, 40);
+        pom.append("  <profiles>\n");
+        for (int i = 0; i < 5; i++) {
+            pom.append("    <profile>\n      <id>profile-").append(i).append("</id>\n");
+            build(pom, 5);
+            pom.append("    </profile>\n");
+        }
+        pom.append("  </profiles>\n</project>\n");
+        return pom.toString();
+    }
+
+    private static String modulePom(int index) {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("  <parent>\n    <groupId>org.parent").append(index % PARENT_POMS).append("</groupId>\n    <artifactId>parent</artifactId>\n    <version>1.0</version>\n  </parent>\n");
+        pom.append("  <artifactId>module-").append(index).append("</artifactId>\n");
+        projectInformation(pom);
+        pom.append("  <dependencies>\n");
+        for (int i = 0; i < 5 + index % 20; i++) {
+            dependency(pom, "org.lib" + i, "lib-" + i, null);
+        }
+        pom.append("  </dependencies>\n");
+        build(pom, 8);
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private static void projectInformation(StringBuilder pom) {
+        pom.append("  <name>A library</name>\n  <description>A library doing useful things &amp; more</description>\n  <url>https://example.org</url>\n");
+        pom.append("  <licenses>\n    <license>\n      <name>Apache License, Version 2.0</name>\n      <url>https://www.apache.org/licenses/LICENSE-2.0.txt</url>\n    </license>\n  </licenses>\n");
+        pom.append("  <developers>\n");
+        for (int i = 0; i < 5; i++) {
+            pom.append("    <developer>\n      <id>dev").append(i).append("</id>\n      <name>Developer ").append(i).append("</name>\n      <email>dev").append(i).append("@example.org</email>\n    </developer>\n");
+        }
+        pom.append("  </developers>\n  <scm>\n    <connection>scm:git:https://example.org/repo.git</connection>\n    <url>https://example.org/repo</url>\n  </scm>\n");
+    }
+
+    private static void dependency(StringBuilder pom, String group, String name, String version) {
+        pom.append("      <dependency>\n        <groupId>").append(group).append("</groupId>\n        <artifactId>").append(name).append("</artifactId>\n");
+        if (version != null) {
+            pom.append("        <version>").append(version).append("</version>\n");
+        }
+        pom.append("        <exclusions>\n          <exclusion>\n            <groupId>commons-logging</groupId>\n            <artifactId>commons-logging</artifactId>\n          </exclusion>\n        </exclusions>\n");
+        pom.append("      </dependency>\n");
+    }
+
+    private static void build(StringBuilder pom, int plugins) {
+        pom.append("  <build>\n    <plugins>\n");
+        for (int i = 0; i < plugins; i++) {
+            pom.append("      <plugin>\n        <groupId>org.apache.maven.plugins</groupId>\n        <artifactId>maven-plugin-").append(i).append("</artifactId>\n        <version>3.").append(i).append("</version>\n");
+            pom.append("        <configuration>\n          <source>1.8</source>\n          <target>1.8</target>\n          <compilerArgs>\n            <arg>-Xlint:all</arg>\n            <arg>-parameters</arg>\n          </compilerArgs>\n        </configuration>\n");
+            pom.append("        <executions>\n          <execution>\n            <id>default-").append(i).append("</id>\n            <phase>package</phase>\n            <goals>\n              <goal>run</goal>\n            </goals>\n          </execution>\n        </executions>\n");
+            pom.append("      </plugin>\n");
+        }
+        pom.append("    </plugins>\n  </build>\n");
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy;
+
+import org.gradle.api.internal.FeaturePreviews;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sorts generated version lists, the way {@link org.gradle.api.internal.artifacts.ivyservice.ivyresolve.DefaultVersionedComponentChooser} sorts listed versions.
+ *
+ * <ul>
+ *     <li>{@code parsed}: the versions are parsed once, before sorting.</li>
+ *     <li>{@code strings}: the versions are looked up in the parser for each comparison, like conflict resolution does.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Benchmark)
+public class VersionSortingBenchmark {
+    private static final String[] QUALIFIERS = {"", "", "", "-SNAPSHOT", "-rc1", "-rc2", "-beta-3", ".Final", "-jre", "-android"};
+
+    @Param({"100", "10000"})
+    int versions;
+
+    @Param({"parsed", "strings"})
+    String input;
+
+    private final VersionParser versionParser = new VersionParser();
+    private final Comparator<Version> versionComparator = new DefaultVersionComparator(new FeaturePreviews()).asVersionComparator();
+    private List<String> versionStrings;
+    private List<Version> parsedVersions;
+
+    @Setup(Level.Trial)
+    public void createVersions() {
+        Random random = new Random(42);
+        versionStrings = new ArrayList<>(versions);
+        parsedVersions = new ArrayList<>(versions);
+        for (int i = 0; i < versions; i++) {
+            String version = random.nextInt(30) + "." + random.nextInt(20) + "." + random.nextInt(15) + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+            versionStrings.add(version);
+            parsedVersions.add(versionParser.transform(version));
+        }
+    }
+
+    @Benchmark
+    public Object sortVersions() {
+        if (input.equals("parsed")) {
+            List<Version> sorted = new ArrayList<>(parsedVersions);
+            sorted.sort(versionComparator);
+            return sorted;
+        }
+        List<String> sorted = new ArrayList<>(versionStrings);
+        sorted.sort((one, two) -> versionComparator.compare(versionParser.transform(one), versionParser.transform(two)));
+        return sorted;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories;
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple.DefaultExcludeFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the unions and intersections of exclude specs performed while traversing a graph, with the factory chain of {@code ModuleExclusions}.
+ * <p>
+ * Each edge of the generated graph brings the excludes declared on a dependency, which are unioned with the excludes of the node it starts from,
+ * then intersected with the excludes of the other paths reaching the target node. Excludes are drawn from a small pool of groups and modules,
+ * like the handful of logging or XML libraries that real builds exclude over and over.
+ *
+ * <ul>
+ *     <li>{@code interning}: whether equal specs are made the same instance, so that cache lookups and set operations compare them by identity.</li>
+ *     <li>{@code resolutions}: how many times the graph is traversed with the same build scoped caches.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExcludeMergeBenchmark {
+    private static final int EDGES = 5000;
+    private static final int NODES = 1000;
+    private static final int GROUPS = 20;
+    private static final int MODULES_PER_GROUP = 10;
+
+    @Param({"false", "true"})
+    boolean interning;
+
+    @Param({"1", "10"})
+    int resolutions;
+
+    private int[][] declaredExcludes;
+    private int[] targets;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        Random random = new Random(42);
+        declaredExcludes = new int[EDGES][];
+        targets = new int[EDGES];
+        for (int edge = 0; edge < EDGES; edge++) {
+            // Most dependencies declare no exclude, some declare a few
+            int count = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+            declaredExcludes[edge] = new int[count];
+            for (int i = 0; i < count; i++) {
+                declaredExcludes[edge][i] = random.nextInt(GROUPS * MODULES_PER_GROUP * 3);
+            }
+            targets[edge] = random.nextInt(NODES);
+        }
+    }
+
+    @Benchmark
+    public void mergeExcludes(Blackhole blackhole) {
+        ExcludeFactory factory = createFactory();
+        for (int resolution = 0; resolution < resolutions; resolution++) {
+            ExcludeSpec[] nodeExcludes = new ExcludeSpec[NODES];
+            for (int edge = 0; edge < EDGES; edge++) {
+                // Edges are visited in declaration order, starting from the node they were generated for
+                ExcludeSpec from = nodeExcludes[edge % NODES];
+                ExcludeSpec exclusions = from == null ? factory.nothing() : from;
+                for (int exclude : declaredExcludes[edge]) {
+                    exclusions = factory.anyOf(exclusions, createExclude(factory, exclude));
+                }
+                int target = targets[edge];
+                ExcludeSpec previous = nodeExcludes[target];
+                nodeExcludes[target] = previous == null ? exclusions : factory.allOf(previous, exclusions);
+            }
+            blackhole.consume(nodeExcludes);
+        }
+    }
+
+    private ExcludeFactory createFactory() {
+        ExcludeFactory leaf = interning ? new InterningExcludeFactory(new DefaultExcludeFactory()) : new DefaultExcludeFactory();
+        CachingExcludeFactory.MergeCaches mergeCaches = new CachingExcludeFactory.MergeCaches();
+        return new OptimizingExcludeFactory(
+            new CachingExcludeFactory(
+                new NormalizingExcludeFactory(
+                    new CachingExcludeFactory(leaf, mergeCaches)
+                ),
+                mergeCaches
+            )
+        );
+    }
+
+    private static ExcludeSpec createExclude(ExcludeFactory factory, int exclude) {
+        int group = exclude % GROUPS;
+        int module = (exclude / GROUPS) % MODULES_PER_GROUP;
+        switch (exclude % 3) {
+            case 0:
+                return factory.group("org.group" + group);
+            case 1:
+                return factory.module("module" + module);
+            default:
+                return factory.moduleId(DefaultModuleIdentifier.newId("org.group" + group, "module" + module));
+        }
+    }
+}
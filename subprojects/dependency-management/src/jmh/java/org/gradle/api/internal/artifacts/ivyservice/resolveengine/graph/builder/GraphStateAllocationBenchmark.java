@@ -0,0 +1,305 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.FeaturePreviews;
+import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
+import org.gradle.api.internal.artifacts.DefaultBuildIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
+import org.gradle.api.internal.artifacts.DefaultProjectComponentIdentifier;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionApplicator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ConflictResolverFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultCapabilitiesConflictHandler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.DefaultImmutableAttributesFactory;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ImmutableCapabilities;
+import org.gradle.internal.component.local.model.BuildableLocalConfigurationMetadata;
+import org.gradle.internal.component.local.model.DefaultLocalComponentMetadata;
+import org.gradle.internal.component.local.model.RootLocalComponentMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.component.model.LocalComponentDependencyMetadata;
+import org.gradle.internal.locking.NoOpDependencyLockingProvider;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.util.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Resolves generated graphs of about 3k and 30k edges with {@link DependencyGraphBuilder}.
+ *
+ * <p>Each module has two versions, with the same dependencies. Every module depends on up to {@value #EDGES_PER_NODE} modules declared after it,
+ * and about one in ten of those dependencies asks for the newer version, so most modules go through conflict resolution.
+ * The metadata of all components is created up front, so the benchmark only measures the graph builder itself.</p>
+ *
+ * <p>Run with {@code -prof gc} to measure the allocations of each resolution in {@code gc.alloc.rate.norm}. The benchmark only uses
+ * the constructor of {@link DependencyGraphBuilder}, so it can also be run against earlier revisions to compare them.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@State(Scope.Benchmark)
+public class GraphStateAllocationBenchmark {
+    private static final int EDGES_PER_NODE = 10;
+    private static final String[] VERSIONS = {"1.0", "1.1"};
+    private static final String CONFIGURATION = "default";
+
+    @Param({"3000", "30000"})
+    int edges;
+
+    private final DefaultVersionComparator versionComparator = new DefaultVersionComparator(new FeaturePreviews());
+    private final VersionParser versionParser = new VersionParser();
+    private final DefaultVersionSelectorScheme versionSelectorScheme = new DefaultVersionSelectorScheme(versionComparator, versionParser);
+    // The generated graph has no attributes, so no attribute value is ever isolated
+    private final DefaultImmutableAttributesFactory attributesFactory = new DefaultImmutableAttributesFactory(null, null);
+    private final AttributesSchemaInternal attributesSchema = unused(AttributesSchemaInternal.class);
+    private final Map<ComponentIdentifier, ComponentResolveMetadata> components = new HashMap<>();
+    private RootLocalComponentMetadata root;
+    private ResolveContext resolveContext;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        Random random = new Random(42);
+        int modules = edges / EDGES_PER_NODE + 1;
+        root = new RootLocalComponentMetadata(DefaultModuleVersionIdentifier.newId("org.test", "root", "1.0"), new DefaultProjectComponentIdentifier(DefaultBuildIdentifier.ROOT, Path.ROOT, Path.ROOT, "root"), "release", attributesSchema, NoOpDependencyLockingProvider.getInstance());
+        addDependency(root, addConfiguration(root), module(0), VERSIONS[0]);
+
+        for (int module = 0; module < modules; module++) {
+            int dependencies = Math.min(EDGES_PER_NODE, modules - module - 1);
+            int[] targets = new int[dependencies];
+            for (int i = 0; i < dependencies; i++) {
+                // The first dependency keeps every module reachable, the others point to random modules declared later
+                targets[i] = i == 0 ? module + 1 : module + 1 + random.nextInt(modules - module - 1);
+            }
+            String[] requestedVersions = new String[dependencies];
+            for (int i = 0; i < dependencies; i++) {
+                requestedVersions[i] = VERSIONS[random.nextInt(10) == 0 ? 1 : 0];
+            }
+            for (String version : VERSIONS) {
+                ModuleIdentifier moduleId = module(module);
+                DefaultLocalComponentMetadata component = new DefaultLocalComponentMetadata(DefaultModuleVersionIdentifier.newId(moduleId, version), DefaultModuleComponentIdentifier.newId(moduleId, version), "release", attributesSchema);
+                BuildableLocalConfigurationMetadata configuration = addConfiguration(component);
+                for (int i = 0; i < dependencies; i++) {
+                    addDependency(component, configuration, module(targets[i]), requestedVersions[i]);
+                }
+                components.put(component.getId(), component);
+            }
+        }
+
+        resolveContext = new BenchmarkResolveContext();
+        GraphSizeVisitor visitor = new GraphSizeVisitor();
+        newBuilder().resolve(resolveContext, visitor);
+        if (visitor.failures > 0 || visitor.nodes != modules + 1) {
+            throw new IllegalStateException("Expected " + (modules + 1) + " nodes and no failures, but resolved " + visitor.nodes + " nodes with " + visitor.failures + " failures");
+        }
+    }
+
+    @Benchmark
+    public Object resolveGraph() {
+        GraphSizeVisitor visitor = new GraphSizeVisitor();
+        newBuilder().resolve(resolveContext, visitor);
+        return visitor;
+    }
+
+    private DependencyGraphBuilder newBuilder() {
+        DependencyToComponentIdResolver idResolver = new DependencyToComponentIdResolver() {
+            @Override
+            public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nullable VersionSelector rejector, BuildableComponentIdResolveResult result) {
+                ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+                ComponentResolveMetadata component = components.get(DefaultModuleComponentIdentifier.newId(selector.getModuleIdentifier(), selector.getVersion()));
+                result.resolved(component.getId(), component.getModuleVersionId());
+            }
+        };
+        ComponentMetaDataResolver metaDataResolver = new ComponentMetaDataResolver() {
+            @Override
+            public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+                result.resolved(components.get(identifier));
+            }
+
+            @Override
+            public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+                return true;
+            }
+        };
+        ComponentSelectorConverter componentSelectorConverter = new ComponentSelectorConverter() {
+            @Override
+            public ModuleIdentifier getModule(ComponentSelector selector) {
+                return ((ModuleComponentSelector) selector).getModuleIdentifier();
+            }
+
+            @Override
+            public ModuleVersionSelector getSelector(ComponentSelector selector) {
+                return DefaultModuleVersionSelector.newSelector((ModuleComponentSelector) selector);
+            }
+        };
+        DefaultConflictHandler moduleConflictHandler = new DefaultConflictHandler(new ConflictResolverFactory(versionComparator, versionParser).createConflictResolver(ConflictResolution.latest), ModuleReplacementsData.NO_OP);
+        return new DependencyGraphBuilder(idResolver, metaDataResolver, (context, result) -> result.resolved(root), moduleConflictHandler, new DefaultCapabilitiesConflictHandler(), Specs.satisfyAll(),
+            attributesSchema, new ModuleExclusions(), unused(BuildOperationExecutor.class), DependencySubstitutionApplicator.NO_OP, componentSelectorConverter, attributesFactory,
+            versionSelectorScheme, versionComparator.asVersionComparator(), versionParser, null, 0);
+    }
+
+    private static ModuleIdentifier module(int index) {
+        return DefaultModuleIdentifier.newId("org.test", "module" + index);
+    }
+
+    private static BuildableLocalConfigurationMetadata addConfiguration(DefaultLocalComponentMetadata component) {
+        return component.addConfiguration(CONFIGURATION, CONFIGURATION, Collections.emptySet(), ImmutableSet.of(CONFIGURATION), true, true, ImmutableAttributes.EMPTY, true, null, true, ImmutableCapabilities.EMPTY);
+    }
+
+    private static void addDependency(DefaultLocalComponentMetadata from, BuildableLocalConfigurationMetadata configuration, ModuleIdentifier to, String version) {
+        configuration.addDependency(new LocalComponentDependencyMetadata(from.getId(), DefaultModuleComponentSelector.newSelector(to, version), CONFIGURATION, null, ImmutableAttributes.EMPTY, CONFIGURATION,
+            Collections.emptyList(), Collections.emptyList(), false, false, true, false, false, null));
+    }
+
+    /**
+     * Creates a collaborator whose methods are not called for the generated graph, or whose answers do not matter, returning a default value from every method.
+     */
+    private static <T> T unused(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName();
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (method.getReturnType() == ConflictResolution.class) {
+                return ConflictResolution.latest;
+            }
+            return null;
+        }));
+    }
+
+    private class BenchmarkResolveContext implements ResolveContext {
+        private final ResolutionStrategyInternal resolutionStrategy = unused(ResolutionStrategyInternal.class);
+
+        @Override
+        public String getName() {
+            return CONFIGURATION;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "configuration '" + CONFIGURATION + "'";
+        }
+
+        @Override
+        public ResolutionStrategyInternal getResolutionStrategy() {
+            return resolutionStrategy;
+        }
+
+        @Override
+        public ComponentResolveMetadata toRootComponentMetaData() {
+            return root;
+        }
+
+        @Override
+        public AttributeContainer getAttributes() {
+            return ImmutableAttributes.EMPTY;
+        }
+    }
+
+    private static class GraphSizeVisitor implements DependencyGraphVisitor {
+        int nodes;
+        int failures;
+
+        @Override
+        public void start(RootGraphNode root) {
+        }
+
+        @Override
+        public void visitNode(DependencyGraphNode node) {
+            nodes++;
+        }
+
+        @Override
+        public void visitSelector(DependencyGraphSelector selector) {
+        }
+
+        @Override
+        public void visitEdges(DependencyGraphNode node) {
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                if (edge.getFailure() != null) {
+                    failures++;
+                }
+            }
+        }
+
+        @Override
+        public void finish(DependencyGraphNode root) {
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.artifacts;
 
+import org.gradle.internal.hash.Hasher;
+
 /**
  * A factory for {@link ComponentMetadataProcessor}.
  * <p>
@@ -34,4 +36,10 @@ public interface ComponentMetadataProcessorFactory {
      * @return a {@code ComponentMetadataProcessor}
      */
     ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResolutionContext resolutionContext);
+
+    /**
+     * Appends what affects the processed metadata to the given hasher, marking it as invalid when that includes rules, as they are user code.
+     */
+    default void appendId(Hasher hasher) {
+    }
 }
@@ -55,11 +55,13 @@
 import org.gradle.api.internal.artifacts.ivyservice.ErrorHandlingConfigurationResolver;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextualArtifactPublisher;
+import org.gradle.api.internal.artifacts.ivyservice.ResolutionInputsFingerprinter;
 import org.gradle.api.internal.artifacts.ivyservice.ShortCircuitEmptyConfigurationResolver;
 import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionRules;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.GradleModuleMetadataParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.GradlePomModuleDescriptorParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParentPomCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.FileStoreAndIndexProvider;
@@ -69,6 +71,7 @@
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.mvnsettings.LocalMavenRepositoryLocator;
 import org.gradle.api.internal.artifacts.query.ArtifactResolutionQueryFactory;
 import org.gradle.api.internal.artifacts.query.DefaultArtifactResolutionQueryFactory;
@@ -109,6 +112,7 @@
 import org.gradle.api.internal.file.FilePropertyFactory;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
+import org.gradle.api.internal.project.CrossProjectAccessGuard;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateRegistry;
 import org.gradle.api.internal.provider.PropertyFactory;
@@ -459,6 +463,7 @@ BaseRepositoryFactory createBaseRepositoryFactory(
                 InstantiatorFactory instantiatorFactory,
                 FileResourceRepository fileResourceRepository,
                 MavenMutableModuleMetadataFactory metadataFactory,
+                ParentPomCache parentPomCache,
                 IvyMutableModuleMetadataFactory ivyMetadataFactory,
                 IsolatableFactory isolatableFactory,
                 ObjectFactory objectFactory,
@@ -476,7 +481,7 @@ BaseRepositoryFactory createBaseRepositoryFactory(
                     locallyAvailableResourceFinder,
                     fileStoreAndIndexProvider.getArtifactIdentifierFileStore(),
                     fileStoreAndIndexProvider.getExternalResourceFileStore(),
-                    new GradlePomModuleDescriptorParser(versionSelectorScheme, moduleIdentifierFactory, fileResourceRepository, metadataFactory),
+                    new GradlePomModuleDescriptorParser(versionSelectorScheme, moduleIdentifierFactory, fileResourceRepository, metadataFactory, parentPomCache),
                     new GradleModuleMetadataParser(attributesFactory, moduleIdentifierFactory, instantiator),
                     authenticationSchemeRegistry,
                     ivyContextManager,
@@ -512,7 +517,8 @@ ConfigurationContainerInternal createConfigurationContainer(Instantiator instant
                                                                     UserCodeApplicationContext userCodeApplicationContext,
                                                                     DomainObjectCollectionFactory domainObjectCollectionFactory,
                                                                     NotationParser<Object, ComponentSelector> moduleSelectorNotationParser,
-                                                                    ObjectFactory objectFactory) {
+                                                                    ObjectFactory objectFactory,
+                                                                    CrossProjectAccessGuard crossProjectAccessGuard) {
             return instantiator.newInstance(DefaultConfigurationContainer.class,
                     configurationResolver,
                     instantiator,
@@ -537,7 +543,8 @@ ConfigurationContainerInternal createConfigurationContainer(Instantiator instant
                     userCodeApplicationContext,
                     domainObjectCollectionFactory,
                     moduleSelectorNotationParser,
-                    objectFactory
+                    objectFactory,
+                    crossProjectAccessGuard
             );
         }
 
@@ -632,7 +639,10 @@ ConfigurationResolver createDependencyResolver(ArtifactDependencyResolver artifa
                                                        BuildState currentBuild,
                                                        TransformedVariantFactory transformedVariantFactory,
                                                        DependencyVerificationOverride dependencyVerificationOverride,
-                                                       ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory) {
+                                                       ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
+                                                       ResolvedGraphCache resolvedGraphCache,
+                                                       ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
+                                                       VersionSelectorScheme versionSelectorScheme) {
             return new ErrorHandlingConfigurationResolver(
                     new ShortCircuitEmptyConfigurationResolver(
                             new DefaultConfigurationResolver(
@@ -659,7 +669,10 @@ ConfigurationResolver createDependencyResolver(ArtifactDependencyResolver artifa
                                     currentBuild.getBuildIdentifier(),
                                     new AttributeDesugaring(attributesFactory),
                                     dependencyVerificationOverride,
-                                componentSelectionDescriptorFactory),
+                                componentSelectionDescriptorFactory,
+                                resolvedGraphCache,
+                                new ResolutionInputsFingerprinter(metadataHandler, attributesSchema, classLoaderHierarchyHasher, domainObjectContext),
+                                versionSelectorScheme),
                             componentIdentifierFactory,
                             moduleIdentifierFactory,
                             currentBuild.getBuildIdentifier()));
@@ -31,6 +31,7 @@
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.UsedGradleVersions;
 import org.gradle.initialization.RootBuildLifecycleListener;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.history.ExecutionHistoryCacheAccess;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
@@ -40,7 +41,7 @@
 
 public class DependencyManagementGradleUserHomeScopeServices {
 
-    DefaultArtifactCaches.WritableArtifactCacheLockingParameters createWritableArtifactCacheLockingParameters(FileAccessTimeJournal fileAccessTimeJournal, UsedGradleVersions usedGradleVersions) {
+    DefaultArtifactCaches.WritableArtifactCacheLockingParameters createWritableArtifactCacheLockingParameters(FileAccessTimeJournal fileAccessTimeJournal, UsedGradleVersions usedGradleVersions, ExecutorFactory executorFactory) {
         return new DefaultArtifactCaches.WritableArtifactCacheLockingParameters() {
             @Override
             public FileAccessTimeJournal getFileAccessTimeJournal() {
@@ -51,6 +52,11 @@ public FileAccessTimeJournal getFileAccessTimeJournal() {
             public UsedGradleVersions getUsedGradleVersions() {
                 return usedGradleVersions;
             }
+
+            @Override
+            public ExecutorFactory getExecutorFactory() {
+                return executorFactory;
+            }
         };
     }
 
@@ -64,7 +70,7 @@ ArtifactCachesProvider createArtifactCaches(CacheScopeMapping cacheScopeMapping,
             @Override
             public void buildFinished(BuildResult result) {
                 artifactCachesProvider.getWritableCacheLockingManager().useCache(() -> {
-                    // forces cleanup even if cache wasn't used
+                    // forces cleanup even if cache wasn't used, and applies the writes journaled in concurrent writers mode
                 });
             }
         });
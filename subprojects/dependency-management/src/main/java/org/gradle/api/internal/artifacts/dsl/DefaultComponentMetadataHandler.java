@@ -45,6 +45,7 @@
 import org.gradle.internal.action.ConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRule;
 import org.gradle.internal.component.external.model.VariantDerivationStrategy;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resolve.caching.ComponentMetadataRuleExecutor;
@@ -206,6 +207,15 @@ public ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResol
         return new DefaultComponentMetadataProcessor(metadataRuleContainer, instantiator, dependencyMetadataNotationParser, dependencyConstraintMetadataNotationParser, componentIdentifierNotationParser, attributesFactory, ruleExecutor, platformSupport, resolutionContext);
     }
 
+    @Override
+    public void appendId(Hasher hasher) {
+        if (!metadataRuleContainer.isEmpty()) {
+            hasher.markAsInvalid("component metadata rules are registered");
+            return;
+        }
+        hasher.putString(metadataRuleContainer.getVariantDerivationStrategy().getClass().getName());
+    }
+
     @Override
     public void setVariantDerivationStrategy(VariantDerivationStrategy strategy) {
         metadataRuleContainer.setVariantDerivationStrategy(strategy);
@@ -30,6 +30,11 @@ public interface ArtifactCachesProvider extends Closeable, GlobalCache {
     ArtifactCacheLockingManager getWritableCacheLockingManager();
     Optional<ArtifactCacheLockingManager> getReadOnlyCacheLockingManager();
 
+    /**
+     * Whether build processes sharing the writable cache add entries to it concurrently, see {@link WritableArtifactCacheLockingManager#CONCURRENT_WRITERS_PROPERTY}.
+     */
+    boolean isConcurrentWriters();
+
     default <T> T withWritableCache(BiFunction<? super ArtifactCacheMetadata, ? super ArtifactCacheLockingManager, T> function) {
         return function.apply(getWritableCacheMetadata(), getWritableCacheLockingManager());
     }
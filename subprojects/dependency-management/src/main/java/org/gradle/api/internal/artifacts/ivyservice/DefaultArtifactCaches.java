@@ -25,6 +25,7 @@
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.UsedGradleVersions;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.util.IncubationLogger;
@@ -42,15 +43,17 @@ public class DefaultArtifactCaches implements ArtifactCachesProvider {
     private final DefaultArtifactCacheMetadata readOnlyCacheMetadata;
     private final LateInitWritableArtifactCacheLockingManager writableArtifactCacheLockingManager;
     private final ReadOnlyArtifactCacheLockingManager readOnlyArtifactCacheLockingManager;
+    private final boolean concurrentWriters;
 
     public DefaultArtifactCaches(CacheScopeMapping cacheScopeMapping,
                                  CacheRepository cacheRepository,
                                  Factory<WritableArtifactCacheLockingParameters> writableArtifactCacheLockingParametersFactory,
                                  DocumentationRegistry documentationRegistry) {
         writableCacheMetadata = new DefaultArtifactCacheMetadata(cacheScopeMapping);
+        concurrentWriters = Boolean.getBoolean(WritableArtifactCacheLockingManager.CONCURRENT_WRITERS_PROPERTY);
         writableArtifactCacheLockingManager = new LateInitWritableArtifactCacheLockingManager(() -> {
             WritableArtifactCacheLockingParameters params = writableArtifactCacheLockingParametersFactory.create();
-            return new WritableArtifactCacheLockingManager(cacheRepository, writableCacheMetadata, params.getFileAccessTimeJournal(), params.getUsedGradleVersions());
+            return new WritableArtifactCacheLockingManager(cacheRepository, writableCacheMetadata, params.getFileAccessTimeJournal(), params.getUsedGradleVersions(), concurrentWriters, params.getExecutorFactory());
         });
         String roCache = System.getenv(READONLY_CACHE_ENV_VAR);
         if (StringUtils.isNotEmpty(roCache)) {
@@ -107,6 +110,11 @@ public Optional<ArtifactCacheLockingManager> getReadOnlyCacheLockingManager() {
         return Optional.ofNullable(readOnlyArtifactCacheLockingManager);
     }
 
+    @Override
+    public boolean isConcurrentWriters() {
+        return concurrentWriters;
+    }
+
     @Override
     public List<File> getGlobalCacheRoots() {
         return readOnlyCacheMetadata == null
@@ -126,6 +134,8 @@ public interface WritableArtifactCacheLockingParameters {
         FileAccessTimeJournal getFileAccessTimeJournal();
 
         UsedGradleVersions getUsedGradleVersions();
+
+        ExecutorFactory getExecutorFactory();
     }
 
     private static class LateInitWritableArtifactCacheLockingManager implements ArtifactCacheLockingManager, Closeable {
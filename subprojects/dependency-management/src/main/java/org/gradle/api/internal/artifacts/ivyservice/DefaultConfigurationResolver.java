@@ -17,10 +17,13 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.artifacts.UnresolvedDependency;
 import org.gradle.api.artifacts.component.BuildIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
@@ -31,10 +34,14 @@
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ChangingValueDependencyResolutionListener;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.BuildDependenciesOnlyVisitedArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.SelectedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactsResults;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedFileDependencyResults;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyArtifactsVisitor;
@@ -53,11 +60,14 @@
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.FileDependencyCollectingGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.RecordingBinaryStore;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.StoreSet;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.artifacts.transform.ArtifactTransforms;
 import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry;
+import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributeDesugaring;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
 import org.gradle.api.specs.Spec;
@@ -67,10 +77,16 @@
 import org.gradle.internal.Transformers;
 import org.gradle.internal.component.local.model.DslOriginDependencyMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.locking.DependencyLockingArtifactVisitor;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -93,6 +109,9 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     private final AttributeDesugaring attributeDesugaring;
     private final DependencyVerificationOverride dependencyVerificationOverride;
     private final ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory;
+    private final ResolvedGraphCache graphCache;
+    private final ResolutionInputsFingerprinter inputsFingerprinter;
+    private final VersionSelectorScheme versionSelectorScheme;
 
     public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, RepositoryHandler repositories,
                                         GlobalDependencyResolutionRules metadataHandler,
@@ -107,7 +126,10 @@ public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, Reposit
                                         AttributeContainerSerializer attributeContainerSerializer,
                                         BuildIdentifier currentBuild, AttributeDesugaring attributeDesugaring,
                                         DependencyVerificationOverride dependencyVerificationOverride,
-                                        ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory) {
+                                        ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
+                                        ResolvedGraphCache graphCache,
+                                        ResolutionInputsFingerprinter inputsFingerprinter,
+                                        VersionSelectorScheme versionSelectorScheme) {
         this.resolver = resolver;
         this.repositories = repositories;
         this.metadataHandler = metadataHandler;
@@ -124,6 +146,9 @@ public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, Reposit
         this.attributeDesugaring = attributeDesugaring;
         this.dependencyVerificationOverride = dependencyVerificationOverride;
         this.componentSelectionDescriptorFactory = componentSelectionDescriptorFactory;
+        this.graphCache = graphCache;
+        this.inputsFingerprinter = inputsFingerprinter;
+        this.versionSelectorScheme = versionSelectorScheme;
     }
 
     @Override
@@ -133,13 +158,57 @@ public void resolveBuildDependencies(ConfigurationInternal configuration, Resolv
         InMemoryResolutionResultBuilder resolutionResultBuilder = new InMemoryResolutionResultBuilder();
         CompositeDependencyGraphVisitor graphVisitor = new CompositeDependencyGraphVisitor(failureCollector, resolutionResultBuilder);
         DefaultResolvedArtifactsBuilder artifactsVisitor = new DefaultResolvedArtifactsBuilder(currentBuild, buildProjectDependencies, resolutionStrategy.getSortOrder());
-        resolver.resolve(configuration, ImmutableList.of(), metadataHandler, IS_LOCAL_EDGE, graphVisitor, artifactsVisitor, attributesSchema, artifactTypeRegistry);
+        resolver.resolve(configuration, ImmutableList.of(), metadataHandler, IS_LOCAL_EDGE, graphVisitor, artifactsVisitor, attributesSchema, artifactTypeRegistry, ChangingValueDependencyResolutionListener.NO_OP);
         result.graphResolved(resolutionResultBuilder.getResolutionResult(), new ResolvedLocalComponentsResultGraphVisitor(currentBuild), new BuildDependenciesOnlyVisitedArtifactSet(failureCollector.complete(Collections.emptySet()), artifactsVisitor.complete(), artifactTransforms, configuration.getDependenciesResolver()));
     }
 
     @Override
     public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) {
         List<ResolutionAwareRepository> resolutionAwareRepositories = getRepositories();
+        HashCode resolutionInputs = graphCache.isEnabled() ? inputsFingerprinter.fingerprint(configuration, resolutionAwareRepositories) : null;
+        if (resolutionInputs != null) {
+            BinaryStore.BinaryData cachedGraph = graphCache.load(resolutionInputs);
+            if (cachedGraph != null) {
+                graphResolvedFromCache(configuration, results, cachedGraph);
+                return;
+            }
+        }
+        resolveGraph(configuration, results, resolutionAwareRepositories, resolutionInputs);
+    }
+
+    /**
+     * Uses a graph from the {@link ResolvedGraphCache}. The graph is resolved for real only once artifacts are required,
+     * in its own build operation, as this happens after the operation that resolved the configuration has completed.
+     */
+    private void graphResolvedFromCache(ConfigurationInternal configuration, ResolverResults results, BinaryStore.BinaryData cachedGraph) {
+        StoreSet stores = storeFactory.createStoreSet();
+        StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(stores.nextBinaryStore(), stores.newModelCache(), moduleIdentifierFactory, attributeContainerSerializer, attributeDesugaring, componentSelectionDescriptorFactory);
+        AttributeContainerInternal rootAttributes = attributeDesugaring.desugar(configuration.getAttributes().asImmutable());
+        ResolutionResult resolutionResult = newModelBuilder.load(cachedGraph, rootAttributes);
+        // A cached graph only contains module components, besides the root
+        results.graphResolved(resolutionResult, new ResolvedLocalComponentsResultGraphVisitor(currentBuild), new GraphResolvedOnDemandArtifactSet(configuration, results));
+        results.retainState(GRAPH_FROM_CACHE);
+    }
+
+    private void resolveGraphIfFromCache(ConfigurationInternal configuration, ResolverResults results) {
+        if (results.getArtifactResolveState() == GRAPH_FROM_CACHE) {
+            buildOperationExecutor.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    resolveGraph(configuration, results, getRepositories(), null);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    String displayName = "Resolve dependencies of " + configuration.getDisplayName() + " for artifacts (graph loaded from cache)";
+                    return BuildOperationDescriptor.displayName(displayName)
+                        .progressDisplayName(displayName);
+                }
+            });
+        }
+    }
+
+    private void resolveGraph(ConfigurationInternal configuration, ResolverResults results, List<ResolutionAwareRepository> resolutionAwareRepositories, @Nullable HashCode resolutionInputs) {
         StoreSet stores = storeFactory.createStoreSet();
 
         BinaryStore oldModelStore = stores.nextBinaryStore();
@@ -149,6 +218,11 @@ public void resolveGraph(ConfigurationInternal configuration, ResolverResults re
         ResolvedConfigurationDependencyGraphVisitor oldModelVisitor = new ResolvedConfigurationDependencyGraphVisitor(oldModelBuilder);
 
         BinaryStore newModelStore = stores.nextBinaryStore();
+        RecordingBinaryStore graphRecorder = null;
+        if (resolutionInputs != null) {
+            graphRecorder = new RecordingBinaryStore(newModelStore);
+            newModelStore = graphRecorder;
+        }
         Store<ResolvedComponentResult> newModelCache = stores.newModelCache();
         StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(newModelStore, newModelCache, moduleIdentifierFactory, attributeContainerSerializer, attributeDesugaring, componentSelectionDescriptorFactory);
 
@@ -158,7 +232,10 @@ public void resolveGraph(ConfigurationInternal configuration, ResolverResults re
         DefaultResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder(currentBuild, buildProjectDependencies, resolutionStrategy.getSortOrder());
         FileDependencyCollectingGraphVisitor fileDependencyVisitor = new FileDependencyCollectingGraphVisitor();
         ResolutionFailureCollector failureCollector = new ResolutionFailureCollector(componentSelectorConverter);
-        DependencyGraphVisitor graphVisitor = new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector);
+        ResolvedGraphExpiry graphExpiry = new ResolvedGraphExpiry(versionSelectorScheme);
+        DependencyGraphVisitor graphVisitor = resolutionInputs == null
+            ? new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector)
+            : new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector, graphExpiry);
 
         ImmutableList.Builder<DependencyArtifactsVisitor> visitors = new ImmutableList.Builder<>();
         visitors.add(oldModelVisitor);
@@ -175,7 +252,7 @@ public void resolveGraph(ConfigurationInternal configuration, ResolverResults re
         ImmutableList<DependencyArtifactsVisitor> allVisitors = visitors.build();
         CompositeDependencyArtifactsVisitor artifactsVisitor = new CompositeDependencyArtifactsVisitor(allVisitors);
 
-        resolver.resolve(configuration, resolutionAwareRepositories, metadataHandler, Specs.satisfyAll(), graphVisitor, artifactsVisitor, attributesSchema, artifactTypeRegistry);
+        resolver.resolve(configuration, resolutionAwareRepositories, metadataHandler, Specs.satisfyAll(), graphVisitor, artifactsVisitor, attributesSchema, artifactTypeRegistry, resolutionInputs == null ? ChangingValueDependencyResolutionListener.NO_OP : graphExpiry);
 
         VisitedArtifactsResults artifactsResults = artifactsBuilder.complete();
         VisitedFileDependencyResults fileDependencyResults = fileDependencyVisitor.complete();
@@ -191,6 +268,12 @@ public void resolveGraph(ConfigurationInternal configuration, ResolverResults re
         results.retainState(new ArtifactResolveState(graphResults, artifactsResults, fileDependencyResults, failures, oldTransientModelBuilder));
         if (!results.hasError() && failures.isEmpty()) {
             artifactsVisitor.complete();
+            if (graphRecorder != null) {
+                Duration keepFor = graphExpiry.getKeepFor();
+                if (keepFor != null) {
+                    graphCache.store(resolutionInputs, graphRecorder.getRecording(), keepFor);
+                }
+            }
         }
     }
 
@@ -201,6 +284,7 @@ public List<ResolutionAwareRepository> getRepositories() {
 
     @Override
     public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) {
+        resolveGraphIfFromCache(configuration, results);
         ArtifactResolveState resolveState = (ArtifactResolveState) results.getArtifactResolveState();
         ResolvedGraphResults graphResults = resolveState.graphResults;
         VisitedArtifactsResults artifactResults = resolveState.artifactsResults;
@@ -212,6 +296,31 @@ public void resolveArtifacts(ConfigurationInternal configuration, ResolverResult
         results.artifactsResolved(new DefaultResolvedConfiguration(result), result);
     }
 
+    private static final Object GRAPH_FROM_CACHE = new Object();
+
+    /**
+     * The artifacts of a graph from the {@link ResolvedGraphCache}, which resolves the graph when they are first queried.
+     */
+    private class GraphResolvedOnDemandArtifactSet implements VisitedArtifactSet {
+        private final ConfigurationInternal configuration;
+        private final ResolverResults results;
+
+        GraphResolvedOnDemandArtifactSet(ConfigurationInternal configuration, ResolverResults results) {
+            this.configuration = configuration;
+            this.results = results;
+        }
+
+        @Override
+        public SelectedArtifactSet select(Spec<? super Dependency> dependencySpec, AttributeContainerInternal requestedAttributes, Spec<? super ComponentIdentifier> componentSpec, boolean allowNoMatchingVariant) {
+            VisitedArtifactSet visitedArtifacts;
+            synchronized (results) {
+                resolveGraphIfFromCache(configuration, results);
+                visitedArtifacts = results.getVisitedArtifacts();
+            }
+            return visitedArtifacts.select(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant);
+        }
+    }
+
     private static class ArtifactResolveState {
         final ResolvedGraphResults graphResults;
         final VisitedArtifactsResults artifactsResults;
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.capabilities.Capability;
+import org.gradle.api.internal.DomainObjectContext;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.Module;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dependencies.DefaultProjectDependencyConstraint;
+import org.gradle.api.internal.artifacts.dependencies.DependencyConstraintInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
+import org.gradle.api.internal.artifacts.repositories.ContentFilteringRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Actions;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Calculates a fingerprint of everything the dependency graph of a configuration depends on, other than the content of the repositories.
+ * <p>
+ * Only configurations declaring module dependencies, resolved without any user provided rule, can be fingerprinted:
+ * rules are code with arbitrary inputs, so their effect on the graph cannot be known without running them.
+ * Attribute matching rules are the exception: their classes and parameters are fingerprinted, as they are registered by most plugins.
+ */
+public class ResolutionInputsFingerprinter {
+    private static final Logger LOGGER = Logging.getLogger(ResolutionInputsFingerprinter.class);
+
+    private final GlobalDependencyResolutionRules globalRules;
+    private final AttributesSchemaInternal consumerSchema;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final DomainObjectContext owner;
+
+    public ResolutionInputsFingerprinter(GlobalDependencyResolutionRules globalRules, AttributesSchemaInternal consumerSchema, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, DomainObjectContext owner) {
+        this.globalRules = globalRules;
+        this.consumerSchema = consumerSchema;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the fingerprint of the inputs of the resolution of the given configuration, or {@code null} when they cannot be fingerprinted.
+     */
+    @Nullable
+    public HashCode fingerprint(ConfigurationInternal configuration, List<ResolutionAwareRepository> repositories) {
+        Hasher hasher = Hashing.newHasher();
+        appendOwner(hasher);
+        appendConfiguration(hasher, configuration);
+        appendResolutionStrategy(hasher, configuration.getResolutionStrategy());
+        appendGlobalRules(hasher);
+        appendRepositories(hasher, repositories);
+        if (!hasher.isValid()) {
+            LOGGER.debug("Resolution inputs of configuration {} cannot be fingerprinted: {}", configuration.getIdentityPath(), hasher.getInvalidReason());
+            return null;
+        }
+        return hasher.hash();
+    }
+
+    private void appendOwner(Hasher hasher) {
+        if (owner.getProject() == null || owner.isScript()) {
+            hasher.markAsInvalid("not a project configuration");
+            return;
+        }
+        // The attribute compatibility and disambiguation rules of the project select the variants of the graph
+        consumerSchema.appendId(hasher, classLoaderHierarchyHasher);
+    }
+
+    private static void appendConfiguration(Hasher hasher, ConfigurationInternal configuration) {
+        hasher.putString(configuration.getIdentityPath().getPath());
+        Module module = configuration.getModule();
+        putNullableString(hasher, module.getGroup());
+        putNullableString(hasher, module.getName());
+        putNullableString(hasher, module.getVersion());
+        putNullableString(hasher, module.getStatus());
+        appendAttributes(hasher, configuration.getAttributes());
+        appendCapabilities(hasher, configuration.getOutgoing().getCapabilities());
+        hasher.putBoolean(configuration.isTransitive());
+        appendExcludeRules(hasher, configuration.getAllExcludeRules());
+
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                hasher.markAsInvalid("dependency " + dependency + " is not a module dependency");
+                return;
+            }
+            appendDependency(hasher, (ExternalModuleDependency) dependency);
+        }
+        for (DependencyConstraint constraint : configuration.getAllDependencyConstraints()) {
+            if (constraint instanceof DefaultProjectDependencyConstraint) {
+                hasher.markAsInvalid("constraint " + constraint + " is on a project");
+                return;
+            }
+            appendConstraint(hasher, constraint);
+        }
+    }
+
+    private static void appendDependency(Hasher hasher, ExternalModuleDependency dependency) {
+        putNullableString(hasher, dependency.getGroup());
+        hasher.putString(dependency.getName());
+        appendVersionConstraint(hasher, dependency.getVersionConstraint());
+        putNullableString(hasher, dependency.getReason());
+        putNullableString(hasher, dependency.getTargetConfiguration());
+        hasher.putBoolean(dependency.isTransitive());
+        hasher.putBoolean(dependency.isForce());
+        hasher.putBoolean(dependency.isChanging());
+        hasher.putBoolean(dependency.isEndorsingStrictVersions());
+        appendAttributes(hasher, dependency.getAttributes());
+        appendCapabilities(hasher, dependency.getRequestedCapabilities());
+        appendExcludeRules(hasher, dependency.getExcludeRules());
+        hasher.putInt(dependency.getArtifacts().size());
+        for (DependencyArtifact artifact : dependency.getArtifacts()) {
+            hasher.putString(artifact.getName());
+            putNullableString(hasher, artifact.getType());
+            putNullableString(hasher, artifact.getExtension());
+            putNullableString(hasher, artifact.getClassifier());
+            putNullableString(hasher, artifact.getUrl());
+        }
+    }
+
+    private static void appendConstraint(Hasher hasher, DependencyConstraint constraint) {
+        putNullableString(hasher, constraint.getGroup());
+        hasher.putString(constraint.getName());
+        appendVersionConstraint(hasher, constraint.getVersionConstraint());
+        putNullableString(hasher, constraint.getReason());
+        hasher.putBoolean(constraint instanceof DependencyConstraintInternal && ((DependencyConstraintInternal) constraint).isForce());
+        appendAttributes(hasher, constraint.getAttributes());
+    }
+
+    private static void appendVersionConstraint(Hasher hasher, VersionConstraint versionConstraint) {
+        putNullableString(hasher, versionConstraint.getRequiredVersion());
+        putNullableString(hasher, versionConstraint.getPreferredVersion());
+        putNullableString(hasher, versionConstraint.getStrictVersion());
+        putNullableString(hasher, versionConstraint.getBranch());
+        hasher.putInt(versionConstraint.getRejectedVersions().size());
+        for (String rejectedVersion : versionConstraint.getRejectedVersions()) {
+            hasher.putString(rejectedVersion);
+        }
+    }
+
+    private static void appendResolutionStrategy(Hasher hasher, ResolutionStrategyInternal resolutionStrategy) {
+        if (resolutionStrategy.isDependencyLockingEnabled()) {
+            hasher.markAsInvalid("dependency locking is enabled");
+        } else if (resolutionStrategy.getDependencySubstitution().hasRules()) {
+            hasher.markAsInvalid("dependency substitution rules are registered");
+        } else if (!resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            hasher.markAsInvalid("component selection rules are registered");
+        } else if (resolutionStrategy.getCapabilitiesResolutionRules().hasRules()) {
+            hasher.markAsInvalid("capabilities resolution rules are registered");
+        }
+        hasher.putString(resolutionStrategy.getConflictResolution().name());
+        hasher.putBoolean(resolutionStrategy.isFailingOnDynamicVersions());
+        hasher.putBoolean(resolutionStrategy.isFailingOnChangingVersions());
+        hasher.putInt(resolutionStrategy.getForcedModules().size());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            putNullableString(hasher, forcedModule.getGroup());
+            hasher.putString(forcedModule.getName());
+            putNullableString(hasher, forcedModule.getVersion());
+        }
+    }
+
+    private void appendGlobalRules(Hasher hasher) {
+        if (globalRules.getDependencySubstitutionRules().hasRules()) {
+            hasher.markAsInvalid("global dependency substitution rules are registered");
+        } else if (globalRules.getModuleMetadataProcessor().getModuleReplacements().hasReplacements()) {
+            hasher.markAsInvalid("module replacements are declared");
+        }
+        globalRules.getComponentMetadataProcessorFactory().appendId(hasher);
+    }
+
+    private static void appendRepositories(Hasher hasher, List<ResolutionAwareRepository> repositories) {
+        hasher.putInt(repositories.size());
+        for (ResolutionAwareRepository repository : repositories) {
+            if (repository instanceof ContentFilteringRepository && ((ContentFilteringRepository) repository).getContentFilter() != Actions.doNothing()) {
+                hasher.markAsInvalid("repository " + repository.getDescriptor().getName() + " filters its content");
+                return;
+            }
+            ConfiguredModuleComponentRepository resolver = repository.createResolver();
+            if (resolver.isLocal()) {
+                // The content of local repositories is not cached, so it can change between builds
+                hasher.markAsInvalid("repository " + resolver.getName() + " is local");
+                return;
+            }
+            hasher.putString(resolver.getId());
+            hasher.putBoolean(resolver.isDynamicResolveMode());
+        }
+    }
+
+    private static void appendAttributes(Hasher hasher, AttributeContainer attributes) {
+        List<Attribute<?>> keys = new ArrayList<>(attributes.keySet());
+        keys.sort(Comparator.comparing(Attribute::getName));
+        hasher.putInt(keys.size());
+        for (Attribute<?> key : keys) {
+            hasher.putString(key.getName());
+            hasher.putString(key.getType().getName());
+            hasher.putString(String.valueOf(attributes.getAttribute(key)));
+        }
+    }
+
+    private static void appendCapabilities(Hasher hasher, Collection<? extends Capability> capabilities) {
+        hasher.putInt(capabilities.size());
+        for (Capability capability : capabilities) {
+            hasher.putString(capability.getGroup());
+            hasher.putString(capability.getName());
+            putNullableString(hasher, capability.getVersion());
+        }
+    }
+
+    private static void appendExcludeRules(Hasher hasher, Collection<ExcludeRule> excludeRules) {
+        hasher.putInt(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            putNullableString(hasher, excludeRule.getGroup());
+            putNullableString(hasher, excludeRule.getModule());
+        }
+    }
+
+    private static void putNullableString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putNull();
+        } else {
+            hasher.putString(value);
+        }
+    }
+}
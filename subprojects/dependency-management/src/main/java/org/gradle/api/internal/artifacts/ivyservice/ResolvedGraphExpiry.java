@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.Expiry;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ChangingValueDependencyResolutionListener;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphComponent;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Calculates for how long a resolved graph can be reused, according to the dynamic versions and changing modules it contains.
+ * <p>
+ * The graph is kept for as long as the version listings and changing module metadata it was resolved from stay in the dependency cache.
+ * Their remaining time is reported by the repositories as they are used during the resolution, which can happen from several threads.
+ * A graph with a dynamic version or a changing module for which no such time was reported cannot be reused.
+ */
+class ResolvedGraphExpiry implements DependencyGraphVisitor, ChangingValueDependencyResolutionListener {
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final Set<ModuleIdentifier> dynamicModules = new HashSet<>();
+    private final Set<ModuleComponentIdentifier> changingModules = new HashSet<>();
+    private final Set<ModuleIdentifier> listedModules = new HashSet<>();
+    private final Set<ModuleComponentIdentifier> checkedChangingModules = new HashSet<>();
+    private ComponentIdentifier rootId;
+    private Duration keepFor = Duration.ofMillis(Long.MAX_VALUE);
+    private boolean reusable = true;
+
+    ResolvedGraphExpiry(VersionSelectorScheme versionSelectorScheme) {
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    /**
+     * Returns for how long the graph can be reused, or {@code null} if it cannot be.
+     */
+    @Nullable
+    synchronized Duration getKeepFor() {
+        if (!reusable || keepFor.isZero() || !listedModules.containsAll(dynamicModules) || !checkedChangingModules.containsAll(changingModules)) {
+            return null;
+        }
+        return keepFor;
+    }
+
+    @Override
+    public synchronized void onDynamicVersionSelection(ModuleComponentSelector requested, Expiry expiry) {
+        listedModules.add(requested.getModuleIdentifier());
+        keepAtMost(expiry);
+    }
+
+    @Override
+    public synchronized void onChangingModuleResolve(ModuleComponentIdentifier moduleId, Expiry expiry) {
+        checkedChangingModules.add(moduleId);
+        keepAtMost(expiry);
+    }
+
+    @Override
+    public void start(RootGraphNode root) {
+        rootId = root.getOwner().getComponentId();
+    }
+
+    @Override
+    public synchronized void visitNode(DependencyGraphNode node) {
+        DependencyGraphComponent component = node.getOwner();
+        ComponentIdentifier id = component.getComponentId();
+        if (id.equals(rootId)) {
+            return;
+        }
+        if (!(id instanceof ModuleComponentIdentifier)) {
+            // Local components are only known once the build logic has run
+            reusable = false;
+            return;
+        }
+        ComponentResolveMetadata metadata = component.getMetadata();
+        if (metadata == null) {
+            reusable = false;
+        } else if (metadata.isChanging()) {
+            changingModules.add((ModuleComponentIdentifier) id);
+        }
+    }
+
+    @Override
+    public synchronized void visitSelector(DependencyGraphSelector selector) {
+        ComponentSelector requested = selector.getRequested();
+        if (requested instanceof ModuleComponentSelector) {
+            ModuleComponentSelector moduleSelector = (ModuleComponentSelector) requested;
+            if (isDynamic(moduleSelector.getVersionConstraint())) {
+                dynamicModules.add(moduleSelector.getModuleIdentifier());
+            }
+        }
+    }
+
+    @Override
+    public void visitEdges(DependencyGraphNode node) {
+    }
+
+    @Override
+    public void finish(DependencyGraphNode root) {
+    }
+
+    private boolean isDynamic(VersionConstraint versionConstraint) {
+        return versionConstraint.getBranch() != null
+            || isDynamic(versionConstraint.getRequiredVersion())
+            || isDynamic(versionConstraint.getPreferredVersion())
+            || isDynamic(versionConstraint.getStrictVersion());
+    }
+
+    private boolean isDynamic(String version) {
+        return !version.isEmpty() && versionSelectorScheme.parseSelector(version).isDynamic();
+    }
+
+    private void keepAtMost(Expiry expiry) {
+        if (expiry.getKeepFor().compareTo(keepFor) < 0) {
+            keepFor = expiry.getKeepFor();
+        }
+    }
+}
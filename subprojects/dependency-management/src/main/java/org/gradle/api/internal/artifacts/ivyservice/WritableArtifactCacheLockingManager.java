@@ -17,6 +17,8 @@
 
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.filestore.DefaultArtifactIdentifierFileStore;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CleanupAction;
@@ -29,24 +31,63 @@
 import org.gradle.cache.internal.SingleDepthFilesFinder;
 import org.gradle.cache.internal.UnusedVersionsCacheCleanup;
 import org.gradle.cache.internal.UsedGradleVersions;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedScheduledExecutor;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.resource.cached.DefaultExternalResourceFileStore;
 import org.gradle.internal.serialize.Serializer;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_EXTERNAL_CACHE_ENTRIES;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class WritableArtifactCacheLockingManager implements ArtifactCacheLockingManager, Closeable {
+    private final static Logger LOGGER = Logging.getLogger(WritableArtifactCacheLockingManager.class);
+
+    /**
+     * Enables concurrent writers mode, for caches shared by many build processes. Writes to the indexes of the cache are then
+     * journaled in memory, and applied in batches whenever the cache lock is taken anyway, instead of handing the lock over
+     * between the processes for every entry they add. Only read by {@link DefaultArtifactCaches}.
+     */
+    public static final String CONCURRENT_WRITERS_PROPERTY = "org.gradle.internal.dependency-cache.concurrent-writers";
+    private static final int MAX_JOURNALED_WRITES = 1000;
+    /**
+     * How often journaled writes are applied, which bounds how long other processes do not see them, and how many are lost when the process dies.
+     */
+    private static final long JOURNAL_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final Object REMOVED = new Object();
+    private static final Object MISSING = new Object();
+
     private final PersistentCache cache;
+    private final boolean concurrentWriters;
+    private final List<WriteJournalingPersistentCache<?, ?>> journalingCaches = new CopyOnWriteArrayList<>();
+    private final ManagedScheduledExecutor journalFlushExecutor;
 
     public WritableArtifactCacheLockingManager(CacheRepository cacheRepository,
                                                ArtifactCacheMetadata cacheMetaData,
                                                FileAccessTimeJournal fileAccessTimeJournal,
                                                UsedGradleVersions usedGradleVersions) {
+        this(cacheRepository, cacheMetaData, fileAccessTimeJournal, usedGradleVersions, false, null);
+    }
+
+    public WritableArtifactCacheLockingManager(CacheRepository cacheRepository,
+                                               ArtifactCacheMetadata cacheMetaData,
+                                               FileAccessTimeJournal fileAccessTimeJournal,
+                                               UsedGradleVersions usedGradleVersions,
+                                               boolean concurrentWriters,
+                                               @Nullable ExecutorFactory executorFactory) {
+        this.concurrentWriters = concurrentWriters;
         cache = cacheRepository
                 .cache(cacheMetaData.getCacheDir())
                 .withCrossVersionCache(CacheBuilder.LockTarget.CacheDirectory)
@@ -54,6 +95,12 @@ public WritableArtifactCacheLockingManager(CacheRepository cacheRepository,
                 .withLockOptions(mode(FileLockManager.LockMode.OnDemand)) // Don't need to lock anything until we use the caches
                 .withCleanup(createCleanupAction(cacheMetaData, fileAccessTimeJournal, usedGradleVersions))
                 .open();
+        if (concurrentWriters) {
+            journalFlushExecutor = Objects.requireNonNull(executorFactory).createScheduled("Dependency cache journal flush", 1);
+            journalFlushExecutor.scheduleWithFixedDelay(this::flushJournaledWrites, JOURNAL_FLUSH_INTERVAL_MILLIS, JOURNAL_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            journalFlushExecutor = null;
+        }
     }
 
     private CleanupAction createCleanupAction(ArtifactCacheMetadata cacheMetaData, FileAccessTimeJournal fileAccessTimeJournal, UsedGradleVersions usedGradleVersions) {
@@ -73,6 +120,10 @@ private CleanupAction createCleanupAction(ArtifactCacheMetadata cacheMetaData, F
 
     @Override
     public void close() {
+        if (concurrentWriters) {
+            journalFlushExecutor.stop();
+            cache.useCache(this::applyJournaledWrites);
+        }
         cache.close();
     }
 
@@ -88,21 +139,67 @@ public void withFileLock(Runnable action) {
 
     @Override
     public <T> T useCache(Factory<? extends T> action) {
+        if (concurrentWriters) {
+            return cache.useCache(() -> {
+                applyJournaledWrites();
+                return action.create();
+            });
+        }
         return cache.useCache(action);
     }
 
     @Override
     public void useCache(Runnable action) {
-        cache.useCache(action);
+        if (concurrentWriters) {
+            cache.useCache(() -> {
+                applyJournaledWrites();
+                action.run();
+            });
+        } else {
+            cache.useCache(action);
+        }
     }
 
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         String cacheFileInMetaDataStore = CacheLayout.META_DATA.getKey() + "/" + cacheName;
         final PersistentIndexedCache<K, V> persistentCache = cache.createCache(PersistentIndexedCacheParameters.of(cacheFileInMetaDataStore, keySerializer, valueSerializer));
+        if (concurrentWriters) {
+            WriteJournalingPersistentCache<K, V> journalingCache = new WriteJournalingPersistentCache<>(persistentCache);
+            journalingCaches.add(journalingCache);
+            return journalingCache;
+        }
         return new CacheLockingPersistentCache<>(persistentCache);
     }
 
+    /**
+     * Applies the journaled writes of all indexes. Must be called while holding the cache lock.
+     */
+    private void applyJournaledWrites() {
+        for (WriteJournalingPersistentCache<?, ?> journalingCache : journalingCaches) {
+            journalingCache.applyJournaledWrites();
+        }
+    }
+
+    /**
+     * Runs periodically, so that the entries written by this process become visible to the other processes, and the entries they
+     * write become visible to this one, even when the cache lock is not taken for anything else.
+     */
+    private void flushJournaledWrites() {
+        try {
+            boolean hasJournaledWrites = false;
+            for (WriteJournalingPersistentCache<?, ?> journalingCache : journalingCaches) {
+                hasJournaledWrites |= journalingCache.forgetReads();
+            }
+            if (hasJournaledWrites) {
+                cache.useCache(this::applyJournaledWrites);
+            }
+        } catch (RuntimeException e) {
+            // Keep flushing periodically, the writes are applied again on the next attempt
+            LOGGER.warn("Could not apply journaled writes to the dependency cache.", e);
+        }
+    }
+
     private class CacheLockingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
         private final PersistentIndexedCache<K, V> persistentCache;
 
@@ -131,4 +228,108 @@ public void remove(final K key) {
             cache.useCache(() -> persistentCache.remove(key));
         }
     }
+
+    /**
+     * An index which records writes in memory, without taking the cache lock. Reads see the journaled writes first, then
+     * the entries this process has read from the index since the journal was last applied, and take the cache lock only for
+     * the other entries, applying all journaled writes at the same time.
+     * <p>
+     * The journal is applied at least every {@link #JOURNAL_FLUSH_INTERVAL_MILLIS} milliseconds. Until then, a process may miss
+     * an entry another one has just written, or read an entry another one has just replaced, which only costs a cache miss.
+     */
+    private class WriteJournalingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
+        private final PersistentIndexedCache<K, V> persistentCache;
+        private final Map<K, Object> journal = new LinkedHashMap<>();
+        private final Map<K, Object> reads = new HashMap<>();
+
+        public WriteJournalingPersistentCache(PersistentIndexedCache<K, V> persistentCache) {
+            this.persistentCache = persistentCache;
+        }
+
+        @Nullable
+        @Override
+        public V get(final K key) {
+            Object known;
+            synchronized (journal) {
+                known = journal.get(key);
+                if (known == null) {
+                    known = reads.get(key);
+                }
+            }
+            if (known != null) {
+                return known == REMOVED || known == MISSING ? null : Cast.uncheckedCast(known);
+            }
+            return useCache(() -> {
+                V value = persistentCache.get(key);
+                synchronized (journal) {
+                    reads.put(key, value == null ? MISSING : value);
+                }
+                return value;
+            });
+        }
+
+        @Override
+        public V get(final K key, final Transformer<? extends V, ? super K> producer) {
+            V value = get(key);
+            if (value == null) {
+                value = producer.transform(key);
+                put(key, value);
+            }
+            return value;
+        }
+
+        @Override
+        public void put(final K key, final V value) {
+            journal(key, value);
+        }
+
+        @Override
+        public void remove(final K key) {
+            journal(key, REMOVED);
+        }
+
+        private void journal(K key, Object value) {
+            boolean full;
+            synchronized (journal) {
+                journal.put(key, value);
+                reads.remove(key);
+                full = journal.size() >= MAX_JOURNALED_WRITES;
+            }
+            if (full) {
+                useCache(() -> {
+                });
+            }
+        }
+
+        /**
+         * Forgets the entries read from the index, so that they are read again with the changes of the other processes.
+         *
+         * @return whether there are journaled writes to apply
+         */
+        boolean forgetReads() {
+            synchronized (journal) {
+                reads.clear();
+                return !journal.isEmpty();
+            }
+        }
+
+        void applyJournaledWrites() {
+            Map<K, Object> writes;
+            synchronized (journal) {
+                reads.clear();
+                if (journal.isEmpty()) {
+                    return;
+                }
+                writes = new LinkedHashMap<>(journal);
+                journal.clear();
+            }
+            for (Map.Entry<K, Object> write : writes.entrySet()) {
+                if (write.getValue() == REMOVED) {
+                    persistentCache.remove(write.getKey());
+                } else {
+                    persistentCache.put(write.getKey(), Cast.uncheckedCast(write.getValue()));
+                }
+            }
+        }
+    }
 }
@@ -66,7 +66,7 @@ public ComponentResolveMetadata selectNewestComponent(@Nullable ComponentResolve
             return two == null ? one : two;
         }
 
-        int comparison = versionComparator.compare(new VersionInfo(versionParser.transform(one.getModuleVersionId().getVersion())), new VersionInfo(versionParser.transform(two.getModuleVersionId().getVersion())));
+        int comparison = versionComparator.asVersionComparator().compare(versionParser.transform(one.getModuleVersionId().getVersion()), versionParser.transform(two.getModuleVersionId().getVersion()));
 
         if (comparison == 0) {
             if (isMissingModuleDescriptor(one) && !isMissingModuleDescriptor(two)) {
@@ -17,6 +17,8 @@
 
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.artifacts.result.ArtifactResult;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.attributes.AttributesSchema;
@@ -26,6 +28,7 @@
 import org.gradle.api.internal.artifacts.MetadataResolutionContext;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
 import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.Expiry;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
@@ -98,13 +101,15 @@ public ComponentResolvers create(String resolveContextName,
                                      AttributeContainer consumerAttributes,
                                      AttributesSchema attributesSchema,
                                      ImmutableAttributesFactory attributesFactory,
-                                     ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor) {
+                                     ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor,
+                                     ChangingValueDependencyResolutionListener resolutionListener) {
         if (repositories.isEmpty()) {
             return new NoRepositoriesResolver();
         }
 
         CachePolicy cachePolicy = resolutionStrategy.getCachePolicy();
         startParameterResolutionOverride.applyToCachePolicy(cachePolicy);
+        ChangingValueDependencyResolutionListener changingValueListener = listenerFor(resolutionListener);
 
         UserResolverChain moduleResolver = new UserResolverChain(versionComparator, resolutionStrategy.getComponentSelection(), versionParser, consumerAttributes, attributesSchema, attributesFactory, metadataProcessor, componentMetadataSupplierRuleExecutor, cachePolicy);
         ParentModuleLookupResolver parentModuleResolver = new ParentModuleLookupResolver(versionComparator, moduleIdentifierFactory, versionParser, consumerAttributes, attributesSchema, attributesFactory, metadataProcessor, componentMetadataSupplierRuleExecutor, cachePolicy);
@@ -123,7 +128,7 @@ public ComponentResolvers create(String resolveContextName,
                 moduleComponentRepository = new LocalModuleComponentRepository(moduleComponentRepository);
             } else {
                 moduleComponentRepository = startParameterResolutionOverride.overrideModuleVersionRepository(moduleComponentRepository);
-                moduleComponentRepository = new CachingModuleComponentRepository(moduleComponentRepository, cacheProvider.getPersistentCaches(), cachePolicy, timeProvider, componentMetadataProcessor, listener);
+                moduleComponentRepository = new CachingModuleComponentRepository(moduleComponentRepository, cacheProvider.getPersistentCaches(), cachePolicy, timeProvider, componentMetadataProcessor, changingValueListener);
             }
             moduleComponentRepository = cacheProvider.getResolvedArtifactCaches().provideResolvedArtifactCache(moduleComponentRepository);
 
@@ -140,6 +145,25 @@ public ComponentResolvers create(String resolveContextName,
         return moduleResolver;
     }
 
+    private ChangingValueDependencyResolutionListener listenerFor(ChangingValueDependencyResolutionListener resolutionListener) {
+        if (resolutionListener == ChangingValueDependencyResolutionListener.NO_OP) {
+            return listener;
+        }
+        return new ChangingValueDependencyResolutionListener() {
+            @Override
+            public void onDynamicVersionSelection(ModuleComponentSelector requested, Expiry expiry) {
+                listener.onDynamicVersionSelection(requested, expiry);
+                resolutionListener.onDynamicVersionSelection(requested, expiry);
+            }
+
+            @Override
+            public void onChangingModuleResolve(ModuleComponentIdentifier moduleId, Expiry expiry) {
+                listener.onChangingModuleResolve(moduleId, expiry);
+                resolutionListener.onChangingModuleResolve(moduleId, expiry);
+            }
+        };
+    }
+
     private ModuleComponentRepository filterRepository(ResolutionAwareRepository repository, ModuleComponentRepository moduleComponentRepository, String consumerName, AttributeContainer consumerAttributes) {
         Action<? super ArtifactResolutionDetails> filter = Actions.doNothing();
         if (repository instanceof ContentFilteringRepository) {
@@ -28,6 +28,7 @@
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.writer.WriteDependencyVerificationFile;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.ExternalResourceCachePolicy;
 import org.gradle.api.internal.artifacts.repositories.resolver.MetadataFetchingCost;
+import org.gradle.api.internal.artifacts.verification.model.ChecksumKind;
 import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationServiceFactory;
 import org.gradle.api.internal.component.ArtifactType;
 import org.gradle.api.internal.properties.GradleProperties;
@@ -65,7 +66,9 @@
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class StartParameterResolutionOverride {
     private final StartParameter startParameter;
@@ -124,6 +127,27 @@ public DependencyVerificationOverride dependencyVerificationOverride(BuildOperat
         return DependencyVerificationOverride.NO_VERIFICATION;
     }
 
+    /**
+     * Returns the checksums, other than SHA-1, which dependency verification computes for the downloaded artifacts.
+     */
+    public Set<ChecksumKind> dependencyVerificationChecksums() {
+        Set<ChecksumKind> kinds = EnumSet.noneOf(ChecksumKind.class);
+        List<String> checksums = startParameter.getWriteDependencyVerifications();
+        if (!checksums.isEmpty()) {
+            for (ChecksumKind kind : ChecksumKind.values()) {
+                if (checksums.contains(kind.name())) {
+                    kinds.add(kind);
+                }
+            }
+        } else if (startParameter.getDependencyVerificationMode() != DependencyVerificationMode.OFF && DependencyVerificationOverride.dependencyVerificationsFile(gradleDir).exists()) {
+            // The checksums written by default, and the ones recommended to verify with
+            kinds.add(ChecksumKind.sha256);
+            kinds.add(ChecksumKind.sha512);
+        }
+        kinds.remove(ChecksumKind.sha1);
+        return kinds;
+    }
+
     private File computeReportDirectory(BuildCommencedTimeProvider timeProvider) {
         // TODO: This is not quite correct: we're using the "root project" build directory
         // but technically speaking, this can be changed _after_ this service is created.
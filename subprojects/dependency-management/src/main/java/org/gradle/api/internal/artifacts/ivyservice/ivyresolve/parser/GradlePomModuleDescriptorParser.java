@@ -64,15 +64,18 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     private final VersionSelectorScheme mavenVersionSelectorScheme;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
     private final MavenMutableModuleMetadataFactory metadataFactory;
+    private final ParentPomCache parentPomCache;
 
     public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme,
                                            ImmutableModuleIdentifierFactory moduleIdentifierFactory,
-                                           FileResourceRepository fileResourceRepository, MavenMutableModuleMetadataFactory metadataFactory) {
+                                           FileResourceRepository fileResourceRepository, MavenMutableModuleMetadataFactory metadataFactory,
+                                           ParentPomCache parentPomCache) {
         super(fileResourceRepository);
         this.gradleVersionSelectorScheme = gradleVersionSelectorScheme;
         mavenVersionSelectorScheme = new MavenVersionSelectorScheme(gradleVersionSelectorScheme);
         this.moduleIdentifierFactory = moduleIdentifierFactory;
         this.metadataFactory = metadataFactory;
+        this.parentPomCache = parentPomCache;
     }
 
     @Override
@@ -239,7 +242,7 @@ private ModuleDependencyMetadata toDependencyMetadata(ModuleComponentSelector se
     }
 
     private PomReader parsePomResource(DescriptorParseContext parseContext, LocallyAvailableExternalResource localResource, Map<String, String> childProperties) throws SAXException, IOException {
-        PomReader pomReader = new PomReader(localResource, moduleIdentifierFactory, childProperties);
+        PomReader pomReader = new PomReader(parentPomCache.parse(localResource), moduleIdentifierFactory, childProperties);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme);
         doParsePom(parseContext, mdBuilder, pomReader);
         return pomReader;
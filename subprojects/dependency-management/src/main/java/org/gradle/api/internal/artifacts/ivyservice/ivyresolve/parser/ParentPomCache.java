@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.w3c.dom.Document;
+
+import java.io.File;
+
+/**
+ * Keeps the documents of parent and imported POMs parsed during a build, as they are shared by many modules
+ * of all the projects of the build. Only the most recently used documents are kept, as parent POMs can have
+ * large dependency management sections.
+ */
+public class ParentPomCache {
+    private static final int MAX_DOCUMENTS = 200;
+
+    private final Cache<File, ParsedPom> documents = CacheBuilder.newBuilder()
+        .maximumSize(MAX_DOCUMENTS)
+        .build();
+
+    /**
+     * Returns a copy of the document of the given POM, which the caller can use without synchronization.
+     */
+    Document parse(LocallyAvailableExternalResource resource) {
+        File file = resource.getFile();
+        ParsedPom parsedPom = documents.getIfPresent(file);
+        if (parsedPom == null || !parsedPom.isUpToDate(file)) {
+            parsedPom = new ParsedPom(file, PomReader.parse(resource));
+            documents.put(file, parsedPom);
+        }
+        return parsedPom.copy();
+    }
+
+    private static class ParsedPom {
+        private final long length;
+        private final long lastModified;
+        private final Document document;
+
+        ParsedPom(File file, Document document) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.document = document;
+        }
+
+        boolean isUpToDate(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+
+        /**
+         * Each reader gets its own copy of the document, as a DOM cannot be safely read by several threads at the same time.
+         */
+        Document copy() {
+            synchronized (document) {
+                Document copy = (Document) document.cloneNode(true);
+                copy.setDocumentURI(document.getDocumentURI());
+                return copy;
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.io.IOUtils;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Reads a POM with a streaming parser, into a DOM which only contains what {@link PomReader} looks at.
+ *
+ * The sections of a POM used to build a project, like {@code <build>} or {@code <reporting>}, are often most of its content,
+ * in particular for parent POMs. They are skipped without creating any node, at the top level and in profiles.
+ * Comments are only kept at the top level, where the Gradle metadata marker is.
+ */
+public final class PomStreamingParser {
+    private static final Set<String> SKIPPED_ELEMENTS = ImmutableSet.of(
+        "build", "reporting", "modules", "prerequisites", "repositories", "pluginRepositories",
+        "developers", "contributors", "mailingLists", "licenses", "organization", "scm", "issueManagement", "ciManagement"
+    );
+    private static final byte[] M2_ENTITIES_RESOURCE;
+
+    static {
+        byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        M2_ENTITIES_RESOURCE = bytes;
+    }
+
+    private static final XMLResolver M2_ENTITY_RESOLVER = (publicId, systemId, baseUri, namespace) -> {
+        if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+            return new ByteArrayInputStream(M2_ENTITIES_RESOURCE);
+        }
+        return null;
+    };
+
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY;
+
+    static {
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            XML_INPUT_FACTORY.setXMLResolver(M2_ENTITY_RESOLVER);
+            DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+            DOCUMENT_BUILDER_FACTORY.setValidating(false);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private PomStreamingParser() {
+    }
+
+    public static Document parse(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new PomDomParser.AddDTDFilterInputStream(stream));
+        try {
+            Document document = newDocument();
+            document.setDocumentURI(systemId);
+            Node current = document;
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String name = reader.getLocalName();
+                        if (isSkipped(current, depth, name)) {
+                            skipElement(reader);
+                        } else {
+                            Element element = document.createElement(name);
+                            current.appendChild(element);
+                            current = element;
+                            depth++;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        current = current.getParentNode();
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (depth > 0) {
+                            current.appendChild(document.createTextNode(reader.getText()));
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        if (depth == 1) {
+                            current.appendChild(document.createComment(reader.getText()));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return document;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean isSkipped(Node parent, int depth, String name) {
+        if (!SKIPPED_ELEMENTS.contains(name)) {
+            return false;
+        }
+        // Children of the root element, or of a profile
+        return depth == 1 || (depth == 3 && "profile".equals(parent.getNodeName()) && "profiles".equals(parent.getParentNode().getNodeName()));
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private static Document newDocument() {
+        try {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
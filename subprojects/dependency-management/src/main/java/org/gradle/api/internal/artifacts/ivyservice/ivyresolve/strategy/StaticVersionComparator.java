@@ -59,30 +59,28 @@ public int compare(Version version1, Version version2) {
 
         int i = 0;
         for (; i < parts1.length && i < parts2.length; i++) {
-            String part1 = parts1[i];
-            String part2 = parts2[i];
-
             Long numericPart1 = numericParts1[i];
             Long numericPart2 = numericParts2[i];
 
-            boolean is1Number = numericPart1 != null;
-            boolean is2Number = numericPart2 != null;
-
-            if (part1.equals(part2)) {
-                continue;
+            // Numeric parts are compared as parsed, without looking at their text first
+            if (numericPart1 != null && numericPart2 != null) {
+                int result = Long.compare(numericPart1, numericPart2);
+                if (result == 0) {
+                    continue;
+                }
+                return result;
             }
-            if (is1Number && !is2Number) {
+            if (numericPart1 != null) {
                 return 1;
             }
-            if (is2Number && !is1Number) {
+            if (numericPart2 != null) {
                 return -1;
             }
-            if (is1Number && is2Number) {
-                int result = numericPart1.compareTo(numericPart2);
-                if (result == 0) {
-                    continue;
-                }
-                return result;
+
+            String part1 = parts1[i];
+            String part2 = parts2[i];
+            if (part1.equals(part2)) {
+                continue;
             }
             // both are strings, we compare them taking into account special meaning
             Integer sm1 = specialMeanings.get(part1.toLowerCase(Locale.US));
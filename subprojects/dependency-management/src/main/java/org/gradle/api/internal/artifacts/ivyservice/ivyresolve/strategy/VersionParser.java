@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Longs;
 import org.gradle.api.Transformer;
@@ -24,7 +26,15 @@
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Parses version strings, once per distinct string.
+ *
+ * Parsed versions are interned across all parsers, so that the versions compared by the resolution engine are mostly the same instances,
+ * whichever parser produced them. Interned versions are only weakly referenced.
+ */
 public class VersionParser implements Transformer<Version, String> {
+    private static final Interner<Version> INTERNER = Interners.newWeakInterner();
+
     private final Map<String, Version> cache = Maps.newConcurrentMap();
 
     public VersionParser() {
@@ -32,7 +42,7 @@ public VersionParser() {
 
     @Override
     public Version transform(String original) {
-        return cache.computeIfAbsent(original, this::parse);
+        return cache.computeIfAbsent(original, source -> INTERNER.intern(parse(source)));
     }
 
     private Version parse(String original) {
@@ -31,6 +31,7 @@
 import org.gradle.api.internal.artifacts.configurations.dynamicversion.Expiry;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.DefaultResolvedModuleVersion;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -41,6 +42,11 @@
 import static org.gradle.api.internal.artifacts.configurations.MutationValidator.MutationType.STRATEGY;
 
 public class DefaultCachePolicy implements CachePolicy {
+    /**
+     * The number of seconds for which the absence of a module from a repository is cached: missing module versions and empty version listings.
+     * When not set, they are only looked up again when dependencies are refreshed.
+     */
+    public static final String CACHE_MISSING_MODULES_FOR_PROPERTY = "org.gradle.internal.dependency-cache.missing-modules-ttl";
     private static final int SECONDS_IN_DAY = 24 * 60 * 60;
     private static final int MILLISECONDS_IN_DAY = SECONDS_IN_DAY * 1000;
 
@@ -52,6 +58,10 @@ public class DefaultCachePolicy implements CachePolicy {
     private long keepChangingModulesFor = MILLISECONDS_IN_DAY;
 
     public DefaultCachePolicy() {
+        this(Integer.getInteger(CACHE_MISSING_MODULES_FOR_PROPERTY));
+    }
+
+    DefaultCachePolicy(@Nullable Integer cacheMissingModulesForSeconds) {
         this.dependencyCacheRules = new ArrayList<>();
         this.moduleCacheRules = new ArrayList<>();
         this.artifactCacheRules = new ArrayList<>();
@@ -59,6 +69,9 @@ public DefaultCachePolicy() {
         cacheDynamicVersionsFor(SECONDS_IN_DAY, TimeUnit.SECONDS);
         cacheChangingModulesFor(SECONDS_IN_DAY, TimeUnit.SECONDS);
         cacheMissingArtifactsFor(SECONDS_IN_DAY, TimeUnit.SECONDS);
+        if (cacheMissingModulesForSeconds != null) {
+            cacheMissingModulesFor(cacheMissingModulesForSeconds, TimeUnit.SECONDS);
+        }
     }
 
     DefaultCachePolicy(DefaultCachePolicy policy) {
@@ -119,6 +132,19 @@ private void cacheMissingArtifactsFor(final int value, final TimeUnit units) {
         });
     }
 
+    private void cacheMissingModulesFor(final int value, final TimeUnit units) {
+        eachDependency(dependencyResolutionControl -> {
+            if (dependencyResolutionControl.getCachedResult().isEmpty()) {
+                dependencyResolutionControl.cacheFor(value, units);
+            }
+        });
+        eachModule(moduleResolutionControl -> {
+            if (moduleResolutionControl.getCachedResult() == null) {
+                moduleResolutionControl.cacheFor(value, units);
+            }
+        });
+    }
+
     /**
      * Apply a rule to control resolution of dependencies.
      *
@@ -15,9 +15,9 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories;
 
-import com.google.common.collect.Maps;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -145,12 +145,28 @@ public int hashCode() {
      * Synchronization is ad-hoc, since `computeIfAbsent` on a concurrent hash map
      * will not allow for recursion, which is the case for us whenever a cache is
      * found at different levels.
+     *
+     * The caches live as long as the build, so they are shared by all resolutions,
+     * and only keep the most recently used entries.
      */
     public static class MergeCaches {
-        private final ConcurrentCache<ExcludePair, ExcludeSpec> allOfPairCache = ConcurrentCache.of();
-        private final ConcurrentCache<ExcludePair, ExcludeSpec> anyOfPairCache = ConcurrentCache.of();
-        private final ConcurrentCache<ExcludesKey, ExcludeSpec> allOfListCache = ConcurrentCache.of();
-        private final ConcurrentCache<ExcludesKey, ExcludeSpec> anyOfListCache = ConcurrentCache.of();
+        private static final int DEFAULT_MAX_ENTRIES = 20_000;
+
+        private final ConcurrentCache<ExcludePair, ExcludeSpec> allOfPairCache;
+        private final ConcurrentCache<ExcludePair, ExcludeSpec> anyOfPairCache;
+        private final ConcurrentCache<ExcludesKey, ExcludeSpec> allOfListCache;
+        private final ConcurrentCache<ExcludesKey, ExcludeSpec> anyOfListCache;
+
+        public MergeCaches() {
+            this(DEFAULT_MAX_ENTRIES);
+        }
+
+        public MergeCaches(int maxEntries) {
+            allOfPairCache = ConcurrentCache.of(maxEntries);
+            anyOfPairCache = ConcurrentCache.of(maxEntries);
+            allOfListCache = ConcurrentCache.of(maxEntries);
+            anyOfListCache = ConcurrentCache.of(maxEntries);
+        }
 
         ExcludeSpec getAnyPair(ExcludePair pair, Function<ExcludePair, ExcludeSpec> onMiss) {
             return anyOfPairCache.computeIfAbsent(pair, onMiss);
@@ -170,10 +186,19 @@ ExcludeSpec getAllOf(ExcludesKey list, Function<ExcludesKey, ExcludeSpec> onMiss
     }
 
     private static class ConcurrentCache<K, V> {
-        private final Map<K, V> backingMap = Maps.newHashMap();
+        private final Map<K, V> backingMap;
+
+        private ConcurrentCache(int maxEntries) {
+            this.backingMap = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
 
-        static <K, V> ConcurrentCache<K, V> of() {
-            return new ConcurrentCache<>();
+        static <K, V> ConcurrentCache<K, V> of(int maxEntries) {
+            return new ConcurrentCache<>(maxEntries);
         }
 
         V computeIfAbsent(K key, Function<K, V> producer) {
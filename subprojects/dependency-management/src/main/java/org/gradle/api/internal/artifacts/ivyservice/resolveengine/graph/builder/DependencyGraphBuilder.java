@@ -26,6 +26,7 @@
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.capabilities.Capability;
@@ -54,6 +55,7 @@
 import org.gradle.internal.component.model.ComponentResolveMetadata;
 import org.gradle.internal.component.model.DefaultCompatibilityCheckResult;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -94,6 +96,8 @@ public class DependencyGraphBuilder {
     private final VersionSelectorScheme versionSelectorScheme;
     private final Comparator<Version> versionComparator;
     private final VersionParser versionParser;
+    private final ExecutorFactory metadataPrefetchExecutorFactory;
+    private final int maxConcurrentMetadataPrefetches;
 
     final static Spec<EdgeState> ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
     final static Spec<EdgeState> NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> !dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
@@ -112,7 +116,9 @@ public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolve
                                   ImmutableAttributesFactory attributesFactory,
                                   VersionSelectorScheme versionSelectorScheme,
                                   Comparator<Version> versionComparator,
-                                  VersionParser versionParser) {
+                                  VersionParser versionParser,
+                                  @Nullable ExecutorFactory metadataPrefetchExecutorFactory,
+                                  int maxConcurrentMetadataPrefetches) {
         this.idResolver = componentIdResolver;
         this.metaDataResolver = componentMetaDataResolver;
         this.moduleResolver = resolveContextToComponentResolver;
@@ -128,6 +134,8 @@ public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolve
         this.versionSelectorScheme = versionSelectorScheme;
         this.versionComparator = versionComparator;
         this.versionParser = versionParser;
+        this.metadataPrefetchExecutorFactory = metadataPrefetchExecutorFactory;
+        this.maxConcurrentMetadataPrefetches = maxConcurrentMetadataPrefetches;
     }
 
     public void resolve(final ResolveContext resolveContext, final DependencyGraphVisitor modelVisitor) {
@@ -139,10 +147,24 @@ public void resolve(final ResolveContext resolveContext, final DependencyGraphVi
         int graphSize = estimateSize(resolveContext);
         ResolutionStrategyInternal resolutionStrategy = resolveContext.getResolutionStrategy();
 
-        final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize, resolveContext.getResolutionStrategy().getConflictResolution());
+        MetadataPrefetcher metadataPrefetcher = null;
+        if (metadataPrefetchExecutorFactory != null) {
+            // Declared dependencies are only followed when they cannot be substituted: the substitution rules run on the graph traversal thread only
+            boolean followDeclaredDependencies = dependencySubstitutionApplicator == DependencySubstitutionApplicator.NO_OP;
+            metadataPrefetcher = new MetadataPrefetcher(metaDataResolver, metadataPrefetchExecutorFactory, maxConcurrentMetadataPrefetches, buildOperationExecutor, moduleExclusions, edgeFilter, versionSelectorScheme, followDeclaredDependencies);
+        }
+        ComponentMetaDataResolver componentMetaDataResolver = metadataPrefetcher == null ? metaDataResolver : metadataPrefetcher;
+        final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, componentMetaDataResolver, edgeFilter, attributesSchema, moduleExclusions, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize, resolveContext.getResolutionStrategy().getConflictResolution());
 
         Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache = Maps.newHashMapWithExpectedSize(graphSize / 2);
-        traverseGraph(resolveState, componentIdentifierCache);
+        try {
+            traverseGraph(resolveState, componentIdentifierCache, metadataPrefetcher);
+        } finally {
+            if (metadataPrefetcher != null) {
+                metadataPrefetcher.stop();
+                metadataPrefetcher.logStatistics(resolveContext.getName());
+            }
+        }
 
         validateGraph(resolveState, resolutionStrategy.isFailingOnDynamicVersions(), resolutionStrategy.isFailingOnChangingVersions());
 
@@ -166,7 +188,7 @@ private static int estimateSize(ResolveContext resolveContext) {
     /**
      * Traverses the dependency graph, resolving conflicts and building the paths from the root configuration.
      */
-    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, @Nullable MetadataPrefetcher metadataPrefetcher) {
         resolveState.onMoreSelected(resolveState.getRoot());
         final List<EdgeState> dependencies = Lists.newArrayList();
 
@@ -181,9 +203,9 @@ private void traverseGraph(final ResolveState resolveState, final Map<ModuleVers
                 // Initialize and collect any new outgoing edges of this node
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
-                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState, componentIdentifierCache);
+                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState, componentIdentifierCache, metadataPrefetcher);
                 node.collectEndorsedStrictVersions(dependencies);
-                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState, componentIdentifierCache);
+                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState, componentIdentifierCache, metadataPrefetcher);
             } else {
                 // We have some batched up conflicts. Resolve the first, and continue traversing the graph
                 if (moduleConflictHandler.hasConflicts()) {
@@ -240,12 +262,13 @@ private boolean resolveEdges(final NodeState node,
                                  final Spec<EdgeState> dependencyFilter,
                                  final boolean recomputeSelectors,
                                  final ResolveState resolveState,
-                                 final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+                                 final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache,
+                                 @Nullable final MetadataPrefetcher metadataPrefetcher) {
         if (dependencies.isEmpty()) {
             return false;
         }
         if (performSelectionSerially(dependencies, dependencyFilter, resolveState, recomputeSelectors)) {
-            maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies, dependencyFilter);
+            maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies, dependencyFilter, metadataPrefetcher);
             attachToTargetRevisionsSerially(dependencies, dependencyFilter);
             return true;
         } else {
@@ -317,7 +340,8 @@ private void checkForModuleConflicts(ResolveState resolveState, ModuleResolveSta
      * Prepares the resolution of edges, either serially or concurrently.
      * It uses a simple heuristic to determine if we should perform concurrent resolution, based on the the number of edges, and whether they have unresolved metadata.
      */
-    private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter) {
+    private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, @Nullable MetadataPrefetcher metadataPrefetcher) {
+        ComponentMetaDataResolver componentMetaDataResolver = metadataPrefetcher == null ? metaDataResolver : metadataPrefetcher;
         List<ComponentState> requiringDownload = null;
         for (EdgeState dependency : dependencies) {
             if (!dependencyFilter.isSatisfiedBy(dependency)) {
@@ -325,7 +349,13 @@ private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionId
             }
             ComponentState targetComponent = dependency.getTargetComponent();
             if (targetComponent != null && targetComponent.isSelected() && !targetComponent.alreadyResolved()) {
-                if (!metaDataResolver.isFetchingMetadataCheap(toComponentId(targetComponent.getId(), componentIdentifierCache))) {
+                ComponentIdentifier componentId = toComponentId(targetComponent.getId(), componentIdentifierCache);
+                if (!componentMetaDataResolver.isFetchingMetadataCheap(componentId)) {
+                    if (metadataPrefetcher != null) {
+                        // Downloaded in the background, the graph traversal waits for the metadata when it needs it
+                        metadataPrefetcher.prefetch((ModuleComponentIdentifier) componentId, dependency.getExclusions(), dependency.isTransitive());
+                        continue;
+                    }
                     // Avoid initializing the list if there are no components requiring download (a common case)
                     if (requiringDownload == null) {
                         requiringDownload = Lists.newArrayList();
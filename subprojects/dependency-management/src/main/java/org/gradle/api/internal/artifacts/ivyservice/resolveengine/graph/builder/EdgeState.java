@@ -53,7 +53,8 @@ class EdgeState implements DependencyGraphEdge {
     private final DependencyMetadata dependencyMetadata;
     private final NodeState from;
     private final ResolveState resolveState;
-    private final List<NodeState> targetNodes = Lists.newLinkedList();
+    // Most edges target a single node
+    private final List<NodeState> targetNodes = Lists.newArrayListWithCapacity(1);
     private final boolean isTransitive;
     private final boolean isConstraint;
     private final int hashCode;
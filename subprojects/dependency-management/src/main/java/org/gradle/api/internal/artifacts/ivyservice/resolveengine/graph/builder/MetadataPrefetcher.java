@@ -0,0 +1,332 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.ConfigurationMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads the metadata of the components a graph is likely to contain in the background, while the graph traversal goes on.
+ * <p>
+ * The graph traversal submits the components it selects, with the exclusions of the edge that selected them. Once the metadata of a
+ * component has been downloaded, the dependencies it declares on fixed versions are submitted in turn, unless the exclusions of the path
+ * exclude them, the traversal already selected another version of the module, or the resolution substitutes dependencies. At most a
+ * bounded number of speculative downloads are pending at a time, and downloads run on a fixed number of threads.
+ * <p>
+ * Prefetched metadata is handed over to the graph traversal when it resolves the same component, waiting for the download to complete
+ * if needed. Versions that the traversal never selects are simply dropped.
+ */
+class MetadataPrefetcher implements ComponentMetaDataResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataPrefetcher.class);
+
+    private final ComponentMetaDataResolver delegate;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final BuildOperationRef parentOperation;
+    private final ManagedExecutor executor;
+    private final int maxPendingSpeculative;
+    private final ModuleExclusions moduleExclusions;
+    private final Spec<? super DependencyMetadata> edgeFilter;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final boolean followDeclaredDependencies;
+    private final Set<ComponentIdentifier> submitted = ConcurrentHashMap.newKeySet();
+    private final Map<ComponentIdentifier, Prefetch> prefetches = new ConcurrentHashMap<>();
+    private final Map<ModuleIdentifier, String> selectedVersions = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingSpeculative = new AtomicInteger();
+    private final AtomicInteger prefetchedCount = new AtomicInteger();
+    private final AtomicInteger usedCount = new AtomicInteger();
+    private final AtomicLong usedFetchNanos = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private volatile boolean stopped;
+
+    MetadataPrefetcher(ComponentMetaDataResolver delegate,
+                       ExecutorFactory executorFactory,
+                       int maxConcurrentDownloads,
+                       BuildOperationExecutor buildOperationExecutor,
+                       ModuleExclusions moduleExclusions,
+                       Spec<? super DependencyMetadata> edgeFilter,
+                       VersionSelectorScheme versionSelectorScheme,
+                       boolean followDeclaredDependencies) {
+        this.delegate = delegate;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.parentOperation = buildOperationExecutor.getCurrentOperation();
+        this.executor = executorFactory.create("Metadata prefetch", maxConcurrentDownloads);
+        this.maxPendingSpeculative = 4 * maxConcurrentDownloads;
+        this.moduleExclusions = moduleExclusions;
+        this.edgeFilter = edgeFilter;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.followDeclaredDependencies = followDeclaredDependencies;
+    }
+
+    @Override
+    public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        // Metadata is prefetched without overrides, so it can only be used for components requested without any
+        if (componentOverrideMetadata == DefaultComponentOverrideMetadata.EMPTY) {
+            Prefetch prefetch = prefetches.remove(identifier);
+            if (prefetch != null) {
+                long start = System.nanoTime();
+                ComponentResolveMetadata metadata = prefetch.await();
+                waitNanos.addAndGet(System.nanoTime() - start);
+                if (metadata != null) {
+                    usedCount.incrementAndGet();
+                    usedFetchNanos.addAndGet(prefetch.fetchNanos);
+                    result.resolved(metadata);
+                    return;
+                }
+            }
+        }
+        delegate.resolve(identifier, componentOverrideMetadata, result);
+    }
+
+    @Override
+    public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+        return prefetches.containsKey(identifier) || delegate.isFetchingMetadataCheap(identifier);
+    }
+
+    /**
+     * Starts downloading the metadata of a component selected by the graph traversal, and then of its dependencies.
+     *
+     * @param exclusions the exclusions of the edge that selected the component
+     * @param transitive whether the dependencies of the component are part of the graph
+     */
+    void prefetch(ModuleComponentIdentifier id, ExcludeSpec exclusions, boolean transitive) {
+        selectedVersions.put(id.getModuleIdentifier(), id.getVersion());
+        submit(id, exclusions, transitive, false);
+    }
+
+    private void submit(ComponentIdentifier id, ExcludeSpec exclusions, boolean transitive, boolean speculative) {
+        if (stopped) {
+            return;
+        }
+        if (!submitted.add(id)) {
+            return;
+        }
+        Prefetch prefetch = new Prefetch(id, exclusions, transitive, speculative);
+        prefetches.put(id, prefetch);
+        prefetchedCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    buildOperationExecutor.run(prefetch);
+                } finally {
+                    prefetch.finish();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopped concurrently
+            prefetch.finish();
+        }
+    }
+
+    private void prefetchDependenciesOf(ComponentResolveMetadata metadata, ExcludeSpec exclusions) {
+        Optional<ImmutableList<? extends ConfigurationMetadata>> variants = metadata.getVariantsForGraphTraversal();
+        if (variants.isPresent()) {
+            for (ConfigurationMetadata variant : variants.get()) {
+                prefetchDependenciesOf(variant, exclusions);
+            }
+        } else if (metadata.getConfigurationNames().contains("default")) {
+            prefetchDependenciesOf(metadata.getConfiguration("default"), exclusions);
+        }
+    }
+
+    private void prefetchDependenciesOf(ConfigurationMetadata configuration, ExcludeSpec edgeExclusions) {
+        ExcludeSpec exclusions = moduleExclusions.excludeAny(edgeExclusions, moduleExclusions.excludeAny(configuration.getExcludes()));
+        for (DependencyMetadata dependency : configuration.getDependencies()) {
+            if (dependency.isConstraint() || !edgeFilter.isSatisfiedBy(dependency)) {
+                continue;
+            }
+            ComponentSelector selector = dependency.getSelector();
+            if (!(selector instanceof ModuleComponentSelector)) {
+                continue;
+            }
+            ModuleComponentSelector moduleSelector = (ModuleComponentSelector) selector;
+            ModuleIdentifier moduleId = moduleSelector.getModuleIdentifier();
+            if (exclusions.excludes(moduleId)) {
+                continue;
+            }
+            String version = fixedVersionOf(moduleSelector.getVersionConstraint());
+            if (version == null) {
+                continue;
+            }
+            String selectedVersion = selectedVersions.get(moduleId);
+            if (selectedVersion != null && !selectedVersion.equals(version)) {
+                continue;
+            }
+            if (pendingSpeculative.get() >= maxPendingSpeculative) {
+                return;
+            }
+            ComponentIdentifier id = DefaultModuleComponentIdentifier.newId(moduleId, version);
+            if (!submitted.contains(id) && !delegate.isFetchingMetadataCheap(id)) {
+                ExcludeSpec dependencyExclusions = moduleExclusions.excludeAny(exclusions, moduleExclusions.excludeAny(dependency.getExcludes()));
+                submit(id, dependencyExclusions, dependency.isTransitive(), true);
+            }
+        }
+    }
+
+    @Nullable
+    private String fixedVersionOf(VersionConstraint versionConstraint) {
+        if (versionConstraint.getBranch() != null) {
+            return null;
+        }
+        String version = versionConstraint.getStrictVersion().isEmpty() ? versionConstraint.getRequiredVersion() : versionConstraint.getStrictVersion();
+        if (version.isEmpty() || versionSelectorScheme.parseSelector(version).isDynamic()) {
+            return null;
+        }
+        return version;
+    }
+
+    /**
+     * Stops prefetching, dropping the downloads which have not started yet.
+     */
+    void stop() {
+        stopped = true;
+        executor.stop();
+    }
+
+    /**
+     * Logs how much waiting for metadata downloads the prefetching saved, compared to downloading the used metadata one component at a time.
+     */
+    void logStatistics(String resolveContextName) {
+        if (prefetchedCount.get() == 0) {
+            return;
+        }
+        long savedMillis = TimeUnit.NANOSECONDS.toMillis(usedFetchNanos.get() - waitNanos.get());
+        LOGGER.info("Prefetched metadata of {} components for {}, {} used by the graph: waited {} ms instead of {} ms (saved {} ms)",
+            prefetchedCount.get(), resolveContextName, usedCount.get(), TimeUnit.NANOSECONDS.toMillis(waitNanos.get()), TimeUnit.NANOSECONDS.toMillis(usedFetchNanos.get()), savedMillis);
+    }
+
+    int getPrefetchedCount() {
+        return prefetchedCount.get();
+    }
+
+    int getUsedCount() {
+        return usedCount.get();
+    }
+
+    long getUsedFetchNanos() {
+        return usedFetchNanos.get();
+    }
+
+    long getWaitNanos() {
+        return waitNanos.get();
+    }
+
+    private class Prefetch implements RunnableBuildOperation {
+        private final ComponentIdentifier id;
+        private final ExcludeSpec exclusions;
+        private final boolean transitive;
+        private final boolean speculative;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private ComponentResolveMetadata metadata;
+        private long fetchNanos;
+
+        Prefetch(ComponentIdentifier id, ExcludeSpec exclusions, boolean transitive, boolean speculative) {
+            this.id = id;
+            this.exclusions = exclusions;
+            this.transitive = transitive;
+            this.speculative = speculative;
+            if (speculative) {
+                pendingSpeculative.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            try {
+                if (stopped) {
+                    return;
+                }
+                long start = System.nanoTime();
+                DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+                delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result);
+                fetchNanos = System.nanoTime() - start;
+                // Failures are not kept: the graph traversal resolves the component again, and reports the failure if it needs it
+                if (result.hasResult() && result.getFailure() == null) {
+                    metadata = result.getMetadata();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not prefetch metadata of {}", id, e);
+            } finally {
+                finish();
+            }
+            if (metadata != null && transitive && followDeclaredDependencies) {
+                prefetchDependenciesOf(metadata, exclusions);
+            }
+        }
+
+        synchronized void finish() {
+            if (done.getCount() > 0) {
+                if (speculative) {
+                    pendingSpeculative.decrementAndGet();
+                }
+                done.countDown();
+            }
+        }
+
+        @Nullable
+        ComponentResolveMetadata await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return metadata;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Prefetch metadata of " + id).parent(parentOperation);
+        }
+    }
+}
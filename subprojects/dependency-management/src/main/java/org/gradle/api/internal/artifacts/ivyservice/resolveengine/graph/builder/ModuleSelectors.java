@@ -49,9 +49,16 @@ private static <T, U extends Comparable<? super U>> Comparator<T> reverse(
     private boolean forced;
     final Comparator<ResolvableSelectorState> selectorComparator;
 
-    public ModuleSelectors(Comparator<Version> versionComparator) {
+    public ModuleSelectors(Comparator<ResolvableSelectorState> selectorComparator) {
+        this.selectorComparator = selectorComparator;
+    }
+
+    /**
+     * Creates the comparator used to order selectors. It does not depend on the module, so a single instance can be shared by all the modules of a graph.
+     */
+    public static Comparator<ResolvableSelectorState> selectorComparator(Comparator<Version> versionComparator) {
         Comparator<Version> reversed = versionComparator.reversed();
-        selectorComparator = reverse(ResolvableSelectorState::isProject)
+        return reverse(ResolvableSelectorState::isProject)
             .thenComparing(reverse(ResolvableSelectorState::isFromLock))
             .thenComparing(reverse(ModuleSelectors::hasLatestSelector))
             .thenComparing(ModuleSelectors::isDynamicSelector)
@@ -35,6 +35,7 @@
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleConflictResolver;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.selectors.ComponentStateFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.selectors.ResolvableSelectorState;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.selectors.SelectorStateResolver;
 import org.gradle.api.internal.attributes.AttributeDesugaring;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
@@ -81,6 +82,7 @@ class ResolveState implements ComponentStateFactory<ComponentState> {
     private final DependencySubstitutionApplicator dependencySubstitutionApplicator;
     private final VersionSelectorScheme versionSelectorScheme;
     private final Comparator<Version> versionComparator;
+    private final Comparator<ResolvableSelectorState> selectorComparator;
     private final VersionParser versionParser;
     private final SelectorStateResolver<ComponentState> selectorStateResolver;
     private final ResolveOptimizations resolveOptimizations;
@@ -115,6 +117,7 @@ public ResolveState(IdGenerator<Long> idGenerator,
         this.dependencySubstitutionApplicator = dependencySubstitutionApplicator;
         this.versionSelectorScheme = versionSelectorScheme;
         this.versionComparator = versionComparator;
+        this.selectorComparator = ModuleSelectors.selectorComparator(versionComparator);
         this.versionParser = versionParser;
         this.modules = new LinkedHashMap<>(graphSize);
         this.nodes = new LinkedHashMap<>(3 * graphSize / 2);
@@ -153,7 +156,7 @@ public ModuleResolveState getModule(ModuleIdentifier id) {
     }
 
     private ModuleResolveState getModule(ModuleIdentifier id, boolean rootModule) {
-        return modules.computeIfAbsent(id, mid -> new ModuleResolveState(idGenerator, id, metaDataResolver, attributesFactory, versionComparator, versionParser, selectorStateResolver, resolveOptimizations, rootModule, conflictResolution));
+        return modules.computeIfAbsent(id, mid -> new ModuleResolveState(idGenerator, id, metaDataResolver, attributesFactory, versionComparator, selectorComparator, versionParser, selectorStateResolver, resolveOptimizations, rootModule, conflictResolution));
     }
 
     @Override
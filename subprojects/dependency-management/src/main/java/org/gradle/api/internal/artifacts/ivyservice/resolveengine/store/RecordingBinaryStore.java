@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.cache.internal.BinaryStore;
+import org.gradle.internal.serialize.AbstractEncoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link BinaryStore} that also keeps a copy of what is written to it in memory, so that it can be stored in a {@link ResolvedGraphCache}.
+ *
+ * <p>Each write action runs once, against an encoder which writes every value to both the delegate and the copy.
+ * The serializers used by write actions remember what they have already written, so running them twice would
+ * write back-references to the copy instead of the values.</p>
+ */
+public class RecordingBinaryStore implements BinaryStore {
+    private final BinaryStore delegate;
+    private final ByteArrayOutputStream recording = new ByteArrayOutputStream();
+    private final StringDeduplicatingKryoBackedEncoder encoder = new StringDeduplicatingKryoBackedEncoder(recording);
+
+    public RecordingBinaryStore(BinaryStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(WriteAction write) {
+        delegate.write(delegateEncoder -> write.write(new TeeEncoder(delegateEncoder, encoder)));
+    }
+
+    @Override
+    public BinaryData done() {
+        encoder.done();
+        encoder.flush();
+        return delegate.done();
+    }
+
+    /**
+     * Returns everything written to this store, readable on its own. Can only be called once {@link #done()}.
+     */
+    public byte[] getRecording() {
+        return recording.toByteArray();
+    }
+
+    private static class TeeEncoder extends AbstractEncoder {
+        private final Encoder first;
+        private final Encoder second;
+
+        TeeEncoder(Encoder first, Encoder second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void writeByte(byte value) throws IOException {
+            first.writeByte(value);
+            second.writeByte(value);
+        }
+
+        @Override
+        public void writeBytes(byte[] bytes, int offset, int count) throws IOException {
+            first.writeBytes(bytes, offset, count);
+            second.writeBytes(bytes, offset, count);
+        }
+
+        @Override
+        public void writeLong(long value) throws IOException {
+            first.writeLong(value);
+            second.writeLong(value);
+        }
+
+        @Override
+        public void writeSmallLong(long value) throws IOException {
+            first.writeSmallLong(value);
+            second.writeSmallLong(value);
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            first.writeInt(value);
+            second.writeInt(value);
+        }
+
+        @Override
+        public void writeSmallInt(int value) throws IOException {
+            first.writeSmallInt(value);
+            second.writeSmallInt(value);
+        }
+
+        @Override
+        public void writeBoolean(boolean value) throws IOException {
+            first.writeBoolean(value);
+            second.writeBoolean(value);
+        }
+
+        @Override
+        public void writeString(CharSequence value) throws IOException {
+            first.writeString(value);
+            second.writeString(value);
+        }
+
+        @Override
+        public void writeNullableString(@Nullable CharSequence value) throws IOException {
+            first.writeNullableString(value);
+            second.writeNullableString(value);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.BinaryStore;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.internal.filelock.LockOptionsBuilder;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * A cross-build cache of resolved dependency graphs, keyed by a fingerprint of the inputs of the resolution.
+ * <p>
+ * A graph is kept in the format written by {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder},
+ * until the dynamic versions or changing modules it contains have to be checked again.
+ * Entries are not read with {@code --refresh-dependencies}, but are still written.
+ */
+public class ResolvedGraphCache implements Closeable {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.resolution.graph-cache";
+
+    private static final Logger LOGGER = Logging.getLogger(ResolvedGraphCache.class);
+
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, CachedGraph> store;
+    private final BuildCommencedTimeProvider timeProvider;
+    private final boolean refreshDependencies;
+
+    public ResolvedGraphCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, BuildCommencedTimeProvider timeProvider, boolean enabled, boolean refreshDependencies) {
+        this.timeProvider = timeProvider;
+        this.refreshDependencies = refreshDependencies;
+        if (enabled) {
+            this.cache = cacheRepository
+                .cache("resolved-graphs")
+                .withDisplayName("resolved dependency graphs")
+                .withLockOptions(LockOptionsBuilder.mode(FileLockManager.LockMode.OnDemand))
+                .open();
+            this.store = cache.createCache(
+                PersistentIndexedCacheParameters.of("resolved-graphs", new HashCodeSerializer(), new CachedGraphSerializer())
+                    .withCacheDecorator(cacheDecoratorFactory.decorator(500, true))
+            );
+        } else {
+            this.cache = null;
+            this.store = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Returns the graph cached for the given inputs, or {@code null} when there is none or it has expired.
+     */
+    @Nullable
+    public BinaryStore.BinaryData load(HashCode inputs) {
+        if (store == null || refreshDependencies) {
+            return null;
+        }
+        CachedGraph entry = store.get(inputs);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= timeProvider.getCurrentTime()) {
+            LOGGER.debug("Resolved graph for inputs {} has expired", inputs);
+            return null;
+        }
+        return new CachedGraphData(entry.graph);
+    }
+
+    /**
+     * Stores the graph resolved from the given inputs, to be used for the given duration.
+     * The duration is counted from the start of the build, as are the ages of the dependency cache entries the graph was resolved from.
+     */
+    public void store(HashCode inputs, byte[] graph, Duration keepFor) {
+        if (store == null || keepFor.isZero()) {
+            return;
+        }
+        long now = timeProvider.getCurrentTime();
+        long keepForMillis = keepFor.toMillis();
+        long expiresAt = keepForMillis >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + keepForMillis;
+        store.put(inputs, new CachedGraph(expiresAt, graph));
+    }
+
+    @Override
+    public void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static class CachedGraph {
+        private final long expiresAt;
+        private final byte[] graph;
+
+        CachedGraph(long expiresAt, byte[] graph) {
+            this.expiresAt = expiresAt;
+            this.graph = graph;
+        }
+    }
+
+    private static class CachedGraphSerializer extends AbstractSerializer<CachedGraph> {
+        @Override
+        public CachedGraph read(Decoder decoder) throws Exception {
+            long expiresAt = decoder.readLong();
+            byte[] graph = decoder.readBinary();
+            return new CachedGraph(expiresAt, graph);
+        }
+
+        @Override
+        public void write(Encoder encoder, CachedGraph value) throws Exception {
+            encoder.writeLong(value.expiresAt);
+            encoder.writeBinary(value.graph);
+        }
+    }
+
+    private static class CachedGraphData implements BinaryStore.BinaryData {
+        private final byte[] graph;
+        private StringDeduplicatingKryoBackedDecoder decoder;
+
+        CachedGraphData(byte[] graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public <T> T read(BinaryStore.ReadAction<T> readAction) {
+            try {
+                if (decoder == null) {
+                    decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(graph));
+                }
+                return readAction.read(decoder);
+            } catch (Exception e) {
+                throw new RuntimeException("Problems reading data from " + this, e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoder != null) {
+                decoder.close();
+                decoder = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "cached resolved graph (" + graph.length + " bytes)";
+        }
+    }
+}
@@ -55,6 +55,7 @@ public class RepositoryTransportFactory {
     private final ProgressLoggerFactory progressLoggerFactory;
     private final BuildCommencedTimeProvider timeProvider;
     private final ArtifactCacheLockingManager artifactCacheLockingManager;
+    private final boolean concurrentCacheWriters;
     private final BuildOperationExecutor buildOperationExecutor;
     private final StartParameterResolutionOverride startParameterResolutionOverride;
     private final ProducerGuard<ExternalResourceName> producerGuard;
@@ -68,6 +69,7 @@ public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceC
                                       CachedExternalResourceIndex<String> cachedExternalResourceIndex,
                                       BuildCommencedTimeProvider timeProvider,
                                       ArtifactCacheLockingManager artifactCacheLockingManager,
+                                      boolean concurrentCacheWriters,
                                       BuildOperationExecutor buildOperationExecutor,
                                       StartParameterResolutionOverride startParameterResolutionOverride,
                                       ProducerGuard<ExternalResourceName> producerGuard,
@@ -79,6 +81,7 @@ public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceC
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
         this.artifactCacheLockingManager = artifactCacheLockingManager;
+        this.concurrentCacheWriters = concurrentCacheWriters;
         this.buildOperationExecutor = buildOperationExecutor;
         this.startParameterResolutionOverride = startParameterResolutionOverride;
         this.producerGuard = producerGuard;
@@ -98,7 +101,7 @@ public Set<String> getRegisteredProtocols() {
     }
 
     public RepositoryTransport createFileTransport(String name) {
-        return new FileTransport(name, fileRepository, cachedExternalResourceIndex, temporaryFileProvider, timeProvider, artifactCacheLockingManager, producerGuard, checksumService, listener);
+        return new FileTransport(name, fileRepository, cachedExternalResourceIndex, temporaryFileProvider, timeProvider, artifactCacheLockingManager, concurrentCacheWriters, producerGuard, checksumService, listener);
     }
 
     public RepositoryTransport createTransport(String scheme, String name, Collection<Authentication> authentications, HttpRedirectVerifier redirectVerifier) {
@@ -128,7 +131,7 @@ public RepositoryTransport createTransport(Set<String> schemes, String name, Col
         ExternalResourceCachePolicy cachePolicy = new DefaultExternalResourceCachePolicy();
         cachePolicy = startParameterResolutionOverride.overrideExternalResourceCachePolicy(cachePolicy);
 
-        return new ResourceConnectorRepositoryTransport(name, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, artifactCacheLockingManager, resourceConnector, buildOperationExecutor, cachePolicy, producerGuard, fileRepository, checksumService);
+        return new ResourceConnectorRepositoryTransport(name, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, artifactCacheLockingManager, concurrentCacheWriters, resourceConnector, buildOperationExecutor, cachePolicy, producerGuard, fileRepository, checksumService, startParameterResolutionOverride.dependencyVerificationChecksums());
     }
 
     private void validateSchemes(Set<String> schemes) {
@@ -16,11 +16,20 @@
 
 package org.gradle.api.internal.attributes;
 
+import com.google.common.collect.Ordering;
 import org.gradle.api.Action;
 import org.gradle.api.attributes.CompatibilityCheckDetails;
 import org.gradle.api.attributes.MultipleCandidatesDetails;
+import org.gradle.internal.action.ConfigurableRule;
+import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Comparator;
+import java.util.List;
 
 public abstract class AttributeMatchingRules {
     public static <T> Action<? super CompatibilityCheckDetails<T>> orderedCompatibility(Comparator<? super T> comparator, boolean reverse) {
@@ -30,4 +39,61 @@ public static <T> Action<? super CompatibilityCheckDetails<T>> orderedCompatibil
     public static <T> Action<? super MultipleCandidatesDetails<T>> orderedDisambiguation(Comparator<? super T> comparator, boolean pickFirst) {
         return new DefaultOrderedDisambiguationRule<>(comparator, pickFirst);
     }
+
+    /**
+     * Appends the identity of the given rules to the given hasher: the class and parameters of each rule, or the comparator of ordered rules.
+     * Marks the hasher as invalid when a rule cannot be identified, such as a comparator that holds state.
+     */
+    static void appendId(List<? extends Action<?>> rules, Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        hasher.putInt(rules.size());
+        for (Action<?> rule : rules) {
+            if (rule instanceof InstantiatingAction) {
+                for (ConfigurableRule<?> configurableRule : ((InstantiatingAction<?>) rule).getRules().getConfigurableRules()) {
+                    appendClass(configurableRule.getRuleClass(), hasher, classLoaderHierarchyHasher);
+                    configurableRule.getRuleParams().appendToHasher(hasher);
+                }
+            } else if (rule instanceof DefaultOrderedCompatibilityRule) {
+                DefaultOrderedCompatibilityRule<?> orderedRule = (DefaultOrderedCompatibilityRule<?>) rule;
+                appendComparator(orderedRule.getComparator(), hasher, classLoaderHierarchyHasher);
+                hasher.putBoolean(orderedRule.isReverse());
+            } else if (rule instanceof DefaultOrderedDisambiguationRule) {
+                DefaultOrderedDisambiguationRule<?> orderedRule = (DefaultOrderedDisambiguationRule<?>) rule;
+                appendComparator(orderedRule.getComparator(), hasher, classLoaderHierarchyHasher);
+                hasher.putBoolean(orderedRule.isPickFirst());
+            } else {
+                hasher.markAsInvalid("attribute matching rule " + rule + " cannot be identified");
+            }
+        }
+    }
+
+    private static void appendComparator(Comparator<?> comparator, Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        if (comparator.equals(Ordering.natural()) || comparator.equals(Comparator.naturalOrder())) {
+            hasher.putString("natural");
+        } else if (hasInstanceFields(comparator.getClass())) {
+            hasher.markAsInvalid("comparator " + comparator + " of an attribute matching rule holds state");
+        } else {
+            appendClass(comparator.getClass(), hasher, classLoaderHierarchyHasher);
+        }
+    }
+
+    private static void appendClass(Class<?> type, Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        HashCode classLoaderHash = type.getClassLoader() == null ? null : classLoaderHierarchyHasher.getClassLoaderHash(type.getClassLoader());
+        if (classLoaderHash == null) {
+            hasher.markAsInvalid("the implementation of " + type.getName() + " is unknown");
+            return;
+        }
+        hasher.putString(type.getName());
+        hasher.putHash(classLoaderHash);
+    }
+
+    private static boolean hasInstanceFields(Class<?> type) {
+        for (Class<?> current = type; current != Object.class && current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -18,6 +18,8 @@
 
 import org.gradle.api.attributes.Attribute;
 import org.gradle.internal.component.model.AttributeMatcher;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 
 public interface AttributesSchemaInternal extends DescribableAttributesSchema {
     /**
@@ -33,4 +35,9 @@ public interface AttributesSchemaInternal extends DescribableAttributesSchema {
     CompatibilityRule<Object> compatibilityRules(Attribute<?> attribute);
 
     DisambiguationRule<Object> disambiguationRules(Attribute<?> attribute);
+
+    /**
+     * Appends the attributes of this schema and the identity of their matching rules to the given hasher, marking it as invalid when a rule cannot be identified.
+     */
+    void appendId(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher);
 }
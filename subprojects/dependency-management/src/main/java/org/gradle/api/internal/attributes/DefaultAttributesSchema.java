@@ -32,13 +32,17 @@
 import org.gradle.internal.component.model.ComponentAttributeMatcher;
 import org.gradle.internal.component.model.DefaultCompatibilityCheckResult;
 import org.gradle.internal.component.model.DefaultMultipleCandidateResult;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.instantiation.InstantiatorFactory;
 import org.gradle.internal.isolation.IsolatableFactory;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -131,6 +135,20 @@ public DisambiguationRule<Object> disambiguationRules(Attribute<?> attribute) {
         return EmptySchema.INSTANCE.disambiguationRules(attribute);
     }
 
+    @Override
+    public void appendId(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        List<Attribute<?>> attributes = new ArrayList<>(strategies.keySet());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+        hasher.putInt(attributes.size());
+        for (Attribute<?> attribute : attributes) {
+            hasher.putString(attribute.getName());
+            hasher.putString(attribute.getType().getName());
+            AttributeMatchingStrategy<?> matchingStrategy = strategies.get(attribute);
+            ((DefaultCompatibilityRuleChain<?>) matchingStrategy.getCompatibilityRules()).appendId(hasher, classLoaderHierarchyHasher);
+            ((DefaultDisambiguationRuleChain<?>) matchingStrategy.getDisambiguationRules()).appendId(hasher, classLoaderHierarchyHasher);
+        }
+    }
+
     @Override
     public List<AttributeDescriber> getConsumerDescribers() {
         return consumerAttributeDescribers;
@@ -27,6 +27,8 @@
 import org.gradle.internal.action.DefaultConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRules;
 import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.model.internal.type.ModelType;
@@ -79,6 +81,10 @@ public void execute(MultipleCandidatesResult<T> details) {
         }
     }
 
+    void appendId(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        AttributeMatchingRules.appendId(rules, hasher, classLoaderHierarchyHasher);
+    }
+
     @Override
     public boolean doesSomething() {
         return !rules.isEmpty();
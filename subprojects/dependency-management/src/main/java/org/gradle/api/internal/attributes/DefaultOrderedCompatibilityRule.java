@@ -44,4 +44,11 @@ public void execute(CompatibilityCheckDetails<T> details) {
         }
     }
 
+    Comparator<? super T> getComparator() {
+        return comparator;
+    }
+
+    boolean isReverse() {
+        return reverse;
+    }
 }
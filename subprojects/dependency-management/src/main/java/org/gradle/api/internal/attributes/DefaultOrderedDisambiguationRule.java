@@ -52,4 +52,12 @@ public void execute(MultipleCandidatesDetails<T> details) {
             }
         }
     }
+
+    Comparator<? super T> getComparator() {
+        return comparator;
+    }
+
+    boolean isPickFirst() {
+        return pickFirst;
+    }
 }
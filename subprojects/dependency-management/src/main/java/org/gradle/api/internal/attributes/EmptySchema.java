@@ -20,6 +20,8 @@
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.attributes.AttributeMatchingStrategy;
 import org.gradle.internal.component.model.AttributeMatcher;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +46,11 @@ public DisambiguationRule<Object> disambiguationRules(Attribute<?> attribute) {
         return disambiguationRule;
     }
 
+    @Override
+    public void appendId(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        hasher.putInt(0);
+    }
+
     @Override
     public List<AttributeDescriber> getConsumerDescribers() {
         return Collections.emptyList();
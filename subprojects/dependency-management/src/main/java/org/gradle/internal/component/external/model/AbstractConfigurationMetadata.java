@@ -46,7 +46,7 @@ public abstract class AbstractConfigurationMetadata implements ModuleConfigurati
     private final boolean mavenArtifactDiscovery;
 
     // Should be final, and set in constructor
-    private ImmutableList<ModuleDependencyMetadata> configDependencies;
+    private volatile ImmutableList<ModuleDependencyMetadata> configDependencies;
     private Factory<List<ModuleDependencyMetadata>> configDependenciesFactory;
 
     AbstractConfigurationMetadata(ModuleComponentIdentifier componentId, String name, boolean transitive, boolean visible,
@@ -138,7 +138,7 @@ public void setDependencies(List<ModuleDependencyMetadata> dependencies) {
         this.configDependencies = ImmutableList.copyOf(dependencies);
     }
 
-    public void setConfigDependenciesFactory(Factory<List<ModuleDependencyMetadata>> dependenciesFactory) {
+    public synchronized void setConfigDependenciesFactory(Factory<List<ModuleDependencyMetadata>> dependenciesFactory) {
         assert this.configDependencies == null; // Can only set once: should really be part of the constructor
         assert this.configDependenciesFactory == null; // Can only set once: should really be part of the constructor
         this.configDependenciesFactory = dependenciesFactory;
@@ -179,12 +179,20 @@ public boolean requiresMavenArtifactDiscovery() {
         return mavenArtifactDiscovery;
     }
 
+    // Configurations of cached metadata are shared by concurrent resolutions, and the factory must run only once.
+    // The lock is only taken until the dependencies have been created, as this is called for every node of every graph.
     ImmutableList<ModuleDependencyMetadata> getConfigDependencies() {
-        if (configDependenciesFactory != null) {
-            configDependencies = ImmutableList.copyOf(configDependenciesFactory.create());
-            configDependenciesFactory = null;
+        ImmutableList<ModuleDependencyMetadata> dependencies = configDependencies;
+        if (dependencies != null) {
+            return dependencies;
+        }
+        synchronized (this) {
+            if (configDependenciesFactory != null) {
+                configDependencies = ImmutableList.copyOf(configDependenciesFactory.create());
+                configDependenciesFactory = null;
+            }
+            return configDependencies;
         }
-        return configDependencies;
     }
 
     protected ModuleComponentIdentifier getComponentId() {
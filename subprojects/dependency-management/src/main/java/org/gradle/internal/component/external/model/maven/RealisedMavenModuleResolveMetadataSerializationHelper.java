@@ -24,6 +24,7 @@
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.descriptor.Configuration;
 import org.gradle.internal.component.external.descriptor.MavenScope;
 import org.gradle.internal.component.external.model.AbstractRealisedModuleComponentResolveMetadata;
@@ -46,11 +47,25 @@
 import org.gradle.internal.component.model.IvyArtifactName;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Serialization helper for {@link RealisedMavenModuleResolveMetadata}.
+ *
+ * The dependencies of each configuration and derived variant are written as a block of their own, which is only decoded
+ * when the dependencies of the configuration are first requested. A graph only traverses a couple of the configurations
+ * of a Maven module, so most blocks are never decoded when the metadata is read back from the cache.
+ */
 public class RealisedMavenModuleResolveMetadataSerializationHelper extends AbstractRealisedModuleResolveMetadataSerializationHelper {
 
     public RealisedMavenModuleResolveMetadataSerializationHelper(AttributeContainerSerializer attributeContainerSerializer, ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
@@ -83,6 +98,16 @@ public ModuleComponentResolveMetadata readMetadata(Decoder decoder, DefaultMaven
 
     @Override
     protected void writeDependencies(Encoder encoder, ConfigurationMetadata configuration, Map<ExternalDependencyDescriptor, Integer> deduplicationDependencyCache) throws IOException {
+        // Each block starts from the descriptors written with the module, so that it can be decoded independently of the other blocks.
+        // The descriptors of the module are shared read-only by all blocks, and each block numbers its new descriptors after them.
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        try (KryoBackedEncoder blockEncoder = new KryoBackedEncoder(block)) {
+            writeDependencyBlock(blockEncoder, configuration, Collections.unmodifiableMap(deduplicationDependencyCache), new HashMap<>());
+        }
+        encoder.writeBinary(block.toByteArray());
+    }
+
+    private void writeDependencyBlock(Encoder encoder, ConfigurationMetadata configuration, Map<ExternalDependencyDescriptor, Integer> moduleDependencies, Map<ExternalDependencyDescriptor, Integer> blockDependencies) throws IOException {
         List<? extends DependencyMetadata> dependencies = configuration.getDependencies();
         encoder.writeSmallInt(dependencies.size());
         for (DependencyMetadata dependency: dependencies) {
@@ -101,7 +126,7 @@ protected void writeDependencies(Encoder encoder, ConfigurationMetadata configur
                 ExternalDependencyDescriptor dependencyDescriptor = dependencyMetadata.getDependencyDescriptor();
                 if (dependencyDescriptor instanceof MavenDependencyDescriptor) {
                     encoder.writeByte(MAVEN_DEPENDENCY_METADATA);
-                    writeMavenDependency(encoder, (MavenDependencyDescriptor) dependencyDescriptor, deduplicationDependencyCache);
+                    writeMavenDependency(encoder, (MavenDependencyDescriptor) dependencyDescriptor, moduleDependencies, blockDependencies);
                 } else {
                     throw new IllegalStateException("Unknown type of dependency descriptor: " + dependencyDescriptor.getClass());
                 }
@@ -144,19 +169,31 @@ private Map<String, ConfigurationMetadata> readMavenConfigurations(Decoder decod
             RealisedConfigurationMetadata configurationMetadata = new RealisedConfigurationMetadata(metadata.getId(), configurationName, configuration.isTransitive(), configuration.isVisible(),
                 hierarchy, artifacts, ImmutableList.of(), attributes, capabilities,
                 artifacts.stream().noneMatch(a -> a instanceof UrlBackedArtifactMetadata), false);
-            ImmutableList<ModuleDependencyMetadata> dependencies = readDependencies(decoder, metadata, configurationMetadata, deduplicationDependencyCache);
-            configurationMetadata.setDependencies(dependencies);
+            readDependencies(decoder, metadata, configurationMetadata, deduplicationDependencyCache);
             configurations.put(configurationName, configurationMetadata);
         }
         return configurations;
     }
 
-    private ImmutableList<ModuleDependencyMetadata> readDependencies(Decoder decoder, DefaultMavenModuleResolveMetadata metadata, RealisedConfigurationMetadata configurationMetadata, Map<Integer, MavenDependencyDescriptor> deduplicationDependencyCache) throws IOException {
+    private void readDependencies(Decoder decoder, DefaultMavenModuleResolveMetadata metadata, RealisedConfigurationMetadata configurationMetadata, Map<Integer, MavenDependencyDescriptor> deduplicationDependencyCache) throws IOException {
+        byte[] block = decoder.readBinary();
+        Map<Integer, MavenDependencyDescriptor> moduleDependencies = Collections.unmodifiableMap(deduplicationDependencyCache);
+        configurationMetadata.setConfigDependenciesFactory(() -> {
+            try (KryoBackedDecoder blockDecoder = new KryoBackedDecoder(new ByteArrayInputStream(block))) {
+                return readDependencyBlock(blockDecoder, metadata, configurationMetadata, moduleDependencies);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        });
+    }
+
+    private ImmutableList<ModuleDependencyMetadata> readDependencyBlock(Decoder decoder, DefaultMavenModuleResolveMetadata metadata, RealisedConfigurationMetadata configurationMetadata, Map<Integer, MavenDependencyDescriptor> moduleDependencies) throws IOException {
         ImmutableList.Builder<ModuleDependencyMetadata> builder = ImmutableList.builder();
         int dependenciesCount = decoder.readSmallInt();
         if (dependenciesCount == 0) {
             return ImmutableList.of();
         }
+        List<MavenDependencyDescriptor> blockDependencies = new ArrayList<>();
         for (int j = 0; j < dependenciesCount; j++) {
             byte dependencyType = decoder.readByte();
             boolean force = false;
@@ -170,7 +207,7 @@ private ImmutableList<ModuleDependencyMetadata> readDependencies(Decoder decoder
                     md = readDependencyMetadata(decoder);
                     break;
                 case MAVEN_DEPENDENCY_METADATA:
-                    MavenDependencyDescriptor mavenDependencyDescriptor = readMavenDependency(decoder, deduplicationDependencyCache);
+                    MavenDependencyDescriptor mavenDependencyDescriptor = readMavenDependency(decoder, moduleDependencies, blockDependencies);
                     ModuleDependencyMetadata dependencyMetadata = RealisedMavenModuleResolveMetadata.contextualize(configurationMetadata, metadata.getId(), mavenDependencyDescriptor);
                     md = dependencyMetadata.withReason(decoder.readNullableString());
                     break;
@@ -221,33 +258,38 @@ private ConfigurationMetadata readDerivedVariant(Decoder decoder, DefaultMavenMo
             artifacts.stream().noneMatch(a -> a instanceof UrlBackedArtifactMetadata),
             false
         );
-        ImmutableList<ModuleDependencyMetadata> dependencies = readDependencies(decoder, resolveMetadata, realized, deduplicationDependencyCache);
-        realized.setDependencies(dependencies);
+        readDependencies(decoder, resolveMetadata, realized, deduplicationDependencyCache);
         return realized;
 
     }
 
-    private MavenDependencyDescriptor readMavenDependency(Decoder decoder, Map<Integer, MavenDependencyDescriptor> deduplicationDependencyCache) throws IOException {
+    private MavenDependencyDescriptor readMavenDependency(Decoder decoder, Map<Integer, MavenDependencyDescriptor> moduleDependencies, List<MavenDependencyDescriptor> blockDependencies) throws IOException {
         int mapping = decoder.readSmallInt();
-        if (mapping == deduplicationDependencyCache.size()) {
+        int moduleDependenciesCount = moduleDependencies.size();
+        if (mapping == moduleDependenciesCount + blockDependencies.size()) {
             ModuleComponentSelector requested = getComponentSelectorSerializer().read(decoder);
             IvyArtifactName artifactName = readNullableArtifact(decoder);
             List<ExcludeMetadata> mavenExcludes = readMavenExcludes(decoder);
             MavenScope scope = MavenScope.values()[decoder.readSmallInt()];
             MavenDependencyType type = MavenDependencyType.values()[decoder.readSmallInt()];
             MavenDependencyDescriptor mavenDependencyDescriptor = new MavenDependencyDescriptor(scope, type, requested, artifactName, mavenExcludes);
-            deduplicationDependencyCache.put(mapping, mavenDependencyDescriptor);
+            blockDependencies.add(mavenDependencyDescriptor);
             return mavenDependencyDescriptor;
-        } else {
-            MavenDependencyDescriptor mavenDependencyDescriptor = deduplicationDependencyCache.get(mapping);
+        } else if (mapping < moduleDependenciesCount) {
+            MavenDependencyDescriptor mavenDependencyDescriptor = moduleDependencies.get(mapping);
             assert mavenDependencyDescriptor != null;
             return mavenDependencyDescriptor;
+        } else {
+            return blockDependencies.get(mapping - moduleDependenciesCount);
         }
     }
 
-    private void writeMavenDependency(Encoder encoder, MavenDependencyDescriptor mavenDependency, Map<ExternalDependencyDescriptor, Integer> deduplicationDependencyCache) throws IOException {
-        int nextMapping = deduplicationDependencyCache.size();
-        Integer mapping = deduplicationDependencyCache.putIfAbsent(mavenDependency, nextMapping);
+    private void writeMavenDependency(Encoder encoder, MavenDependencyDescriptor mavenDependency, Map<ExternalDependencyDescriptor, Integer> moduleDependencies, Map<ExternalDependencyDescriptor, Integer> blockDependencies) throws IOException {
+        int nextMapping = moduleDependencies.size() + blockDependencies.size();
+        Integer mapping = moduleDependencies.get(mavenDependency);
+        if (mapping == null) {
+            mapping = blockDependencies.putIfAbsent(mavenDependency, nextMapping);
+        }
         if (mapping != null) {
             encoder.writeSmallInt(mapping);
         } else {
@@ -75,7 +75,7 @@ public V lookup(final K key) {
     }
 
     protected void storeInternal(final K key, final V entry) {
-        artifactCacheLockingManager.useCache(() -> getPersistentCache().put(key, entry));
+        getPersistentCache().put(key, entry);
     }
 
     protected void assertKeyNotNull(K key) {
@@ -92,6 +92,6 @@ protected void assertArtifactFileNotNull(File artifactFile) {
 
     public void clear(final K key) {
         assertKeyNotNull(key);
-        artifactCacheLockingManager.useCache(() -> getPersistentCache().remove(key));
+        getPersistentCache().remove(key);
     }
 }
@@ -43,7 +43,7 @@ public int getNumberOfGroupingDirs() {
 
     private static final Namer<String> NAMER = s -> StringUtils.substringAfterLast(s, "/");
 
-    public DefaultExternalResourceFileStore(File baseDir, TemporaryFileProvider tmpProvider, FileAccessTimeJournal fileAccessTimeJournal, ChecksumService checksumService) {
-        super(baseDir, tmpProvider, fileAccessTimeJournal, GROUPER, NAMER, checksumService);
+    public DefaultExternalResourceFileStore(File baseDir, TemporaryFileProvider tmpProvider, FileAccessTimeJournal fileAccessTimeJournal, ChecksumService checksumService, boolean concurrentWriters) {
+        super(baseDir, tmpProvider, fileAccessTimeJournal, GROUPER, NAMER, checksumService, concurrentWriters);
     }
 }
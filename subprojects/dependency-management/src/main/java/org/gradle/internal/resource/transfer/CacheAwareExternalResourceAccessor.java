@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.transfer;
 
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.local.FileStore;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
@@ -44,6 +45,13 @@ interface ResourceFileStore {
          * Called when a resource is to be cached. Should *move* the given file into the appropriate location and return a handle to the file.
          */
         LocallyAvailableResource moveIntoCache(File downloadedResource);
+
+        /**
+         * Called when a resource is to be cached and the SHA-1 checksum of its content is already known.
+         */
+        default LocallyAvailableResource moveIntoCache(File downloadedResource, HashCode sha1) {
+            return moveIntoCache(downloadedResource);
+        }
     }
 
     abstract class DefaultResourceFileStore<K> implements ResourceFileStore {
@@ -59,6 +67,11 @@ public final LocallyAvailableResource moveIntoCache(File downloadedResource) {
             return delegate.move(computeKey(), downloadedResource);
         }
 
+        @Override
+        public final LocallyAvailableResource moveIntoCache(File downloadedResource, HashCode sha1) {
+            return delegate.move(computeKey(), downloadedResource, sha1);
+        }
+
         protected abstract K computeKey();
     }
 }
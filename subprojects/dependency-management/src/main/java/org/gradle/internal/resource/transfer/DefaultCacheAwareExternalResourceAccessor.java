@@ -21,11 +21,15 @@
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.ExternalResourceCachePolicy;
+import org.gradle.api.internal.artifacts.verification.model.ChecksumKind;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.hash.ChecksumService;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.HashFunction;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.HashingOutputStream;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ExternalResourceReadResult;
@@ -49,7 +53,13 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExternalResourceAccessor {
 
@@ -60,21 +70,31 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private final BuildCommencedTimeProvider timeProvider;
     private final TemporaryFileProvider temporaryFileProvider;
     private final ArtifactCacheLockingManager artifactCacheLockingManager;
+    private final boolean concurrentCacheWriters;
     private final ExternalResourceCachePolicy externalResourceCachePolicy;
     private final ProducerGuard<ExternalResourceName> producerGuard;
     private final FileResourceRepository fileResourceRepository;
     private final ChecksumService checksumService;
+    private final Set<ChecksumKind> downloadChecksums;
 
-    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, ChecksumService checksumService) {
+    /**
+     * @param additionalChecksums the checksums to compute while downloading a resource, besides SHA-1 which is always computed to store the resource.
+     * They are recorded in the checksum service, so that dependency verification does not read the downloaded file again.
+     * @param concurrentCacheWriters whether the cache is shared by concurrent writers, in which case downloaded resources are added to the cache without holding its lock.
+     */
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, boolean concurrentCacheWriters, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, ChecksumService checksumService, Set<ChecksumKind> additionalChecksums) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
         this.temporaryFileProvider = temporaryFileProvider;
         this.artifactCacheLockingManager = artifactCacheLockingManager;
+        this.concurrentCacheWriters = concurrentCacheWriters;
         this.externalResourceCachePolicy = externalResourceCachePolicy;
         this.producerGuard = producerGuard;
         this.fileResourceRepository = fileResourceRepository;
         this.checksumService = checksumService;
+        this.downloadChecksums = EnumSet.of(ChecksumKind.sha1);
+        this.downloadChecksums.addAll(additionalChecksums);
     }
 
     @Nullable
@@ -185,7 +205,7 @@ private LocallyAvailableExternalResource copyCandidateToCache(ExternalResourceNa
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
             }
-            return moveIntoCache(source, destination, fileStore, remoteMetaData);
+            return moveIntoCache(source, destination, fileStore, remoteMetaData, Collections.singletonMap(ChecksumKind.sha1, localChecksum));
         } finally {
             destination.delete();
         }
@@ -206,19 +226,43 @@ private LocallyAvailableExternalResource copyToCache(final ExternalResourceName
 
         // Move into cache
         try {
-            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData);
+            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData, downloadAction.checksums);
         } finally {
             downloadAction.destination.delete();
         }
     }
 
-    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
-        return artifactCacheLockingManager.useCache(() -> {
-            LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
-            File fileInFileStore = cachedResource.getFile();
+    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData, Map<ChecksumKind, HashCode> checksums) {
+        HashCode sha1 = checksums.get(ChecksumKind.sha1);
+        File fileInFileStore;
+        if (concurrentCacheWriters) {
+            // The file store adds entries with an atomic rename and the index journals its writes, so neither needs the cache lock
+            fileInFileStore = fileStore.moveIntoCache(destination, sha1).getFile();
             cachedExternalResourceIndex.store(source.toString(), fileInFileStore, metaData);
-            return fileResourceRepository.resource(fileInFileStore, source.getUri(), metaData);
-        });
+        } else {
+            fileInFileStore = artifactCacheLockingManager.useCache(() -> {
+                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination, sha1);
+                cachedExternalResourceIndex.store(source.toString(), cachedResource.getFile(), metaData);
+                return cachedResource.getFile();
+            });
+        }
+        checksums.forEach((kind, checksum) -> checksumService.recordChecksum(fileInFileStore, kind.name(), checksum));
+        return fileResourceRepository.resource(fileInFileStore, source.getUri(), metaData);
+    }
+
+    private static HashFunction hashFunctionOf(ChecksumKind kind) {
+        switch (kind) {
+            case md5:
+                return Hashing.md5();
+            case sha1:
+                return Hashing.sha1();
+            case sha256:
+                return Hashing.sha256();
+            case sha512:
+                return Hashing.sha512();
+            default:
+                throw new IllegalArgumentException("Unknown checksum " + kind);
+        }
     }
 
     private long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
@@ -229,6 +273,7 @@ private class DownloadAction implements ExternalResource.ContentAction<Object> {
         private final ExternalResourceName source;
         File destination;
         ExternalResourceMetaData metaData;
+        Map<ChecksumKind, HashCode> checksums;
 
         DownloadAction(ExternalResourceName source) {
             this.source = source;
@@ -242,9 +287,19 @@ public Object execute(InputStream inputStream, ExternalResourceMetaData metaData
             if (destination.getParentFile() != null) {
                 GFileUtils.mkdirs(destination.getParentFile());
             }
-            try (FileOutputStream outputStream = new FileOutputStream(destination)) {
+            // Hash the content while it is written, rather than reading the file again for each checksum
+            Map<ChecksumKind, HashingOutputStream> hashingStreams = new EnumMap<>(ChecksumKind.class);
+            try (FileOutputStream fileOutputStream = new FileOutputStream(destination)) {
+                OutputStream outputStream = fileOutputStream;
+                for (ChecksumKind kind : downloadChecksums) {
+                    HashingOutputStream hashingStream = new HashingOutputStream(hashFunctionOf(kind), outputStream);
+                    hashingStreams.put(kind, hashingStream);
+                    outputStream = hashingStream;
+                }
                 IOUtils.copyLarge(inputStream, outputStream);
             }
+            checksums = new EnumMap<>(ChecksumKind.class);
+            hashingStreams.forEach((kind, hashingStream) -> checksums.put(kind, hashingStream.hash()));
             return null;
         }
     }
@@ -18,13 +18,16 @@ package org.gradle.api.internal.artifacts.ivyservice
 
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.cache.internal.UsedGradleVersions
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.resource.local.ModificationTimeFileAccessTimeJournal
+import org.gradle.internal.serialize.BaseSerializerFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.testfixtures.internal.InMemoryCacheFactory
 import org.junit.Rule
 import spock.lang.AutoCleanup
 import spock.lang.Specification
 import spock.lang.Subject
+import spock.util.concurrent.PollingConditions
 
 class DefaultArtifactCacheLockingManagerTest extends Specification {
     @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
@@ -42,6 +45,8 @@ class DefaultArtifactCacheLockingManagerTest extends Specification {
     }
     def fileAccessTimeJournal = new ModificationTimeFileAccessTimeJournal()
     def usedGradleVersions = Stub(UsedGradleVersions)
+    @AutoCleanup("stop")
+    def executorFactory = new DefaultExecutorFactory()
 
     @Subject @AutoCleanup
     def cacheLockingManager = new WritableArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions)
@@ -101,4 +106,84 @@ class DefaultArtifactCacheLockingManagerTest extends Specification {
         then:
         oldCacheDir.assertDoesNotExist()
     }
+
+    def "journals index writes in concurrent writers mode and applies them when the cache is used"() {
+        given:
+        def concurrentWritersManager = concurrentWritersManager()
+        def index = concurrentWritersManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        def persistedIndex = cacheLockingManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        persistedIndex.put("removed", "value")
+
+        when:
+        index.put("added", "value")
+        index.remove("removed")
+
+        then:
+        index.get("added") == "value"
+        index.get("removed") == null
+        persistedIndex.get("added") == null
+        persistedIndex.get("removed") == "value"
+
+        when:
+        concurrentWritersManager.useCache({} as Runnable)
+
+        then:
+        persistedIndex.get("added") == "value"
+        persistedIndex.get("removed") == null
+
+        cleanup:
+        concurrentWritersManager.close()
+    }
+
+    def "remembers entries read from the index in concurrent writers mode until the journal is applied"() {
+        given:
+        def concurrentWritersManager = concurrentWritersManager()
+        def index = concurrentWritersManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        def persistedIndex = cacheLockingManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        persistedIndex.put("replaced", "old")
+
+        expect:
+        index.get("replaced") == "old"
+        index.get("added") == null
+
+        when:
+        persistedIndex.put("replaced", "new")
+        persistedIndex.put("added", "value")
+
+        then:
+        index.get("replaced") == "old"
+        index.get("added") == null
+
+        when:
+        concurrentWritersManager.useCache({} as Runnable)
+
+        then:
+        index.get("replaced") == "new"
+        index.get("added") == "value"
+
+        cleanup:
+        concurrentWritersManager.close()
+    }
+
+    def "applies journaled index writes periodically in concurrent writers mode"() {
+        given:
+        def concurrentWritersManager = concurrentWritersManager()
+        def index = concurrentWritersManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        def persistedIndex = cacheLockingManager.createCache("test", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        index.put("added", "value")
+
+        then:
+        new PollingConditions(timeout: 10).eventually {
+            assert persistedIndex.get("added") == "value"
+        }
+
+        cleanup:
+        concurrentWritersManager.close()
+    }
+
+    private WritableArtifactCacheLockingManager concurrentWritersManager() {
+        new WritableArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true, executorFactory)
+    }
 }
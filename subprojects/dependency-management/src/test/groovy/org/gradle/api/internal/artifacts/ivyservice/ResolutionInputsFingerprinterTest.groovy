@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import com.google.common.collect.Ordering
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.Dependency
+import org.gradle.api.artifacts.DependencyConstraint
+import org.gradle.api.artifacts.ModuleVersionSelector
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.attributes.Attribute
+import org.gradle.api.attributes.AttributeCompatibilityRule
+import org.gradle.api.attributes.CompatibilityCheckDetails
+import org.gradle.api.internal.DomainObjectContext
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessorFactory
+import org.gradle.api.internal.artifacts.DefaultDependencyConstraintSet
+import org.gradle.api.internal.artifacts.DefaultDependencySet
+import org.gradle.api.internal.artifacts.DefaultExcludeRule
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.dependencies.DefaultDependencyConstraint
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionsInternal
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository
+import org.gradle.api.internal.artifacts.repositories.ContentFilteringRepository
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.attributes.DefaultAttributesSchema
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.Describables
+import org.gradle.internal.component.model.ComponentAttributeMatcher
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hasher
+import org.gradle.util.AttributeTestUtil
+import org.gradle.util.Path
+import org.gradle.util.SnapshotTestUtil
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+import javax.inject.Inject
+
+class ResolutionInputsFingerprinterTest extends Specification {
+    static final Attribute<String> USAGE = Attribute.of("usage", String)
+    static final Attribute<Integer> LEVEL = Attribute.of("level", Integer)
+
+    def classLoaderHash = HashCode.fromInt(123)
+    def classLoaderHierarchyHasher = Stub(ClassLoaderHierarchyHasher) {
+        getClassLoaderHash(_) >> { classLoaderHash }
+    }
+    def schema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+    def variantDerivationStrategy = "java"
+    def globalRules = Stub(GlobalDependencyResolutionRules) {
+        getComponentMetadataProcessorFactory() >> Stub(ComponentMetadataProcessorFactory) {
+            appendId(_) >> { Hasher hasher -> hasher.putString(variantDerivationStrategy) }
+        }
+    }
+    def project = Stub(DomainObjectContext) {
+        getProject() >> Stub(ProjectInternal)
+        isScript() >> false
+    }
+
+    def dependencies = new DefaultDependencySet(Describables.of("dependencies"), Stub(Configuration), TestUtil.domainObjectCollectionFactory().newDomainObjectSet(Dependency))
+    def constraints = new DefaultDependencyConstraintSet(Describables.of("constraints"), Stub(Configuration), TestUtil.domainObjectCollectionFactory().newDomainObjectSet(DependencyConstraint))
+    def attributes = AttributeTestUtil.attributesFactory().mutable()
+    def excludeRules = [] as Set
+    def conflictResolution = ConflictResolution.latest
+    def forcedModules = [] as Set
+    def hasSubstitutionRules = false
+    def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+        getConflictResolution() >> { conflictResolution }
+        getForcedModules() >> { forcedModules }
+        getDependencySubstitution() >> Stub(DependencySubstitutionsInternal) {
+            hasRules() >> { hasSubstitutionRules }
+        }
+    }
+    def configuration = Stub(ConfigurationInternal) {
+        getIdentityPath() >> Path.path(":compileClasspath")
+        getModule() >> Stub(Module) {
+            getGroup() >> "org"
+            getName() >> "test"
+            getVersion() >> "1.0"
+        }
+        getAttributes() >> attributes
+        isTransitive() >> true
+        getAllExcludeRules() >> { excludeRules }
+        getAllDependencies() >> dependencies
+        getAllDependencyConstraints() >> constraints
+        getResolutionStrategy() >> resolutionStrategy
+    }
+    def repositories = [repository("maven")]
+
+    def fingerprinter = new ResolutionInputsFingerprinter(globalRules, schema, classLoaderHierarchyHasher, project)
+
+    def setup() {
+        schema.attribute(USAGE).compatibilityRules.add(CompatibleUsages)
+        schema.attribute(LEVEL).compatibilityRules.ordered(Ordering.natural())
+        dependencies.add(new DefaultExternalModuleDependency("org", "foo", "1.0"))
+    }
+
+    def "produces the same fingerprint for the same inputs"() {
+        expect:
+        def fingerprint = fingerprint()
+        fingerprint != null
+        fingerprint == fingerprint()
+        fingerprint == new ResolutionInputsFingerprinter(globalRules, schema, classLoaderHierarchyHasher, project).fingerprint(configuration, [repository("maven")])
+    }
+
+    def "fingerprint changes when the declared dependencies change"() {
+        def original = fingerprint()
+
+        when:
+        dependencies.iterator().next().version { it.require("2.0") }
+
+        then:
+        fingerprint() != original
+
+        when:
+        def changed = fingerprint()
+        dependencies.add(new DefaultExternalModuleDependency("org", "bar", "1.0"))
+
+        then:
+        fingerprint() != changed
+
+        when:
+        changed = fingerprint()
+        constraints.add(new DefaultDependencyConstraint("org", "baz", "1.0"))
+
+        then:
+        fingerprint() != changed
+
+        when:
+        changed = fingerprint()
+        excludeRules << new DefaultExcludeRule("org", "baz")
+
+        then:
+        fingerprint() != changed
+    }
+
+    def "fingerprint changes when the attributes of the configuration change"() {
+        def original = fingerprint()
+
+        when:
+        attributes.attribute(USAGE, "java-api")
+
+        then:
+        fingerprint() != original
+    }
+
+    def "fingerprint changes when the resolution strategy changes"() {
+        def original = fingerprint()
+
+        when:
+        conflictResolution = ConflictResolution.strict
+
+        then:
+        fingerprint() != original
+
+        when:
+        def changed = fingerprint()
+        forcedModules << Stub(ModuleVersionSelector) {
+            getGroup() >> "org"
+            getName() >> "foo"
+            getVersion() >> "1.1"
+        }
+
+        then:
+        fingerprint() != changed
+    }
+
+    def "fingerprint changes when the repositories change"() {
+        def original = fingerprint()
+
+        when:
+        repositories = [repository("other")]
+
+        then:
+        fingerprint() != original
+
+        when:
+        repositories = [repository("maven"), repository("other")]
+
+        then:
+        fingerprint() != original
+    }
+
+    def "fingerprint changes when the variant derivation strategy changes"() {
+        def original = fingerprint()
+
+        when:
+        variantDerivationStrategy = "native"
+
+        then:
+        fingerprint() != original
+    }
+
+    def "fingerprint changes when the attributes schema changes"() {
+        def original = fingerprint()
+
+        when:
+        schema.attribute(Attribute.of("other", String))
+
+        then:
+        fingerprint() != original
+
+        when:
+        def changed = fingerprint()
+        schema.attribute(USAGE).compatibilityRules.add(CompatibleWhenRequested)
+
+        then:
+        fingerprint() != changed
+
+        when:
+        changed = fingerprint()
+        schema.attribute(LEVEL).disambiguationRules.pickLast(Ordering.natural())
+
+        then:
+        fingerprint() != changed
+    }
+
+    def "fingerprint changes when the implementation of an attribute matching rule changes"() {
+        def original = fingerprint()
+
+        when:
+        classLoaderHash = HashCode.fromInt(456)
+
+        then:
+        fingerprint() != original
+    }
+
+    def "fingerprint changes when the parameters of an attribute matching rule change"() {
+        given:
+        schema.attribute(USAGE).compatibilityRules.add(CompatibleWhenRequested) { it.params("api") }
+        def original = fingerprint()
+
+        when:
+        def otherSchema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+        otherSchema.attribute(USAGE).compatibilityRules.add(CompatibleUsages)
+        otherSchema.attribute(LEVEL).compatibilityRules.ordered(Ordering.natural())
+        otherSchema.attribute(USAGE).compatibilityRules.add(CompatibleWhenRequested) { it.params("runtime") }
+
+        then:
+        new ResolutionInputsFingerprinter(globalRules, otherSchema, classLoaderHierarchyHasher, project).fingerprint(configuration, repositories) != original
+    }
+
+    def "cannot fingerprint the configurations of a script"() {
+        def script = Stub(DomainObjectContext) {
+            getProject() >> null
+            isScript() >> true
+        }
+
+        expect:
+        new ResolutionInputsFingerprinter(globalRules, schema, classLoaderHierarchyHasher, script).fingerprint(configuration, repositories) == null
+    }
+
+    def "cannot fingerprint a configuration with a project dependency"() {
+        when:
+        dependencies.add(Stub(ProjectDependency))
+
+        then:
+        fingerprint() == null
+    }
+
+    def "cannot fingerprint a configuration with dependency substitution rules"() {
+        when:
+        hasSubstitutionRules = true
+
+        then:
+        fingerprint() == null
+    }
+
+    def "cannot fingerprint a configuration resolved from a local or filtered repository"() {
+        def local = Stub(ResolutionAwareRepository) {
+            createResolver() >> Stub(ConfiguredModuleComponentRepository) {
+                getId() >> "local"
+                isLocal() >> true
+            }
+        }
+        def filtered = Stub(ResolutionAwareRepository, additionalInterfaces: [ContentFilteringRepository]) {
+            createResolver() >> Stub(ConfiguredModuleComponentRepository) {
+                getId() >> "filtered"
+            }
+        }
+
+        expect:
+        fingerprinter.fingerprint(configuration, [local]) == null
+        fingerprinter.fingerprint(configuration, [filtered]) == null
+    }
+
+    def "cannot fingerprint when an attribute matching rule is loaded by an unknown class loader"() {
+        when:
+        classLoaderHash = null
+
+        then:
+        fingerprint() == null
+    }
+
+    def "cannot fingerprint when an ordered attribute matching rule uses a comparator that holds state"() {
+        when:
+        schema.attribute(LEVEL).disambiguationRules.pickFirst(new ThresholdComparator(2))
+
+        then:
+        fingerprint() == null
+    }
+
+    private HashCode fingerprint() {
+        fingerprinter.fingerprint(configuration, repositories)
+    }
+
+    private ResolutionAwareRepository repository(String id) {
+        Stub(ResolutionAwareRepository) {
+            createResolver() >> Stub(ConfiguredModuleComponentRepository) {
+                getId() >> id
+                isLocal() >> false
+            }
+        }
+    }
+
+    static class CompatibleUsages implements AttributeCompatibilityRule<String> {
+        @Override
+        void execute(CompatibilityCheckDetails<String> details) {
+            details.compatible()
+        }
+    }
+
+    static class CompatibleWhenRequested implements AttributeCompatibilityRule<String> {
+        private final String usage
+
+        @Inject
+        CompatibleWhenRequested(String usage) {
+            this.usage = usage
+        }
+
+        @Override
+        void execute(CompatibilityCheckDetails<String> details) {
+            if (details.consumerValue == usage) {
+                details.compatible()
+            }
+        }
+    }
+
+    static class ThresholdComparator implements Comparator<Integer> {
+        private final int threshold
+
+        ThresholdComparator(int threshold) {
+            this.threshold = threshold
+        }
+
+        @Override
+        int compare(Integer o1, Integer o2) {
+            return Boolean.compare(o1 >= threshold, o2 >= threshold)
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.component.ModuleComponentSelector
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultProjectComponentIdentifier
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.Expiry
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphComponent
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.model.ComponentResolveMetadata
+import org.gradle.util.Path
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ResolvedGraphExpiryTest extends Specification {
+    def expiry = new ResolvedGraphExpiry(new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()))
+    def rootId = Stub(ComponentIdentifier)
+
+    def setup() {
+        expiry.start(Stub(RootGraphNode) {
+            getOwner() >> Stub(DependencyGraphComponent) {
+                getComponentId() >> rootId
+            }
+        })
+        expiry.visitNode(node(rootId, false))
+    }
+
+    def "graph of fixed versions is kept until dependencies are refreshed"() {
+        when:
+        expiry.visitSelector(selector("foo", "1.0"))
+        expiry.visitNode(node(module("foo", "1.0"), false))
+
+        then:
+        expiry.keepFor == Duration.ofMillis(Long.MAX_VALUE)
+    }
+
+    def "graph with dynamic versions is kept for the shortest remaining time of the version listings it used"() {
+        when:
+        expiry.visitSelector(selector("foo", "1.+"))
+        expiry.visitSelector(selector("bar", "latest.release"))
+        expiry.onDynamicVersionSelection(selector("foo", "1.+").requested, keepFor(Duration.ofHours(5)))
+        expiry.onDynamicVersionSelection(selector("bar", "latest.release").requested, keepFor(Duration.ofMinutes(20)))
+
+        then:
+        expiry.keepFor == Duration.ofMinutes(20)
+    }
+
+    def "graph with changing modules is kept for the shortest remaining time of their metadata"() {
+        when:
+        expiry.visitNode(node(module("foo", "1.0-SNAPSHOT"), true))
+        expiry.onChangingModuleResolve(module("foo", "1.0-SNAPSHOT"), keepFor(Duration.ofMinutes(3)))
+        expiry.onDynamicVersionSelection(selector("bar", "1.+").requested, keepFor(Duration.ofHours(1)))
+
+        then:
+        expiry.keepFor == Duration.ofMinutes(3)
+    }
+
+    def "graph is not kept when the version listing of a dynamic version was not reported"() {
+        when:
+        expiry.visitSelector(selector("foo", "1.+"))
+        expiry.visitSelector(selector("bar", "[1.0,2.0)"))
+        expiry.onDynamicVersionSelection(selector("foo", "1.+").requested, keepFor(Duration.ofHours(5)))
+
+        then:
+        expiry.keepFor == null
+    }
+
+    def "graph is not kept when the metadata of a changing module was not reported"() {
+        when:
+        expiry.visitNode(node(module("foo", "1.0-SNAPSHOT"), true))
+
+        then:
+        expiry.keepFor == null
+    }
+
+    def "graph is not kept when a version listing has no remaining time"() {
+        when:
+        expiry.visitSelector(selector("foo", "1.+"))
+        expiry.onDynamicVersionSelection(selector("foo", "1.+").requested, keepFor(Duration.ZERO))
+
+        then:
+        expiry.keepFor == null
+    }
+
+    def "graph with local components is not kept"() {
+        when:
+        expiry.visitNode(node(new DefaultProjectComponentIdentifier(Stub(BuildIdentifier), Path.path(":lib"), Path.path(":lib"), "lib"), false))
+
+        then:
+        expiry.keepFor == null
+    }
+
+    private DependencyGraphNode node(ComponentIdentifier id, boolean changing) {
+        Stub(DependencyGraphNode) {
+            getOwner() >> Stub(DependencyGraphComponent) {
+                getComponentId() >> id
+                getMetadata() >> Stub(ComponentResolveMetadata) {
+                    isChanging() >> changing
+                }
+            }
+        }
+    }
+
+    private DependencyGraphSelector selector(String name, String version) {
+        ModuleComponentSelector requested = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("org", name), version)
+        Stub(DependencyGraphSelector) {
+            getRequested() >> requested
+        }
+    }
+
+    private static DefaultModuleComponentIdentifier module(String name, String version) {
+        new DefaultModuleComponentIdentifier(DefaultModuleIdentifier.newId("org", name), version)
+    }
+
+    private Expiry keepFor(Duration duration) {
+        Stub(Expiry) {
+            getKeepFor() >> duration
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.resource.local.LocalFileStandInExternalResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParentPomCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def cache = new ParentPomCache()
+    def pomFile = tmpDir.file("parent.pom")
+    def resource = new LocalFileStandInExternalResource(pomFile, TestFiles.fileSystem())
+
+    def "returns a separate copy of the parsed document to each caller"() {
+        given:
+        pomFile.text = pom("1.0")
+
+        when:
+        def first = cache.parse(resource)
+        def second = cache.parse(resource)
+
+        then:
+        !first.is(second)
+        version(first) == "1.0"
+        version(second) == "1.0"
+
+        when:
+        first.documentElement.getElementsByTagName("version").item(0).textContent = "changed"
+
+        then:
+        version(cache.parse(resource)) == "1.0"
+    }
+
+    def "parses the POM again when the file has changed"() {
+        given:
+        pomFile.text = pom("1.0")
+        cache.parse(resource)
+
+        when:
+        pomFile.text = pom("1.0.1")
+        pomFile.lastModified = pomFile.lastModified() + 2000
+
+        then:
+        version(cache.parse(resource)) == "1.0.1"
+    }
+
+    private static String version(document) {
+        document.documentElement.getElementsByTagName("version").item(0).textContent
+    }
+
+    private static String pom(String version) {
+        """<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>org</groupId>
+    <artifactId>parent</artifactId>
+    <version>$version</version>
+    <packaging>pom</packaging>
+</project>
+"""
+    }
+}
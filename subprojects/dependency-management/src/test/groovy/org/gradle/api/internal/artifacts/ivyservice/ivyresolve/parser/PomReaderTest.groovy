@@ -1052,4 +1052,75 @@ class PomReaderTest extends AbstractPomReaderTest {
         then:
         pomReader.hasGradleMetadataMarker()
     }
+
+    def "ignores build sections of POM and of its profiles"() {
+        when:
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <build>
+        <plugins>
+            <plugin>
+                <groupId>org.apache.maven.plugins</groupId>
+                <artifactId>maven-compiler-plugin</artifactId>
+                <dependencies>
+                    <dependency>
+                        <groupId>group-plugin</groupId>
+                        <artifactId>artifact-plugin</artifactId>
+                        <version>version-plugin</version>
+                    </dependency>
+                </dependencies>
+            </plugin>
+        </plugins>
+    </build>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>version-two</version>
+        </dependency>
+    </dependencies>
+    <profiles>
+        <profile>
+            <id>profile-1</id>
+            <activation>
+                <activeByDefault>true</activeByDefault>
+            </activation>
+            <build>
+                <defaultGoal>install</defaultGoal>
+            </build>
+            <properties>
+                <some.prop>profile-value</some.prop>
+            </properties>
+        </profile>
+    </profiles>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+
+        then:
+        pomReader.groupId == 'group-one'
+        pomReader.dependencies.size() == 1
+        pomReader.dependencies.keySet()[0] == new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
+        pomReader.properties['some.prop'] == 'profile-value'
+    }
+
+    def "resolves Maven entities"() {
+        when:
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-&oslash;ne</artifactId>
+    <version>version-one</version>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+
+        then:
+        pomReader.artifactId == 'artifact-\u00f8ne'
+    }
 }
@@ -39,6 +39,14 @@ class VersionParserTest extends Specification {
         v != parse("1.2b")
     }
 
+    def "versions parsed by different parsers are the same instance"() {
+        def v = parse("1.2.b")
+
+        expect:
+        new VersionParser().transform("1.2.b").is(v)
+        !new VersionParser().transform("1.2.c").is(v)
+    }
+
     def "splits version on punctuation"() {
         expect:
         def version = parse(versionStr)
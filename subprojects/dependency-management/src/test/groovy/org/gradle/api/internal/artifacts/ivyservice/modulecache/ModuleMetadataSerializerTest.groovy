@@ -29,6 +29,7 @@ import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.GradlePomM
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyModuleDescriptorConverter
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.MetaDataParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParentPomCache
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.MavenVersionSelectorScheme
@@ -40,11 +41,14 @@ import org.gradle.api.internal.file.TestFiles
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata
 import org.gradle.internal.component.external.model.ivy.MutableIvyModuleResolveMetadata
+import org.gradle.internal.component.external.model.maven.DefaultMavenModuleResolveMetadata
 import org.gradle.internal.component.external.model.maven.MutableMavenModuleResolveMetadata
+import org.gradle.internal.component.external.model.maven.RealisedMavenModuleResolveMetadata
 import org.gradle.internal.component.model.MutableModuleSources
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.local.FileResourceRepository
 import org.gradle.internal.resource.local.LocalFileStandInExternalResource
+import org.gradle.internal.resolve.caching.DesugaringAttributeContainerSerializer
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
@@ -97,6 +101,48 @@ class ModuleMetadataSerializerTest extends Specification {
 
     }
 
+    @Unroll
+    def "can write and re-read realised metadata of sample #sample.name with dependencies decoded on demand"() {
+        given:
+        def metadata = RealisedMavenModuleResolveMetadata.transform((DefaultMavenModuleResolveMetadata) parse(sample).asImmutable())
+        def realisedSerializer = new ModuleComponentResolveMetadataSerializer(serializer, new DesugaringAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator()), moduleIdentifierFactory)
+        ByteArrayOutputStream baos = new ByteArrayOutputStream()
+        realisedSerializer.write(new OutputStreamBackedEncoder(baos), metadata)
+
+        when:
+        def deserializedMetadata = realisedSerializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(baos.toByteArray())))
+
+        then:
+        deserializedMetadata.configurationNames == metadata.configurationNames
+        metadata.configurationNames.each { name ->
+            assert deserializedMetadata.getConfiguration(name).dependencies*.selector == metadata.getConfiguration(name).dependencies*.selector
+        }
+
+        where:
+        sample << sampleFiles().findAll { it.parentFile.name == 'pom' }
+    }
+
+    @Unroll
+    def "can decode the dependencies of realised configurations of sample #sample.name in any order"() {
+        given:
+        def metadata = RealisedMavenModuleResolveMetadata.transform((DefaultMavenModuleResolveMetadata) parse(sample).asImmutable())
+        def realisedSerializer = new ModuleComponentResolveMetadataSerializer(serializer, new DesugaringAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator()), moduleIdentifierFactory)
+        ByteArrayOutputStream baos = new ByteArrayOutputStream()
+        realisedSerializer.write(new OutputStreamBackedEncoder(baos), metadata)
+
+        when:
+        def deserializedMetadata = realisedSerializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(baos.toByteArray())))
+
+        then:
+        // Each block only reads the descriptors shared by the module, and numbers its own after them
+        metadata.configurationNames.toList().reverse().each { name ->
+            assert deserializedMetadata.getConfiguration(name).dependencies*.selector == metadata.getConfiguration(name).dependencies*.selector
+        }
+
+        where:
+        sample << sampleFiles().findAll { it.parentFile.name == 'pom' }
+    }
+
     private MutableModuleComponentResolveMetadata deserialize(byte[] serializedForm) {
         serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serializedForm)), moduleIdentifierFactory, Maps.newHashMap())
     }
@@ -170,7 +216,8 @@ class ModuleMetadataSerializerTest extends Specification {
             new MavenVersionSelectorScheme(new DefaultVersionSelectorScheme(new DefaultVersionComparator(new FeaturePreviews()), new VersionParser())),
             moduleIdentifierFactory,
             Stub(FileResourceRepository),
-            mavenMetadataFactory
+            mavenMetadataFactory,
+            new ParentPomCache()
         )
     }
 
@@ -299,6 +299,76 @@ class DefaultCachePolicySpec extends Specification {
         hasMissingArtifactTimeout(20 * SECOND)
     }
 
+    def "can configure timeout for missing modules and empty version lists"() {
+        when:
+        cachePolicy = new DefaultCachePolicy(60)
+        def emptyVersionList = cachePolicy.versionListExpiry(DefaultModuleIdentifier.newId('org', 'foo'), emptySet(), Duration.ofMillis(2 * MINUTE))
+
+        then:
+        hasDynamicVersionTimeout(DAY)
+        hasChangingModuleTimeout(DAY)
+        hasNoModuleTimeout()
+        hasMissingModuleTimeout(MINUTE)
+        hasMissingArtifactTimeout(DAY)
+        emptyVersionList.mustCheck
+        emptyVersionList.keepFor == Duration.ZERO
+    }
+
+    def "timeout for empty version lists does not apply to version lists with versions"() {
+        def moduleIdentifier = DefaultModuleIdentifier.newId('org', 'foo')
+        def versions = [DefaultModuleVersionIdentifier.newId(moduleIdentifier, '1.0')] as Set
+
+        when:
+        cachePolicy = new DefaultCachePolicy(60)
+        cachePolicy.cacheDynamicVersionsFor(10, TimeUnit.MINUTES)
+
+        then:
+        def emptyVersionList = cachePolicy.versionListExpiry(moduleIdentifier, emptySet(), Duration.ofMillis(30 * SECOND))
+        !emptyVersionList.mustCheck
+        emptyVersionList.keepFor == Duration.ofMillis(30 * SECOND)
+
+        def expiredEmptyVersionList = cachePolicy.versionListExpiry(moduleIdentifier, emptySet(), Duration.ofMillis(2 * MINUTE))
+        expiredEmptyVersionList.mustCheck
+
+        def versionList = cachePolicy.versionListExpiry(moduleIdentifier, versions, Duration.ofMillis(2 * MINUTE))
+        !versionList.mustCheck
+        versionList.keepFor == Duration.ofMillis(8 * MINUTE)
+    }
+
+    def "refresh and offline take precedence over timeout for missing modules"() {
+        def module = moduleComponent('org', 'foo', '1.0')
+
+        when:
+        cachePolicy = new DefaultCachePolicy(60)
+        cachePolicy.setOffline()
+
+        then:
+        !cachePolicy.missingModuleExpiry(module, Duration.ofMillis(2 * MINUTE)).mustCheck
+        !cachePolicy.versionListExpiry(module.moduleIdentifier, emptySet(), Duration.ofMillis(2 * MINUTE)).mustCheck
+
+        when:
+        cachePolicy = new DefaultCachePolicy(60)
+        cachePolicy.setRefreshDependencies()
+
+        then:
+        cachePolicy.missingModuleExpiry(module, Duration.ofMillis(2 * SECOND)).mustCheck
+        cachePolicy.versionListExpiry(module.moduleIdentifier, emptySet(), Duration.ofMillis(2 * SECOND)).mustCheck
+    }
+
+    def "reads timeout for missing modules from system property"() {
+        given:
+        System.setProperty(DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY, "60")
+
+        when:
+        cachePolicy = new DefaultCachePolicy()
+
+        then:
+        hasMissingModuleTimeout(MINUTE)
+
+        cleanup:
+        System.clearProperty(DefaultCachePolicy.CACHE_MISSING_MODULES_FOR_PROPERTY)
+    }
+
     def "uses cached module metadata when offline"() {
         def id = DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("test", "test"), "1.2.3")
 
@@ -34,6 +34,7 @@ import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyIntern
 import org.gradle.api.internal.artifacts.dependencies.DefaultMutableVersionConstraint
 import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
 import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DefaultDependencySubstitutionApplicator
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionApplicator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
@@ -63,9 +64,11 @@ import org.gradle.internal.component.model.DependencyMetadata
 import org.gradle.internal.component.model.ExcludeMetadata
 import org.gradle.internal.component.model.IvyArtifactName
 import org.gradle.internal.component.model.LocalComponentDependencyMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.locking.NoOpDependencyLockingProvider
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
 import org.gradle.internal.resolve.ModuleVersionNotFoundException
 import org.gradle.internal.resolve.ModuleVersionResolveException
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
@@ -108,6 +111,9 @@ class DependencyGraphBuilderTest extends Specification {
         runAll(_) >> { args ->
             args[0].execute(queue)
         }
+        run(_ as RunnableBuildOperation) >> { RunnableBuildOperation operation ->
+            operation.run(null)
+        }
     }
     def dependencySubstitutionApplicator = new DefaultDependencySubstitutionApplicator(DependencyManagementTestUtil.componentSelectionDescriptorFactory(), Mock(Action), TestUtil.instantiatorFactory().decorateScheme().instantiator())
     def componentSelectorConverter = Mock(ComponentSelectorConverter) {
@@ -129,7 +135,11 @@ class DependencyGraphBuilderTest extends Specification {
         _ * configuration.allDependencies >> Stub(DependencySet)
         _ * moduleResolver.resolve(_, _) >> { it[1].resolved(root) }
 
-        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, versionComparator.asVersionComparator(), new VersionParser())
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, versionComparator.asVersionComparator(), new VersionParser(), null, 0)
+    }
+
+    private DependencyGraphBuilder prefetchingBuilder() {
+        new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, DependencySubstitutionApplicator.NO_OP, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, versionComparator.asVersionComparator(), new VersionParser(), new DefaultExecutorFactory(), 2)
     }
 
     private TestGraphVisitor resolve(DependencyGraphBuilder builder = this.builder) {
@@ -580,7 +590,7 @@ class DependencyGraphBuilderTest extends Specification {
     def "does not include filtered dependencies"() {
         given:
         def spec = { DependencyMetadata dep -> dep.selector.module != 'c' }
-        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, spec, attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, Stub(Comparator), new VersionParser())
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, spec, attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, Stub(Comparator), new VersionParser(), null, 0)
 
         def a = revision('a')
         def b = revision('b')
@@ -637,6 +647,44 @@ class DependencyGraphBuilderTest extends Specification {
         result.components == ids(root, a, b, d)
     }
 
+    def "uses metadata downloaded in the background when prefetching"() {
+        given:
+        def a = revision('a')
+        def b = revision('b')
+        def c = revision('c')
+        def fetchingThreads = Collections.synchronizedList([])
+        prefetches root, a, fetchingThreads
+        prefetches a, b, fetchingThreads
+        prefetches b, c, fetchingThreads
+
+        when:
+        def result = resolve(prefetchingBuilder())
+        result.rethrowFailure()
+
+        then:
+        result.components == ids(root, a, b, c)
+        fetchingThreads.size() == 3
+        !fetchingThreads.contains(Thread.currentThread())
+    }
+
+    def "does not prefetch metadata of a module excluded earlier in the path"() {
+        given:
+        def a = revision('a')
+        def b = revision('b')
+        def c = revision('c')
+        def fetchingThreads = Collections.synchronizedList([])
+        prefetches root, a, fetchingThreads
+        prefetches a, b, fetchingThreads, exclude: c
+        doesNotResolve b, c
+
+        when:
+        def result = resolve(prefetchingBuilder())
+        result.rethrowFailure()
+
+        then:
+        result.components == ids(root, a, b)
+    }
+
     def "includes a module version when there is a path to the version that does not exclude it"() {
         given:
         def a = revision('a')
@@ -1052,6 +1100,15 @@ class DependencyGraphBuilderTest extends Specification {
         }
     }
 
+    def prefetches(Map<String, ?> args = [:], def from, ComponentResolveMetadata to, List<Thread> fetchingThreads) {
+        def dependencyMetaData = dependsOn(args, from, to.moduleVersionId)
+        selectorResolvesTo(dependencyMetaData, to.id, to.moduleVersionId)
+        1 * metaDataResolver.resolve(to.id, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            fetchingThreads << Thread.currentThread()
+            result.resolved(to)
+        }
+    }
+
     def doesNotTraverse(Map<String, ?> args = [:], def from, ComponentResolveMetadata to) {
         def dependencyMetaData = dependsOn(args, from, to.moduleVersionId)
         selectorResolvesTo(dependencyMetaData, to.id, to.moduleVersionId)
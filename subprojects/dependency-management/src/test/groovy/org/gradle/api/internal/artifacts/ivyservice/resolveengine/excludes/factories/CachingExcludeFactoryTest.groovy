@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories
+
+import spock.lang.Specification
+
+class CachingExcludeFactoryTest extends Specification implements ExcludeTestSupport {
+
+    def "merge caches keep at most the configured number of entries"() {
+        def caches = new CachingExcludeFactory.MergeCaches(2)
+        int calls = 0
+        def delegate = Stub(ExcludeFactory) {
+            anyOf(_, _) >> { calls++; factory.anyOf(it[0], it[1]) }
+        }
+        def cachingFactory = new CachingExcludeFactory(delegate, caches)
+
+        when:
+        cachingFactory.anyOf(group("a"), group("b"))
+        cachingFactory.anyOf(group("a"), group("b"))
+
+        then:
+        calls == 1
+
+        when:
+        cachingFactory.anyOf(group("a"), group("c"))
+        cachingFactory.anyOf(group("a"), group("d"))
+        cachingFactory.anyOf(group("a"), group("b"))
+
+        then:
+        calls == 4
+    }
+}
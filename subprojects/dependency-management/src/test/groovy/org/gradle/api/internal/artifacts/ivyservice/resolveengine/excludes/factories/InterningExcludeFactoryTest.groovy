@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories
+
+import spock.lang.Specification
+
+class InterningExcludeFactoryTest extends Specification implements ExcludeTestSupport {
+
+    def setup() {
+        factory = new InterningExcludeFactory(factory)
+    }
+
+    def "equal specs are the same instance"() {
+        expect:
+        group("foo").is(group("foo"))
+        moduleId("org", "foo").is(moduleId("org", "foo"))
+        moduleSet("a", "b").is(moduleSet("b", "a"))
+        anyOf(group("foo"), module("bar")).is(anyOf(module("bar"), group("foo")))
+        allOf(group("foo"), moduleSet("a", "b", "c"), module("bar")).is(allOf(module("bar"), group("foo"), moduleSet("c", "b", "a")))
+    }
+
+    def "different specs are different instances"() {
+        expect:
+        !group("foo").is(group("bar"))
+        !group("foo").is(module("foo"))
+        !anyOf(group("foo"), module("bar")).is(allOf(group("foo"), module("bar")))
+    }
+}
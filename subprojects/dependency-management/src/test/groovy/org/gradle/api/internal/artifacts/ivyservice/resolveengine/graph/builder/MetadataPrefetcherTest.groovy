@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder
+
+import com.google.common.collect.ImmutableList
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+import org.gradle.api.internal.FeaturePreviews
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.dependencies.DefaultMutableVersionConstraint
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec
+import org.gradle.api.specs.Specs
+import org.gradle.internal.component.external.descriptor.DefaultExclude
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.model.ComponentOverrideMetadata
+import org.gradle.internal.component.model.ComponentResolveMetadata
+import org.gradle.internal.component.model.ConfigurationMetadata
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.component.model.ExcludeMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+class MetadataPrefetcherTest extends Specification {
+    def repository = new SlowRepository()
+    def versionSelectorScheme = new DefaultVersionSelectorScheme(new DefaultVersionComparator(new FeaturePreviews()), new VersionParser())
+    def moduleExclusions = new ModuleExclusions()
+    def executorFactory = new DefaultExecutorFactory()
+    MetadataPrefetcher prefetcher = prefetcher(true, 2)
+
+    def cleanup() {
+        prefetcher.stop()
+        executorFactory.stop()
+    }
+
+    def "prefetches metadata of selected components and their dependencies and hands it over to the graph traversal"() {
+        repository.module("b", "1.0", dependency("c", "1.0"))
+        repository.module("c", "1.0", dependency("d", "1.0"))
+        repository.module("d", "1.0")
+
+        when:
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), true)
+        waitForSubmitted(3)
+        def result = resolve("d", "1.0")
+
+        then:
+        result.metadata.is(repository.modules[id("d", "1.0")])
+        repository.fetched == ["b:1.0", "c:1.0", "d:1.0"]
+        !repository.fetchingThreads.contains(Thread.currentThread())
+        prefetcher.usedCount == 1
+        prefetcher.usedFetchNanos > 0
+
+        when:
+        result = resolve("d", "1.0")
+
+        then:
+        result.metadata.is(repository.modules[id("d", "1.0")])
+        repository.fetched == ["b:1.0", "c:1.0", "d:1.0", "d:1.0"]
+        prefetcher.usedCount == 1
+    }
+
+    def "does not follow the dependencies of a component selected by a non transitive edge"() {
+        prefetcher = prefetcher(true, 1)
+        repository.module("b", "1.0", dependency("c", "1.0"))
+        repository.module("x", "1.0")
+
+        when:
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), false)
+        // Runs once the download of b is complete, as there is a single download thread
+        prefetcher.prefetch(id("x", "1.0"), moduleExclusions.nothing(), false)
+        resolve("x", "1.0")
+
+        then:
+        repository.fetched == ["b:1.0", "x:1.0"]
+        prefetcher.prefetchedCount == 2
+    }
+
+    def "does not prefetch dynamic versions, constraints or cheap metadata"() {
+        repository.module("b", "1.0", dependency("c", "1.+"), dependency("d", "1.0", constraint: true), dependency("e", "1.0"), dependency("f", "1.0"))
+        repository.module("f", "1.0")
+        repository.cheap << id("e", "1.0")
+
+        when:
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), true)
+        waitForSubmitted(2)
+        resolve("f", "1.0")
+
+        then:
+        repository.fetched == ["b:1.0", "f:1.0"]
+        prefetcher.prefetchedCount == 2
+    }
+
+    def "does not prefetch modules excluded by the path to the component"() {
+        repository.module("b", "1.0", dependency("c", "1.0"), dependency("d", "1.0", excludes: ["e"]))
+        repository.module("d", "1.0", dependency("e", "1.0"), dependency("f", "1.0"))
+        repository.module("f", "1.0")
+
+        when:
+        prefetcher.prefetch(id("b", "1.0"), exclude("c"), true)
+        waitForSubmitted(3)
+        resolve("f", "1.0")
+
+        then:
+        repository.fetched == ["b:1.0", "d:1.0", "f:1.0"]
+        prefetcher.prefetchedCount == 3
+    }
+
+    def "does not prefetch a version of a module when the graph traversal selected another one"() {
+        repository.module("b", "1.0", dependency("c", "1.0"), dependency("d", "1.0"))
+        repository.module("c", "2.0")
+        repository.module("d", "1.0")
+
+        when:
+        prefetcher.prefetch(id("c", "2.0"), moduleExclusions.nothing(), true)
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), true)
+        waitForSubmitted(3)
+        resolve("d", "1.0")
+
+        then:
+        repository.fetched.sort() == ["b:1.0", "c:2.0", "d:1.0"]
+        prefetcher.prefetchedCount == 3
+    }
+
+    def "does not follow declared dependencies when they may be substituted"() {
+        prefetcher = prefetcher(false, 1)
+        repository.module("b", "1.0", dependency("c", "1.0"))
+        repository.module("x", "1.0")
+
+        when:
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), true)
+        // Runs once the download of b is complete, as there is a single download thread
+        prefetcher.prefetch(id("x", "1.0"), moduleExclusions.nothing(), true)
+        resolve("x", "1.0")
+
+        then:
+        repository.fetched == ["b:1.0", "x:1.0"]
+        prefetcher.prefetchedCount == 2
+    }
+
+    def "does not use prefetched metadata when the component is requested with overrides"() {
+        repository.module("b", "1.0")
+        prefetcher.prefetch(id("b", "1.0"), moduleExclusions.nothing(), true)
+        new PollingConditions().eventually {
+            assert repository.fetched == ["b:1.0"]
+        }
+
+        when:
+        def result = new DefaultBuildableComponentResolveResult()
+        prefetcher.resolve(id("b", "1.0"), DefaultComponentOverrideMetadata.EMPTY.withChanging(), result)
+
+        then:
+        repository.fetched == ["b:1.0", "b:1.0"]
+        prefetcher.usedCount == 0
+    }
+
+    MetadataPrefetcher prefetcher(boolean followDeclaredDependencies, int maxConcurrentDownloads) {
+        prefetcher?.stop()
+        new MetadataPrefetcher(repository, executorFactory, maxConcurrentDownloads, new TestBuildOperationExecutor(), moduleExclusions, Specs.satisfyAll(), versionSelectorScheme, followDeclaredDependencies)
+    }
+
+    void waitForSubmitted(int count) {
+        new PollingConditions().eventually {
+            assert prefetcher.prefetchedCount == count
+        }
+    }
+
+    BuildableComponentResolveResult resolve(String name, String version) {
+        def result = new DefaultBuildableComponentResolveResult()
+        prefetcher.resolve(id(name, version), DefaultComponentOverrideMetadata.EMPTY, result)
+        result
+    }
+
+    ExcludeSpec exclude(String name) {
+        moduleExclusions.excludeAny([new DefaultExclude(DefaultModuleIdentifier.newId("org", name))])
+    }
+
+    ComponentResolveMetadata metadata(DependencyMetadata... dependencies) {
+        def variant = Stub(ConfigurationMetadata) {
+            getDependencies() >> (dependencies as List)
+            getExcludes() >> ImmutableList.of()
+        }
+        Stub(ComponentResolveMetadata) {
+            getVariantsForGraphTraversal() >> Optional.of(ImmutableList.of(variant))
+        }
+    }
+
+    DependencyMetadata dependency(Map<String, ?> args = [:], String name, String version) {
+        List<ExcludeMetadata> excludes = (args.excludes ?: []).collect { new DefaultExclude(DefaultModuleIdentifier.newId("org", it as String)) }
+        Stub(DependencyMetadata) {
+            getSelector() >> DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("org", name), new DefaultMutableVersionConstraint(version))
+            isConstraint() >> (args.constraint ?: false)
+            isTransitive() >> true
+            getExcludes() >> excludes
+        }
+    }
+
+    static ModuleComponentIdentifier id(String name, String version) {
+        DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", name), version)
+    }
+
+    /**
+     * A repository where every metadata download takes some time, standing in for a remote repository.
+     */
+    class SlowRepository implements ComponentMetaDataResolver {
+        final Map<ComponentIdentifier, ComponentResolveMetadata> modules = [:]
+        final List<ComponentIdentifier> cheap = []
+        final List<String> fetched = Collections.synchronizedList([])
+        final List<Thread> fetchingThreads = Collections.synchronizedList([])
+
+        void module(String name, String version, DependencyMetadata... dependencies) {
+            modules[id(name, version)] = metadata(dependencies)
+        }
+
+        @Override
+        synchronized void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+            fetched << "${identifier.module}:${identifier.version}".toString()
+            fetchingThreads << Thread.currentThread()
+            Thread.sleep(10)
+            result.resolved(modules[identifier])
+        }
+
+        @Override
+        boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+            return cheap.contains(identifier)
+        }
+    }
+}
@@ -31,7 +31,7 @@ class ModuleSelectorsTest extends Specification {
 
     Comparator<Version> versionComparator = new DefaultVersionComparator(new FeaturePreviews()).asVersionComparator()
     @Subject
-    ModuleSelectors selectors = new ModuleSelectors(versionComparator)
+    ModuleSelectors selectors = new ModuleSelectors(ModuleSelectors.selectorComparator(versionComparator))
     int dynCount = 1
 
     def 'empty by default'() {
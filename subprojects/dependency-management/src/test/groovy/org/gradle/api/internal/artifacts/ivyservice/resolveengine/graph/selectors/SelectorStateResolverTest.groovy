@@ -247,7 +247,7 @@ class SelectorStateResolverTest extends Specification {
     }
 
     ModuleSelectors moduleSelectors(List<? extends ResolvableSelectorState> selectors) {
-        def moduleSelectors = new ModuleSelectors<ResolvableSelectorState>(versionComparator.asVersionComparator())
+        def moduleSelectors = new ModuleSelectors<ResolvableSelectorState>(ModuleSelectors.selectorComparator(versionComparator.asVersionComparator()))
         selectors.forEach { moduleSelectors.add(it, false) }
         return moduleSelectors
     }
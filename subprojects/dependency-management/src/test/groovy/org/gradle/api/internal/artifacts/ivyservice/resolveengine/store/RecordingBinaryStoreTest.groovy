@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.api.artifacts.result.ComponentSelectionReason
+import org.gradle.api.artifacts.result.ResolutionResult
+import org.gradle.api.artifacts.result.ResolvedDependencyResult
+import org.gradle.api.artifacts.result.ResolvedVariantResult
+import org.gradle.api.attributes.AttributeContainer
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.DependencyManagementTestUtil
+import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionConstraint
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphComponent
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DesugaredAttributeContainerSerializer
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DummyBinaryStore
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DummyStore
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder
+import org.gradle.api.internal.artifacts.result.DefaultResolvedVariantResult
+import org.gradle.api.internal.attributes.AttributeDesugaring
+import org.gradle.cache.internal.BinaryStore
+import org.gradle.internal.Describables
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.local.model.RootConfigurationMetadata
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.AttributeTestUtil
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+import static java.util.Collections.emptySet
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionReasons.requested
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionReasons.root
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultPrinter.printGraph
+
+class RecordingBinaryStoreTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider(getClass())
+
+    def delegate = new DefaultBinaryStore(temp.file("graph.bin"))
+    def store = new RecordingBinaryStore(delegate)
+
+    def cleanup() {
+        delegate.close()
+    }
+
+    def "recorded graph with variants and attributes loads as the resolved graph"() {
+        def runtime = variant("runtime", ["org.gradle.usage": "java-runtime", "org.gradle.category": "library"])
+        def api = variant("api", ["org.gradle.usage": "java-api", "org.gradle.category": "library"])
+        def requestedAttributes = AttributeTestUtil.attributes(["org.gradle.usage": "java-runtime"])
+
+        def root = rootNode(1, "org", "root", "1.0", [runtime])
+        def lib = node(2, "org", "lib", "1.0", [runtime, api])
+        def util = node(3, "org", "util", "2.0", [runtime])
+        def libSelector = selector(10, "org", "lib", "1.0", requestedAttributes)
+        def utilSelector = selector(11, "org", "util", "2.0", requestedAttributes)
+        def utilFromRootSelector = selector(12, "org", "util", "2.0", requestedAttributes)
+        root.outgoingEdges >> [dep(libSelector, 2, runtime, runtime), dep(utilFromRootSelector, 3, runtime, runtime)]
+        lib.outgoingEdges >> [dep(utilSelector, 3, runtime, runtime)]
+
+        when:
+        def resolved = resolve(root, [lib, util], [libSelector, utilSelector, utilFromRootSelector], [root, lib])
+        def loaded = newBuilder(new DummyBinaryStore()).load(new RecordedData(store.recording), resolved.requestedAttributes)
+
+        then:
+        printGraph(loaded.root) == printGraph(resolved.root)
+        describe(loaded) == describe(resolved)
+        describe(loaded).contains("org:lib:1.0 variants [api {org.gradle.category=library, org.gradle.usage=java-api}, runtime {org.gradle.category=library, org.gradle.usage=java-runtime}]")
+        describe(loaded).contains("org:root:1.0 -> org:util:2.0 {org.gradle.usage=java-runtime} selected runtime")
+    }
+
+    private ResolutionResult resolve(RootGraphNode root, List<DependencyGraphNode> nodes, List<DependencyGraphSelector> selectors, List<DependencyGraphNode> nodesWithEdges) {
+        def builder = newBuilder(store)
+        builder.start(root)
+        builder.visitNode(root)
+        nodes.each { builder.visitNode(it) }
+        selectors.each { builder.visitSelector(it) }
+        nodesWithEdges.each { builder.visitEdges(it) }
+        builder.finish(root)
+        return builder.complete(emptySet())
+    }
+
+    private static String describe(ResolutionResult result) {
+        def lines = []
+        result.allComponents.each { component ->
+            lines << "${component.id.displayName} variants ${component.variants.collect { describe(it) }.sort()}"
+        }
+        result.allDependencies.each { dependency ->
+            assert dependency instanceof ResolvedDependencyResult
+            lines << "${dependency.from.id.displayName} -> ${dependency.requested.displayName} ${describe(dependency.requested.attributes)} selected ${dependency.resolvedVariant.displayName}"
+        }
+        return lines.sort().join("\n")
+    }
+
+    private static String describe(ResolvedVariantResult variant) {
+        "${variant.displayName} ${describe(variant.attributes)}"
+    }
+
+    private static String describe(AttributeContainer attributes) {
+        new TreeMap(attributes.keySet().collectEntries { [it.name, String.valueOf(attributes.getAttribute(it))] }).toString()
+    }
+
+    private static StreamingResolutionResultBuilder newBuilder(BinaryStore store) {
+        return new StreamingResolutionResultBuilder(
+            store,
+            new DummyStore(),
+            new DefaultImmutableModuleIdentifierFactory(),
+            new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator()),
+            new AttributeDesugaring(AttributeTestUtil.attributesFactory()),
+            DependencyManagementTestUtil.componentSelectionDescriptorFactory()
+        )
+    }
+
+    private static ResolvedVariantResult variant(String name, Map<String, String> attributes) {
+        return new DefaultResolvedVariantResult(Describables.of(name), AttributeTestUtil.attributes(attributes), [])
+    }
+
+    private DependencyGraphEdge dep(DependencyGraphSelector selector, Long selectedId, ResolvedVariantResult fromVariant, ResolvedVariantResult selectedVariant) {
+        def edge = Stub(DependencyGraphEdge)
+        _ * edge.selector >> selector
+        _ * edge.requested >> selector.requested
+        _ * edge.selected >> selectedId
+        _ * edge.failure >> null
+        _ * edge.fromVariant >> fromVariant
+        _ * edge.selectedVariant >> selectedVariant
+        return edge
+    }
+
+    private DependencyGraphComponent component(Long resultId, String org, String name, String ver, List<ResolvedVariantResult> variants, ComponentSelectionReason reason) {
+        def component = Stub(DependencyGraphComponent)
+        _ * component.resultId >> resultId
+        _ * component.moduleVersion >> DefaultModuleVersionIdentifier.newId(DefaultModuleIdentifier.newId(org, name), ver)
+        _ * component.componentId >> DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId(org, name), ver)
+        _ * component.selectionReason >> reason
+        _ * component.resolvedVariants >> variants
+        return component
+    }
+
+    private DependencyGraphNode node(Long resultId, String org, String name, String ver, List<ResolvedVariantResult> variants) {
+        def component = component(resultId, org, name, ver, variants, requested())
+        def node = Stub(DependencyGraphNode)
+        _ * node.owner >> component
+        return node
+    }
+
+    private RootGraphNode rootNode(Long resultId, String org, String name, String ver, List<ResolvedVariantResult> variants) {
+        def component = component(resultId, org, name, ver, variants, root())
+        def node = Stub(RootGraphNode)
+        _ * node.owner >> component
+        _ * node.getMetadata() >> Stub(RootConfigurationMetadata) {
+            getAttributes() >> AttributeTestUtil.attributes(["org.gradle.usage": "java-runtime"])
+        }
+        return node
+    }
+
+    private DependencyGraphSelector selector(Long resultId, String org, String name, String ver, attributes) {
+        def selector = Stub(DependencyGraphSelector)
+        _ * selector.resultId >> resultId
+        _ * selector.requested >> DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(org, name), DefaultImmutableVersionConstraint.of(ver), attributes, [])
+        return selector
+    }
+
+    private static class RecordedData implements BinaryStore.BinaryData {
+        private final StringDeduplicatingKryoBackedDecoder decoder
+
+        RecordedData(byte[] recording) {
+            decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(recording))
+        }
+
+        @Override
+        <T> T read(BinaryStore.ReadAction<T> readAction) {
+            return readAction.read(decoder)
+        }
+
+        @Override
+        void close() {
+            decoder.close()
+        }
+    }
+}
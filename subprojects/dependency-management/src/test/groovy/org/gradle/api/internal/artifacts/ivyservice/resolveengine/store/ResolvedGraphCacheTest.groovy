@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheDecorator
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCacheParameters
+import org.gradle.cache.internal.BinaryStore
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ResolvedGraphCacheTest extends Specification {
+    long time = 1000
+    def timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> { time }
+    }
+    def cacheBuilder = Stub(CacheBuilder)
+    def cacheRepository = Mock(CacheRepository)
+    def cacheDecoratorFactory = Stub(InMemoryCacheDecoratorFactory) {
+        decorator(_, _) >> Stub(CacheDecorator)
+    }
+    def inputs = HashCode.fromInt(42)
+
+    def setup() {
+        cacheRepository.cache(_) >> cacheBuilder
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> Stub(PersistentCache) {
+            createCache(_) >> { PersistentIndexedCacheParameters parameters -> new InMemoryIndexedCache(parameters.valueSerializer) }
+        }
+    }
+
+    def "loads the stored graph until it expires"() {
+        def cache = cache(true, false)
+
+        when:
+        cache.store(inputs, graph("graph"), Duration.ofMinutes(10))
+
+        then:
+        read(cache.load(inputs)) == "graph"
+        cache.load(HashCode.fromInt(43)) == null
+
+        when:
+        time += Duration.ofMinutes(10).toMillis() - 1
+
+        then:
+        read(cache.load(inputs)) == "graph"
+
+        when:
+        time += 1
+
+        then:
+        cache.load(inputs) == null
+    }
+
+    def "graph that does not expire is kept"() {
+        def cache = cache(true, false)
+
+        when:
+        cache.store(inputs, graph("graph"), Duration.ofMillis(Long.MAX_VALUE))
+        time = Long.MAX_VALUE - 1
+
+        then:
+        read(cache.load(inputs)) == "graph"
+    }
+
+    def "graph that cannot be kept is not stored"() {
+        def cache = cache(true, false)
+
+        when:
+        cache.store(inputs, graph("graph"), Duration.ZERO)
+
+        then:
+        cache.load(inputs) == null
+    }
+
+    def "graphs are not loaded when dependencies are refreshed"() {
+        def cache = cache(true, true)
+
+        when:
+        cache.store(inputs, graph("graph"), Duration.ofMinutes(10))
+
+        then:
+        cache.load(inputs) == null
+    }
+
+    def "does not open the cache when disabled"() {
+        when:
+        def cache = cache(false, false)
+        cache.store(inputs, graph("graph"), Duration.ofMinutes(10))
+
+        then:
+        !cache.enabled
+        cache.load(inputs) == null
+        0 * cacheRepository._
+    }
+
+    private ResolvedGraphCache cache(boolean enabled, boolean refreshDependencies) {
+        new ResolvedGraphCache(cacheRepository, cacheDecoratorFactory, timeProvider, enabled, refreshDependencies)
+    }
+
+    private static byte[] graph(String content) {
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new StringDeduplicatingKryoBackedEncoder(outputStream)
+        encoder.writeString(content)
+        encoder.flush()
+        outputStream.toByteArray()
+    }
+
+    private static String read(BinaryStore.BinaryData data) {
+        try {
+            data.read({ Decoder decoder -> decoder.readString() } as BinaryStore.ReadAction<String>)
+        } finally {
+            data.close()
+        }
+    }
+}
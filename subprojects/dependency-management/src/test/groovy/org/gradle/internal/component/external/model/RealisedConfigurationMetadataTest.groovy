@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.component.external.model
+
+import com.google.common.collect.ImmutableList
+import com.google.common.collect.ImmutableSet
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class RealisedConfigurationMetadataTest extends ConcurrentSpec {
+    def configuration = new RealisedConfigurationMetadata(DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", "foo"), "1.0"), "runtime", true, true,
+        ImmutableSet.of("runtime"), ImmutableList.of(), ImmutableList.of(), ImmutableAttributes.EMPTY, ImmutableCapabilities.EMPTY, false, false)
+
+    def "creates dependencies on first request"() {
+        def dependency = Stub(ModuleDependencyMetadata)
+        def factory = Mock(Factory)
+
+        when:
+        configuration.setConfigDependenciesFactory(factory)
+
+        then:
+        0 * factory._
+
+        when:
+        def first = configuration.dependencies
+        def second = configuration.dependencies
+
+        then:
+        1 * factory.create() >> [dependency]
+        0 * factory._
+
+        and:
+        first == [dependency]
+        second.is(first)
+    }
+
+    def "creates dependencies once when requested by concurrent readers"() {
+        def dependency = Stub(ModuleDependencyMetadata)
+        def created = new AtomicInteger()
+        def results = new CopyOnWriteArrayList()
+        configuration.setConfigDependenciesFactory({
+            created.incrementAndGet()
+            // Give the other readers a chance to request the dependencies while they are created
+            Thread.sleep(100)
+            [dependency]
+        } as Factory)
+
+        when:
+        async {
+            5.times {
+                start {
+                    results << configuration.dependencies
+                }
+            }
+        }
+
+        then:
+        created.get() == 1
+        results.size() == 5
+        results.every { it.is(results[0]) }
+        results[0] == [dependency]
+    }
+}
@@ -17,10 +17,13 @@
 package org.gradle.internal.resource.transfer
 
 import org.gradle.api.Transformer
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManagerStub
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultExternalResourceCachePolicy
+import org.gradle.api.internal.artifacts.verification.model.ChecksumKind
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.cache.internal.ProducerGuard
+import org.gradle.internal.hash.ChecksumService
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.hash.Hashing
 import org.gradle.internal.resource.ExternalResource
@@ -62,7 +65,8 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
             supplier.get()
         }
     }
-    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService)
+    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, false, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService, [] as Set)
+    final emptySha1 = Hashing.sha1().hashBytes(new byte[0])
 
     def "returns null when the request resource is not cached and does not exist in the remote repository"() {
         def location = new ExternalResourceName("thing")
@@ -131,7 +135,72 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, emptySha1) >> localResource
+        1 * index.store("thing", cachedFile, metaData)
+        1 * fileRepository.resource(cachedFile, location.uri, metaData) >> cachedResource
+        0 * _._
+    }
+
+    def "computes checksums while downloading resource and records them for the cached file"() {
+        def checksumService = Mock(ChecksumService)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, false, cachePolicy, producerGuard, fileRepository, checksumService, [ChecksumKind.sha256] as Set)
+        def location = new ExternalResourceName("thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteResource = Mock(ExternalResource)
+        def metaData = Mock(ExternalResourceMetaData)
+        def localResource = new DefaultLocallyAvailableResource(cachedFile, TestUtil.checksumService)
+        def cachedResource = Stub(LocallyAvailableExternalResource)
+        def content = "content".bytes
+
+        when:
+        def result = cache.getResource(location, null, fileStore, null)
+
+        then:
+        result == cachedResource
+
+        and:
+        1 * index.lookup("thing") >> null
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location) >> remoteResource
+        1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
+            a.execute(new ByteArrayInputStream(content), metaData)
+        }
+
+        and:
+        1 * fileStore.moveIntoCache(tempFile, Hashing.sha1().hashBytes(content)) >> localResource
+        1 * index.store("thing", cachedFile, metaData)
+        1 * checksumService.recordChecksum(cachedFile, "sha1", Hashing.sha1().hashBytes(content))
+        1 * checksumService.recordChecksum(cachedFile, "sha256", Hashing.sha256().hashBytes(content))
+        1 * fileRepository.resource(cachedFile, location.uri, metaData) >> cachedResource
+        0 * _._
+    }
+
+    def "adds downloaded resource to the cache without the cache lock when the cache has concurrent writers"() {
+        def lockingManager = Mock(ArtifactCacheLockingManager)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, lockingManager, true, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService, [] as Set)
+        def location = new ExternalResourceName("thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteResource = Mock(ExternalResource)
+        def metaData = Mock(ExternalResourceMetaData)
+        def localResource = new DefaultLocallyAvailableResource(cachedFile, TestUtil.checksumService)
+        def cachedResource = Stub(LocallyAvailableExternalResource)
+
+        when:
+        def result = cache.getResource(location, null, fileStore, null)
+
+        then:
+        result == cachedResource
+
+        and:
+        1 * index.lookup("thing") >> null
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location) >> remoteResource
+        1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
+            a.execute(new ByteArrayInputStream(new byte[0]), metaData)
+        }
+
+        and:
+        1 * fileStore.moveIntoCache(tempFile, emptySha1) >> localResource
         1 * index.store("thing", cachedFile, metaData)
         1 * fileRepository.resource(cachedFile, location.uri, metaData) >> cachedResource
         0 * _._
@@ -201,7 +270,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, sha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -289,7 +358,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, sha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -333,7 +402,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, emptySha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -380,7 +449,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, emptySha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -432,7 +501,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, emptySha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
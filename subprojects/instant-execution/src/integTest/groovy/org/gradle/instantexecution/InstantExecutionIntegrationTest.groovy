@@ -82,6 +82,34 @@ class InstantExecutionIntegrationTest extends AbstractInstantExecutionIntegratio
         outputContains("Recreating configuration cache")
     }
 
+    def "reports the size of the cache entry when storing and loading it"() {
+        def fixture = new BuildOperationsFixture(executer, temporaryFolder)
+
+        when:
+        instantRun "help"
+
+        then:
+        def stores = fixture.all(StoreInstantExecutionStateBuildOperationType)
+        stores.size() == 1
+        def store = stores[0]
+        store.result.stateSize > 0
+        store.result.fingerprintSize > 0
+        store.result.entrySize == store.result.stateSize + store.result.fingerprintSize
+        fixture.all(LoadInstantExecutionStateBuildOperationType).empty
+
+        when:
+        instantRun "help"
+
+        then:
+        def loads = fixture.all(LoadInstantExecutionStateBuildOperationType)
+        loads.size() == 1
+        def load = loads[0]
+        load.result.stateSize == store.result.stateSize
+        load.result.fingerprintSize == store.result.fingerprintSize
+        load.result.entrySize == store.result.entrySize
+        fixture.all(StoreInstantExecutionStateBuildOperationType).empty
+    }
+
     def "restores some details of the project structure"() {
         def fixture = new BuildOperationsFixture(executer, temporaryFolder)
 
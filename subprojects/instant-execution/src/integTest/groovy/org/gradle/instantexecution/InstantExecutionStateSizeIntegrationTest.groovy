@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution
+
+import org.gradle.instantexecution.initialization.InstantExecutionStartParameter
+import org.gradle.test.fixtures.file.TestFile
+
+
+class InstantExecutionStateSizeIntegrationTest extends AbstractInstantExecutionIntegrationTest {
+
+    static final int PROJECTS = 40
+    static final int TASKS_PER_PROJECT = 5
+
+    def "interning values makes the state of a many-project build smaller"() {
+        given:
+        generateBuild()
+
+        when:
+        def baselineSize = storeAndLoad(false)
+        def internedSize = storeAndLoad(true)
+
+        then:
+        // Each task repeats the same long description, input files and property names
+        internedSize < baselineSize * 0.75
+    }
+
+    private long storeAndLoad(boolean internValues) {
+        cacheDir.deleteDir()
+        def internValuesArg = "-D${InstantExecutionStartParameter.INTERN_VALUES_PROPERTY}=$internValues"
+
+        instantRun internValuesArg, "generateAll"
+        result.assertTaskExecuted(":p1:generate1")
+        def size = stateFile.length()
+
+        instantRun internValuesArg, "generateAll"
+        result.assertTaskSkipped(":p1:generate1")
+        return size
+    }
+
+    private void generateBuild() {
+        def description = "A description shared by all generated tasks, which is long enough to matter " * 4
+        settingsFile << (1..PROJECTS).collect { "include 'p$it'" }.join("\n")
+        file("shared/inputs/first.txt").text = "first"
+        file("shared/inputs/second.txt").text = "second"
+        file("shared/inputs/third.txt").text = "third"
+        buildFile << """
+            abstract class GeneratedTask extends DefaultTask {
+                @Input
+                abstract Property<String> getDescriptionText()
+
+                @InputFiles
+                abstract ConfigurableFileCollection getSources()
+
+                @OutputDirectory
+                abstract DirectoryProperty getOutputDir()
+
+                @TaskAction
+                void generate() {
+                    outputDir.file("output.txt").get().asFile.text = descriptionText.get()
+                }
+            }
+
+            subprojects {
+                (1..$TASKS_PER_PROJECT).each { i ->
+                    tasks.register("generate\$i", GeneratedTask) {
+                        descriptionText = "$description"
+                        sources.from(rootProject.files("shared/inputs/first.txt", "shared/inputs/second.txt", "shared/inputs/third.txt"))
+                        outputDir = layout.buildDirectory.dir("generated/sources/output/\$i")
+                    }
+                }
+                tasks.register("generateAll") {
+                    dependsOn(tasks.withType(GeneratedTask))
+                }
+            }
+        """
+    }
+
+    private TestFile getStateFile() {
+        def entries = cacheDir.listFiles().findAll { it.isDirectory() }
+        assert entries.size() == 1
+        return new TestFile(entries[0], "state.bin")
+    }
+
+    private TestFile getCacheDir() {
+        return file(".gradle/configuration-cache")
+    }
+}
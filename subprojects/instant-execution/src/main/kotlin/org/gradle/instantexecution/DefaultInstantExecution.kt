@@ -31,13 +31,15 @@ import org.gradle.instantexecution.serialization.DefaultReadContext
 import org.gradle.instantexecution.serialization.DefaultWriteContext
 import org.gradle.instantexecution.serialization.IsolateOwner
 import org.gradle.instantexecution.serialization.MutableIsolateContext
-import org.gradle.instantexecution.serialization.beans.BeanConstructors
+import org.gradle.instantexecution.serialization.RelocatableFileSerializer
+import org.gradle.instantexecution.serialization.beans.BeanStateAccessors
 import org.gradle.instantexecution.serialization.codecs.Codecs
 import org.gradle.instantexecution.serialization.runReadOperation
 import org.gradle.instantexecution.serialization.runWriteOperation
 import org.gradle.instantexecution.serialization.withIsolate
 import org.gradle.internal.Factory
 import org.gradle.internal.classpath.Instrumented
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.serialize.Encoder
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder
@@ -45,7 +47,9 @@ import org.gradle.internal.serialize.kryo.KryoBackedEncoder
 import org.gradle.kotlin.dsl.support.useToRun
 import org.gradle.util.IncubationLogger
 import java.io.File
+import java.io.InputStream
 import java.io.OutputStream
+import java.util.concurrent.Executor
 
 
 class DefaultInstantExecution internal constructor(
@@ -57,7 +61,7 @@ class DefaultInstantExecution internal constructor(
     private val systemPropertyListener: SystemPropertyAccessListener,
     private val scopeRegistryListener: InstantExecutionClassLoaderScopeRegistryListener,
     private val cacheFingerprintController: InstantExecutionCacheFingerprintController,
-    private val beanConstructors: BeanConstructors,
+    private val beanStateAccessors: BeanStateAccessors,
     private val gradlePropertiesController: GradlePropertiesController,
     private val relevantProjectsRegistry: RelevantProjectsRegistry
 ) : InstantExecution {
@@ -159,6 +163,7 @@ class DefaultInstantExecution internal constructor(
             cache.useForStore(cacheKey.string) { layout ->
                 try {
                     writeInstantExecutionFiles(layout)
+                    layout.entrySize()
                 } catch (error: InstantExecutionError) {
                     // Invalidate state on problems that fail the build
                     invalidateInstantExecutionState(layout)
@@ -182,12 +187,17 @@ class DefaultInstantExecution internal constructor(
         scopeRegistryListener.dispose()
 
         buildOperationExecutor.withLoadOperation {
-            cache.useForStateLoad(cacheKey.string) { stateFile ->
-                readInstantExecutionState(stateFile)
+            cache.useForStateLoad(cacheKey.string) { layout ->
+                readInstantExecutionState(layout.state)
+                layout.entrySize()
             }
         }
     }
 
+    private
+    fun InstantExecutionCache.Layout.entrySize() =
+        InstantExecutionEntrySize(state.length(), fingerprint.length())
+
     private
     fun writeInstantExecutionFiles(layout: InstantExecutionCache.Layout) {
         writeInstantExecutionState(layout.state)
@@ -197,9 +207,13 @@ class DefaultInstantExecution internal constructor(
     private
     fun writeInstantExecutionState(stateFile: File) {
         service<ProjectStateRegistry>().withLenientState {
-            withWriteContextFor(stateFile) {
-                instantExecutionState().run {
-                    writeState()
+            withStateIoExecutor { executor ->
+                writerContextFor(WriteBehindOutputStream(stateOutputStreamFor(stateFile, startParameter.compressState), executor), relocatableFileSerializer, startParameter.internValues).useToRun {
+                    runWriteOperation {
+                        instantExecutionState().run {
+                            writeState()
+                        }
+                    }
                 }
             }
         }
@@ -207,13 +221,28 @@ class DefaultInstantExecution internal constructor(
 
     private
     fun readInstantExecutionState(stateFile: File) {
-        withReadContextFor(stateFile) {
-            instantExecutionState().run {
-                readState()
+        withStateIoExecutor { executor ->
+            withReadContextFor(ReadAheadInputStream(stateInputStreamFor(stateFile), executor), relocatableFileSerializer) {
+                instantExecutionState().run {
+                    readState()
+                }
             }
         }
     }
 
+    /**
+     * Runs [action] with an executor which moves the disk I/O of the state file off the (de)serializing thread.
+     */
+    private
+    fun <T> withStateIoExecutor(action: (Executor) -> T): T {
+        val executor = service<ExecutorFactory>().create("Configuration cache state I/O")
+        try {
+            return action(executor)
+        } finally {
+            executor.stop()
+        }
+    }
+
     private
     fun instantExecutionState() =
         InstantExecutionState(codecs(), host, relevantProjectsRegistry)
@@ -268,21 +297,30 @@ class DefaultInstantExecution internal constructor(
         layout.fingerprint.delete()
     }
 
+    /**
+     * Files in the state are written relative to the root directory and the Gradle user home.
+     * The fingerprint keeps absolute paths, as it is checked against the current locations of these directories.
+     */
     private
-    fun withWriteContextFor(file: File, writeOperation: suspend DefaultWriteContext.() -> Unit) {
-        writerContextFor(file.outputStream()).useToRun {
-            runWriteOperation(writeOperation)
-        }
+    val relocatableFileSerializer by unsafeLazy {
+        RelocatableFileSerializer(listOf(startParameter.rootDirectory, startParameter.gradleUserHomeDir))
     }
 
     private
-    fun writerContextFor(outputStream: OutputStream) =
-        writeContextFor(KryoBackedEncoder(outputStream))
+    val absoluteFileSerializer = RelocatableFileSerializer(emptyList())
+
+    private
+    fun writerContextFor(outputStream: OutputStream, fileSerializer: RelocatableFileSerializer = absoluteFileSerializer, internValues: Boolean = true) =
+        writeContextFor(KryoBackedEncoder(outputStream), fileSerializer, internValues)
 
     private
     fun <R> withReadContextFor(file: File, readOperation: suspend DefaultReadContext.() -> R): R =
-        KryoBackedDecoder(file.inputStream()).use { decoder ->
-            readContextFor(decoder).run {
+        withReadContextFor(file.inputStream(), absoluteFileSerializer, readOperation)
+
+    private
+    fun <R> withReadContextFor(inputStream: InputStream, fileSerializer: RelocatableFileSerializer, readOperation: suspend DefaultReadContext.() -> R): R =
+        KryoBackedDecoder(inputStream).use { decoder ->
+            readContextFor(decoder, fileSerializer).run {
                 initClassLoader(javaClass.classLoader)
                 runReadOperation(readOperation)
             }
@@ -290,23 +328,29 @@ class DefaultInstantExecution internal constructor(
 
     private
     fun writeContextFor(
-        encoder: Encoder
+        encoder: Encoder,
+        fileSerializer: RelocatableFileSerializer,
+        internValues: Boolean
     ) = DefaultWriteContext(
         codecs().userTypesCodec,
         encoder,
         scopeRegistryListener,
+        beanStateAccessors,
+        fileSerializer,
         logger,
-        problems
+        problems,
+        internValues
     )
 
     private
     fun readContextFor(
-        decoder: KryoBackedDecoder
+        decoder: KryoBackedDecoder,
+        fileSerializer: RelocatableFileSerializer
     ) = DefaultReadContext(
         codecs().userTypesCodec,
         decoder,
-        service(),
-        beanConstructors,
+        beanStateAccessors,
+        fileSerializer,
         logger,
         problems
     )
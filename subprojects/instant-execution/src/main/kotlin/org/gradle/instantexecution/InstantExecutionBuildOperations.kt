@@ -19,28 +19,137 @@ package org.gradle.instantexecution
 import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationDescriptor
 import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.BuildOperationType
 import org.gradle.internal.operations.RunnableBuildOperation
 
 
+/**
+ * Loading the instant execution state of the build from the cache.
+ */
+class LoadInstantExecutionStateBuildOperationType private constructor() :
+    BuildOperationType<LoadInstantExecutionStateBuildOperationType.Details, LoadInstantExecutionStateBuildOperationType.Result> {
+
+    interface Details
+
+    interface Result : InstantExecutionStateEntryResult
+}
+
+
+/**
+ * Storing the instant execution state of the build into the cache.
+ */
+class StoreInstantExecutionStateBuildOperationType private constructor() :
+    BuildOperationType<StoreInstantExecutionStateBuildOperationType.Details, StoreInstantExecutionStateBuildOperationType.Result> {
+
+    interface Details
+
+    interface Result : InstantExecutionStateEntryResult
+}
+
+
+/**
+ * The size of the cache entry that was loaded or stored, and the throughput of the operation.
+ */
+interface InstantExecutionStateEntryResult {
+
+    /**
+     * The size of the state file in bytes.
+     */
+    val stateSize: Long
+
+    /**
+     * The size of the fingerprint file in bytes.
+     */
+    val fingerprintSize: Long
+
+    /**
+     * The size of the whole cache entry in bytes, that is of its state and fingerprint files.
+     */
+    val entrySize: Long
+
+    /**
+     * The size of the cache entry divided by the time taken to load or store it.
+     */
+    val bytesPerSecond: Long
+}
+
+
+/**
+ * The files of a cache entry, measured once they have been read or written.
+ */
 internal
-fun BuildOperationExecutor.withLoadOperation(block: () -> Unit) =
-    withOperation("Load instant execution state", block)
+class InstantExecutionEntrySize(
+    val stateSize: Long,
+    val fingerprintSize: Long
+)
 
 
+/**
+ * Runs [block], which returns the size of the cache entry it read.
+ */
+internal
+fun BuildOperationExecutor.withLoadOperation(block: () -> InstantExecutionEntrySize) =
+    withOperation("Load instant execution state", LoadDetails, block) { size, bytesPerSecond ->
+        LoadResult(size, bytesPerSecond)
+    }
+
+
+/**
+ * Runs [block], which returns the size of the cache entry it wrote.
+ */
 internal
-fun BuildOperationExecutor.withStoreOperation(block: () -> Unit) =
-    withOperation("Store instant execution state", block)
+fun BuildOperationExecutor.withStoreOperation(block: () -> InstantExecutionEntrySize) =
+    withOperation("Store instant execution state", StoreDetails, block) { size, bytesPerSecond ->
+        StoreResult(size, bytesPerSecond)
+    }
 
 
 private
-fun BuildOperationExecutor.withOperation(displayName: String, block: () -> Unit) {
+fun BuildOperationExecutor.withOperation(
+    displayName: String,
+    details: Any,
+    block: () -> InstantExecutionEntrySize,
+    result: (InstantExecutionEntrySize, Long) -> Any
+) {
     run(object : RunnableBuildOperation {
 
         override fun description(): BuildOperationDescriptor.Builder =
-            BuildOperationDescriptor.displayName(displayName)
+            BuildOperationDescriptor.displayName(displayName).details(details)
 
         override fun run(context: BuildOperationContext) {
-            block()
+            val start = System.nanoTime()
+            val size = block()
+            val elapsedNanos = System.nanoTime() - start
+            val entrySize = size.stateSize + size.fingerprintSize
+            context.setResult(
+                result(size, if (elapsedNanos > 0) (entrySize * 1_000_000_000.0 / elapsedNanos).toLong() else 0)
+            )
         }
     })
 }
+
+
+internal
+object LoadDetails : LoadInstantExecutionStateBuildOperationType.Details
+
+
+internal
+object StoreDetails : StoreInstantExecutionStateBuildOperationType.Details
+
+
+internal
+abstract class AbstractEntryResult(size: InstantExecutionEntrySize, override val bytesPerSecond: Long) : InstantExecutionStateEntryResult {
+    override val stateSize = size.stateSize
+    override val fingerprintSize = size.fingerprintSize
+    override val entrySize = size.stateSize + size.fingerprintSize
+}
+
+
+internal
+class LoadResult(size: InstantExecutionEntrySize, bytesPerSecond: Long) :
+    AbstractEntryResult(size, bytesPerSecond), LoadInstantExecutionStateBuildOperationType.Result
+
+
+internal
+class StoreResult(size: InstantExecutionEntrySize, bytesPerSecond: Long) :
+    AbstractEntryResult(size, bytesPerSecond), StoreInstantExecutionStateBuildOperationType.Result
@@ -113,17 +113,16 @@ class InstantExecutionCache(
             }
         }
 
-    fun useForStateLoad(cacheKey: String, action: (File) -> Unit) {
+    fun <T> useForStateLoad(cacheKey: String, action: (Layout) -> T): T =
         withBaseCacheDirFor(cacheKey) { cacheDir ->
-            val stateFile = cacheDir.stateFile
-            fileAccessTracker.markAccessed(stateFile)
-            action(stateFile)
+            val layout = Layout(cacheDir.fingerprintFile, cacheDir.stateFile)
+            fileAccessTracker.markAccessed(layout.state)
+            action(layout)
         }
-    }
 
     class Layout(val fingerprint: File, val state: File)
 
-    fun useForStore(cacheKey: String, action: (Layout) -> Unit) {
+    fun <T> useForStore(cacheKey: String, action: (Layout) -> T): T =
         withBaseCacheDirFor(cacheKey) { cacheDir ->
             // TODO GlobalCache require(!cacheDir.isDirectory)
             cacheDir.mkdirs()
@@ -138,7 +137,6 @@ class InstantExecutionCache(
                     .forEach { fileSystem.chmod(it, 384) } // octal 0600
             }
         }
-    }
 
     private
     fun <T> withBaseCacheDirFor(cacheKey: String, action: (File) -> T): T =
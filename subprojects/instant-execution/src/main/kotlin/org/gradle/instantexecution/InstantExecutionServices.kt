@@ -26,6 +26,7 @@ import org.gradle.instantexecution.initialization.InstantExecutionStartParameter
 import org.gradle.instantexecution.initialization.NoOpInstantExecutionProblemsListener
 import org.gradle.instantexecution.problems.InstantExecutionProblems
 import org.gradle.instantexecution.serialization.beans.BeanConstructors
+import org.gradle.instantexecution.serialization.beans.BeanStateAccessors
 import org.gradle.internal.build.PublicBuildPath
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.service.ServiceRegistration
@@ -38,6 +39,7 @@ class InstantExecutionServices : AbstractPluginServiceRegistry() {
     override fun registerGlobalServices(registration: ServiceRegistration) {
         registration.run {
             add(BeanConstructors::class.java)
+            add(BeanStateAccessors::class.java)
         }
     }
 
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution
+
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+
+
+private
+const val defaultChunkSize = 64 * 1024
+
+
+private
+const val defaultMaxPendingChunks = 16
+
+
+private
+class Chunk(val bytes: ByteArray, val length: Int, val failure: Throwable? = null) {
+
+    val isEnd: Boolean
+        get() = length < 0
+}
+
+
+private
+val endOfStream = Chunk(ByteArray(0), -1)
+
+
+/**
+ * An [OutputStream] that hands full chunks over to a worker which writes them to [sink],
+ * so encoding the configuration cache state overlaps with writing it to disk.
+ *
+ * Failures of the worker are rethrown from [close].
+ */
+internal
+class WriteBehindOutputStream(
+    private val sink: OutputStream,
+    executor: Executor,
+    private val chunkSize: Int = defaultChunkSize,
+    maxPendingChunks: Int = defaultMaxPendingChunks
+) : OutputStream() {
+
+    private
+    val chunks = ArrayBlockingQueue<Chunk>(maxPendingChunks)
+
+    private
+    val drained = CountDownLatch(1)
+
+    @Volatile
+    private
+    var failure: Throwable? = null
+
+    private
+    var buffer = ByteArray(chunkSize)
+
+    private
+    var position = 0
+
+    private
+    var closed = false
+
+    init {
+        executor.execute(::drain)
+    }
+
+    override fun write(b: Int) {
+        if (position == buffer.size) {
+            flushChunk()
+        }
+        buffer[position++] = b.toByte()
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        var offset = off
+        var remaining = len
+        while (remaining > 0) {
+            if (position == buffer.size) {
+                flushChunk()
+            }
+            val count = minOf(remaining, buffer.size - position)
+            System.arraycopy(b, offset, buffer, position, count)
+            position += count
+            offset += count
+            remaining -= count
+        }
+    }
+
+    override fun close() {
+        if (closed) return
+        closed = true
+        try {
+            if (position > 0) {
+                flushChunk()
+            }
+            chunks.put(endOfStream)
+            drained.await()
+        } finally {
+            sink.close()
+        }
+        failure?.let { throw IOException("Could not write configuration cache state.", it) }
+    }
+
+    private
+    fun flushChunk() {
+        failure?.let { throw IOException("Could not write configuration cache state.", it) }
+        chunks.put(Chunk(buffer, position))
+        buffer = ByteArray(chunkSize)
+        position = 0
+    }
+
+    private
+    fun drain() {
+        try {
+            while (true) {
+                val chunk = chunks.take()
+                if (chunk.isEnd) break
+                if (failure == null) {
+                    try {
+                        sink.write(chunk.bytes, 0, chunk.length)
+                    } catch (e: Throwable) {
+                        // Keep draining so the producer never blocks, the failure is reported on the next write or on close
+                        failure = e
+                    }
+                }
+            }
+        } finally {
+            drained.countDown()
+        }
+    }
+}
+
+
+/**
+ * An [InputStream] that reads [source] ahead in chunks on a worker,
+ * so decoding the configuration cache state overlaps with reading it from disk.
+ */
+internal
+class ReadAheadInputStream(
+    private val source: InputStream,
+    executor: Executor,
+    private val chunkSize: Int = defaultChunkSize,
+    maxPendingChunks: Int = defaultMaxPendingChunks
+) : InputStream() {
+
+    private
+    val chunks = ArrayBlockingQueue<Chunk>(maxPendingChunks)
+
+    private
+    val finished = CountDownLatch(1)
+
+    @Volatile
+    private
+    var closed = false
+
+    private
+    var current = Chunk(ByteArray(0), 0)
+
+    private
+    var position = 0
+
+    init {
+        executor.execute(::fill)
+    }
+
+    override fun read(): Int {
+        if (!ensureAvailable()) return -1
+        return current.bytes[position++].toInt() and 0xff
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) return 0
+        if (!ensureAvailable()) return -1
+        val count = minOf(len, current.length - position)
+        System.arraycopy(current.bytes, position, b, off, count)
+        position += count
+        return count
+    }
+
+    override fun available(): Int =
+        if (current.isEnd) 0 else current.length - position
+
+    override fun close() {
+        if (closed) return
+        closed = true
+        // Unblock the worker, it stops after its next chunk
+        chunks.clear()
+        finished.await()
+    }
+
+    private
+    fun ensureAvailable(): Boolean {
+        if (current.isEnd) return false
+        if (position < current.length) return true
+        val next = chunks.take()
+        next.failure?.let { throw IOException("Could not read configuration cache state.", it) }
+        current = next
+        position = 0
+        return !next.isEnd
+    }
+
+    private
+    fun fill() {
+        try {
+            while (!closed) {
+                val bytes = ByteArray(chunkSize)
+                val count = source.read(bytes)
+                if (count < 0) {
+                    chunks.put(endOfStream)
+                    break
+                }
+                if (count > 0) {
+                    chunks.put(Chunk(bytes, count))
+                }
+            }
+        } catch (e: Throwable) {
+            if (!closed) {
+                chunks.put(Chunk(ByteArray(0), -1, e))
+            }
+        } finally {
+            try {
+                source.close()
+            } finally {
+                finished.countDown()
+            }
+        }
+    }
+}
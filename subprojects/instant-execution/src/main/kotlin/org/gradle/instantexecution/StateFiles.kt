@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution
+
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+
+
+/**
+ * The first byte of a state file, telling how the rest of it is encoded.
+ */
+private
+const val uncompressedState = 0
+
+
+private
+const val compressedState = 1
+
+
+private
+const val compressionBufferSize = 64 * 1024
+
+
+/**
+ * Opens [file] for writing the state, compressing it with the fastest deflate level when [compress] is true.
+ */
+internal
+fun stateOutputStreamFor(file: File, compress: Boolean): OutputStream {
+    val outputStream = file.outputStream()
+    try {
+        if (compress) {
+            outputStream.write(compressedState)
+            return StateDeflaterOutputStream(outputStream)
+        }
+        outputStream.write(uncompressedState)
+        return outputStream
+    } catch (e: IOException) {
+        outputStream.close()
+        throw e
+    }
+}
+
+
+/**
+ * Opens [file] for reading a state written by an output stream from [stateOutputStreamFor].
+ */
+internal
+fun stateInputStreamFor(file: File): InputStream {
+    val inputStream = file.inputStream()
+    try {
+        return when (val format = inputStream.read()) {
+            uncompressedState -> inputStream
+            compressedState -> StateInflaterInputStream(inputStream)
+            else -> throw IOException("Unknown configuration cache state format '$format' in '$file'.")
+        }
+    } catch (e: IOException) {
+        inputStream.close()
+        throw e
+    }
+}
+
+
+private
+class StateDeflaterOutputStream(outputStream: OutputStream) :
+    DeflaterOutputStream(outputStream, Deflater(Deflater.BEST_SPEED), compressionBufferSize) {
+
+    override fun close() {
+        try {
+            super.close()
+        } finally {
+            // Not done by `DeflaterOutputStream` for a deflater it did not create
+            def.end()
+        }
+    }
+}
+
+
+private
+class StateInflaterInputStream(inputStream: InputStream) :
+    InflaterInputStream(inputStream, Inflater(), compressionBufferSize) {
+
+    override fun close() {
+        try {
+            super.close()
+        } finally {
+            // Not done by `InflaterInputStream` for an inflater it did not create
+            inf.end()
+        }
+    }
+}
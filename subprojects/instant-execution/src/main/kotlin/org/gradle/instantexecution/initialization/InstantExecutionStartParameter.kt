@@ -50,6 +50,18 @@ class InstantExecutionStartParameter(
     val recreateCache: Boolean
         get() = startParameter.isConfigurationCacheRecreateCache
 
+    /**
+     * Whether the state of new cache entries is compressed, see [COMPRESS_STATE_PROPERTY].
+     */
+    val compressState: Boolean
+        get() = java.lang.Boolean.getBoolean(COMPRESS_STATE_PROPERTY)
+
+    /**
+     * Whether strings and files are interned in the state of new cache entries, see [INTERN_VALUES_PROPERTY].
+     */
+    val internValues: Boolean
+        get() = System.getProperty(INTERN_VALUES_PROPERTY) != "false"
+
     /**
      * See [StartParameter.getProjectDir].
      */
@@ -86,4 +98,13 @@ class InstantExecutionStartParameter(
 
     val gradleUserHomeDir: File
         get() = startParameter.gradleUserHomeDir
+
+    companion object {
+        const val COMPRESS_STATE_PROPERTY = "org.gradle.internal.configuration-cache.compress-state"
+
+        /**
+         * Set to `false` to write every string and file in full, as a baseline for the size of cache entries.
+         */
+        const val INTERN_VALUES_PROPERTY = "org.gradle.internal.configuration-cache.intern-values"
+    }
 }
@@ -29,6 +29,7 @@ import org.gradle.instantexecution.serialization.beans.BeanStateReader
 import org.gradle.instantexecution.serialization.beans.BeanStateWriter
 import org.gradle.internal.serialize.Decoder
 import org.gradle.internal.serialize.Encoder
+import java.io.File
 
 
 /**
@@ -48,6 +49,11 @@ interface WriteContext : IsolateContext, MutableIsolateContext, Encoder {
     suspend fun write(value: Any?)
 
     fun writeClass(type: Class<*>)
+
+    /**
+     * Writes [file] so it can be read back relative to the location of the build, see [RelocatableFileSerializer].
+     */
+    fun writeFile(file: File)
 }
 
 
@@ -72,6 +78,8 @@ interface ReadContext : IsolateContext, MutableIsolateContext, Decoder {
     suspend fun read(): Any?
 
     fun readClass(): Class<*>
+
+    fun readFile(): File
 }
 
 
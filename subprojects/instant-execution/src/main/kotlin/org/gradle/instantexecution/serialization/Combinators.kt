@@ -250,7 +250,7 @@ suspend fun <K, V, T : MutableMap<K, V>> ReadContext.readMapEntriesInto(items: T
 
 
 internal
-fun Encoder.writeClassPath(classPath: ClassPath) {
+fun WriteContext.writeClassPath(classPath: ClassPath) {
     writeCollection(classPath.asFiles) {
         writeFile(it)
     }
@@ -258,7 +258,7 @@ fun Encoder.writeClassPath(classPath: ClassPath) {
 
 
 internal
-fun Decoder.readClassPath(): ClassPath =
+fun ReadContext.readClassPath(): ClassPath =
     DefaultClassPath.of(
         readCollectionInto({ size -> LinkedHashSet<File>(size) }) {
             readFile()
@@ -266,17 +266,6 @@ fun Decoder.readClassPath(): ClassPath =
     )
 
 
-internal
-fun Encoder.writeFile(file: File?) {
-    BaseSerializerFactory.FILE_SERIALIZER.write(this, file)
-}
-
-
-internal
-fun Decoder.readFile(): File =
-    BaseSerializerFactory.FILE_SERIALIZER.read(this)
-
-
 internal
 fun Encoder.writeStrings(strings: Collection<String>) {
     writeCollection(strings) {
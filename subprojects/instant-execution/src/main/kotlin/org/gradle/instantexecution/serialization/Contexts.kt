@@ -24,15 +24,13 @@ import org.gradle.instantexecution.ClassLoaderScopeSpec
 import org.gradle.instantexecution.problems.ProblemsListener
 import org.gradle.instantexecution.problems.PropertyProblem
 import org.gradle.instantexecution.problems.PropertyTrace
-import org.gradle.instantexecution.serialization.beans.BeanConstructors
-import org.gradle.instantexecution.serialization.beans.BeanPropertyReader
-import org.gradle.instantexecution.serialization.beans.BeanPropertyWriter
+import org.gradle.instantexecution.serialization.beans.BeanStateAccessors
 import org.gradle.instantexecution.serialization.beans.BeanStateReader
 import org.gradle.instantexecution.serialization.beans.BeanStateWriter
 import org.gradle.internal.hash.HashCode
-import org.gradle.internal.instantiation.InstantiatorFactory
 import org.gradle.internal.serialize.Decoder
 import org.gradle.internal.serialize.Encoder
+import java.io.File
 
 
 internal
@@ -45,10 +43,23 @@ class DefaultWriteContext(
     private
     val scopeLookup: ScopeLookup,
 
+    private
+    val beanStateAccessors: BeanStateAccessors,
+
+    private
+    val fileSerializer: RelocatableFileSerializer,
+
     override val logger: Logger,
 
     private
-    val problemsListener: ProblemsListener
+    val problemsListener: ProblemsListener,
+
+    /**
+     * Whether strings and files are written once and referenced afterwards, see [writeString] and [writeFile].
+     * The reader does not depend on it.
+     */
+    private
+    val internValues: Boolean = true
 
 ) : AbstractIsolateContext<WriteIsolate>(codec), WriteContext, Encoder by encoder, AutoCloseable {
 
@@ -63,6 +74,12 @@ class DefaultWriteContext(
     private
     val scopes = WriteIdentities()
 
+    private
+    val strings = HashMap<String, Int>()
+
+    private
+    val files = HashMap<File, Int>()
+
     /**
      * Closes the given [encoder] if it is [AutoCloseable].
      */
@@ -71,7 +88,7 @@ class DefaultWriteContext(
     }
 
     override fun beanStateWriterFor(beanType: Class<*>): BeanStateWriter =
-        beanPropertyWriters.computeIfAbsent(beanType, ::BeanPropertyWriter)
+        beanPropertyWriters.computeIfAbsent(beanType, beanStateAccessors::writerFor)
 
     override val isolate: WriteIsolate
         get() = getIsolate()
@@ -101,6 +118,35 @@ class DefaultWriteContext(
         }
     }
 
+    /**
+     * Writes each distinct file once, as a reference to its already written parent directory followed by its name,
+     * stopping at relocation roots and file system roots.
+     */
+    override fun writeFile(file: File) {
+        if (!internValues) {
+            writeSmallInt(newValue)
+            writeBoolean(true)
+            fileSerializer.write(this, file)
+            return
+        }
+        val id = files[file]
+        if (id != null) {
+            writeSmallInt(firstValueId + id)
+            return
+        }
+        writeSmallInt(newValue)
+        val parent = file.parentFile
+        if (parent == null || fileSerializer.isRoot(file)) {
+            writeBoolean(true)
+            fileSerializer.write(this, file)
+        } else {
+            writeBoolean(false)
+            writeFile(parent)
+            writeString(file.name)
+        }
+        files[file] = files.size
+    }
+
     private
     fun writeScope(scope: ClassLoaderScopeSpec) {
         val id = scopes.getId(scope)
@@ -132,9 +178,25 @@ class DefaultWriteContext(
         }
     }
 
-    // TODO: consider interning strings
-    override fun writeString(string: CharSequence) =
-        encoder.writeString(string)
+    /**
+     * Writes each distinct string once, later occurrences are written as a reference to the first one.
+     */
+    override fun writeString(string: CharSequence) {
+        if (!internValues || string.length > maxInternedStringLength) {
+            writeSmallInt(uninternedValue)
+            encoder.writeString(string)
+            return
+        }
+        val value = string.toString()
+        val id = strings[value]
+        if (id != null) {
+            writeSmallInt(firstValueId + id)
+        } else {
+            writeSmallInt(newValue)
+            encoder.writeString(value)
+            strings[value] = strings.size
+        }
+    }
 
     override fun newIsolate(owner: IsolateOwner): WriteIsolate =
         DefaultWriteIsolate(owner)
@@ -145,6 +207,32 @@ class DefaultWriteContext(
 }
 
 
+/**
+ * Written in place of the id of a string or file which has not been written before.
+ */
+private
+const val newValue = 0
+
+
+/**
+ * Written in place of the id of a string which is too long to be worth interning.
+ */
+private
+const val uninternedValue = 1
+
+
+/**
+ * Offset of the ids of interned strings and files, so they are never confused with the markers above
+ * and small ints stay non-negative, which is how they are encoded the most compactly.
+ */
+private
+const val firstValueId = 2
+
+
+private
+const val maxInternedStringLength = 1024
+
+
 interface EncodingProvider<T> {
     suspend fun WriteContext.encode(value: T)
 }
@@ -168,10 +256,10 @@ class DefaultReadContext(
     val decoder: Decoder,
 
     private
-    val instantiatorFactory: InstantiatorFactory,
+    val beanStateAccessors: BeanStateAccessors,
 
     private
-    val constructors: BeanConstructors,
+    val fileSerializer: RelocatableFileSerializer,
 
     override val logger: Logger,
 
@@ -191,6 +279,12 @@ class DefaultReadContext(
     private
     val scopes = ReadIdentities()
 
+    private
+    val strings = ArrayList<String>()
+
+    private
+    val files = ArrayList<File>()
+
     private
     lateinit var projectProvider: ProjectProvider
 
@@ -216,7 +310,7 @@ class DefaultReadContext(
         get() = getIsolate()
 
     override fun beanStateReaderFor(beanType: Class<*>): BeanStateReader =
-        beanStateReaders.computeIfAbsent(beanType) { type -> BeanPropertyReader(type, constructors, instantiatorFactory) }
+        beanStateReaders.computeIfAbsent(beanType, beanStateAccessors::readerFor)
 
     override fun readClass(): Class<*> {
         val id = readSmallInt()
@@ -240,6 +334,28 @@ class DefaultReadContext(
         return newType
     }
 
+    override fun readFile(): File {
+        val id = readSmallInt()
+        if (id != newValue) {
+            return files[id - firstValueId]
+        }
+        val file = if (readBoolean()) {
+            fileSerializer.read(this)
+        } else {
+            val parent = readFile()
+            File(parent, readString())
+        }
+        files.add(file)
+        return file
+    }
+
+    override fun readString(): String =
+        when (val id = readSmallInt()) {
+            uninternedValue -> decoder.readString()
+            newValue -> decoder.readString().also { strings.add(it) }
+            else -> strings[id - firstValueId]
+        }
+
     private
     fun readScope(): ClassLoaderScope {
         val id = readSmallInt()
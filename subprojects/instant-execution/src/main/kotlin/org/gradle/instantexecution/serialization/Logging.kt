@@ -42,7 +42,10 @@ fun IsolateContext.logPropertyProblem(
 
 
 fun IsolateContext.logPropertyInfo(action: String, value: Any?) {
-    logger.debug("configuration-cache > {}d {} with value {}", action, trace, value)
+    // Called for every serialized property, avoid allocating the message arguments when debug logging is disabled
+    if (logger.isDebugEnabled) {
+        logger.debug("configuration-cache > {}d {} with value {}", action, trace, value)
+    }
 }
 
 
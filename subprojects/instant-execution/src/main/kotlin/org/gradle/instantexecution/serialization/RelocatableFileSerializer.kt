@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution.serialization
+
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+import org.gradle.internal.serialize.Serializer
+import java.io.File
+
+
+/**
+ * Serializes files located under one of the given [roots] relative to it,
+ * so the serialized state does not depend on where the build is checked out or where the Gradle user home is.
+ *
+ * Other files are serialized with their path as is.
+ */
+internal
+class RelocatableFileSerializer(roots: List<File>) : Serializer<File> {
+
+    private
+    val rootPaths = roots.map { it.absolutePath.trimEnd(File.separatorChar) }
+
+    private
+    val roots = roots.map { it.absoluteFile }
+
+    override fun write(encoder: Encoder, file: File) {
+        val path = file.path
+        val rootIndex = if (file.isAbsolute) rootIndexOf(path) else -1
+        if (rootIndex < 0) {
+            encoder.writeSmallInt(0)
+            encoder.writeString(path)
+        } else {
+            encoder.writeSmallInt(rootIndex + 1)
+            encoder.writeString(path.substring(minOf(path.length, rootPaths[rootIndex].length + 1)))
+        }
+    }
+
+    override fun read(decoder: Decoder): File {
+        val root = decoder.readSmallInt()
+        val path = decoder.readString()
+        return when {
+            root == 0 -> File(path)
+            path.isEmpty() -> roots[root - 1]
+            else -> File(roots[root - 1], path)
+        }
+    }
+
+    fun isRoot(file: File): Boolean =
+        file.isAbsolute && file.path in rootPaths
+
+    /**
+     * Returns the index of the innermost root containing [path], or -1.
+     */
+    private
+    fun rootIndexOf(path: String): Int {
+        var found = -1
+        rootPaths.forEachIndexed { index, rootPath ->
+            if (isUnder(path, rootPath) && (found < 0 || rootPath.length > rootPaths[found].length)) {
+                found = index
+            }
+        }
+        return found
+    }
+
+    private
+    fun isUnder(path: String, rootPath: String) =
+        path.startsWith(rootPath) && (path.length == rootPath.length || path[rootPath.length] == File.separatorChar)
+}
@@ -28,10 +28,8 @@ import org.gradle.instantexecution.serialization.ownerService
 import org.gradle.instantexecution.serialization.withPropertyTrace
 import org.gradle.internal.instantiation.InstantiationScheme
 import org.gradle.internal.instantiation.InstantiatorFactory
-import org.gradle.internal.reflect.JavaReflectionUtil
 import org.gradle.internal.service.ServiceRegistry
 import java.io.IOException
-import java.lang.reflect.Field
 
 
 class BeanPropertyReader(
@@ -66,30 +64,24 @@ class BeanPropertyReader(
                 reportUnsupportedFieldType(it, "deserialize", fieldName)
             }
             readPropertyValue(PropertyKind.Field, fieldName) { fieldValue ->
-                set(bean, field, fieldValue)
+                set(bean, relevantField, fieldValue)
             }
         }
     }
 
     private
-    fun ReadContext.set(bean: Any, field: Field, value: Any?) {
-        val type = field.type
-        if (isAssignableTo(type, value)) {
-            field.set(bean, value)
+    fun ReadContext.set(bean: Any, relevantField: RelevantField, value: Any?) {
+        if (relevantField.assignableType.isInstance(value)) {
+            relevantField.field.set(bean, value)
         } else if (value != null) {
             logPropertyProblem("deserialize") {
                 text("value ")
                 reference(value.toString())
                 text(" is not assignable to ")
-                reference(type)
+                reference(relevantField.field.type)
             }
         }
     }
-
-    private
-    fun isAssignableTo(type: Class<*>, value: Any?) =
-        type.isInstance(value) ||
-            type.isPrimitive && JavaReflectionUtil.getWrapperTypeForPrimitiveType(type).isInstance(value)
 }
 
 
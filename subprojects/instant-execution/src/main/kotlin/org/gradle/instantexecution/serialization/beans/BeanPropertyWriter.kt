@@ -37,6 +37,9 @@ class BeanPropertyWriter(
     private
     val relevantFields = relevantStateOf(beanType)
 
+    private
+    val isConventionAware = IConventionAware::class.java.isAssignableFrom(beanType)
+
     /**
      * Serializes a bean by serializing the value of each of its fields.
      */
@@ -54,8 +57,10 @@ class BeanPropertyWriter(
     }
 
     private
-    fun conventionalValueOf(bean: Any, fieldName: String): Any? = (bean as? IConventionAware)?.run {
-        conventionMapping.getConventionValue<Any?>(null, fieldName, false)
+    fun conventionalValueOf(bean: Any, fieldName: String): Any? = if (isConventionAware) {
+        (bean as IConventionAware).conventionMapping.getConventionValue<Any?>(null, fieldName, false)
+    } else {
+        null
     }
 }
 
@@ -27,6 +27,7 @@ import org.gradle.instantexecution.problems.PropertyKind
 import org.gradle.instantexecution.serialization.IsolateContext
 import org.gradle.instantexecution.serialization.Workarounds
 import org.gradle.instantexecution.serialization.logUnsupported
+import org.gradle.internal.reflect.JavaReflectionUtil
 
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier
@@ -52,7 +53,14 @@ internal
 class RelevantField(
     val field: Field,
     val unsupportedFieldType: KClass<*>?
-)
+) {
+    /**
+     * The type a deserialized value must be an instance of to be assigned to [field], primitive types being boxed.
+     */
+    val assignableType: Class<*> = field.type.let { type ->
+        if (type.isPrimitive) JavaReflectionUtil.getWrapperTypeForPrimitiveType(type) else type
+    }
+}
 
 
 internal
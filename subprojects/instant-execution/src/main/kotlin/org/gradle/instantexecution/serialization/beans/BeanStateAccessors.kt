@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution.serialization.beans
+
+import org.gradle.cache.internal.CrossBuildInMemoryCache
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.instantiation.InstantiatorFactory
+
+
+/**
+ * A global service that caches the [BeanStateWriter] and [BeanStateReader] for bean types,
+ * so the relevant fields of a type are discovered once rather than once per build.
+ */
+class BeanStateAccessors(
+    cacheFactory: CrossBuildInMemoryCacheFactory,
+    private val constructors: BeanConstructors,
+    private val instantiatorFactory: InstantiatorFactory
+) {
+    private
+    val writers: CrossBuildInMemoryCache<Class<*>, BeanStateWriter> = cacheFactory.newClassCache()
+
+    private
+    val readers: CrossBuildInMemoryCache<Class<*>, BeanStateReader> = cacheFactory.newClassCache()
+
+    fun writerFor(beanType: Class<*>): BeanStateWriter =
+        writers.get(beanType) { type -> BeanPropertyWriter(type) }
+
+    fun readerFor(beanType: Class<*>): BeanStateReader =
+        readers.get(beanType) { type -> BeanPropertyReader(type, constructors, instantiatorFactory) }
+}
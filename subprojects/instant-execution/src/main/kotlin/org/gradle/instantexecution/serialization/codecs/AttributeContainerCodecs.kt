@@ -25,6 +25,8 @@ import org.gradle.instantexecution.extensions.uncheckedCast
 import org.gradle.instantexecution.serialization.Codec
 import org.gradle.instantexecution.serialization.ReadContext
 import org.gradle.instantexecution.serialization.WriteContext
+import org.gradle.instantexecution.serialization.decodePreservingSharedIdentity
+import org.gradle.instantexecution.serialization.encodePreservingSharedIdentityOf
 import org.gradle.instantexecution.serialization.readCollection
 import org.gradle.instantexecution.serialization.readNonNull
 import org.gradle.instantexecution.serialization.writeCollection
@@ -53,12 +55,17 @@ class ImmutableAttributesCodec(
     private val managedFactories: ManagedFactoryRegistry
 ) : Codec<ImmutableAttributes> {
 
+    // Immutable attribute containers are interned by the factory, so each distinct container is written once
     override suspend fun WriteContext.encode(value: ImmutableAttributes) {
-        writeAttributes(value)
+        encodePreservingSharedIdentityOf(value) {
+            writeAttributes(value)
+        }
     }
 
     override suspend fun ReadContext.decode(): ImmutableAttributes =
-        readAttributesUsing(attributesFactory, managedFactories).asImmutable()
+        decodePreservingSharedIdentity {
+            readAttributesUsing(attributesFactory, managedFactories).asImmutable()
+        }
 }
 
 
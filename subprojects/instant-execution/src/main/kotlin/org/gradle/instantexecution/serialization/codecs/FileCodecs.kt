@@ -22,8 +22,17 @@ import org.gradle.api.internal.file.FileFactory
 import org.gradle.instantexecution.serialization.Codec
 import org.gradle.instantexecution.serialization.ReadContext
 import org.gradle.instantexecution.serialization.WriteContext
-import org.gradle.instantexecution.serialization.readFile
-import org.gradle.instantexecution.serialization.writeFile
+import java.io.File
+
+
+object FileCodec : Codec<File> {
+    override suspend fun WriteContext.encode(value: File) {
+        writeFile(value)
+    }
+
+    override suspend fun ReadContext.decode(): File =
+        readFile()
+}
 
 
 class DirectoryCodec(private val fileFactory: FileFactory) : Codec<Directory> {
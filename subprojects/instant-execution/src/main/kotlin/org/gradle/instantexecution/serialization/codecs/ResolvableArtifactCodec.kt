@@ -24,8 +24,6 @@ import org.gradle.api.internal.tasks.TaskDependencyContainer
 import org.gradle.instantexecution.serialization.Codec
 import org.gradle.instantexecution.serialization.ReadContext
 import org.gradle.instantexecution.serialization.WriteContext
-import org.gradle.instantexecution.serialization.readFile
-import org.gradle.instantexecution.serialization.writeFile
 import org.gradle.internal.component.local.model.ComponentFileArtifactIdentifier
 import org.gradle.internal.component.model.DefaultIvyArtifactName
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution
+
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.util.concurrent.Executors
+import kotlin.random.Random
+
+
+class PipelinedStreamsTest {
+
+    private
+    val executor = Executors.newCachedThreadPool()
+
+    @After
+    fun stopExecutor() {
+        executor.shutdownNow()
+    }
+
+    private
+    val bytes = Random(42).nextBytes(100_000)
+
+    @Test
+    fun `write behind stream writes all bytes in order`() {
+        val sink = ByteArrayOutputStream()
+        WriteBehindOutputStream(sink, executor, chunkSize = 1000, maxPendingChunks = 2).use { stream ->
+            stream.write(bytes[0].toInt())
+            stream.write(bytes, 1, bytes.size - 1)
+        }
+        assertThat(sink.toByteArray().toList(), equalTo(bytes.toList()))
+    }
+
+    @Test(expected = IOException::class)
+    fun `write behind stream reports failures on close`() {
+        val failingSink = object : OutputStream() {
+            override fun write(b: Int) = throw IOException("disk full")
+            override fun write(b: ByteArray, off: Int, len: Int) = throw IOException("disk full")
+        }
+        WriteBehindOutputStream(failingSink, executor, chunkSize = 1000).use { stream ->
+            stream.write(bytes, 0, 500)
+        }
+    }
+
+    @Test
+    fun `read ahead stream reads all bytes in order`() {
+        val read = ReadAheadInputStream(ByteArrayInputStream(bytes), executor, chunkSize = 1000, maxPendingChunks = 2).use { stream ->
+            val first = stream.read()
+            listOf(first.toByte()) + stream.readBytes().toList()
+        }
+        assertThat(read, equalTo(bytes.toList()))
+    }
+
+    @Test
+    fun `read ahead stream can be closed before the end`() {
+        ReadAheadInputStream(ByteArrayInputStream(bytes), executor, chunkSize = 100, maxPendingChunks = 2).use { stream ->
+            assertThat(stream.read(), equalTo(bytes[0].toInt() and 0xff))
+        }
+    }
+}
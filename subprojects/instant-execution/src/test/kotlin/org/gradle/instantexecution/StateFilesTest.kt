@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution
+
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.IOException
+
+
+class StateFilesTest {
+
+    @JvmField
+    @Rule
+    val tmpDir = TemporaryFolder()
+
+    private
+    val state = "configuration cache state ".repeat(10_000).toByteArray()
+
+    @Test
+    fun `reads uncompressed state`() {
+        val file = tmpDir.newFile()
+        stateOutputStreamFor(file, false).use { it.write(state) }
+
+        assertThat(file.length(), equalTo(state.size + 1L))
+        assertThat(stateInputStreamFor(file).use { it.readBytes() }.toList(), equalTo(state.toList()))
+    }
+
+    @Test
+    fun `reads compressed state`() {
+        val file = tmpDir.newFile()
+        stateOutputStreamFor(file, true).use { it.write(state) }
+
+        assertThat(file.length() < state.size, equalTo(true))
+        assertThat(stateInputStreamFor(file).use { it.readBytes() }.toList(), equalTo(state.toList()))
+    }
+
+    @Test(expected = IOException::class)
+    fun `rejects unknown state format`() {
+        val file = tmpDir.newFile()
+        file.writeBytes(byteArrayOf(42))
+
+        stateInputStreamFor(file)
+    }
+}
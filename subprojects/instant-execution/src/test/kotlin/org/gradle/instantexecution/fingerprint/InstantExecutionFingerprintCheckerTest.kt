@@ -281,6 +281,9 @@ class InstantExecutionFingerprintCheckerTest {
         override fun writeClass(type: Class<*>): Unit =
             undefined()
 
+        override fun writeFile(file: File): Unit =
+            undefined()
+
         override val logger: Logger
             get() = undefined()
 
@@ -378,6 +381,9 @@ class InstantExecutionFingerprintCheckerTest {
         override fun readClass(): Class<*> =
             undefined()
 
+        override fun readFile(): File =
+            undefined()
+
         override val logger: Logger
             get() = undefined()
 
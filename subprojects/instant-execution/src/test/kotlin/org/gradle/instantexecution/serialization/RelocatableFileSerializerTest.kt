@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.instantexecution.serialization
+
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+
+
+class RelocatableFileSerializerTest {
+
+    private
+    val checkout = File("/checkouts/first").absoluteFile
+
+    private
+    val relocatedCheckout = File("/agents/second/checkout").absoluteFile
+
+    private
+    val userHome = File("/checkouts/first/.gradle-home").absoluteFile
+
+    private
+    val relocatedUserHome = File("/home/agent/.gradle").absoluteFile
+
+    @Test
+    fun `files under a root are read relative to the relocated root`() {
+        assertThat(
+            relocated(File(checkout, "sub/build/classes")),
+            equalTo(File(relocatedCheckout, "sub/build/classes"))
+        )
+        assertThat(relocated(checkout), equalTo(relocatedCheckout))
+    }
+
+    @Test
+    fun `files are relative to the innermost root`() {
+        assertThat(
+            relocated(File(userHome, "caches/jars-8/lib.jar")),
+            equalTo(File(relocatedUserHome, "caches/jars-8/lib.jar"))
+        )
+    }
+
+    @Test
+    fun `other files keep their absolute path`() {
+        val sibling = File("/checkouts/first-sibling/file.txt").absoluteFile
+        assertThat(relocated(sibling), equalTo(sibling))
+    }
+
+    private
+    fun relocated(file: File): File {
+        val outputStream = ByteArrayOutputStream()
+        KryoBackedEncoder(outputStream).use { encoder ->
+            RelocatableFileSerializer(listOf(checkout, userHome)).write(encoder, file)
+        }
+        return KryoBackedDecoder(ByteArrayInputStream(outputStream.toByteArray())).use { decoder ->
+            RelocatableFileSerializer(listOf(relocatedCheckout, relocatedUserHome)).read(decoder)
+        }
+    }
+}
@@ -26,7 +26,9 @@ import org.gradle.instantexecution.serialization.DefaultReadContext
 import org.gradle.instantexecution.serialization.DefaultWriteContext
 import org.gradle.instantexecution.serialization.IsolateOwner
 import org.gradle.instantexecution.serialization.MutableIsolateContext
+import org.gradle.instantexecution.serialization.RelocatableFileSerializer
 import org.gradle.instantexecution.serialization.beans.BeanConstructors
+import org.gradle.instantexecution.serialization.beans.BeanStateAccessors
 import org.gradle.instantexecution.serialization.runReadOperation
 import org.gradle.instantexecution.serialization.runWriteOperation
 import org.gradle.instantexecution.serialization.withIsolate
@@ -72,7 +74,7 @@ abstract class AbstractUserTypeCodecTest {
         return any.uncheckedCast()
     }
 
-    private
+    protected
     fun writeToByteArray(graph: Any, codec: Codec<Any?>): ByteArray {
         val outputStream = ByteArrayOutputStream()
         writeTo(outputStream, graph, codec, object : ProblemsListener {
@@ -126,6 +128,8 @@ abstract class AbstractUserTypeCodecTest {
             codec = codec,
             encoder = encoder,
             scopeLookup = mock(),
+            beanStateAccessors = beanStateAccessors,
+            fileSerializer = RelocatableFileSerializer(emptyList()),
             logger = mock(),
             problemsListener = problemHandler
         )
@@ -135,12 +139,18 @@ abstract class AbstractUserTypeCodecTest {
         DefaultReadContext(
             codec = codec,
             decoder = KryoBackedDecoder(inputStream),
-            instantiatorFactory = TestUtil.instantiatorFactory(),
-            constructors = BeanConstructors(TestCrossBuildInMemoryCacheFactory()),
+            beanStateAccessors = beanStateAccessors,
+            fileSerializer = RelocatableFileSerializer(emptyList()),
             logger = mock(),
             problemsListener = mock()
         )
 
+    private
+    val beanStateAccessors by lazy {
+        val cacheFactory = TestCrossBuildInMemoryCacheFactory()
+        BeanStateAccessors(cacheFactory, BeanConstructors(cacheFactory), TestUtil.instantiatorFactory())
+    }
+
     private
     fun userTypesCodec() = codecs().userTypesCodec
 
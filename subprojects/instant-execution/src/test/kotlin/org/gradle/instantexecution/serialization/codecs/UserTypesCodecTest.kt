@@ -53,6 +53,22 @@ class UserTypesCodecTest : AbstractUserTypeCodecTest() {
         )
     }
 
+    @Test
+    fun `writes equal strings once`() {
+
+        val string = "a string long enough to matter ".repeat(4)
+        val strings = List(100) { String(string.toCharArray()) }
+
+        assertThat(
+            configurationCacheRoundtripOf(strings),
+            equalTo(strings)
+        )
+        assertThat(
+            writeToByteArray(strings, userTypesCodec()).size < 2 * string.length + strings.size * 2,
+            equalTo(true)
+        )
+    }
+
     @Test
     fun `can handle anonymous enum subtypes`() {
         EnumSuperType.values().forEach {
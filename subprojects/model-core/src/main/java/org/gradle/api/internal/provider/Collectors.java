@@ -233,7 +233,7 @@ public ValueProducer getProducer() {
 
         @Override
         public boolean isProvidedBy(Provider<?> provider) {
-            return Objects.equal(provider, provider);
+            return Objects.equal(provider, this.provider);
         }
 
         @Override
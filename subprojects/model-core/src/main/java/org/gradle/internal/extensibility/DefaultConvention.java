@@ -46,14 +46,19 @@ public class DefaultConvention implements Convention, ExtensionContainerInternal
     private static final TypeOf<ExtraPropertiesExtension> EXTRA_PROPERTIES_EXTENSION_TYPE = typeOf(ExtraPropertiesExtension.class);
     private final DefaultConvention.ExtensionsDynamicObject extensionsDynamicObject = new ExtensionsDynamicObject();
     private final ExtensionsStorage extensionsStorage = new ExtensionsStorage();
-    private final ExtraPropertiesExtension extraProperties = new DefaultExtraPropertiesExtension();
+    private final ExtraPropertiesExtension extraProperties;
     private final InstanceGenerator instanceGenerator;
 
     private Map<String, Object> plugins;
     private Map<Object, BeanDynamicObject> dynamicObjects;
 
     public DefaultConvention(InstanceGenerator instanceGenerator) {
+        this(instanceGenerator, new DefaultExtraPropertiesExtension());
+    }
+
+    public DefaultConvention(InstanceGenerator instanceGenerator, ExtraPropertiesExtension extraProperties) {
         this.instanceGenerator = instanceGenerator;
+        this.extraProperties = extraProperties;
         add(EXTRA_PROPERTIES_EXTENSION_TYPE, ExtraPropertiesExtension.EXTENSION_NAME, extraProperties);
     }
 
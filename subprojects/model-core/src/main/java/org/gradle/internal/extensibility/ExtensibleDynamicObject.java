@@ -56,6 +56,10 @@ public ExtensibleDynamicObject(Object delegate, Class<?> publicType, InstanceGen
         this(delegate, createDynamicObject(delegate, publicType), new DefaultConvention(instanceGenerator));
     }
 
+    public ExtensibleDynamicObject(Object delegate, Class<?> publicType, Convention convention) {
+        this(delegate, createDynamicObject(delegate, publicType), convention);
+    }
+
     public ExtensibleDynamicObject(Object delegate, AbstractDynamicObject dynamicDelegate, InstanceGenerator instanceGenerator) {
         this(delegate, dynamicDelegate, new DefaultConvention(instanceGenerator));
     }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.java
+
+import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheOption
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT_NO_BUILD_SRC
+import static org.gradle.performance.regression.java.JavaInstantExecutionPerformanceTest.instantInvocationListenerFor
+import static org.gradle.performance.regression.java.JavaInstantExecutionPerformanceTest.loading
+
+@Category(PerformanceExperiment)
+class InstantExecutionInterningPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    // See InstantExecutionStartParameter, which is not on the classpath of performance tests
+    private static final String INTERN_VALUES_PROPERTY = "org.gradle.internal.configuration-cache.intern-values"
+
+    @Unroll
+    def "assemble on #testProject loading instant execution state with interned values"() {
+        given:
+        runner.testGroup = "instant execution"
+        runner.buildSpec {
+            warmUpCount = 20
+            invocationCount = 60
+            projectName(testProject.projectName).displayName("interned values").invocation {
+                tasksToRun("assemble").args("-D${ConfigurationCacheOption.PROPERTY_NAME}=true", "-D${INTERN_VALUES_PROPERTY}=true")
+            }
+            listener(instantInvocationListenerFor(loading, null))
+        }
+        runner.baseline {
+            warmUpCount = 20
+            invocationCount = 60
+            projectName(testProject.projectName).displayName("values not interned").invocation {
+                tasksToRun("assemble").args("-D${ConfigurationCacheOption.PROPERTY_NAME}=true", "-D${INTERN_VALUES_PROPERTY}=false")
+            }
+            listener(instantInvocationListenerFor(loading, null))
+        }
+
+        when:
+        def results = runner.run()
+
+        then:
+        results
+
+        where:
+        testProject << [LARGE_JAVA_MULTI_PROJECT_NO_BUILD_SRC]
+    }
+}
@@ -100,6 +100,45 @@ class WorkerDaemonIntegrationTest extends AbstractWorkerExecutorIntegrationTest
         failureCauseContains('Setting the working directory of a worker is not supported')
     }
 
+    def "reuses project services for work items from different tasks of the same project"() {
+        def workActionThatPrintsObjectFactory = fixture.getWorkActionThatCreatesFiles("ObjectFactoryAction")
+        workActionThatPrintsObjectFactory.with {
+            extraFields += """
+                org.gradle.api.model.ObjectFactory objectFactory
+            """
+            constructorArgs = "org.gradle.api.model.ObjectFactory objectFactory"
+            constructorAction = "this.objectFactory = objectFactory"
+            action += """
+                println "Object factory: " + System.identityHashCode(objectFactory)
+            """
+        }
+        fixture.withWorkActionClassInBuildScript()
+        workActionThatPrintsObjectFactory.writeToBuildFile()
+        buildFile << """
+            task runInWorker1(type: WorkerTask) {
+                isolationMode = IsolationMode.PROCESS
+                workActionClass = ${workActionThatPrintsObjectFactory.name}.class
+            }
+            task runInWorker2(type: WorkerTask) {
+                isolationMode = IsolationMode.PROCESS
+                workActionClass = ${workActionThatPrintsObjectFactory.name}.class
+                mustRunAfter runInWorker1
+            }
+        """
+
+        when:
+        succeeds("runInWorker1", "runInWorker2")
+
+        then:
+        def objectFactories = output.readLines().findAll { it.startsWith("Object factory: ") }
+        objectFactories.size() == 2
+        objectFactories[0] == objectFactories[1]
+
+        and:
+        assertWorkerExecuted("runInWorker1")
+        assertWorkerExecuted("runInWorker2")
+    }
+
     def "interesting worker daemon fork options are honored"() {
         OptionsVerifier optionsVerifier = new OptionsVerifier(file('process.json'))
         optionsVerifier.with {
@@ -56,6 +56,52 @@ class WorkerDaemonLifecycleTest extends AbstractDaemonWorkerExecutorIntegrationS
         assertSameDaemonWasUsed("runInWorker1", "runInWorker2")
     }
 
+    def "worker daemons do not reuse project services across builds"() {
+        def workActionThatPrintsObjectFactory = fixture.getWorkActionThatCreatesFiles("ObjectFactoryAction")
+        workActionThatPrintsObjectFactory.with {
+            extraFields += """
+                org.gradle.api.model.ObjectFactory objectFactory
+            """
+            constructorArgs = "org.gradle.api.model.ObjectFactory objectFactory"
+            constructorAction = "this.objectFactory = objectFactory"
+            action += """
+                println "Object factory: " + System.identityHashCode(objectFactory)
+            """
+        }
+        fixture.withWorkActionClassInBuildScript()
+        workActionThatPrintsObjectFactory.writeToBuildFile()
+        buildFile << """
+            task runInWorker(type: WorkerTask) {
+                isolationMode = IsolationMode.PROCESS
+                workActionClass = ${workActionThatPrintsObjectFactory.name}.class
+                outputs.upToDateWhen { false }
+            }
+        """
+
+        when:
+        succeeds "runInWorker"
+        def firstObjectFactory = objectFactory()
+        def firstDaemon = workerDaemon("runInWorker")
+
+        and:
+        succeeds "runInWorker"
+        def secondObjectFactory = objectFactory()
+
+        then:
+        workerDaemon("runInWorker") == firstDaemon
+        firstObjectFactory != secondObjectFactory
+    }
+
+    private List<String> workerDaemon(String task) {
+        return fixture.list.collect { outputFileDir.file(task).file(it).text }
+    }
+
+    private String objectFactory() {
+        def objectFactories = output.readLines().findAll { it.startsWith("Object factory: ") }
+        assert objectFactories.size() == 1
+        return objectFactories[0]
+    }
+
     def "worker daemons can be restarted when daemon is stopped"() {
         fixture.withWorkActionClassInBuildScript()
         buildFile << """
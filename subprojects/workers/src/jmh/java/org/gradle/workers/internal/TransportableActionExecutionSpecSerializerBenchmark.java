@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.workers.internal;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures sending 10k small work items with the same classloader structure to a worker daemon, excluding the network round trip.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@State(Scope.Benchmark)
+public class TransportableActionExecutionSpecSerializerBenchmark {
+    private static final int WORK_ITEMS = 10_000;
+
+    private List<TransportableActionExecutionSpec> specs;
+    private byte[] encoded;
+
+    @Setup
+    public void createSpecs() throws Exception {
+        List<URL> classpath = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            classpath.add(new File("/gradle/caches/modules-2/files-2.1/group" + i + "/module" + i + "/1.0/module" + i + "-1.0.jar").toURI().toURL());
+        }
+        FilteringClassLoader.Spec filter = new FilteringClassLoader.Spec(
+            ImmutableList.of("org.gradle.api.Action"),
+            ImmutableList.of("org.gradle.api", "org.gradle.workers"),
+            ImmutableList.of("org.gradle.", "javax.inject."),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList()
+        );
+        ClassLoaderStructure structure = new HierarchicalClassLoaderStructure(filter).withChild(new VisitableURLClassLoader.Spec("worker", classpath));
+
+        specs = new ArrayList<>(WORK_ITEMS);
+        for (int i = 0; i < WORK_ITEMS; i++) {
+            specs.add(new TransportableActionExecutionSpec("org.example.TransformFile", new byte[64], structure, new File("/projects/example"), false));
+        }
+        encoded = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        TransportableActionExecutionSpecSerializer serializer = new TransportableActionExecutionSpecSerializer();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        for (TransportableActionExecutionSpec spec : specs) {
+            serializer.write(encoder, spec);
+        }
+        encoder.flush();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws Exception {
+        TransportableActionExecutionSpecSerializer serializer = new TransportableActionExecutionSpecSerializer();
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(encoded));
+        for (int i = 0; i < WORK_ITEMS; i++) {
+            blackhole.consume(serializer.read(decoder));
+        }
+    }
+}
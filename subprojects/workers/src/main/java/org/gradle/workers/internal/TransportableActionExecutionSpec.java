@@ -24,13 +24,26 @@ public class TransportableActionExecutionSpec {
     private final ClassLoaderStructure classLoaderStructure;
     private final File baseDir;
     private final boolean usesInternalServices;
+    private final boolean firstInBuild;
 
     public TransportableActionExecutionSpec(String implementationClassName, byte[] serializedParameters, ClassLoaderStructure classLoaderStructure, File baseDir, boolean usesInternalServices) {
+        this(implementationClassName, serializedParameters, classLoaderStructure, baseDir, usesInternalServices, false);
+    }
+
+    public TransportableActionExecutionSpec(String implementationClassName, byte[] serializedParameters, ClassLoaderStructure classLoaderStructure, File baseDir, boolean usesInternalServices, boolean firstInBuild) {
         this.implementationClassName = implementationClassName;
         this.serializedParameters = serializedParameters;
         this.classLoaderStructure = classLoaderStructure;
         this.baseDir = baseDir;
         this.usesInternalServices = usesInternalServices;
+        this.firstInBuild = firstInBuild;
+    }
+
+    /**
+     * Returns a copy of this spec which is the first work item a worker daemon receives in the current build.
+     */
+    public TransportableActionExecutionSpec asFirstInBuild() {
+        return new TransportableActionExecutionSpec(implementationClassName, serializedParameters, classLoaderStructure, baseDir, usesInternalServices, true);
     }
 
     public File getBaseDir() {
@@ -41,6 +54,13 @@ public boolean isInternalServicesRequired() {
         return usesInternalServices;
     }
 
+    /**
+     * Whether this is the first work item the worker daemon receives in the current build, so that it can discard the state it kept for the previous build.
+     */
+    public boolean isFirstInBuild() {
+        return firstInBuild;
+    }
+
     public ClassLoaderStructure getClassLoaderStructure() {
         return classLoaderStructure;
     }
@@ -22,21 +22,37 @@
 
 import java.io.File;
 
+/**
+ * Serializes work items sent to a worker daemon.
+ *
+ * <p>An instance is used for a single connection, and remembers the last hierarchical classloader structure written and read. Consecutive work items
+ * sent to the same daemon almost always share their classloader structure, so it is sent only when it changes.</p>
+ */
 public class TransportableActionExecutionSpecSerializer implements Serializer<TransportableActionExecutionSpec> {
     private static final byte FLAT = (byte) 0;
     private static final byte HIERARCHICAL = (byte) 1;
+    private static final byte SAME_AS_PREVIOUS = (byte) 2;
 
     private final Serializer<HierarchicalClassLoaderStructure> hierarchicalClassLoaderStructureSerializer = new HierarchicalClassLoaderStructureSerializer();
+    private HierarchicalClassLoaderStructure lastWrittenClassLoaderStructure;
+    private HierarchicalClassLoaderStructure lastReadClassLoaderStructure;
 
     @Override
     public void write(Encoder encoder, TransportableActionExecutionSpec spec) throws Exception {
         encoder.writeString(spec.getImplementationClassName());
         encoder.writeBoolean(spec.isInternalServicesRequired());
+        encoder.writeBoolean(spec.isFirstInBuild());
         encoder.writeString(spec.getBaseDir().getAbsolutePath());
         encoder.writeBinary(spec.getSerializedParameters());
         if (spec.getClassLoaderStructure() instanceof HierarchicalClassLoaderStructure) {
-            encoder.writeByte(HIERARCHICAL);
-            hierarchicalClassLoaderStructureSerializer.write(encoder, (HierarchicalClassLoaderStructure) spec.getClassLoaderStructure());
+            HierarchicalClassLoaderStructure classLoaderStructure = (HierarchicalClassLoaderStructure) spec.getClassLoaderStructure();
+            if (classLoaderStructure.equals(lastWrittenClassLoaderStructure)) {
+                encoder.writeByte(SAME_AS_PREVIOUS);
+            } else {
+                encoder.writeByte(HIERARCHICAL);
+                hierarchicalClassLoaderStructureSerializer.write(encoder, classLoaderStructure);
+                lastWrittenClassLoaderStructure = classLoaderStructure;
+            }
         } else if (spec.getClassLoaderStructure() instanceof FlatClassLoaderStructure) {
             encoder.writeByte(FLAT);
             // If the classloader structure is flat, there's no need to send the classpath
@@ -49,6 +65,7 @@ public void write(Encoder encoder, TransportableActionExecutionSpec spec) throws
     public TransportableActionExecutionSpec read(Decoder decoder) throws Exception {
         String implementationClassName = decoder.readString();
         boolean usesInternalServices = decoder.readBoolean();
+        boolean firstInBuild = decoder.readBoolean();
         String baseDirPath = decoder.readString();
         byte[] serializedParameters = decoder.readBinary();
         byte classLoaderStructureTag = decoder.readByte();
@@ -58,11 +75,18 @@ public TransportableActionExecutionSpec read(Decoder decoder) throws Exception {
                 classLoaderStructure = new FlatClassLoaderStructure(null);
                 break;
             case HIERARCHICAL:
-                classLoaderStructure = hierarchicalClassLoaderStructureSerializer.read(decoder);
+                lastReadClassLoaderStructure = hierarchicalClassLoaderStructureSerializer.read(decoder);
+                classLoaderStructure = lastReadClassLoaderStructure;
+                break;
+            case SAME_AS_PREVIOUS:
+                if (lastReadClassLoaderStructure == null) {
+                    throw new IllegalStateException("Received a reference to a previous classloader structure, but none has been received.");
+                }
+                classLoaderStructure = lastReadClassLoaderStructure;
                 break;
             default:
                 throw new IllegalArgumentException("Unexpected payload type.");
         }
-        return new TransportableActionExecutionSpec(implementationClassName, serializedParameters, classLoaderStructure, new File(baseDirPath), usesInternalServices);
+        return new TransportableActionExecutionSpec(implementationClassName, serializedParameters, classLoaderStructure, new File(baseDirPath), usesInternalServices, firstInBuild);
     }
 }
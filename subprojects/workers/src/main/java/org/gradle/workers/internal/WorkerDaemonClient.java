@@ -31,6 +31,7 @@ class WorkerDaemonClient implements Stoppable {
     private final ActionExecutionSpecFactory actionExecutionSpecFactory;
     private int uses;
     private boolean failed;
+    private boolean firstUseInBuild;
     private boolean cannotBeExpired = Boolean.getBoolean(DISABLE_EXPIRATION_PROPERTY_KEY);
 
     public WorkerDaemonClient(DaemonForkOptions forkOptions, MultiRequestClient<TransportableActionExecutionSpec, DefaultWorkResult> workerClient, WorkerProcess workerProcess, LogLevel logLevel, ActionExecutionSpecFactory actionExecutionSpecFactory) {
@@ -43,7 +44,20 @@ public WorkerDaemonClient(DaemonForkOptions forkOptions, MultiRequestClient<Tran
 
     public DefaultWorkResult execute(IsolatedParametersActionExecutionSpec<?> spec) {
         uses++;
-        return workerClient.run(actionExecutionSpecFactory.newTransportableSpec(spec));
+        TransportableActionExecutionSpec transportableSpec = actionExecutionSpecFactory.newTransportableSpec(spec);
+        if (firstUseInBuild) {
+            transportableSpec = transportableSpec.asFirstInBuild();
+            firstUseInBuild = false;
+        }
+        return workerClient.run(transportableSpec);
+    }
+
+    /**
+     * Called at the end of a build for a daemon which outlives it, so that the daemon discards the services it kept for the work of this build
+     * when it receives its next work item.
+     */
+    public void buildFinished() {
+        firstUseInBuild = true;
     }
 
     public boolean isCompatibleWith(DaemonForkOptions required) {
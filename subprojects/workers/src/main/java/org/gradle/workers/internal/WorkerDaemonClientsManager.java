@@ -24,6 +24,8 @@
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.SessionLifecycleListener;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
@@ -33,18 +35,28 @@
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.OsMemoryInfo;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 import static java.util.Comparator.*;
 
 public class WorkerDaemonClientsManager implements Stoppable {
+    /**
+     * The number of idle worker daemons to start at the beginning of a build for each set of fork options used by the previous build.
+     */
+    public static final String PRESTARTED_DAEMONS_PROPERTY_KEY = "org.gradle.workers.internal.prestarted-daemons";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
+    // Same free memory the memory manager keeps when expiring daemons, so that pre-started daemons are not expired right away
+    private static final double MIN_FREE_MEMORY_PERCENTAGE = 0.1D;
+    private static final long MIN_FREE_MEMORY_BYTES = 384 * 1024 * 1024;
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
@@ -59,10 +71,24 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    private final ExecutorFactory executorFactory;
+    private final IntSupplier prestartedDaemons;
+    private final List<DaemonForkOptions> forkOptionsUsedInSession = new ArrayList<DaemonForkOptions>();
+    private final List<DaemonForkOptions> prestartingDaemons = new ArrayList<DaemonForkOptions>();
+    private List<DaemonForkOptions> forkOptionsUsedInPreviousSession = Collections.emptyList();
+    private ManagedExecutor prestartExecutor;
+    private int reusedClients;
+    private int startedClients;
     private volatile LogLevel currentLogLevel;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo, ExecutorFactory executorFactory) {
+        this(workerDaemonStarter, listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory, () -> Integer.getInteger(PRESTARTED_DAEMONS_PROPERTY_KEY, 0));
+    }
+
+    WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo, ExecutorFactory executorFactory, IntSupplier prestartedDaemons) {
         this.workerDaemonStarter = workerDaemonStarter;
+        this.executorFactory = executorFactory;
+        this.prestartedDaemons = prestartedDaemons;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
         this.memoryInfo = memoryInfo;
@@ -83,33 +109,124 @@ public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
+            recordForkOptions(forkOptions);
+            while (true) {
+                Iterator<WorkerDaemonClient> it = clients.iterator();
+                while (it.hasNext()) {
+                    WorkerDaemonClient candidate = it.next();
+                    if (candidate.isCompatibleWith(forkOptions)) {
+                        it.remove();
+                        if (candidate.getLogLevel() != currentLogLevel) {
+                            // TODO: Send a message to workers to change their log level rather than stopping
+                            LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
+                            candidate.stop();
+                        } else {
+                            reusedClients++;
+                            return candidate;
+                        }
                     }
                 }
+                if (!isPrestarting(forkOptions)) {
+                    return null;
+                }
+                // A compatible daemon is being pre-started: wait for it rather than starting another one
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+    }
+
+    private boolean isPrestarting(DaemonForkOptions forkOptions) {
+        for (DaemonForkOptions prestarting : prestartingDaemons) {
+            if (prestarting.isCompatibleWith(forkOptions)) {
+                return true;
             }
-            return null;
         }
+        return false;
     }
 
     public WorkerDaemonClient reserveNewClient(DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(forkOptions, workerProcessCleanupAction);
         synchronized (lock) {
+            recordForkOptions(forkOptions);
+            startedClients++;
             allClients.add(client);
         }
         return client;
     }
 
+    private void recordForkOptions(DaemonForkOptions forkOptions) {
+        if (forkOptions.getKeepAliveMode() != KeepAliveMode.DAEMON) {
+            // Session scoped daemons do not survive the build, so there is no point in starting them early
+            return;
+        }
+        for (DaemonForkOptions usedForkOptions : forkOptionsUsedInSession) {
+            if (usedForkOptions.isCompatibleWith(forkOptions)) {
+                return;
+            }
+        }
+        forkOptionsUsedInSession.add(forkOptions);
+    }
+
+    private void prestartDaemons(List<DaemonForkOptions> forkOptionsToStart, int prestartedDaemons) {
+        for (DaemonForkOptions forkOptions : forkOptionsToStart) {
+            while (true) {
+                synchronized (lock) {
+                    // Daemons which are still starting count as available
+                    int available = CollectionUtils.filter(idleClients, client -> client.isCompatibleWith(forkOptions)).size()
+                        + CollectionUtils.filter(prestartingDaemons, prestarting -> prestarting.isCompatibleWith(forkOptions)).size();
+                    if (available >= prestartedDaemons) {
+                        break;
+                    }
+                    if (!hasFreeMemoryFor(forkOptions)) {
+                        LOGGER.info("Not enough free memory to pre-start worker daemons with fork options {}.", forkOptions);
+                        return;
+                    }
+                    prestartingDaemons.add(forkOptions);
+                }
+                try {
+                    WorkerDaemonClient client = workerDaemonStarter.startDaemon(forkOptions, workerProcessCleanupAction);
+                    synchronized (lock) {
+                        allClients.add(client);
+                        idleClients.add(client);
+                    }
+                } catch (Exception e) {
+                    LOGGER.info("Could not pre-start worker daemon with fork options {}.", forkOptions, e);
+                    return;
+                } finally {
+                    synchronized (lock) {
+                        prestartingDaemons.remove(forkOptions);
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a daemon with the given fork options, and the daemons still being pre-started, fit in the free memory of the machine
+     * without going below the threshold at which the memory manager expires idle daemons.
+     */
+    private boolean hasFreeMemoryFor(DaemonForkOptions forkOptions) {
+        OsMemoryStatus osMemoryStatus;
+        try {
+            osMemoryStatus = memoryInfo.getOsSnapshot();
+        } catch (UnsupportedOperationException e) {
+            // Idle daemons cannot be expired either, so do not add any
+            return false;
+        }
+        long required = workerDaemonExpiration.estimateMemoryUsage(forkOptions);
+        for (DaemonForkOptions prestarting : prestartingDaemons) {
+            required += workerDaemonExpiration.estimateMemoryUsage(prestarting);
+        }
+        long threshold = Math.max(MIN_FREE_MEMORY_BYTES, (long) (osMemoryStatus.getTotalPhysicalMemory() * MIN_FREE_MEMORY_PERCENTAGE));
+        return osMemoryStatus.getFreePhysicalMemory() - required >= threshold;
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             if (!client.isFailed()) {
@@ -120,6 +237,15 @@ public void release(WorkerDaemonClient client) {
 
     @Override
     public void stop() {
+        ManagedExecutor executor;
+        synchronized (lock) {
+            executor = prestartExecutor;
+            prestartExecutor = null;
+        }
+        if (executor != null) {
+            // Wait for any daemons being started, so that they are stopped below
+            executor.stop();
+        }
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
@@ -182,13 +308,40 @@ private void stopWorkers(List<WorkerDaemonClient> clientsToStop) {
 
     private class StopSessionScopedWorkers implements SessionLifecycleListener {
         @Override
-        public void afterStart() { }
+        public void afterStart() {
+            // Read for each build, as this service outlives the build that created it and the property can change between builds
+            int prestartedDaemons = WorkerDaemonClientsManager.this.prestartedDaemons.getAsInt();
+            if (prestartedDaemons <= 0) {
+                return;
+            }
+            synchronized (lock) {
+                if (forkOptionsUsedInPreviousSession.isEmpty()) {
+                    return;
+                }
+                List<DaemonForkOptions> forkOptionsToStart = forkOptionsUsedInPreviousSession;
+                if (prestartExecutor == null) {
+                    prestartExecutor = executorFactory.create("Worker daemon pre-start");
+                }
+                prestartExecutor.execute(() -> prestartDaemons(forkOptionsToStart, prestartedDaemons));
+            }
+        }
 
         @Override
         public void beforeComplete() {
             synchronized (lock) {
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, client -> client.getKeepAliveMode() == KeepAliveMode.SESSION);
                 stopWorkers(sessionScopedClients);
+                for (WorkerDaemonClient client : allClients) {
+                    client.buildFinished();
+                }
+
+                if (reusedClients + startedClients > 0) {
+                    LOGGER.info("Worker daemons used by this build: {} reused, {} started.", reusedClients, startedClients);
+                }
+                reusedClients = 0;
+                startedClients = 0;
+                forkOptionsUsedInPreviousSession = new ArrayList<DaemonForkOptions>(forkOptionsUsedInSession);
+                forkOptionsUsedInSession.clear();
             }
         }
     }
@@ -30,6 +30,8 @@
 import org.gradle.api.resources.ResourceHandler;
 import org.gradle.api.resources.TextResourceFactory;
 import org.gradle.initialization.LegacyTypesSupport;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
@@ -51,12 +53,17 @@
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-public class WorkerDaemonServer implements RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult> {
+public class WorkerDaemonServer implements RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult>, Stoppable {
     private final ServiceRegistry internalServices;
     private final LegacyTypesSupport legacyTypesSupport;
     private final ActionExecutionSpecFactory actionExecutionSpecFactory;
     private final InstantiatorFactory instantiatorFactory;
+    private final Map<File, WorkerProjectServices> projectServicesByBaseDir = new HashMap<>();
     private ClassLoader workerClassLoader;
 
     @Inject
@@ -80,15 +87,40 @@ static ServiceRegistry createWorkerDaemonServices(ServiceRegistry parent) {
     @Override
     public DefaultWorkResult run(TransportableActionExecutionSpec spec) {
         try {
-            try (WorkerProjectServices internalServices = new WorkerProjectServices(spec.getBaseDir(), this.internalServices)) {
-                RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult> worker = getIsolatedClassloaderWorker(spec.getClassLoaderStructure(), internalServices);
-                return worker.run(spec);
-            }
+            RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult> worker = getWorkerFor(spec);
+            return worker.run(spec);
         } catch (Throwable t) {
             return new DefaultWorkResult(true, t);
         }
     }
 
+    /**
+     * Reuses the project services of previous work items of the same build with the same base directory,
+     * as creating them is more expensive than running many small work items. The services are discarded
+     * when the first work item of the next build is received.
+     */
+    private synchronized RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult> getWorkerFor(TransportableActionExecutionSpec spec) {
+        if (spec.isFirstInBuild()) {
+            closeProjectServices();
+        }
+        WorkerProjectServices projectServices = projectServicesByBaseDir.computeIfAbsent(spec.getBaseDir(), baseDir -> new WorkerProjectServices(baseDir, this.internalServices));
+        return getIsolatedClassloaderWorker(spec.getClassLoaderStructure(), projectServices);
+    }
+
+    private void closeProjectServices() {
+        List<WorkerProjectServices> previousProjectServices = new ArrayList<>(projectServicesByBaseDir.values());
+        projectServicesByBaseDir.clear();
+        CompositeStoppable.stoppable(previousProjectServices).stop();
+    }
+
+    /**
+     * Called when the worker daemon stops.
+     */
+    @Override
+    public synchronized void stop() {
+        closeProjectServices();
+    }
+
     private RequestHandler<TransportableActionExecutionSpec, DefaultWorkResult> getIsolatedClassloaderWorker(ClassLoaderStructure classLoaderStructure, ServiceRegistry workServices) {
         if (classLoaderStructure instanceof FlatClassLoaderStructure) {
             return new FlatClassLoaderWorker(this.getClass().getClassLoader(), workServices, actionExecutionSpecFactory, instantiatorFactory);
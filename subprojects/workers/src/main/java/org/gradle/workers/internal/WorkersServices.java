@@ -83,8 +83,9 @@ WorkerDaemonClientsManager createWorkerDaemonClientsManager(WorkerProcessFactory
                                                                     MemoryManager memoryManager,
                                                                     OsMemoryInfo memoryInfo,
                                                                     ClassPathRegistry classPathRegistry,
-                                                                    ActionExecutionSpecFactory actionExecutionSpecFactory) {
-            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory), listenerManager, loggingManager, memoryManager, memoryInfo);
+                                                                    ActionExecutionSpecFactory actionExecutionSpecFactory,
+                                                                    ExecutorFactory executorFactory) {
+            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory), listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory);
         }
 
         ClassLoaderStructureProvider createClassLoaderStructureProvider(ClassLoaderRegistry classLoaderRegistry) {
@@ -68,6 +68,49 @@ class TransportableActionExecutionSpecSerializerTest extends Specification {
         decodedSpec.internalServicesRequired
     }
 
+    def "can serialize and deserialize the first spec of a build"() {
+        def spec = new TransportableActionExecutionSpec(Runnable.class.name, bytes, flatClassLoaderStructure(), new File("/foo"), usesInternalServices).asFirstInBuild()
+
+        when:
+        serializer.write(encoder, spec)
+        encoder.flush()
+
+        and:
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray()))
+        def decodedSpec = serializer.read(decoder)
+
+        then:
+        decodedSpec.firstInBuild
+        decodedSpec.implementationClassName == spec.implementationClassName
+        decodedSpec.serializedParameters == spec.serializedParameters
+    }
+
+    def "sends a hierarchical classloader structure only when it changes"() {
+        def structure = classLoaderStructure()
+        def otherStructure = new HierarchicalClassLoaderStructure(filteringClassloaderSpec())
+        def specs = [structure, classLoaderStructure(), otherStructure, otherStructure].collect {
+            new TransportableActionExecutionSpec(Runnable.class.name, bytes, it, new File("/foo"), usesInternalServices)
+        }
+
+        when:
+        def sizes = specs.collect {
+            def sizeBefore = encoder.writePosition
+            serializer.write(encoder, it)
+            encoder.writePosition - sizeBefore
+        }
+        encoder.flush()
+
+        and:
+        def reader = new TransportableActionExecutionSpecSerializer()
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray()))
+        def decodedSpecs = specs.collect { reader.read(decoder) }
+
+        then:
+        sizes[1] < sizes[0]
+        sizes[3] < sizes[2]
+        decodedSpecs*.classLoaderStructure == [structure, structure, otherStructure, otherStructure]
+    }
+
     def filteringClassloaderSpec() {
         def classNames = [ 'allowed.Class1', 'allowed.Class2' ]
         def disallowedClassNames = [ 'disallowed.Class1', 'disallowed.Class2' ]
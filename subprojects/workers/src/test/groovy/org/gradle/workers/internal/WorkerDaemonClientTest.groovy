@@ -18,6 +18,7 @@ package org.gradle.workers.internal
 
 import org.gradle.api.logging.LogLevel
 import org.gradle.process.internal.worker.MultiRequestClient
+import org.gradle.process.internal.worker.WorkerProcess
 import org.gradle.workers.WorkAction
 import org.gradle.workers.WorkParameters
 import spock.lang.Specification
@@ -48,6 +49,32 @@ class WorkerDaemonClientTest extends Specification {
         client.uses == 5
     }
 
+    def "marks the first work item sent after the end of a build"() {
+        def workerDaemonProcess = Mock(MultiRequestClient)
+        def transportableSpec = new TransportableActionExecutionSpec(TestWorkAction.name, new byte[0], null, new File("/foo"), false)
+        def actionExecutionSpecFactory = Stub(ActionExecutionSpecFactory) {
+            newTransportableSpec(_) >> transportableSpec
+        }
+        def client = new WorkerDaemonClient(Mock(DaemonForkOptions), workerDaemonProcess, Mock(WorkerProcess), LogLevel.INFO, actionExecutionSpecFactory)
+
+        when:
+        client.execute(spec())
+
+        then:
+        1 * workerDaemonProcess.run({ !it.firstInBuild })
+
+        when:
+        client.buildFinished()
+        client.execute(spec())
+        client.execute(spec())
+
+        then:
+        1 * workerDaemonProcess.run({ it.firstInBuild })
+
+        then:
+        1 * workerDaemonProcess.run({ !it.firstInBuild })
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(MultiRequestClient))
     }
@@ -19,6 +19,8 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.exceptions.DefaultMultiCauseException
@@ -26,21 +28,34 @@ import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.service.scopes.Scopes
+import org.gradle.process.JavaForkOptions
 import org.gradle.process.internal.ExecException
 import org.gradle.process.internal.health.memory.MBeanOsMemoryInfo
 import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryInfo
+import org.gradle.process.internal.health.memory.OsMemoryStatusSnapshot
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.function.IntSupplier
+
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def options = Stub(DaemonForkOptions)
     def starter = Stub(WorkerDaemonStarter)
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
     def memoryManager = Mock(MemoryManager)
+    def executorFactory = Stub(ExecutorFactory)
+    def daemonOptions = Stub(DaemonForkOptions) {
+        getKeepAliveMode() >> KeepAliveMode.DAEMON
+        getJavaForkOptions() >> Stub(JavaForkOptions) { getMaxHeapSize() >> "512m" }
+        isCompatibleWith(_) >> true
+    }
 
     @Subject
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -149,7 +164,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager(Scopes.BuildSession)
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(options, _) >>> [client1, client2]
@@ -168,7 +183,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager(Scopes.BuildSession)
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(options, _) >>> [client1, client2]
@@ -185,6 +200,175 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
     }
 
+    def "tells clients which outlive the build that the build has finished"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
+        def client1 = Mock(WorkerDaemonClient)
+        def client2 = Mock(WorkerDaemonClient)
+        starter.startDaemon(options, _) >>> [client1, client2]
+
+        when:
+        manager.reserveNewClient(options)
+        manager.release(manager.reserveNewClient(options))
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        _ * client1.getKeepAliveMode() >> KeepAliveMode.SESSION
+        _ * client2.getKeepAliveMode() >> KeepAliveMode.DAEMON
+        1 * client1.stop()
+        0 * client1.buildFinished()
+        1 * client2.buildFinished()
+    }
+
+    def "starts idle clients at the beginning of a build for fork options used by the previous build"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo(16 * GB, 8 * GB), executorFactory, { 2 } as IntSupplier)
+        def client1 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def client2 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(daemonOptions, _) >>> [client1, client2]
+        def sessionLifecycle = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.release(manager.reserveNewClient(daemonOptions))
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+
+        then:
+        manager.reserveIdleClient(daemonOptions) == client1
+        manager.reserveIdleClient(daemonOptions) == client2
+        manager.reserveIdleClient(daemonOptions) == null
+    }
+
+    def "uses the number of idle clients to start that is set for each build"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+        def prestartedDaemons = 0
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo(16 * GB, 8 * GB), executorFactory, { prestartedDaemons } as IntSupplier)
+        def prestartedClient = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(daemonOptions, _) >>> [Stub(WorkerDaemonClient), Stub(WorkerDaemonClient), prestartedClient]
+        def sessionLifecycle = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(daemonOptions)
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+
+        then:
+        manager.reserveIdleClient(daemonOptions) == null
+
+        when:
+        manager.reserveNewClient(daemonOptions)
+        prestartedDaemons = 1
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+
+        then:
+        manager.reserveIdleClient(daemonOptions) == prestartedClient
+        manager.reserveIdleClient(daemonOptions) == null
+    }
+
+    def "does not start idle clients at the beginning of a build when there is not enough free memory"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+        // 1.6g must stay free, so there is only room for a single 512m daemon, which then uses some of the free memory
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo(16 * GB, 2 * GB + 256 * MB, 2 * GB - 256 * MB), executorFactory, { 3 } as IntSupplier)
+        def client1 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def client2 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def busyClient = Stub(WorkerDaemonClient)
+        starter.startDaemon(daemonOptions, _) >>> [busyClient, client1, client2]
+        def sessionLifecycle = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(daemonOptions)
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+
+        then:
+        manager.reserveIdleClient(daemonOptions) == client1
+        manager.reserveIdleClient(daemonOptions) == null
+    }
+
+    def "does not start idle clients at the beginning of a build when free memory is unknown"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+        def memoryInfo = Stub(OsMemoryInfo) {
+            getOsSnapshot() >> { throw new UnsupportedOperationException() }
+        }
+        def starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory, { 2 } as IntSupplier)
+        def sessionLifecycle = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(daemonOptions)
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+
+        then:
+        1 * starter.startDaemon(daemonOptions, _) >> Stub(WorkerDaemonClient)
+        0 * starter._
+    }
+
+    def "counts daemons which are still starting as available and waits for them when reserving an idle client"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        def prestartThreads = []
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action ->
+                def thread = new Thread(action)
+                prestartThreads << thread
+                thread.start()
+            }
+        }
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo(16 * GB, 8 * GB), executorFactory, { 1 } as IntSupplier)
+        def busyClient = Stub(WorkerDaemonClient)
+        def prestartedClient = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def starting = new CountDownLatch(1)
+        def started = new CountDownLatch(1)
+        def starts = 0
+        starter.startDaemon(daemonOptions, _) >> {
+            starts++
+            if (starts == 1) {
+                return busyClient
+            }
+            starting.countDown()
+            started.await()
+            return prestartedClient
+        }
+        def sessionLifecycle = listenerManager.getBroadcaster(SessionLifecycleListener)
+        WorkerDaemonClient reserved = null
+        def reserve = new Thread({ reserved = manager.reserveIdleClient(daemonOptions) })
+
+        when:
+        manager.reserveNewClient(daemonOptions)
+        sessionLifecycle.beforeComplete()
+        sessionLifecycle.afterStart()
+        starting.await(10, TimeUnit.SECONDS)
+        // Starting again does not start another daemon while the first one is starting
+        sessionLifecycle.afterStart()
+        prestartThreads[1].join(10000)
+        reserve.start()
+        reserve.join(200)
+
+        then:
+        reserve.alive
+
+        when:
+        started.countDown()
+        reserve.join(10000)
+
+        then:
+        reserved == prestartedClient
+        starts == 2
+    }
+
     def "clients can be released for further use"() {
         def client = Mock(WorkerDaemonClient) {
             isCompatibleWith(_) >> true
@@ -216,7 +400,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         listener != null
@@ -293,7 +477,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         WorkerDaemonExpiration workerDaemonExpiration
 
         when:
-        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
@@ -304,4 +488,15 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         then:
         1 * memoryManager.removeMemoryHolder(_) >> { args -> assert args[0] == workerDaemonExpiration }
     }
+
+    private static final long MB = 1024 * 1024
+    private static final long GB = 1024 * MB
+
+    private OsMemoryInfo memoryInfo(long total, long... free) {
+        def snapshots = free.collect { new OsMemoryStatusSnapshot(total, it) }
+        return Stub(OsMemoryInfo) {
+            // The first snapshot is taken when creating the manager
+            getOsSnapshot() >>> [snapshots[0]] + snapshots
+        }
+    }
 }